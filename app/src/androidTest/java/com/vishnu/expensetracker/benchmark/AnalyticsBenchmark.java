@@ -0,0 +1,74 @@
+package com.vishnu.expensetracker.benchmark;
+
+import android.content.Context;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.vishnu.expensetracker.database.ExpenseDao;
+import com.vishnu.expensetracker.models.Expense;
+import com.vishnu.expensetracker.repository.AnalyticsRepository;
+import com.vishnu.expensetracker.utils.DateUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * Analytics screen load for one month: the eleven sequential DAO calls AnalyticsActivity made
+ * before AnalyticsSnapshot, against AnalyticsRepository.loadSnapshot, at each ledger size
+ * (see SyntheticLedger.sizes()). Report: analytics-<rows>-<time>.json.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AnalyticsBenchmark {
+
+    private static final String DATABASE_NAME = "benchmark_analytics";
+
+    @Test
+    public void sequentialCallsAgainstSnapshot() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        for (int rows : SyntheticLedger.sizes()) {
+            try (SyntheticLedger ledger = SyntheticLedger.create(context, DATABASE_NAME, rows)) {
+                BenchmarkReport report = new BenchmarkReport("analytics-" + rows).put("rows", rows);
+                ExpenseDao dao = ledger.database.expenseDao();
+                AnalyticsRepository repository = new AnalyticsRepository(ledger.database);
+                report.add(Benchmark.measure("analytics", "sequentialDaoCalls",
+                        () -> loadSequentially(dao, ledger.year, ledger.month)), "rows", rows);
+                report.add(Benchmark.measure("analytics", "loadSnapshot",
+                        () -> repository.loadSnapshot(ledger.year, ledger.month)), "rows", rows);
+                report.write(context);
+            }
+        }
+    }
+
+    // The body of AnalyticsActivity.loadAnalyticsData before AnalyticsSnapshot (results kept, not rendered)
+    private static Object[] loadSequentially(ExpenseDao expenseDao, int year, int month) {
+        long startOfMonth = DateUtils.getStartOfMonth(year, month);
+        long endOfMonth = DateUtils.getEndOfMonth(year, month);
+
+        double totalIncome = expenseDao.getTotalByTypeAndDateRange("income", startOfMonth, endOfMonth);
+        double totalExpenses = expenseDao.getTotalByTypeAndDateRange("expense", startOfMonth, endOfMonth);
+
+        List<ExpenseDao.DailyExpenseSum> dailyExpenses = expenseDao.getDailyExpenseTotals(startOfMonth, endOfMonth);
+        double avgDaily = totalExpenses > 0 ? expenseDao.getAverageDailyExpense(startOfMonth, endOfMonth) : 0;
+
+        long fourWeeksAgo = DateUtils.getStartOfFourWeeksAgo();
+        List<ExpenseDao.WeeklyExpenseSum> weeklyExpenses = expenseDao.getWeeklyExpenseTotals(fourWeeksAgo, endOfMonth);
+
+        List<ExpenseDao.NeedsWantsSum> needsWants = expenseDao.getNeedsVsWantsTotals(startOfMonth, endOfMonth);
+        List<ExpenseDao.CategoryExpenseSum> topCategories = expenseDao.getTopSpendingCategories(startOfMonth, endOfMonth, 5);
+
+        int transactionCount = expenseDao.getTransactionCount("expense", startOfMonth, endOfMonth);
+        Expense highestExpense = expenseDao.getHighestExpense(startOfMonth, endOfMonth);
+
+        Calendar lastMonthCal = Calendar.getInstance();
+        lastMonthCal.set(Calendar.DAY_OF_MONTH, 1);
+        lastMonthCal.set(Calendar.YEAR, year);
+        lastMonthCal.set(Calendar.MONTH, month);
+        lastMonthCal.add(Calendar.MONTH, -1);
+        long startOfLastMonth = DateUtils.getStartOfMonth(lastMonthCal.get(Calendar.YEAR), lastMonthCal.get(Calendar.MONTH));
+        long endOfLastMonth = DateUtils.getEndOfMonth(lastMonthCal.get(Calendar.YEAR), lastMonthCal.get(Calendar.MONTH));
+        double lastMonthExpenses = expenseDao.getTotalByTypeAndDateRange("expense", startOfLastMonth, endOfLastMonth);
+
+        return new Object[]{totalIncome, totalExpenses, dailyExpenses, avgDaily, weeklyExpenses, needsWants,
+                topCategories, transactionCount, highestExpense, lastMonthExpenses};
+    }
+}
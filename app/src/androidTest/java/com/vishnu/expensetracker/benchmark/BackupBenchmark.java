@@ -0,0 +1,147 @@
+package com.vishnu.expensetracker.benchmark;
+
+import android.content.Context;
+import android.database.Cursor;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.vishnu.expensetracker.backup.BackupEngine;
+import com.vishnu.expensetracker.database.TransactionWriter;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * BackupEngine against the alternative of copying the SQLite file, at each ledger size
+ * The copy is taken after a WAL checkpoint (database file plus whatever WAL is left), as a
+ * plain and a gzip copy; the backup side is a full backup and its verify, an incremental backup
+ * after CHANGED_FRACTION of the ledger is added, and a restore of the full backup. Each step runs once on
+ * the write thread (one pass is long enough to time on its own).
+ * Report: backup-<rows>-<time>.json.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BackupBenchmark {
+
+    private static final String DATABASE_NAME = "benchmark_backup";
+    private static final double CHANGED_FRACTION = 0.01;
+
+    @Test
+    public void backupAgainstFileCopy() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        File backup = new File(context.getCacheDir(), "benchmark_backup.etbk");
+        File incrementalBackup = new File(context.getCacheDir(), "benchmark_backup_incr.etbk");
+        File copy = new File(context.getCacheDir(), "benchmark_backup.db");
+        try {
+            for (int rows : SyntheticLedger.sizes()) {
+                try (SyntheticLedger ledger = SyntheticLedger.create(context, DATABASE_NAME, rows)) {
+                    BenchmarkReport report = new BenchmarkReport("backup-" + rows).put("rows", rows);
+                    BackupEngine engine = new BackupEngine(ledger.database);
+
+                    for (boolean gzip : new boolean[]{false, true}) {
+                        String prefix = gzip ? "file_copy_gzip." : "file_copy.";
+                        long start = System.nanoTime();
+                        long bytes = SyntheticLedger.onWriteThread(() -> copyDatabase(ledger, copy, gzip));
+                        report.put(prefix + "ms", (System.nanoTime() - start) / 1_000_000);
+                        report.put(prefix + "bytes", bytes);
+                    }
+
+                    long start = System.nanoTime();
+                    BackupEngine.Summary full = SyntheticLedger.onWriteThread(() -> {
+                        try (OutputStream out = new FileOutputStream(backup)) {
+                            return engine.backupFull(out);
+                        }
+                    });
+                    report.put("full.ms", (System.nanoTime() - start) / 1_000_000);
+                    report.put("full.bytes", backup.length());
+                    report.put("full.rows", full.getRowCount());
+
+                    start = System.nanoTime();
+                    SyntheticLedger.onWriteThread(() -> {
+                        try (InputStream in = new FileInputStream(backup)) {
+                            return engine.verify(in);
+                        }
+                    });
+                    report.put("verify.ms", (System.nanoTime() - start) / 1_000_000);
+
+                    int changed = Math.max(1, (int) (rows * CHANGED_FRACTION));
+                    SyntheticLedger.onWriteThread(() -> {
+                        try (TransactionWriter.BulkWrite bulk = new TransactionWriter(ledger.database).beginBulkWrite()) {
+                            bulk.insertBatch(ledger.generate(changed));
+                        }
+                        return null;
+                    });
+                    start = System.nanoTime();
+                    BackupEngine.Summary incremental = SyntheticLedger.onWriteThread(() -> {
+                        try (OutputStream out = new FileOutputStream(incrementalBackup)) {
+                            return engine.backupIncremental(out, full.getSnapshotTime());
+                        }
+                    });
+                    report.put("incremental.changed_rows", changed);
+                    report.put("incremental.ms", (System.nanoTime() - start) / 1_000_000);
+                    report.put("incremental.bytes", incrementalBackup.length());
+                    report.put("incremental.rows", incremental.getRowCount());
+
+                    // Last: restoring rewrites every row, so an incremental taken after it would carry them all
+                    start = System.nanoTime();
+                    SyntheticLedger.onWriteThread(() -> engine.restore(() -> new FileInputStream(backup)));
+                    report.put("restore.ms", (System.nanoTime() - start) / 1_000_000);
+                    report.write(context);
+                }
+            }
+        } finally {
+            backup.delete();
+            incrementalBackup.delete();
+            copy.delete();
+        }
+    }
+
+    // Checkpoint, then copy the database file and any WAL left to target; returns the bytes written
+    private static long copyDatabase(SyntheticLedger ledger, File target, boolean gzip) throws IOException {
+        try (Cursor cursor = ledger.database.getOpenHelper().getWritableDatabase()
+                .query("PRAGMA wal_checkpoint(TRUNCATE)")) {
+            cursor.moveToFirst();
+        }
+        File database = ledger.getFile();
+        File wal = new File(database.getPath() + "-wal");
+        if (!gzip) {
+            try (FileChannel out = new FileOutputStream(target).getChannel()) {
+                transfer(database, out);
+                if (wal.exists()) {
+                    transfer(wal, out);
+                }
+            }
+            return target.length();
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(target), buffer.length)) {
+            for (File file : new File[]{database, wal}) {
+                if (!file.exists()) {
+                    continue;
+                }
+                try (InputStream in = new FileInputStream(file)) {
+                    int read;
+                    while ((read = in.read(buffer)) > 0) {
+                        out.write(buffer, 0, read);
+                    }
+                }
+            }
+        }
+        return target.length();
+    }
+
+    private static void transfer(File source, FileChannel out) throws IOException {
+        try (FileChannel in = new FileInputStream(source).getChannel()) {
+            long position = 0;
+            long size = in.size();
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.vishnu.expensetracker.benchmark;
+
+import android.os.SystemClock;
+
+/**
+ * Minimal JMH-style average-time harness
+ * Each case gets WARMUP_ITERATIONS untimed and MEASURED_ITERATIONS timed iterations. An
+ * iteration calls the body until ITERATION_MILLIS have passed (at least once), and scores
+ * ns/op. The reported error is the 99.9% confidence half-width over the measured iterations,
+ * as JMH prints it. Body results feed a sink so the work cannot be optimized away.
+ */
+public final class Benchmark {
+
+    public static final int WARMUP_ITERATIONS = 3;
+    public static final int MEASURED_ITERATIONS = 5;
+    public static final long ITERATION_MILLIS = 200;
+    // Student's t for a two-sided 99.9% interval with MEASURED_ITERATIONS - 1 degrees of freedom
+    private static final double T_999 = 8.610;
+
+    private static volatile int sink;
+
+    private Benchmark() {}
+
+    /**
+     * One benchmarked operation; the return value is consumed by the harness
+     */
+    public interface Body {
+        Object run() throws Exception;
+    }
+
+    /**
+     * Score of one case, in ns/op
+     */
+    public static final class Result {
+        public final String group;
+        public final String name;
+        public final double score;
+        public final double error;
+        public final double min;
+        public final double max;
+        public final long operations;
+
+        Result(String group, String name, double[] iterations, long operations) {
+            double sum = 0;
+            double lowest = Double.MAX_VALUE;
+            double highest = 0;
+            for (double value : iterations) {
+                sum += value;
+                lowest = Math.min(lowest, value);
+                highest = Math.max(highest, value);
+            }
+            double mean = sum / iterations.length;
+            double squares = 0;
+            for (double value : iterations) {
+                squares += (value - mean) * (value - mean);
+            }
+            double stdDev = Math.sqrt(squares / (iterations.length - 1));
+            this.group = group;
+            this.name = name;
+            this.score = mean;
+            this.error = T_999 * stdDev / Math.sqrt(iterations.length);
+            this.min = lowest;
+            this.max = highest;
+            this.operations = operations;
+        }
+    }
+
+    public static Result measure(String group, String name, Body body) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            iteration(body, null);
+        }
+        double[] scores = new double[MEASURED_ITERATIONS];
+        long[] operations = new long[1];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            scores[i] = iteration(body, operations);
+        }
+        return new Result(group, name, scores, operations[0]);
+    }
+
+    // ns/op over one time-boxed iteration
+    private static double iteration(Body body, long[] operations) throws Exception {
+        long deadline = SystemClock.elapsedRealtime() + ITERATION_MILLIS;
+        long ops = 0;
+        long start = System.nanoTime();
+        do {
+            Object result = body.run();
+            sink ^= result == null ? 0 : System.identityHashCode(result);
+            ops++;
+        } while (SystemClock.elapsedRealtime() < deadline);
+        long elapsed = System.nanoTime() - start;
+        if (operations != null) {
+            operations[0] += ops;
+        }
+        return elapsed / (double) ops;
+    }
+}
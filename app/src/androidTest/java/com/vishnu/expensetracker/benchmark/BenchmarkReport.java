@@ -0,0 +1,106 @@
+package com.vishnu.expensetracker.benchmark;
+
+import android.content.Context;
+import android.os.Build;
+import android.util.Log;
+import com.vishnu.expensetracker.database.ExpenseDatabase;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Results of one benchmark run, written as JSON to files/benchmarks/<name>-<time>.json
+ * The device, SDK level and database tuning are recorded with every run, and each result is
+ * also logged (tag "Benchmark") so a run can be read from logcat. Pull the files with
+ * adb shell run-as com.vishnu.expensetracker cat files/benchmarks/...
+ */
+public final class BenchmarkReport {
+
+    private static final String TAG = "Benchmark";
+    private static final String DIRECTORY = "benchmarks";
+
+    private final String name;
+    private final JSONObject root = new JSONObject();
+    private final JSONArray results = new JSONArray();
+
+    public BenchmarkReport(String name) {
+        this.name = name;
+        try {
+            root.put("benchmark", name);
+            root.put("created_at", System.currentTimeMillis());
+            root.put("device", Build.MANUFACTURER + " " + Build.MODEL);
+            root.put("sdk", Build.VERSION.SDK_INT);
+            root.put("tuning", String.valueOf(ExpenseDatabase.getTuning()));
+            root.put("warmup_iterations", Benchmark.WARMUP_ITERATIONS);
+            root.put("measured_iterations", Benchmark.MEASURED_ITERATIONS);
+            root.put("iteration_ms", Benchmark.ITERATION_MILLIS);
+            root.put("results", results);
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Record a fact about the run (ledger size, seed time, file size...)
+     */
+    public BenchmarkReport put(String key, Object value) {
+        try {
+            root.put(key, value);
+        } catch (JSONException e) {
+            throw new IllegalArgumentException(e);
+        }
+        Log.i(TAG, name + " " + key + " = " + value);
+        return this;
+    }
+
+    /**
+     * Record a measured case; params (e.g. "rows", 100000) are stored with it
+     */
+    public Benchmark.Result add(Benchmark.Result result, Object... params) {
+        try {
+            JSONObject item = new JSONObject();
+            item.put("group", result.group);
+            item.put("benchmark", result.name);
+            for (int i = 0; i + 1 < params.length; i += 2) {
+                item.put(String.valueOf(params[i]), params[i + 1]);
+            }
+            item.put("mode", "avgt");
+            item.put("unit", "ns/op");
+            item.put("score", result.score);
+            item.put("error", result.error);
+            item.put("min", result.min);
+            item.put("max", result.max);
+            item.put("operations", result.operations);
+            results.put(item);
+        } catch (JSONException e) {
+            throw new IllegalArgumentException(e);
+        }
+        Log.i(TAG, String.format(Locale.US, "%s %s.%s %s: %.1f ± %.1f ns/op", name, result.group, result.name,
+                params.length == 0 ? "" : Arrays.toString(params), result.score, result.error));
+        return result;
+    }
+
+    /**
+     * Write the JSON file
+     * @return The file written
+     */
+    public File write(Context context) throws IOException, JSONException {
+        File directory = new File(context.getFilesDir(), DIRECTORY);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File file = new File(directory, name + "-" + System.currentTimeMillis() + ".json");
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(root.toString(2).getBytes(StandardCharsets.UTF_8));
+        }
+        Log.i(TAG, name + " results written to " + file);
+        return file;
+    }
+}
@@ -0,0 +1,92 @@
+package com.vishnu.expensetracker.benchmark;
+
+import android.content.Context;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.vishnu.expensetracker.database.ExpenseDao;
+import com.vishnu.expensetracker.database.RollupDao;
+import com.vishnu.expensetracker.repository.AnalyticsRepository;
+import com.vishnu.expensetracker.repository.TransactionColumnStore;
+import com.vishnu.expensetracker.utils.DateUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * TransactionColumnStore against the SQL it stands in for, at each ledger size (the default
+ * sizes end at 1M rows, see SyntheticLedger.sizes()). Each aggregate is measured over one month
+ * and over the whole ledger, as an ExpenseDao / RollupDao query ("sql") and as a scan of the
+ * column store ("columns"); loadSnapshot is measured with and without the store. The store's
+ * load time and approximate heap footprint are reported too. Report: columns-<rows>-<time>.json.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ColumnStoreBenchmark {
+
+    private static final String DATABASE_NAME = "benchmark_columns";
+
+    @Test
+    public void columnsAgainstSql() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        for (int rows : SyntheticLedger.sizes()) {
+            try (SyntheticLedger ledger = SyntheticLedger.create(context, DATABASE_NAME, rows)) {
+                BenchmarkReport report = new BenchmarkReport("columns-" + rows).put("rows", rows);
+
+                long heapBefore = usedHeap();
+                long loadStart = System.nanoTime();
+                TransactionColumnStore columns = TransactionColumnStore.loadDetached(ledger.database);
+                report.put("load_ms", (System.nanoTime() - loadStart) / 1_000_000);
+                report.put("heap_bytes", usedHeap() - heapBefore);
+                report.put("loaded_rows", columns.size());
+
+                ExpenseDao dao = ledger.database.expenseDao();
+                RollupDao rollups = ledger.database.rollupDao();
+                long monthStart = DateUtils.getStartOfMonth(ledger.year, ledger.month);
+                long monthEnd = DateUtils.getEndOfMonth(ledger.year, ledger.month);
+                long[][] ranges = {{monthStart, monthEnd}, {ledger.startDate, ledger.endDate}};
+                String[] rangeNames = {"month", "ledger"};
+
+                for (int i = 0; i < ranges.length; i++) {
+                    long start = ranges[i][0];
+                    long end = ranges[i][1];
+                    String range = rangeNames[i];
+                    report.add(Benchmark.measure("sql", "sumMinor",
+                            () -> dao.getTotalMinorByTypeAndDateRange("expense", start, end)), "range", range);
+                    report.add(Benchmark.measure("columns", "sumMinor",
+                            () -> columns.sumMinor("expense", start, end)), "range", range);
+                    report.add(Benchmark.measure("sql", "count",
+                            () -> dao.getTransactionCount("expense", start, end)), "range", range);
+                    report.add(Benchmark.measure("columns", "count",
+                            () -> columns.count("expense", start, end)), "range", range);
+                    report.add(Benchmark.measure("sql", "topCategories",
+                            () -> dao.getTopSpendingCategories(start, end, 5)), "range", range);
+                    report.add(Benchmark.measure("columns", "topCategories",
+                            () -> columns.getTopCategories(start, end, 5)), "range", range);
+                    report.add(Benchmark.measure("sql", "highestExpense",
+                            () -> dao.getHighestExpense(start, end)), "range", range);
+                    report.add(Benchmark.measure("columns", "highestExpense",
+                            () -> columns.getHighestExpenseId(start, end)), "range", range);
+                    report.add(Benchmark.measure("sql", "dailyRows",
+                            () -> rollups.getDailyRollupRows(start, end)), "range", range);
+                    report.add(Benchmark.measure("columns", "dailyRows",
+                            () -> columns.getDailyRows(start, end)), "range", range);
+                }
+
+                AnalyticsRepository fromRollups = new AnalyticsRepository(ledger.database);
+                AnalyticsRepository fromColumns = new AnalyticsRepository(ledger.database, columns);
+                report.add(Benchmark.measure("sql", "loadSnapshot",
+                        () -> fromRollups.loadSnapshot(ledger.year, ledger.month)));
+                report.add(Benchmark.measure("columns", "loadSnapshot",
+                        () -> fromColumns.loadSnapshot(ledger.year, ledger.month)));
+                report.write(context);
+            }
+        }
+    }
+
+    // Heap in use after a collection; an estimate, the runtime may not collect everything
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            runtime.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,77 @@
+package com.vishnu.expensetracker.benchmark;
+
+import android.content.Context;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.vishnu.expensetracker.export.CsvExporter;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import java.io.File;
+import java.io.FileOutputStream;
+
+/**
+ * CsvExporter throughput and heap use at each ledger size (the default sizes end at 1M rows)
+ * Plain and gzip exports are timed once each (one export is long enough to time on its own).
+ * A third export collects garbage every HEAP_SAMPLE_CHUNKS chunks and records the largest live
+ * heap above the level before it started; that figure should stay flat as the ledger grows.
+ * Report: export-<rows>-<time>.json.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ExportBenchmark {
+
+    private static final String DATABASE_NAME = "benchmark_export";
+    private static final int HEAP_SAMPLE_CHUNKS = 50;
+
+    @Test
+    public void exportAtEachSize() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        File file = new File(context.getCacheDir(), "benchmark_export.csv");
+        try {
+            for (int rows : SyntheticLedger.sizes()) {
+                try (SyntheticLedger ledger = SyntheticLedger.create(context, DATABASE_NAME, rows)) {
+                    BenchmarkReport report = new BenchmarkReport("export-" + rows).put("rows", rows)
+                            .put("chunk_size", CsvExporter.DEFAULT_CHUNK_SIZE);
+                    CsvExporter exporter = new CsvExporter(ledger.database);
+                    for (boolean gzip : new boolean[]{false, true}) {
+                        String prefix = gzip ? "gzip." : "plain.";
+                        long start = System.nanoTime();
+                        CsvExporter.Result result;
+                        try (FileOutputStream out = new FileOutputStream(file)) {
+                            result = exporter.export(out, gzip, null, null, null);
+                        }
+                        long nanos = System.nanoTime() - start;
+                        report.put(prefix + "ms", nanos / 1_000_000);
+                        report.put(prefix + "rows_per_s", nanos == 0 ? 0 : result.getRowsWritten() * 1_000_000_000L / nanos);
+                        report.put(prefix + "rows_written", result.getRowsWritten());
+                        report.put(prefix + "file_bytes", file.length());
+                    }
+
+                    long baseline = liveHeap();
+                    long[] peak = {0};
+                    int[] chunks = {0};
+                    try (FileOutputStream out = new FileOutputStream(file)) {
+                        exporter.export(out, false, null, (rowsWritten, totalRows, checkpoint) -> {
+                            if (++chunks[0] % HEAP_SAMPLE_CHUNKS == 0) {
+                                peak[0] = Math.max(peak[0], liveHeap() - baseline);
+                            }
+                        }, null);
+                    }
+                    report.put("heap.baseline_bytes", baseline);
+                    report.put("heap.peak_live_above_baseline_bytes", Math.max(peak[0], liveHeap() - baseline));
+                    report.write(context);
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    // Heap in use after a collection; an estimate, the runtime may not collect everything
+    private static long liveHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            runtime.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
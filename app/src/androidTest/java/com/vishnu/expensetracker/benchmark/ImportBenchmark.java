@@ -0,0 +1,110 @@
+package com.vishnu.expensetracker.benchmark;
+
+import android.content.Context;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.vishnu.expensetracker.export.CsvExporter;
+import com.vishnu.expensetracker.importer.CsvStatementParser;
+import com.vishnu.expensetracker.importer.ImportMapper;
+import com.vishnu.expensetracker.importer.OfxStatementParser;
+import com.vishnu.expensetracker.importer.StatementParser;
+import com.vishnu.expensetracker.importer.StatementRecord;
+import com.vishnu.expensetracker.models.Expense;
+import com.vishnu.expensetracker.utils.Fingerprint;
+import com.vishnu.expensetracker.utils.Money;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+
+/**
+ * Parse + map throughput of the import pipeline's producer stage, per statement format
+ * The CSV statement is the ledger exported by CsvExporter; the OFX one is written from the
+ * ledger's generator. Both are held in memory, so the figures leave out disk and SQLite.
+ * Reports ns per statement (score) and rows_per_s, against the TARGET_ROWS_PER_SECOND goal.
+ * Report: import-<rows>-<time>.json.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ImportBenchmark {
+
+    private static final String DATABASE_NAME = "benchmark_import";
+    private static final int DEFAULT_ROWS = 100_000;
+    private static final long TARGET_ROWS_PER_SECOND = 50_000;
+
+    @Test
+    public void parseAndMapEachFormat() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        for (int rows : SyntheticLedger.sizes(DEFAULT_ROWS)) {
+            try (SyntheticLedger ledger = SyntheticLedger.create(context, DATABASE_NAME, rows)) {
+                BenchmarkReport report = new BenchmarkReport("import-" + rows).put("rows", rows)
+                        .put("target_rows_per_s", TARGET_ROWS_PER_SECOND);
+
+                ByteArrayOutputStream csv = new ByteArrayOutputStream();
+                new CsvExporter(ledger.database).export(csv, false, null, null, null);
+                byte[] csvBytes = csv.toByteArray();
+                byte[] ofxBytes = ofxStatement(ledger, rows);
+
+                for (String format : new String[]{"csv", "ofx"}) {
+                    byte[] statement = "csv".equals(format) ? csvBytes : ofxBytes;
+                    int mapped = importAll(parser(format, statement));
+                    Benchmark.Result result = report.add(Benchmark.measure("import", format,
+                            () -> importAll(parser(format, statement))), "format", format);
+                    long rowsPerSecond = (long) (mapped * 1e9 / result.score);
+                    report.put(format + ".statement_bytes", statement.length);
+                    report.put(format + ".rows_mapped", mapped);
+                    report.put(format + ".rows_per_s", rowsPerSecond);
+                    report.put(format + ".meets_target", rowsPerSecond >= TARGET_ROWS_PER_SECOND);
+                }
+                report.write(context);
+            }
+        }
+    }
+
+    private static StatementParser parser(String format, byte[] statement) {
+        InputStreamReader reader = new InputStreamReader(new ByteArrayInputStream(statement), StandardCharsets.UTF_8);
+        return "csv".equals(format) ? new CsvStatementParser(reader) : new OfxStatementParser(reader);
+    }
+
+    // What ImportPipeline's producer does per record, minus the duplicate lookup
+    private static int importAll(StatementParser parser) throws IOException {
+        ImportMapper mapper = new ImportMapper();
+        int mapped = 0;
+        try {
+            StatementRecord record;
+            while ((record = parser.next()) != null) {
+                Expense expense = mapper.map(record);
+                if (expense != null && Fingerprint.of(expense) != 0) {
+                    mapped++;
+                }
+            }
+        } finally {
+            parser.close();
+        }
+        return mapped;
+    }
+
+    // OFX 1.x SGML with unclosed leaf elements, as banks send it
+    private static byte[] ofxStatement(SyntheticLedger ledger, int rows) {
+        SimpleDateFormat posted = new SimpleDateFormat("yyyyMMddHHmmss", Locale.ROOT);
+        StringBuilder ofx = new StringBuilder(rows * 160);
+        ofx.append("OFXHEADER:100\nDATA:OFXSGML\nVERSION:102\n\n<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>\n");
+        int id = 0;
+        for (Expense expense : ledger.generate(rows)) {
+            boolean income = "income".equals(expense.getType());
+            ofx.append("<STMTTRN><TRNTYPE>").append(income ? "CREDIT" : "DEBIT")
+                    .append("<DTPOSTED>").append(posted.format(expense.getDate())).append("[+5.5:IST]")
+                    .append("<TRNAMT>").append(income ? "" : "-").append(Money.toMajor(expense.getAmountMinor()))
+                    .append("<FITID>").append(++id)
+                    .append("<NAME>").append(expense.getTitle().replace("&", "&amp;"))
+                    .append("<MEMO>Statement row ").append(id)
+                    .append("</STMTTRN>\n");
+        }
+        ofx.append("</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>\n");
+        return ofx.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
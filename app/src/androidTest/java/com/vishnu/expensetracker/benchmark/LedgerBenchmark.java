@@ -0,0 +1,169 @@
+package com.vishnu.expensetracker.benchmark;
+
+import android.content.Context;
+import android.database.Cursor;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.vishnu.expensetracker.database.ExpenseDao;
+import com.vishnu.expensetracker.database.FilterCompiler;
+import com.vishnu.expensetracker.models.MonthlySummary;
+import com.vishnu.expensetracker.models.TransactionFilter;
+import com.vishnu.expensetracker.repository.AnalyticsRepository;
+import com.vishnu.expensetracker.utils.CurrencyFormatter;
+import com.vishnu.expensetracker.utils.DateUtils;
+import com.vishnu.expensetracker.utils.MonthlyUtils;
+import com.vishnu.expensetracker.utils.SearchQuery;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmarks the data layer against synthetic ledgers of 10k, 100k and 1M transactions
+ * Every synchronous ExpenseDao query, the filter and analytics paths, and the MonthlyUtils /
+ * DateUtils / CurrencyFormatter / MonthlySummary calculations are measured with Benchmark on the
+ * instrumentation thread, so the app's executors are untouched. One report per ledger size
+ * (ledger-<rows>-<time>.json, see BenchmarkReport). Run with
+ * ./gradlew connectedDebugAndroidTest -Pandroid.testInstrumentationRunnerArguments.class=
+ * com.vishnu.expensetracker.benchmark.LedgerBenchmark (add ...Arguments.ledgerRows=10000 for one size).
+ */
+@RunWith(AndroidJUnit4.class)
+public class LedgerBenchmark {
+
+    private static final String DATABASE_NAME = "benchmark_ledger";
+    // Loading every row as objects is only measured where it fits comfortably in the heap
+    private static final int MAX_ROWS_FOR_FULL_LOAD = 100_000;
+
+    @Test
+    public void dataLayer() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        for (int rows : SyntheticLedger.sizes()) {
+            long seedStart = System.nanoTime();
+            try (SyntheticLedger ledger = SyntheticLedger.create(context, DATABASE_NAME, rows)) {
+                BenchmarkReport report = new BenchmarkReport("ledger-" + rows)
+                        .put("rows", rows)
+                        .put("seed_ms", (System.nanoTime() - seedStart) / 1_000_000)
+                        .put("database_bytes", ledger.getFileBytes());
+                for (Case benchmarkCase : cases(ledger)) {
+                    report.add(Benchmark.measure(benchmarkCase.group, benchmarkCase.name, benchmarkCase.body));
+                }
+                report.write(context);
+            }
+        }
+    }
+
+    private static final class Case {
+        final String group;
+        final String name;
+        final Benchmark.Body body;
+
+        Case(String group, String name, Benchmark.Body body) {
+            this.group = group;
+            this.name = name;
+            this.body = body;
+        }
+    }
+
+    private static List<Case> cases(SyntheticLedger ledger) {
+        ExpenseDao dao = ledger.database.expenseDao();
+        long monthStart = DateUtils.getStartOfMonth(ledger.year, ledger.month);
+        long monthEnd = DateUtils.getEndOfMonth(ledger.year, ledger.month);
+        long nextMonthStart = monthEnd + 1;
+        Random random = new Random(ledger.rows + 1);
+        int[] next = {0};
+
+        List<Case> cases = new ArrayList<>();
+        // ---- ExpenseDao ----
+        cases.add(new Case("dao", "getExpenseById", () -> dao.getExpenseById(1 + random.nextInt(ledger.rows))));
+        cases.add(new Case("dao", "getMaxId", dao::getMaxId));
+        cases.add(new Case("dao", "getActiveTransactionCount", dao::getActiveTransactionCount));
+        cases.add(new Case("dao", "getTotalMinorByTypeSync", () -> dao.getTotalMinorByTypeSync("expense")));
+        cases.add(new Case("dao", "getMonthlyExpenseTotalSync", () -> dao.getMonthlyExpenseTotalSync(monthStart, monthEnd)));
+        cases.add(new Case("dao", "getMonthlyIncomeTotalSync", () -> dao.getMonthlyIncomeTotalSync(monthStart, monthEnd)));
+        cases.add(new Case("dao", "getMonthlyExpenseTotalMinorSync",
+                () -> dao.getMonthlyExpenseTotalMinorSync(monthStart, nextMonthStart)));
+        cases.add(new Case("dao", "getMonthlyIncomeTotalMinorSync",
+                () -> dao.getMonthlyIncomeTotalMinorSync(monthStart, nextMonthStart)));
+        cases.add(new Case("dao", "getDailyExpenseTotals", () -> dao.getDailyExpenseTotals(monthStart, monthEnd)));
+        cases.add(new Case("dao", "getDailyIncomeTotals", () -> dao.getDailyIncomeTotals(monthStart, monthEnd)));
+        cases.add(new Case("dao", "getWeeklyExpenseTotals", () -> dao.getWeeklyExpenseTotals(monthStart, monthEnd)));
+        cases.add(new Case("dao", "getNeedsVsWantsTotals", () -> dao.getNeedsVsWantsTotals(monthStart, monthEnd)));
+        cases.add(new Case("dao", "getTotalByTypeAndDateRange",
+                () -> dao.getTotalByTypeAndDateRange("expense", monthStart, monthEnd)));
+        cases.add(new Case("dao", "getTotalMinorByTypeAndDateRange",
+                () -> dao.getTotalMinorByTypeAndDateRange("expense", monthStart, monthEnd)));
+        cases.add(new Case("dao", "getAverageDailyExpense", () -> dao.getAverageDailyExpense(monthStart, monthEnd)));
+        cases.add(new Case("dao", "getTopSpendingCategories", () -> dao.getTopSpendingCategories(monthStart, monthEnd, 5)));
+        cases.add(new Case("dao", "getHighestExpense", () -> dao.getHighestExpense(monthStart, monthEnd)));
+        cases.add(new Case("dao", "getTransactionCount", () -> dao.getTransactionCount("expense", monthStart, monthEnd)));
+        cases.add(new Case("dao", "countLiveByFingerprint", () -> {
+            int i = next[0]++ & 63;
+            return dao.countLiveByFingerprint(ledger.fingerprints[i], Integer.MAX_VALUE);
+        }));
+        cases.add(new Case("dao", "getLiveByFingerprint", () -> dao.getLiveByFingerprint(ledger.fingerprints[next[0]++ & 63], 5)));
+        cases.add(new Case("dao", "getLiveByAmountAndDateRange", () -> {
+            int i = next[0]++ & 63;
+            return dao.getLiveByAmountAndDateRange("expense", ledger.amounts[i], ledger.dates[i] - SyntheticLedger.DAY_MS,
+                    ledger.dates[i] + SyntheticLedger.DAY_MS, 5);
+        }));
+        String match = SearchQuery.toMatchExpression("coffee");
+        cases.add(new Case("dao", "searchWithMatchInfo", () -> dao.searchWithMatchInfo(match, 50)));
+        if (ledger.rows <= MAX_ROWS_FOR_FULL_LOAD) {
+            cases.add(new Case("dao", "getAllExpensesSync", dao::getAllExpensesSync));
+        }
+
+        // ---- Filters and analytics ----
+        FilterCompiler compiler = new FilterCompiler();
+        TransactionFilter filter = new TransactionFilter();
+        filter.setType("expense");
+        filter.setStartDate(monthStart);
+        filter.setEndDate(monthEnd);
+        filter.setCategories(Collections.singleton("Food & Dining"));
+        cases.add(new Case("filter", "filteredTotals",
+                () -> drain(ledger.database.query(compiler.compileTotals(filter)))));
+        AnalyticsRepository analytics = new AnalyticsRepository(ledger.database);
+        cases.add(new Case("analytics", "loadSnapshot", () -> analytics.loadSnapshot(ledger.year, ledger.month)));
+
+        // ---- Date ranges ----
+        cases.add(new Case("dates", "MonthlyUtils.getCurrentMonthRange", MonthlyUtils::getCurrentMonthRange));
+        cases.add(new Case("dates", "MonthlyUtils.getPreviousMonthRange", MonthlyUtils::getPreviousMonthRange));
+        cases.add(new Case("dates", "MonthlyUtils.getMonthRange", () -> MonthlyUtils.getMonthRange(ledger.year, ledger.month)));
+        cases.add(new Case("dates", "DateUtils.getStartOfMonth", () -> DateUtils.getStartOfMonth(ledger.year, ledger.month)));
+        cases.add(new Case("dates", "DateUtils.getEndOfMonth", () -> DateUtils.getEndOfMonth(ledger.year, ledger.month)));
+        cases.add(new Case("dates", "DateUtils.getStartOfWeekAgo", () -> DateUtils.getStartOfWeekAgo(2)));
+        cases.add(new Case("dates", "DateUtils.getDaysInMonth", () -> DateUtils.getDaysInMonth(ledger.year, ledger.month)));
+
+        // ---- Formatting ----
+        cases.add(new Case("format", "CurrencyFormatter.formatMinor",
+                () -> CurrencyFormatter.formatMinor(ledger.amounts[next[0]++ & 63])));
+        cases.add(new Case("format", "CurrencyFormatter.formatCurrency",
+                () -> CurrencyFormatter.formatCurrency(ledger.amounts[next[0]++ & 63] / 100.0)));
+        Date date = new Date(monthStart);
+        cases.add(new Case("format", "CurrencyFormatter.formatDate", () -> CurrencyFormatter.formatDate(date)));
+
+        // ---- Summaries ----
+        cases.add(new Case("summary", "MonthlySummary", () -> {
+            MonthlySummary summary = new MonthlySummary(85000, 61250.5, 58000, 70000, "Benchmark");
+            return summary.getSavingsRate() + summary.getDailySpendingLimit() + summary.getBudgetUsagePercent()
+                    + summary.getBudgetStatusMessage().length();
+        }));
+        cases.add(new Case("summary", "MonthlyUtils.getSpendingComparisonMessage",
+                () -> MonthlyUtils.getSpendingComparisonMessage(61250.5, 58000)));
+        return cases;
+    }
+
+    private static int drain(Cursor cursor) {
+        try {
+            int rows = 0;
+            while (cursor.moveToNext()) {
+                rows++;
+            }
+            return rows;
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.vishnu.expensetracker.benchmark;
+
+import android.content.Context;
+import android.database.Cursor;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.vishnu.expensetracker.database.PartialIndexes;
+import com.vishnu.expensetracker.database.TransactionWriter;
+import com.vishnu.expensetracker.models.Expense;
+import com.vishnu.expensetracker.utils.DateUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import java.util.List;
+
+/**
+ * The partial indexes (see PartialIndexes) against the full indexes they replaced, at each
+ * ledger size. For each variant the four indexes are built on the same ledger, then measured:
+ * their size (pages in use before and after building them), the build time, the time to insert
+ * INSERT_ROWS transactions through BulkWrite (rolled back afterwards, so both variants see the
+ * same ledger) and the latency of the live-row queries they serve, with the plan SQLite chose.
+ * Report: partial-indexes-<rows>-<time>.json.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PartialIndexBenchmark {
+
+    private static final String DATABASE_NAME = "benchmark_partial_indexes";
+    private static final int INSERT_ROWS = 10_000;
+
+    // The indexes before version 13, with is_deleted leading instead of a WHERE clause
+    private static final String[] FULL_NAMES = {"bench_full_trash", "bench_full_type_date",
+            "bench_full_category_date", "bench_full_date"};
+    private static final String[] FULL_COLUMNS = {"is_deleted, deleted_at",
+            "is_deleted, type, date, amount, amount_minor", "is_deleted, category, date", "is_deleted, date"};
+
+    // The shapes of the ExpenseDao queries the indexes serve
+    private static final String RANGE_SUM_SQL = "SELECT COALESCE(SUM(amount_minor), 0) FROM expenses " +
+            "WHERE type = ? AND is_deleted = 0 AND date BETWEEN ? AND ?";
+    private static final String CATEGORY_SQL = "SELECT * FROM expenses WHERE category = ? AND is_deleted = 0 " +
+            "ORDER BY date DESC LIMIT 50";
+    private static final String LATEST_SQL = "SELECT * FROM expenses WHERE is_deleted = 0 ORDER BY date DESC LIMIT 50";
+    private static final String TRASH_SQL = "SELECT * FROM expenses WHERE is_deleted = 1 ORDER BY deleted_at DESC LIMIT 50";
+
+    @Test
+    public void partialAgainstFullIndexes() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        for (int rows : SyntheticLedger.sizes()) {
+            try (SyntheticLedger ledger = SyntheticLedger.create(context, DATABASE_NAME, rows)) {
+                BenchmarkReport report = new BenchmarkReport("partial-indexes-" + rows).put("rows", rows)
+                        .put("insert_rows", INSERT_ROWS);
+                SupportSQLiteDatabase db = ledger.database.getOpenHelper().getWritableDatabase();
+                long monthStart = DateUtils.getStartOfMonth(ledger.year, ledger.month);
+                long monthEnd = DateUtils.getEndOfMonth(ledger.year, ledger.month);
+                String category = firstString(db, "SELECT category FROM expenses WHERE is_deleted = 0 LIMIT 1");
+                Object[][] queries = {
+                        {"rangeSum", RANGE_SUM_SQL, new Object[]{"expense", monthStart, monthEnd}},
+                        {"category", CATEGORY_SQL, new Object[]{category}},
+                        {"latest", LATEST_SQL, new Object[0]},
+                        {"trash", TRASH_SQL, new Object[0]}};
+
+                for (boolean partial : new boolean[]{true, false}) {
+                    String variant = partial ? "partial" : "full";
+                    long buildNanos = SyntheticLedger.onWriteThread(() -> {
+                        dropAll(db);
+                        long start = System.nanoTime();
+                        createVariant(db, partial);
+                        return System.nanoTime() - start;
+                    });
+                    report.put(variant + ".build_ms", buildNanos / 1_000_000);
+                    report.put(variant + ".index_bytes", SyntheticLedger.onWriteThread(() -> {
+                        dropAll(db);
+                        long before = usedPages(db);
+                        createVariant(db, partial);
+                        return (usedPages(db) - before) * pragma(db, "page_size");
+                    }));
+
+                    List<Expense> inserts = ledger.generate(INSERT_ROWS);
+                    long insertNanos = SyntheticLedger.onWriteThread(() -> {
+                        db.beginTransaction();
+                        try (TransactionWriter.BulkWrite bulk = new TransactionWriter(ledger.database).beginBulkWrite()) {
+                            long start = System.nanoTime();
+                            bulk.insertBatch(inserts);
+                            return System.nanoTime() - start;
+                        } finally {
+                            // Never marked successful: the ledger is the same for the next variant
+                            db.endTransaction();
+                        }
+                    });
+                    report.put(variant + ".insert_ms", insertNanos / 1_000_000);
+                    report.put(variant + ".insert_rows_per_s",
+                            insertNanos == 0 ? 0 : INSERT_ROWS * 1_000_000_000L / insertNanos);
+
+                    for (Object[] query : queries) {
+                        String name = (String) query[0];
+                        String sql = (String) query[1];
+                        Object[] args = (Object[]) query[2];
+                        report.put(variant + ".plan." + name, plan(db, sql, args));
+                        report.add(Benchmark.measure(variant, name, () -> drain(db, sql, args)), "index", variant);
+                    }
+                }
+
+                // Leave the app's own indexes in place
+                SyntheticLedger.onWriteThread(() -> {
+                    dropAll(db);
+                    PartialIndexes.create(db);
+                    return null;
+                });
+                report.write(context);
+            }
+        }
+    }
+
+    private static void dropAll(SupportSQLiteDatabase db) {
+        PartialIndexes.drop(db);
+        for (String name : FULL_NAMES) {
+            db.execSQL("DROP INDEX IF EXISTS " + name);
+        }
+    }
+
+    private static void createVariant(SupportSQLiteDatabase db, boolean partial) {
+        if (partial) {
+            PartialIndexes.create(db);
+            return;
+        }
+        for (int i = 0; i < FULL_NAMES.length; i++) {
+            db.execSQL("CREATE INDEX " + FULL_NAMES[i] + " ON expenses (" + FULL_COLUMNS[i] + ")");
+        }
+    }
+
+    // Pages holding data; a dropped index's pages go to the freelist and are reused first
+    private static long usedPages(SupportSQLiteDatabase db) {
+        return pragma(db, "page_count") - pragma(db, "freelist_count");
+    }
+
+    private static long pragma(SupportSQLiteDatabase db, String name) {
+        try (Cursor cursor = db.query("PRAGMA " + name)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    private static String firstString(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            return cursor.moveToFirst() ? cursor.getString(0) : "";
+        }
+    }
+
+    // The detail column of EXPLAIN QUERY PLAN, one step per line
+    private static String plan(SupportSQLiteDatabase db, String sql, Object[] args) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = db.query("EXPLAIN QUERY PLAN " + sql, args)) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                if (plan.length() > 0) {
+                    plan.append('\n');
+                }
+                plan.append(cursor.getString(detail));
+            }
+        }
+        return plan.toString();
+    }
+
+    private static int drain(SupportSQLiteDatabase db, String sql, Object[] args) {
+        int count = 0;
+        try (Cursor cursor = db.query(sql, args)) {
+            while (cursor.moveToNext()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
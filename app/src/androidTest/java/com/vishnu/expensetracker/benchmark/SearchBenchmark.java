@@ -0,0 +1,96 @@
+package com.vishnu.expensetracker.benchmark;
+
+import android.content.Context;
+import android.database.Cursor;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.vishnu.expensetracker.database.ExpenseDao;
+import com.vishnu.expensetracker.utils.SearchQuery;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Search latency through the expenses_fts index against LIKE '%q%' over the same four columns
+ * For each query, the first page of the search list (newest PAGE_SIZE live hits, the SQL of
+ * ExpenseDao.searchPaged) and the ranked hits (searchWithMatchInfo + SearchQuery.rank) are
+ * timed, and the same page through LIKE on the base table. The target is under TARGET_MS for
+ * FTS at 500k rows, the default size here. Report: search-<rows>-<time>.json.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SearchBenchmark {
+
+    private static final String DATABASE_NAME = "benchmark_search";
+    private static final int DEFAULT_ROWS = 500_000;
+    private static final int PAGE_SIZE = 50;
+    private static final double TARGET_MS = 20;
+    // Whole words, a prefix, and two words that must both match
+    private static final String[] QUERIES = {"coffee", "pharmacy", "gro", "taxi 4"};
+
+    private static final String FTS_PAGE_SQL = "SELECT e.* FROM expenses_fts JOIN expenses e ON e.id = expenses_fts.rowid " +
+            "WHERE expenses_fts MATCH ? AND e.is_deleted = 0 ORDER BY e.date DESC, e.id DESC LIMIT " + PAGE_SIZE;
+    private static final String LIKE_WORD = "(title LIKE ? OR description LIKE ? OR category LIKE ? OR subcategory LIKE ?)";
+
+    @Test
+    public void ftsAgainstLike() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        for (int rows : SyntheticLedger.sizes(DEFAULT_ROWS)) {
+            try (SyntheticLedger ledger = SyntheticLedger.create(context, DATABASE_NAME, rows)) {
+                BenchmarkReport report = new BenchmarkReport("search-" + rows).put("rows", rows)
+                        .put("target_ms", TARGET_MS);
+                ExpenseDao dao = ledger.database.expenseDao();
+                for (String query : QUERIES) {
+                    String match = SearchQuery.toMatchExpression(query);
+                    SimpleSQLiteQuery ftsPage = new SimpleSQLiteQuery(FTS_PAGE_SQL, new Object[]{match});
+                    SimpleSQLiteQuery likePage = likePage(query);
+
+                    Benchmark.Result fts = report.add(Benchmark.measure("fts", "firstPage",
+                            () -> drain(ledger.database.query(ftsPage))), "query", query);
+                    report.add(Benchmark.measure("fts", "rankedHits", () -> {
+                        List<Double> ranks = new ArrayList<>();
+                        for (ExpenseDao.SearchHit hit : dao.searchWithMatchInfo(match, PAGE_SIZE)) {
+                            ranks.add(SearchQuery.rank(hit.matchInfo));
+                        }
+                        Collections.sort(ranks);
+                        return ranks;
+                    }), "query", query);
+                    report.add(Benchmark.measure("like", "firstPage",
+                            () -> drain(ledger.database.query(likePage))), "query", query);
+                    report.put("fts.firstPage." + query + ".meets_target", fts.score / 1_000_000 < TARGET_MS);
+                    report.put("hits." + query, drain(ledger.database.query(new SimpleSQLiteQuery(
+                            "SELECT rowid FROM expenses_fts WHERE expenses_fts MATCH ?", new Object[]{match}))));
+                }
+                report.write(context);
+            }
+        }
+    }
+
+    // Every word of the query must appear somewhere in the four columns, as with the FTS prefix terms
+    private static SimpleSQLiteQuery likePage(String query) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM expenses WHERE is_deleted = 0");
+        List<Object> args = new ArrayList<>();
+        for (String word : query.trim().split("\\s+")) {
+            sql.append(" AND ").append(LIKE_WORD);
+            for (int column = 0; column < 4; column++) {
+                args.add("%" + word + "%");
+            }
+        }
+        sql.append(" ORDER BY date DESC, id DESC LIMIT ").append(PAGE_SIZE);
+        return new SimpleSQLiteQuery(sql.toString(), args.toArray());
+    }
+
+    private static int drain(Cursor cursor) {
+        try {
+            int rows = 0;
+            while (cursor.moveToNext()) {
+                rows++;
+            }
+            return rows;
+        } finally {
+            cursor.close();
+        }
+    }
+}
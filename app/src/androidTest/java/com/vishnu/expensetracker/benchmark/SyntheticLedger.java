@@ -0,0 +1,247 @@
+package com.vishnu.expensetracker.benchmark;
+
+import android.content.Context;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.vishnu.expensetracker.database.DatabaseTuning;
+import com.vishnu.expensetracker.database.ExpenseDatabase;
+import com.vishnu.expensetracker.database.TransactionWriter;
+import com.vishnu.expensetracker.models.Expense;
+import com.vishnu.expensetracker.utils.AppExecutors;
+import com.vishnu.expensetracker.utils.CategoryManager;
+import com.vishnu.expensetracker.utils.DatabaseInitializer;
+import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A synthetic ledger in its own database file, for the benchmarks
+ * The file has the app's schema, triggers, indexes and tuning and the predefined categories.
+ * Transactions are generated from a fixed random seed (so ledgers of one size are comparable
+ * across runs) over the last LEDGER_YEARS years, and written the way an import writes them:
+ * TransactionWriter.BulkWrite batches on the write executor. close() deletes the file.
+ */
+public final class SyntheticLedger implements Closeable {
+
+    public static final int[] DEFAULT_SIZES = {10_000, 100_000, 1_000_000};
+    // Instrumentation argument overriding DEFAULT_SIZES, e.g. -e ledgerRows 10000,100000
+    private static final String SIZES_ARGUMENT = "ledgerRows";
+
+    private static final int SEED_BATCH_SIZE = 5000;
+    private static final int LEDGER_YEARS = 3;
+    private static final double DELETED_FRACTION = 0.05;
+    private static final int SAMPLES = 64;
+    public static final long DAY_MS = 24 * 60 * 60 * 1000L;
+
+    private static final String[] TITLES = {"Coffee", "Groceries", "Fuel", "Rent", "Lunch", "Taxi",
+            "Pharmacy", "Electricity bill", "Movie tickets", "Gym membership", "Salary", "Freelance project"};
+    private static final String[] PAYMENT_METHODS = {"cash", "card", "upi", "bank transfer"};
+
+    private final Context context;
+    private final String name;
+    public final ExpenseDatabase database;
+    public final int rows;
+    public final long startDate;
+    public final long endDate;
+    // A month in the middle of the ledger, so month queries see a full month
+    public final int year;
+    public final int month;
+    // Fingerprint, paise and date of live rows spread over the ledger, for lookups with real arguments
+    public final long[] fingerprints = new long[SAMPLES];
+    public final long[] amounts = new long[SAMPLES];
+    public final long[] dates = new long[SAMPLES];
+    private final Generator generator;
+
+    private SyntheticLedger(Context context, String name, int rows, DatabaseTuning tuning) {
+        this.context = context;
+        this.name = name;
+        this.rows = rows;
+        this.endDate = System.currentTimeMillis();
+        this.startDate = endDate - LEDGER_YEARS * 365L * DAY_MS;
+        Calendar middle = Calendar.getInstance();
+        middle.setTimeInMillis((startDate + endDate) / 2);
+        this.year = middle.get(Calendar.YEAR);
+        this.month = middle.get(Calendar.MONTH);
+        this.generator = new Generator(new Random(rows), startDate, endDate);
+        context.deleteDatabase(name);
+        this.database = tuning != null
+                ? ExpenseDatabase.openSeparate(context, name, tuning)
+                : ExpenseDatabase.openSeparate(context, name);
+    }
+
+    /**
+     * Create the database file name and seed it with rows transactions
+     */
+    public static SyntheticLedger create(Context context, String name, int rows) throws Exception {
+        return create(context, name, rows, null);
+    }
+
+    /**
+     * Like create(context, name, rows), with the given SQLite settings instead of the app's
+     */
+    public static SyntheticLedger create(Context context, String name, int rows, DatabaseTuning tuning)
+            throws Exception {
+        SyntheticLedger ledger = new SyntheticLedger(context.getApplicationContext(), name, rows, tuning);
+        try {
+            ledger.seed();
+            return ledger;
+        } catch (Exception e) {
+            ledger.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Ledger sizes to run, from the ledgerRows instrumentation argument or DEFAULT_SIZES
+     */
+    public static int[] sizes() {
+        return sizes(DEFAULT_SIZES);
+    }
+
+    /**
+     * Ledger sizes to run, from the ledgerRows instrumentation argument or the given defaults
+     */
+    public static int[] sizes(int... defaults) {
+        String argument = InstrumentationRegistry.getArguments().getString(SIZES_ARGUMENT);
+        if (argument == null || argument.trim().isEmpty()) {
+            return defaults.clone();
+        }
+        String[] parts = argument.split(",");
+        int[] sizes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            sizes[i] = Integer.parseInt(parts[i].trim());
+        }
+        return sizes;
+    }
+
+    /**
+     * Run task on AppExecutors.diskWrite() (where TransactionWriter must be used) and wait for it
+     */
+    public static <T> T onWriteThread(Callable<T> task) throws Exception {
+        FutureTask<T> future = new FutureTask<>(task);
+        AppExecutors.getInstance().diskWrite().execute(future);
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    /**
+     * count more transactions from the ledger's generator, not written anywhere
+     */
+    public List<Expense> generate(int count) {
+        List<Expense> expenses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            expenses.add(generator.next());
+        }
+        return expenses;
+    }
+
+    /**
+     * The database file (the WAL is next to it, with -wal appended)
+     */
+    public File getFile() {
+        return context.getDatabasePath(name);
+    }
+
+    /**
+     * Size of the database file (WAL not included)
+     */
+    public long getFileBytes() {
+        return getFile().length();
+    }
+
+    private void seed() throws Exception {
+        onWriteThread(() -> {
+            DatabaseInitializer.seedCategories(database);
+            return null;
+        });
+        int sampleEvery = Math.max(1, rows / SAMPLES);
+        int sampled = 0;
+        for (int written = 0; written < rows; written += SEED_BATCH_SIZE) {
+            List<Expense> batch = generate(Math.min(SEED_BATCH_SIZE, rows - written));
+            onWriteThread(() -> {
+                try (TransactionWriter.BulkWrite bulk = new TransactionWriter(database).beginBulkWrite()) {
+                    bulk.insertBatch(batch);
+                }
+                return null;
+            });
+            for (int i = 0; i < batch.size() && sampled < SAMPLES; i++) {
+                Expense expense = batch.get(i);
+                if ((written + i) % sampleEvery == 0 && !expense.isDeleted()) {
+                    fingerprints[sampled] = expense.getFingerprint();
+                    amounts[sampled] = expense.getAmountMinor();
+                    dates[sampled] = expense.getDate().getTime();
+                    sampled++;
+                }
+            }
+        }
+        // Few rows: repeat the samples taken
+        for (int i = Math.max(sampled, 1); i < SAMPLES; i++) {
+            fingerprints[i] = fingerprints[i % Math.max(sampled, 1)];
+            amounts[i] = amounts[i % Math.max(sampled, 1)];
+            dates[i] = dates[i % Math.max(sampled, 1)];
+        }
+    }
+
+    @Override
+    public void close() {
+        database.close();
+        context.deleteDatabase(name);
+    }
+
+    // Transactions with log-normal amounts (mostly small expenses, occasional large ones) at random times
+    private static final class Generator {
+        private final Random random;
+        private final long startDate;
+        private final long endDate;
+        private final List<String> expenseCategories = new ArrayList<>();
+        private final List<String> incomeCategories = new ArrayList<>();
+
+        Generator(Random random, long startDate, long endDate) {
+            this.random = random;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            for (CategoryManager.CategoryData data : CategoryManager.getExpenseCategories()) {
+                expenseCategories.add(data.name);
+            }
+            for (CategoryManager.CategoryData data : CategoryManager.getIncomeCategories()) {
+                incomeCategories.add(data.name);
+            }
+            // The maps behind CategoryManager have no fixed order
+            Collections.sort(expenseCategories);
+            Collections.sort(incomeCategories);
+        }
+
+        Expense next() {
+            boolean income = random.nextInt(10) == 0;
+            String type = income ? "income" : "expense";
+            double amount = Math.round(Math.exp(random.nextGaussian() + (income ? 9.5 : 6)) * 100) / 100.0;
+            long date = startDate + (long) (random.nextDouble() * (endDate - startDate));
+            List<String> categories = income ? incomeCategories : expenseCategories;
+            String category = categories.get(random.nextInt(categories.size()));
+            List<String> subcategories = CategoryManager.getSubcategoriesForCategory(category, type);
+            String subcategory = subcategories.isEmpty() ? "" : subcategories.get(random.nextInt(subcategories.size()));
+            Expense expense = new Expense(TITLES[random.nextInt(TITLES.length)] + " " + random.nextInt(100), amount,
+                    category, subcategory, null, new Date(date), type,
+                    PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)]);
+            expense.setEssential(random.nextBoolean());
+            expense.setCreatedAt(new Date(date));
+            expense.setUpdatedAt(new Date(date));
+            if (random.nextDouble() < DELETED_FRACTION) {
+                expense.setDeleted(true);
+                expense.setDeletedAt(new Date(Math.min(endDate, date + random.nextInt(30) * DAY_MS)));
+            }
+            return expense;
+        }
+    }
+}
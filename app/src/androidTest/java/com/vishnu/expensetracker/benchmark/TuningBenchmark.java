@@ -0,0 +1,165 @@
+package com.vishnu.expensetracker.benchmark;
+
+import android.content.Context;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.vishnu.expensetracker.database.DatabaseTuning;
+import com.vishnu.expensetracker.database.ExpenseDao;
+import com.vishnu.expensetracker.database.TransactionWriter;
+import com.vishnu.expensetracker.models.Expense;
+import com.vishnu.expensetracker.repository.AnalyticsRepository;
+import com.vishnu.expensetracker.utils.DateUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Insert throughput and concurrent read latency under each DatabaseTuning profile
+ * Each profile gets its own BASE_ROWS ledger. Inserts are timed as bulk batches (an import) and
+ * as single-row transactions (the add screen, where synchronous=FULL pays an fsync per commit).
+ * Reads are timed from READERS threads, once on an idle database and once while the write
+ * thread inserts single rows without pause: a range total (one statement, on a WAL reader
+ * connection) and AnalyticsRepository.loadSnapshot (a transaction). Report: tuning-<time>.json.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TuningBenchmark {
+
+    private static final String DATABASE_NAME = "benchmark_tuning";
+    private static final int BASE_ROWS = 100_000;
+    private static final int BULK_ROWS = 20_000;
+    private static final int BULK_BATCH = 500;
+    private static final int SINGLE_ROWS = 500;
+    private static final int READERS = 3;
+    private static final int READS_PER_READER = 100;
+
+    @Test
+    public void profiles() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        BenchmarkReport report = new BenchmarkReport("tuning").put("base_rows", BASE_ROWS);
+        for (DatabaseTuning.Profile profile : DatabaseTuning.Profile.values()) {
+            DatabaseTuning tuning = DatabaseTuning.forProfile(profile);
+            try (SyntheticLedger ledger = SyntheticLedger.create(context, DATABASE_NAME, BASE_ROWS, tuning)) {
+                String prefix = profile.name().toLowerCase(Locale.US) + ".";
+                report.put(prefix + "settings", tuning.toString());
+                report.put(prefix + "bulk_insert_rows_per_s", bulkInsert(ledger));
+                report.put(prefix + "single_insert_rows_per_s", singleInserts(ledger));
+
+                ExpenseDao dao = ledger.database.expenseDao();
+                AnalyticsRepository analytics = new AnalyticsRepository(ledger.database);
+                long monthStart = DateUtils.getStartOfMonth(ledger.year, ledger.month);
+                long monthEnd = DateUtils.getEndOfMonth(ledger.year, ledger.month);
+                Callable<Object> rangeTotal = () -> dao.getTotalMinorByTypeAndDateRange("expense", monthStart, monthEnd);
+                Callable<Object> snapshot = () -> analytics.loadSnapshot(ledger.year, ledger.month);
+
+                putLatencies(report, prefix + "idle.range_total", readLatencies(rangeTotal));
+                putLatencies(report, prefix + "idle.snapshot", readLatencies(snapshot));
+                putLatencies(report, prefix + "writing.range_total", readLatenciesWhileWriting(ledger, rangeTotal, report,
+                        prefix + "writing.range_total.writer_rows_per_s"));
+                putLatencies(report, prefix + "writing.snapshot", readLatenciesWhileWriting(ledger, snapshot, report,
+                        prefix + "writing.snapshot.writer_rows_per_s"));
+            }
+        }
+        report.write(context);
+    }
+
+    private static long bulkInsert(SyntheticLedger ledger) throws Exception {
+        List<Expense> rows = ledger.generate(BULK_ROWS);
+        long start = System.nanoTime();
+        SyntheticLedger.onWriteThread(() -> {
+            try (TransactionWriter.BulkWrite bulk = new TransactionWriter(ledger.database).beginBulkWrite()) {
+                for (int i = 0; i < rows.size(); i += BULK_BATCH) {
+                    bulk.insertBatch(rows.subList(i, Math.min(rows.size(), i + BULK_BATCH)));
+                }
+            }
+            return null;
+        });
+        return perSecond(BULK_ROWS, System.nanoTime() - start);
+    }
+
+    private static long singleInserts(SyntheticLedger ledger) throws Exception {
+        List<Expense> rows = ledger.generate(SINGLE_ROWS);
+        long start = System.nanoTime();
+        SyntheticLedger.onWriteThread(() -> {
+            TransactionWriter writer = new TransactionWriter(ledger.database);
+            for (Expense expense : rows) {
+                writer.insert(expense);
+            }
+            return null;
+        });
+        return perSecond(SINGLE_ROWS, System.nanoTime() - start);
+    }
+
+    // Latency in ns of every read, READERS threads reading at once
+    private static long[] readLatencies(Callable<Object> read) throws Exception {
+        ExecutorService readers = Executors.newFixedThreadPool(READERS);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                futures.add(readers.submit(() -> {
+                    long[] latencies = new long[READS_PER_READER];
+                    for (int i = 0; i < READS_PER_READER; i++) {
+                        long start = System.nanoTime();
+                        read.call();
+                        latencies[i] = System.nanoTime() - start;
+                    }
+                    return latencies;
+                }));
+            }
+            long[] all = new long[READERS * READS_PER_READER];
+            for (int r = 0; r < READERS; r++) {
+                System.arraycopy(futures.get(r).get(), 0, all, r * READS_PER_READER, READS_PER_READER);
+            }
+            return all;
+        } finally {
+            readers.shutdown();
+        }
+    }
+
+    // readLatencies with single-row inserts running back to back on the write thread
+    private static long[] readLatenciesWhileWriting(SyntheticLedger ledger, Callable<Object> read,
+                                                    BenchmarkReport report, String writerKey) throws Exception {
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicLong written = new AtomicLong();
+        ExecutorService writerStarter = Executors.newSingleThreadExecutor();
+        Future<Object> writer = writerStarter.submit(() -> SyntheticLedger.onWriteThread(() -> {
+            TransactionWriter transactionWriter = new TransactionWriter(ledger.database);
+            while (!stop.get()) {
+                for (Expense expense : ledger.generate(10)) {
+                    transactionWriter.insert(expense);
+                }
+                written.addAndGet(10);
+            }
+            return null;
+        }));
+        long start = System.nanoTime();
+        try {
+            return readLatencies(read);
+        } finally {
+            stop.set(true);
+            writer.get();
+            writerStarter.shutdown();
+            report.put(writerKey, perSecond(written.get(), System.nanoTime() - start));
+        }
+    }
+
+    private static void putLatencies(BenchmarkReport report, String key, long[] latencies) {
+        Arrays.sort(latencies);
+        report.put(key + ".p50_us", latencies[latencies.length / 2] / 1000);
+        report.put(key + ".p90_us", latencies[latencies.length * 9 / 10] / 1000);
+        report.put(key + ".p99_us", latencies[latencies.length * 99 / 100] / 1000);
+        report.put(key + ".max_us", latencies[latencies.length - 1] / 1000);
+    }
+
+    private static long perSecond(long count, long nanos) {
+        return nanos == 0 ? 0 : count * 1_000_000_000L / nanos;
+    }
+}
@@ -0,0 +1,105 @@
+package com.vishnu.expensetracker.database;
+
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.vishnu.expensetracker.benchmark.Benchmark;
+import com.vishnu.expensetracker.benchmark.BenchmarkReport;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Cost of QueryMetrics.record(), the work MeteredOpenHelperFactory adds to every statement
+ * Each benchmark operation records BATCH times, so the harness's clock reads do not dominate a
+ * figure of tens of nanoseconds; ns_per_record divides the score back out. Cases: one hot
+ * statement, STATEMENTS statements in turn (the map and histogram cache lines cycle) and
+ * THREADS threads recording into one statement at once. Every case must stay under the 1 us
+ * budget per statement. Report: query-metrics-<time>.json.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QueryMetricsBenchmark {
+
+    private static final int BATCH = 1000;
+    private static final int STATEMENTS = 64;
+    private static final int THREADS = 4;
+    private static final int CONTENDED_RECORDS = 1_000_000;
+    private static final double BUDGET_NANOS = 1000;
+
+    @After
+    public void tearDown() {
+        QueryMetrics.reset();
+    }
+
+    @Test
+    public void recordCost() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        BenchmarkReport report = new BenchmarkReport("query-metrics").put("batch", BATCH);
+        String[] sql = new String[STATEMENTS];
+        for (int i = 0; i < STATEMENTS; i++) {
+            sql[i] = "SELECT * FROM expenses WHERE id = ? /* " + i + " */";
+        }
+
+        double hot = perRecord(report.add(Benchmark.measure("record", "oneStatement", () -> {
+            for (int i = 0; i < BATCH; i++) {
+                QueryMetrics.record(sql[0], 20_000 + i, 1);
+            }
+            return null;
+        })));
+        report.put("one_statement.ns_per_record", hot);
+
+        double cycling = perRecord(report.add(Benchmark.measure("record", "manyStatements", () -> {
+            for (int i = 0; i < BATCH; i++) {
+                QueryMetrics.record(sql[i % STATEMENTS], 20_000 + i, 1);
+            }
+            return null;
+        })));
+        report.put("many_statements.ns_per_record", cycling);
+
+        double contended = contended(sql[0]);
+        report.put("contended.threads", THREADS);
+        report.put("contended.ns_per_record", contended);
+        report.write(context);
+
+        assertTrue("one statement: " + hot + " ns", hot < BUDGET_NANOS);
+        assertTrue("many statements: " + cycling + " ns", cycling < BUDGET_NANOS);
+        assertTrue("contended: " + contended + " ns", contended < BUDGET_NANOS);
+    }
+
+    private static double perRecord(Benchmark.Result result) {
+        return result.score / BATCH;
+    }
+
+    // Wall time per record on each thread while THREADS threads record at once
+    private static double contended(String sql) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        long[] nanos = new long[THREADS];
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            int index = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long begin = System.nanoTime();
+                for (int i = 0; i < CONTENDED_RECORDS; i++) {
+                    QueryMetrics.record(sql, 20_000 + i, 1);
+                }
+                nanos[index] = System.nanoTime() - begin;
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        long total = 0;
+        for (int t = 0; t < THREADS; t++) {
+            threads[t].join();
+            total += nanos[t];
+        }
+        return total / (double) THREADS / CONTENDED_RECORDS;
+    }
+}
@@ -0,0 +1,145 @@
+package com.vishnu.expensetracker.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.text.TextUtils;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * EXPLAIN QUERY PLAN checks for the range aggregates on a database migrated from version 4
+ * (the schema before the covering indices), so the migrations and the indexes they leave
+ * behind are tested together.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QueryPlanTest {
+
+    private static final String NAME = "query_plan_test";
+    private static final int ROWS = 2000;
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final long START = 1_700_000_000_000L;
+
+    private Context context;
+    private ExpenseDatabase database;
+    private SupportSQLiteDatabase db;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(NAME);
+        createVersion4(context);
+        database = ExpenseDatabase.openSeparate(context, NAME);
+        // Opening runs MIGRATION_4_5 through the latest and Room's schema validation
+        db = database.getOpenHelper().getWritableDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+        context.deleteDatabase(NAME);
+    }
+
+    @Test
+    public void migrationKeepsRows() {
+        try (Cursor cursor = db.query("SELECT COUNT(*) FROM expenses")) {
+            cursor.moveToFirst();
+            assertEquals(ROWS, cursor.getInt(0));
+        }
+    }
+
+    @Test
+    public void rangeTotalsReadOnlyTheCoveringIndex() {
+        // ExpenseDao.getTotalExpensesInRange
+        String plan = plan("SELECT SUM(amount) FROM expenses WHERE type = 'expense' AND is_deleted = 0 " +
+                "AND date >= ? AND date < ?", START, START + 30 * DAY);
+        assertTrue(plan, plan.contains("USING COVERING INDEX " + PartialIndexes.LIVE_TYPE_DATE));
+    }
+
+    @Test
+    public void minorTotalsReadOnlyTheCoveringIndex() {
+        // ExpenseDao.getTotalMinorByTypeSync
+        String plan = plan("SELECT COALESCE(SUM(amount_minor), 0) FROM expenses WHERE is_deleted = 0 AND type = ?",
+                "income");
+        assertTrue(plan, plan.contains("USING COVERING INDEX " + PartialIndexes.LIVE_TYPE_DATE));
+    }
+
+    @Test
+    public void categoryBreakdownSearchesAnIndex() {
+        // ExpenseDao.getExpensesByCategoryInRange
+        String plan = plan("SELECT COALESCE(c.name, e.category) AS category, SUM(e.amount) AS total FROM expenses e " +
+                "LEFT JOIN categories c ON c.id = e.category_id " +
+                "WHERE e.type = 'expense' AND e.is_deleted = 0 AND e.date >= ? AND e.date < ? " +
+                ExpenseDao.CATEGORY_GROUP + "ORDER BY total DESC", START, START + 30 * DAY);
+        assertTrue(plan, plan.matches("(?s).*SEARCH (TABLE expenses AS )?e USING .*INDEX.*"));
+    }
+
+    @Test
+    public void pagedListWalksTheDateIndex() {
+        // ExpenseDao.getExpensesPaged, without the paging LIMIT/OFFSET
+        String plan = plan("SELECT * FROM expenses WHERE is_deleted = 0 ORDER BY date DESC, id DESC");
+        assertTrue(plan, plan.contains(PartialIndexes.LIVE_DATE));
+    }
+
+    // The detail column of every plan row, one per line
+    private String plan(String sql, Object... args) {
+        List<String> details = new ArrayList<>();
+        try (Cursor cursor = db.query("EXPLAIN QUERY PLAN " + sql, args)) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                details.add(cursor.getString(detail));
+            }
+        }
+        return TextUtils.join("\n", details);
+    }
+
+    // The tables exactly as Room created them at version 4, with a few months of transactions
+    private static void createVersion4(Context context) {
+        SQLiteDatabase legacy = SQLiteDatabase.openOrCreateDatabase(context.getDatabasePath(NAME), null);
+        try {
+            legacy.execSQL("CREATE TABLE IF NOT EXISTS `expenses` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`title` TEXT, `amount` REAL NOT NULL, `category` TEXT, `subcategory` TEXT, `description` TEXT, " +
+                    "`date` INTEGER, `type` TEXT, `payment_method` TEXT, `created_at` INTEGER, " +
+                    "`is_deleted` INTEGER NOT NULL DEFAULT 0, `deleted_at` INTEGER, " +
+                    "`is_essential` INTEGER NOT NULL DEFAULT 1)");
+            legacy.execSQL("CREATE TABLE IF NOT EXISTS `categories` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`name` TEXT, `icon` TEXT, `color` TEXT, `type` TEXT)");
+            legacy.execSQL("CREATE TABLE IF NOT EXISTS `subcategories` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`name` TEXT, `category_id` INTEGER NOT NULL, `icon` TEXT, `type` TEXT, " +
+                    "FOREIGN KEY(`category_id`) REFERENCES `categories`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            legacy.execSQL("INSERT INTO categories (name, icon, color, type) VALUES ('Food', '', '', 'expense')");
+            legacy.execSQL("INSERT INTO categories (name, icon, color, type) VALUES ('Salary', '', '', 'income')");
+            legacy.execSQL("INSERT INTO subcategories (name, category_id, icon, type) VALUES ('Groceries', 1, '', 'expense')");
+            String[] methods = {"cash", "card", "upi"};
+            legacy.beginTransaction();
+            try {
+                for (int i = 0; i < ROWS; i++) {
+                    boolean income = i % 10 == 0;
+                    long date = START + (i % 120) * DAY;
+                    legacy.execSQL("INSERT INTO expenses (title, amount, category, subcategory, description, date, " +
+                                    "type, payment_method, created_at, is_deleted, deleted_at) " +
+                                    "VALUES (?, ?, ?, ?, '', ?, ?, ?, ?, ?, ?)",
+                            new Object[]{"Row " + i, 10.5 + i % 500, income ? "Salary" : "Food",
+                                    income ? "" : "Groceries", date, income ? "income" : "expense",
+                                    methods[i % 3], date, i % 25 == 0 ? 1 : 0, i % 25 == 0 ? date : null});
+                }
+                legacy.setTransactionSuccessful();
+            } finally {
+                legacy.endTransaction();
+            }
+            legacy.setVersion(4);
+        } finally {
+            legacy.close();
+        }
+    }
+}
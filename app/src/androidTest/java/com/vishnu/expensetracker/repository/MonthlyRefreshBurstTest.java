@@ -0,0 +1,124 @@
+package com.vishnu.expensetracker.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.os.SystemClock;
+import androidx.lifecycle.Observer;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.vishnu.expensetracker.database.ExpenseDatabase;
+import com.vishnu.expensetracker.database.TransactionWriter;
+import com.vishnu.expensetracker.models.BalanceSummary;
+import com.vishnu.expensetracker.models.Expense;
+import com.vishnu.expensetracker.utils.AppExecutors;
+import com.vishnu.expensetracker.utils.RefreshScheduler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import java.util.Date;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Monthly refresh jobs actually run per write, through the real path: TransactionWriter reports
+ * the change, LedgerAggregator emits, and BalanceRepository (observed, as MainActivity observes
+ * it) requests a refresh. One write must run exactly one job, and a burst of writes far fewer
+ * jobs than writes.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MonthlyRefreshBurstTest {
+
+    private static final String NAME = "monthly_refresh_test";
+    private static final int BURST = 50;
+    // Quiet time after which no refresh is still on its way
+    private static final long SETTLE_MS = 300;
+    private static final long TIMEOUT_MS = 10_000;
+
+    private final Observer<BalanceSummary> observer = summary -> {};
+    private Context context;
+    private ExpenseDatabase database;
+    private BalanceRepository repository;
+    private RefreshScheduler scheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(NAME);
+        database = ExpenseDatabase.openSeparate(context, NAME);
+        // MediatorLiveData sources are added and observed on the main thread
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            repository = new BalanceRepository(database);
+            repository.getBalanceSummary().observeForever(observer);
+        });
+        scheduler = repository.getMonthlyRefreshScheduler();
+        long deadline = SystemClock.elapsedRealtime() + TIMEOUT_MS;
+        while (!LedgerAggregator.getInstance(database).isSeeded() && SystemClock.elapsedRealtime() < deadline) {
+            SystemClock.sleep(10);
+        }
+        awaitIdle();
+    }
+
+    @After
+    public void tearDown() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(
+                () -> repository.getBalanceSummary().removeObserver(observer));
+        database.close();
+        context.deleteDatabase(NAME);
+    }
+
+    @Test
+    public void oneWriteRunsOneRefresh() throws Exception {
+        long before = scheduler.getRunCount();
+        onWriteThread(() -> new TransactionWriter(database).insert(expense(0)));
+        awaitIdle();
+        assertEquals(1, scheduler.getRunCount() - before);
+    }
+
+    @Test
+    public void burstOfWritesSharesRefreshes() throws Exception {
+        long before = scheduler.getRunCount();
+        onWriteThread(() -> {
+            TransactionWriter writer = new TransactionWriter(database);
+            for (int i = 0; i < BURST; i++) {
+                writer.insert(expense(i));
+            }
+            return null;
+        });
+        awaitIdle();
+        long jobs = scheduler.getRunCount() - before;
+        assertTrue(jobs + " jobs for " + BURST + " writes", jobs >= 1 && jobs < BURST / 2);
+    }
+
+    private static Expense expense(int i) {
+        return new Expense("Burst " + i, 10 + i, "Food & Dining", "", "", new Date(), "expense", "cash");
+    }
+
+    private static <T> T onWriteThread(Callable<T> task) throws Exception {
+        FutureTask<T> future = new FutureTask<>(task);
+        AppExecutors.getInstance().diskWrite().execute(future);
+        return future.get();
+    }
+
+    // Until the write thread, the main thread and the scheduler have all been quiet for SETTLE_MS
+    private void awaitIdle() throws Exception {
+        long deadline = SystemClock.elapsedRealtime() + TIMEOUT_MS;
+        long quietSince = -1;
+        while (SystemClock.elapsedRealtime() < deadline) {
+            onWriteThread(() -> null);
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+            if (scheduler.isPending()) {
+                quietSince = -1;
+            } else if (quietSince < 0) {
+                quietSince = SystemClock.elapsedRealtime();
+            } else if (SystemClock.elapsedRealtime() - quietSince >= SETTLE_MS) {
+                return;
+            }
+            SystemClock.sleep(10);
+        }
+        throw new AssertionError("Monthly refresh never settled");
+    }
+}
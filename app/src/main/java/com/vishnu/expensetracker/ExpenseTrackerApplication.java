@@ -0,0 +1,69 @@
+package com.vishnu.expensetracker;
+
+import android.app.Application;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.SharedPreferences;
+import androidx.tracing.Trace;
+import com.vishnu.expensetracker.database.ExpenseDatabase;
+import com.vishnu.expensetracker.database.TransactionWriter;
+import com.vishnu.expensetracker.utils.AppExecutors;
+import com.vishnu.expensetracker.utils.ThreadGuard;
+import java.util.TimeZone;
+
+/**
+ * Process-wide setup that has to happen before the first activity
+ */
+public class ExpenseTrackerApplication extends Application {
+
+    private static final String TAG = "ExpenseTrackerApp";
+    private static final String PREFERENCES = "app_preferences";
+    // The zone the stored local-time keys (rollup buckets, fingerprints) were computed in
+    private static final String KEY_TIME_ZONE = "fingerprint_time_zone";
+
+    @Override
+    public void onCreate() {
+        Trace.beginSection("ExpenseTrackerApplication.onCreate");
+        try {
+            super.onCreate();
+            // StrictMode and the database thread assertions, debug builds only
+            ThreadGuard.install(this);
+            // Rollups and duplicate fingerprints bucket by local day; recompute them if the zone moved
+            refreshIfTimeZoneChanged(this);
+            registerReceiver(new BroadcastReceiver() {
+                @Override
+                public void onReceive(Context context, Intent intent) {
+                    refreshIfTimeZoneChanged(context);
+                }
+            }, new IntentFilter(Intent.ACTION_TIMEZONE_CHANGED));
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    /**
+     * Recompute the local-time keys on the write executor if the default time zone is not the one
+     * they were computed in (or that was never recorded, as on databases from before this check)
+     */
+    private static void refreshIfTimeZoneChanged(Context context) {
+        ExpenseDatabase database = ExpenseDatabase.getInstance(context);
+        SharedPreferences preferences = context.getApplicationContext()
+                .getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+        AppExecutors.getInstance().diskWrite().execute(() -> {
+            String zone = TimeZone.getDefault().getID();
+            if (zone.equals(preferences.getString(KEY_TIME_ZONE, null))) {
+                return;
+            }
+            try {
+                // Rollups first, then fingerprints; one bulk change reseeds the in-memory caches
+                int changed = new TransactionWriter(database).refreshLocalTimeKeys();
+                preferences.edit().putString(KEY_TIME_ZONE, zone).apply();
+                android.util.Log.i(TAG, "Local-time keys for " + zone + ": " + changed + " fingerprints changed");
+            } catch (Exception e) {
+                android.util.Log.e(TAG, "Error refreshing local-time keys", e);
+            }
+        });
+    }
+}
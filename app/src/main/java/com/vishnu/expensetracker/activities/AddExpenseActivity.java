@@ -12,20 +12,24 @@ import android.widget.RadioGroup;
 import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.switchmaterial.SwitchMaterial;
 import com.vishnu.expensetracker.R;
 import com.vishnu.expensetracker.database.ExpenseDatabase;
+import com.vishnu.expensetracker.database.TransactionWriter;
 import com.vishnu.expensetracker.models.Expense;
 import com.vishnu.expensetracker.dialogs.CategorySelectionDialog;
+import com.vishnu.expensetracker.repository.DuplicateDetector;
+import com.vishnu.expensetracker.utils.AppExecutors;
+import com.vishnu.expensetracker.utils.CurrencyFormatter;
 import com.vishnu.expensetracker.utils.ThemeManager;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class AddExpenseActivity extends AppCompatActivity {
     
@@ -40,7 +44,7 @@ public class AddExpenseActivity extends AppCompatActivity {
     private SwitchMaterial switchEssential;
     
     private ExpenseDatabase database;
-    private ExecutorService executor;
+    private AppExecutors.TaskScope tasks;
     private Calendar selectedDate;
     private SimpleDateFormat dateFormat;
     private String selectedCategory = "";
@@ -61,7 +65,7 @@ public class AddExpenseActivity extends AppCompatActivity {
         setupClickListeners();
         
         database = ExpenseDatabase.getInstance(this);
-        executor = Executors.newSingleThreadExecutor();
+        tasks = AppExecutors.getInstance().scope(this);
         selectedDate = Calendar.getInstance();
         dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
         
@@ -200,10 +204,43 @@ public class AddExpenseActivity extends AppCompatActivity {
             expense.setEssential(switchEssential.isChecked());
         }
         
+        // Check for an existing entry of the same transaction before saving
+        DuplicateDetector duplicates = DuplicateDetector.getInstance(database);
+        tasks.read(() -> {
+            List<Expense> matches = duplicates.findPossibleDuplicates(expense);
+            tasks.onMain(() -> {
+                if (matches.isEmpty()) {
+                    insertExpense(expense);
+                } else {
+                    showDuplicateDialog(expense, matches);
+                }
+            });
+        });
+    }
+    
+    private void showDuplicateDialog(Expense expense, List<Expense> matches) {
+        StringBuilder message = new StringBuilder("This looks like a transaction you already recorded:\n");
+        for (Expense match : matches) {
+            message.append("\n• ").append(match.getTitle())
+                    .append(" - ").append(CurrencyFormatter.formatMinor(match.getAmountMinor()));
+            if (match.getDate() != null) {
+                message.append(" on ").append(dateFormat.format(match.getDate()));
+            }
+        }
+        new AlertDialog.Builder(this)
+                .setTitle("Possible Duplicate")
+                .setMessage(message)
+                .setPositiveButton("Add Anyway", (dialog, which) -> insertExpense(expense))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+    
+    private void insertExpense(Expense expense) {
+        String type = expense.getType();
         // Save to database
-        executor.execute(() -> {
-            database.expenseDao().insert(expense);
-            runOnUiThread(() -> {
+        tasks.write(() -> {
+            new TransactionWriter(database).insert(expense);
+            tasks.onMain(() -> {
                 Toast.makeText(this, type.equals("income") ? 
                     "Income added successfully" : "Expense added successfully", 
                     Toast.LENGTH_SHORT).show();
@@ -211,12 +248,4 @@ public class AddExpenseActivity extends AppCompatActivity {
             });
         });
     }
-    
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (executor != null) {
-            executor.shutdown();
-        }
-    }
 }
\ No newline at end of file
@@ -14,6 +14,7 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 import androidx.core.content.ContextCompat;
+import androidx.tracing.Trace;
 
 import com.github.mikephil.charting.charts.BarChart;
 import com.github.mikephil.charting.charts.LineChart;
@@ -35,8 +36,12 @@ import com.github.mikephil.charting.formatter.PercentFormatter;
 import com.vishnu.expensetracker.R;
 import com.vishnu.expensetracker.database.ExpenseDao;
 import com.vishnu.expensetracker.database.ExpenseDatabase;
+import com.vishnu.expensetracker.models.AnalyticsSnapshot;
 import com.vishnu.expensetracker.models.Expense;
+import com.vishnu.expensetracker.repository.AnalyticsRepository;
+import com.vishnu.expensetracker.repository.TransactionColumnStore;
 import com.vishnu.expensetracker.utils.DateUtils;
+import com.vishnu.expensetracker.utils.AppExecutors;
 import com.vishnu.expensetracker.utils.ThemeManager;
 
 import java.text.NumberFormat;
@@ -44,8 +49,6 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * Analytics Activity - Comprehensive spending analytics with visualizations
@@ -59,6 +62,8 @@ import java.util.concurrent.Executors;
  */
 public class AnalyticsActivity extends AppCompatActivity {
     
+    private static final String TRACE_LOAD = "AnalyticsActivity.loadAnalyticsData";
+    
     // Views
     private Toolbar toolbar;
     private TextView tvCurrentMonth;
@@ -99,8 +104,9 @@ public class AnalyticsActivity extends AppCompatActivity {
     
     // Data
     private ThemeManager themeManager;
-    private ExpenseDao expenseDao;
-    private ExecutorService executorService;
+    private AnalyticsRepository analyticsRepository;
+    private AppExecutors.TaskScope tasks;
+    private int loadTraceCookie;
     
     // Current viewing month
     private int currentYear;
@@ -133,8 +139,9 @@ public class AnalyticsActivity extends AppCompatActivity {
             initColors();
             
             // Initialize database
-            expenseDao = ExpenseDatabase.getInstance(this).expenseDao();
-            executorService = Executors.newSingleThreadExecutor();
+            ExpenseDatabase database = ExpenseDatabase.getInstance(this);
+            analyticsRepository = new AnalyticsRepository(database, TransactionColumnStore.getInstance(database));
+            tasks = AppExecutors.getInstance().scope(this);
             
             // Initialize current month
             Calendar calendar = Calendar.getInstance();
@@ -282,14 +289,19 @@ public class AnalyticsActivity extends AppCompatActivity {
     }
     
     private void setupCharts() {
-        // Line Chart Setup
-        setupLineChart();
-        
-        // Bar Chart Setup
-        setupBarChart();
-        
-        // Pie Chart Setup
-        setupPieChart();
+        Trace.beginSection("AnalyticsActivity.setupCharts");
+        try {
+            // Line Chart Setup
+            setupLineChart();
+            
+            // Bar Chart Setup
+            setupBarChart();
+            
+            // Pie Chart Setup
+            setupPieChart();
+        } finally {
+            Trace.endSection();
+        }
     }
     
     private void setupLineChart() {
@@ -369,59 +381,45 @@ public class AnalyticsActivity extends AppCompatActivity {
     private void loadAnalyticsData() {
         showLoading(true);
         
-        executorService.execute(() -> {
+        final int year = currentYear;
+        final int month = currentMonth;
+        // Spans the queue wait, the query and the bind, which run on different threads
+        final int traceCookie = ++loadTraceCookie;
+        Trace.beginAsyncSection(TRACE_LOAD, traceCookie);
+        tasks.read(() -> {
             try {
-                // Get date range for selected month
-                long startOfMonth = DateUtils.getStartOfMonth(currentYear, currentMonth);
-                long endOfMonth = DateUtils.getEndOfMonth(currentYear, currentMonth);
-                
-                // Load all analytics data
-                double totalIncome = expenseDao.getTotalByTypeAndDateRange("income", startOfMonth, endOfMonth);
-                double totalExpenses = expenseDao.getTotalByTypeAndDateRange("expense", startOfMonth, endOfMonth);
-                double balance = totalIncome - totalExpenses;
-                
-                // Daily spending data
-                List<ExpenseDao.DailyExpenseSum> dailyExpenses = expenseDao.getDailyExpenseTotals(startOfMonth, endOfMonth);
-                double avgDaily = totalExpenses > 0 ? expenseDao.getAverageDailyExpense(startOfMonth, endOfMonth) : 0;
-                
-                // Weekly data
-                long fourWeeksAgo = DateUtils.getStartOfFourWeeksAgo();
-                List<ExpenseDao.WeeklyExpenseSum> weeklyExpenses = expenseDao.getWeeklyExpenseTotals(fourWeeksAgo, endOfMonth);
-                
-                // Needs vs Wants
-                List<ExpenseDao.NeedsWantsSum> needsWants = expenseDao.getNeedsVsWantsTotals(startOfMonth, endOfMonth);
-                
-                // Top categories
-                List<ExpenseDao.CategoryExpenseSum> topCategories = expenseDao.getTopSpendingCategories(startOfMonth, endOfMonth, 5);
-                
-                // Insights
-                int transactionCount = expenseDao.getTransactionCount("expense", startOfMonth, endOfMonth);
-                Expense highestExpense = expenseDao.getHighestExpense(startOfMonth, endOfMonth);
-                
-                // Last month data for comparison
-                Calendar lastMonthCal = Calendar.getInstance();
-                lastMonthCal.set(Calendar.YEAR, currentYear);
-                lastMonthCal.set(Calendar.MONTH, currentMonth);
-                lastMonthCal.add(Calendar.MONTH, -1);
-                long startOfLastMonth = DateUtils.getStartOfMonth(lastMonthCal.get(Calendar.YEAR), lastMonthCal.get(Calendar.MONTH));
-                long endOfLastMonth = DateUtils.getEndOfMonth(lastMonthCal.get(Calendar.YEAR), lastMonthCal.get(Calendar.MONTH));
-                double lastMonthExpenses = expenseDao.getTotalByTypeAndDateRange("expense", startOfLastMonth, endOfLastMonth);
+                // All metrics for the month in one read transaction
+                Trace.beginSection("AnalyticsActivity.loadSnapshot");
+                AnalyticsSnapshot snapshot;
+                try {
+                    snapshot = analyticsRepository.loadSnapshot(year, month);
+                } finally {
+                    Trace.endSection();
+                }
                 
                 // Update UI on main thread
-                runOnUiThread(() -> {
-                    updateFinancialOverview(totalIncome, totalExpenses, balance);
-                    updateDailySpendingChart(dailyExpenses, avgDaily);
-                    updateWeeklyComparisonChart(weeklyExpenses);
-                    updateNeedsWantsChart(needsWants, totalExpenses);
-                    updateTopCategories(topCategories, totalExpenses);
-                    updateQuickInsights(transactionCount, highestExpense, avgDaily);
-                    updateMonthOverMonth(totalExpenses, lastMonthExpenses);
-                    showLoading(false);
+                tasks.onMain(() -> {
+                    Trace.beginSection("AnalyticsActivity.bindCharts");
+                    try {
+                        double totalExpenses = snapshot.getTotalExpenses();
+                        updateFinancialOverview(snapshot.getTotalIncome(), totalExpenses, snapshot.getBalance());
+                        updateDailySpendingChart(snapshot.getDailyExpenses(), snapshot.getAverageDailyExpense());
+                        updateWeeklyComparisonChart(snapshot.getWeeklyExpenses());
+                        updateNeedsWantsChart(snapshot.getNeedsWants(), totalExpenses);
+                        updateTopCategories(snapshot.getTopCategories(), totalExpenses);
+                        updateQuickInsights(snapshot.getTransactionCount(), snapshot.getHighestExpense(), snapshot.getAverageDailyExpense());
+                        updateMonthOverMonth(totalExpenses, snapshot.getLastMonthExpenses());
+                        showLoading(false);
+                    } finally {
+                        Trace.endSection();
+                        Trace.endAsyncSection(TRACE_LOAD, traceCookie);
+                    }
                 });
                 
             } catch (Exception e) {
                 e.printStackTrace();
-                runOnUiThread(() -> {
+                Trace.endAsyncSection(TRACE_LOAD, traceCookie);
+                tasks.onMain(() -> {
                     showLoading(false);
                     Toast.makeText(this, "Error loading analytics data", Toast.LENGTH_SHORT).show();
                 });
@@ -765,12 +763,4 @@ public class AnalyticsActivity extends AppCompatActivity {
         onBackPressed();
         return true;
     }
-    
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (executorService != null && !executorService.isShutdown()) {
-            executorService.shutdown();
-        }
-    }
 }
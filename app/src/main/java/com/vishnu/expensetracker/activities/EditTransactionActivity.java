@@ -17,14 +17,14 @@ import androidx.appcompat.widget.Toolbar;
 import com.google.android.material.textfield.TextInputEditText;
 import com.vishnu.expensetracker.R;
 import com.vishnu.expensetracker.database.ExpenseDatabase;
+import com.vishnu.expensetracker.database.TransactionWriter;
 import com.vishnu.expensetracker.models.Expense;
 import com.vishnu.expensetracker.dialogs.CategorySelectionDialog;
+import com.vishnu.expensetracker.utils.AppExecutors;
 import com.vishnu.expensetracker.utils.ThemeManager;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Locale;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * Robust Edit Transaction Activity with comprehensive error handling
@@ -49,7 +49,7 @@ public class EditTransactionActivity extends AppCompatActivity {
     
     // Data and Business Logic
     private ExpenseDatabase database;
-    private ExecutorService executor;
+    private AppExecutors.TaskScope tasks;
     private Calendar selectedDate;
     private SimpleDateFormat dateFormat;
     private String selectedCategory = "";
@@ -156,8 +156,8 @@ public class EditTransactionActivity extends AppCompatActivity {
     private void setupDatabase() {
         try {
             database = ExpenseDatabase.getInstance(this);
-            executor = Executors.newSingleThreadExecutor();
-            if (database == null || executor == null) {
+            tasks = AppExecutors.getInstance().scope(this);
+            if (database == null || tasks == null) {
                 throw new RuntimeException("Failed to initialize database components");
             }
         } catch (Exception e) {
@@ -223,17 +223,17 @@ public class EditTransactionActivity extends AppCompatActivity {
      * Load expense data from database
      */
     private void loadExpenseData() {
-        if (executor == null || database == null) {
+        if (tasks == null || database == null) {
             handleError("Database not initialized", null);
             finish();
             return;
         }
         
-        executor.execute(() -> {
+        tasks.read(() -> {
             try {
                 currentExpense = database.expenseDao().getExpenseById(expenseId);
                 
-                runOnUiThread(() -> {
+                tasks.onMain(() -> {
                     if (currentExpense != null) {
                         populateFields();
                         isDataLoaded = true;
@@ -244,7 +244,7 @@ public class EditTransactionActivity extends AppCompatActivity {
                 });
                 
             } catch (Exception e) {
-                runOnUiThread(() -> {
+                tasks.onMain(() -> {
                     handleError("Error loading transaction data", e);
                     finish();
                 });
@@ -507,23 +507,23 @@ public class EditTransactionActivity extends AppCompatActivity {
      * Save updated expense to database
      */
     private void saveToDatabase() {
-        if (executor == null || database == null || currentExpense == null) {
+        if (tasks == null || database == null || currentExpense == null) {
             Toast.makeText(this, "Error: Database not available", Toast.LENGTH_SHORT).show();
             return;
         }
         
-        executor.execute(() -> {
+        tasks.write(() -> {
             try {
-                database.expenseDao().update(currentExpense);
+                new TransactionWriter(database).update(currentExpense);
                 
-                runOnUiThread(() -> {
+                tasks.onMain(() -> {
                     Toast.makeText(this, "Transaction updated successfully!", Toast.LENGTH_SHORT).show();
                     setResult(RESULT_OK);
                     finish();
                 });
                 
             } catch (Exception e) {
-                runOnUiThread(() -> {
+                tasks.onMain(() -> {
                     handleError("Error saving transaction", e);
                 });
             }
@@ -543,14 +543,6 @@ public class EditTransactionActivity extends AppCompatActivity {
         }
     }
     
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdown();
-        }
-    }
-    
     /**
      * Helper class to hold transaction data
      */
@@ -5,6 +5,7 @@ import android.os.Bundle;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
+import android.widget.EditText;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -19,27 +20,30 @@ import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.android.material.snackbar.Snackbar;
 import com.vishnu.expensetracker.R;
-import com.vishnu.expensetracker.adapters.ExpenseAdapter;
+import com.vishnu.expensetracker.adapters.ExpensePagingAdapter;
+import com.vishnu.expensetracker.backup.AutoBackup;
+import com.vishnu.expensetracker.database.ExpenseDao;
 import com.vishnu.expensetracker.database.ExpenseDatabase;
+import com.vishnu.expensetracker.database.RetentionEngine;
 import com.vishnu.expensetracker.models.Expense;
 import com.vishnu.expensetracker.models.BalanceSummary;
 import com.vishnu.expensetracker.models.MonthlySummary;
+import com.vishnu.expensetracker.models.TransactionFilter;
 import com.vishnu.expensetracker.repository.BalanceRepository;
+import com.vishnu.expensetracker.repository.DuplicateDetector;
 import com.vishnu.expensetracker.utils.CurrencyFormatter;
 import com.vishnu.expensetracker.utils.MonthlyUtils;
 import com.vishnu.expensetracker.utils.SwipeToDeleteCallback;
 import com.vishnu.expensetracker.utils.ThemeManager;
 import com.vishnu.expensetracker.viewmodel.ExpenseViewModel;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Executors;
 
 public class MainActivity extends AppCompatActivity {
     
     private static final int REQUEST_CODE_EDIT_TRANSACTION = 100;
     
     private RecyclerView recyclerView;
-    private ExpenseAdapter adapter;
+    private ExpensePagingAdapter adapter;
     private TextView tvTotalBalance, tvTotalIncome, tvTotalExpense;
     private FloatingActionButton fabAddExpense;
     private BottomNavigationView bottomNavigation;
@@ -59,6 +63,9 @@ public class MainActivity extends AppCompatActivity {
     private double currentIncome = 0.0;
     private double currentExpenses = 0.0;
     
+    // Totals for the active filter, shown in the filter dialog
+    private List<ExpenseDao.FilterTotal> filteredTotals;
+    
     // Snackbar for undo functionality
     private Snackbar undoSnackbar;
     
@@ -99,22 +106,29 @@ public class MainActivity extends AppCompatActivity {
         progressBudget = monthlyOverviewCard.findViewById(R.id.progress_budget);
         
         database = ExpenseDatabase.getInstance(this);
-        balanceRepository = new BalanceRepository(database.expenseDao());
+        balanceRepository = new BalanceRepository(database);
+        // Load the duplicate filter in the background so imports and new entries find it ready
+        DuplicateDetector.getInstance(database);
         
         // Initialize ViewModel
         expenseViewModel = new ViewModelProvider(this).get(ExpenseViewModel.class);
     }
     
     private void setupRecyclerView() {
-        adapter = new ExpenseAdapter(new ArrayList<>(), this);
+        adapter = new ExpensePagingAdapter(this);
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         recyclerView.setAdapter(adapter);
         
+        // Paged list: Room invalidates it on every write, so this is observed once here rather than in loadData
+        expenseViewModel.getPagedExpenses().observe(this, pagingData ->
+                adapter.submitData(getLifecycle(), pagingData));
+        expenseViewModel.getFilteredTotals().observe(this, totals -> filteredTotals = totals);
+        
         // Set up swipe-to-delete functionality
         setupSwipeToDelete();
         
         // Set up expense item click listeners
-        adapter.setOnExpenseClickListener(new ExpenseAdapter.OnExpenseClickListener() {
+        adapter.setOnExpenseClickListener(new ExpensePagingAdapter.OnExpenseClickListener() {
             @Override
             public void onExpenseClick(Expense expense) {
                 // Handle expense item click (optional - could show details)
@@ -151,11 +165,13 @@ public class MainActivity extends AppCompatActivity {
         SwipeToDeleteCallback swipeCallback = new SwipeToDeleteCallback(this) {
             @Override
             public void onSwiped(@NonNull RecyclerView.ViewHolder viewHolder, int direction) {
-                int position = viewHolder.getAdapterPosition();
-                if (position != RecyclerView.NO_POSITION && adapter.getExpenses() != null 
-                        && position < adapter.getExpenses().size()) {
-                    Expense expense = adapter.getExpenses().get(position);
+                int position = viewHolder.getBindingAdapterPosition();
+                Expense expense = position != RecyclerView.NO_POSITION ? adapter.getExpenseAt(position) : null;
+                if (expense != null) {
                     deleteTransaction(expense);
+                } else if (position != RecyclerView.NO_POSITION) {
+                    // Placeholder row - put it back
+                    adapter.notifyItemChanged(position);
                 }
             }
         };
@@ -187,13 +203,6 @@ public class MainActivity extends AppCompatActivity {
     }
     
     private void loadData() {
-        // Load expenses
-        database.expenseDao().getAllExpenses().observe(this, expenses -> {
-            if (expenses != null) {
-                adapter.updateExpenses(expenses);
-            }
-        });
-        
         // Load comprehensive balance summary with real-time updates
         balanceRepository.getBalanceSummary().observe(this, balanceSummary -> {
             if (balanceSummary != null) {
@@ -240,6 +249,14 @@ public class MainActivity extends AppCompatActivity {
         balanceRepository.refreshMonthlyData();
     }
     
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // Back up and purge old trash while the app leaves the foreground, at most once a day each
+        AutoBackup.runIfDue(this, database);
+        RetentionEngine.runIfDue(this, database);
+    }
+    
     /**
      * Update the Monthly Overview Card with summary data
      */
@@ -379,31 +396,104 @@ public class MainActivity extends AppCompatActivity {
     public boolean onOptionsItemSelected(@NonNull MenuItem item) {
         int id = item.getItemId();
         if (id == R.id.action_search) {
-            // Implement search functionality
+            showSearchDialog();
             return true;
         } else if (id == R.id.action_filter) {
-            // Implement filter functionality
+            showFilterDialog();
             return true;
         }
         return super.onOptionsItemSelected(item);
     }
     
+    /**
+     * Pick a preset filter for the transaction list; the search text (if any) is kept
+     */
+    private void showFilterDialog() {
+        String[] options = {"All transactions", "Income only", "Expenses only", "This month", "Needs only", "Wants only"};
+        StringBuilder title = new StringBuilder("Filter");
+        if (filteredTotals != null && !expenseViewModel.getFilter().isEmpty()) {
+            int count = 0;
+            long spentMinor = 0;
+            for (ExpenseDao.FilterTotal total : filteredTotals) {
+                count += total.count;
+                if ("expense".equals(total.type)) {
+                    spentMinor += total.totalMinor;
+                }
+            }
+            title.append(" (").append(count).append(" shown, ")
+                    .append(CurrencyFormatter.formatMinor(spentMinor)).append(" spent)");
+        }
+        
+        new AlertDialog.Builder(this)
+                .setTitle(title.toString())
+                .setItems(options, (dialog, which) -> {
+                    TransactionFilter filter = new TransactionFilter();
+                    filter.setText(expenseViewModel.getFilter().getText());
+                    switch (which) {
+                        case 1:
+                            filter.setType("income");
+                            break;
+                        case 2:
+                            filter.setType("expense");
+                            break;
+                        case 3:
+                            MonthlyUtils.DateRange month = MonthlyUtils.getCurrentMonthRange();
+                            filter.setStartDate(month.getStartTimestamp());
+                            filter.setEndDate(month.getEndTimestamp());
+                            break;
+                        case 4:
+                            filter.setType("expense");
+                            filter.setEssential(true);
+                            break;
+                        case 5:
+                            filter.setType("expense");
+                            filter.setEssential(false);
+                            break;
+                        default:
+                            break;
+                    }
+                    expenseViewModel.setFilter(filter);
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+    
+    /**
+     * Ask for search text and filter the transaction list by it
+     */
+    private void showSearchDialog() {
+        EditText input = new EditText(this);
+        input.setHint("Title, note or category");
+        input.setSingleLine(true);
+        
+        AlertDialog.Builder builder = new AlertDialog.Builder(this)
+                .setTitle("Search Transactions")
+                .setView(input)
+                .setPositiveButton("Search", (dialog, which) ->
+                        expenseViewModel.setSearchText(input.getText().toString()))
+                .setNegativeButton("Cancel", null);
+        if (expenseViewModel.isSearchActive()) {
+            builder.setNeutralButton("Show All", (dialog, which) -> expenseViewModel.setSearchText(""));
+        }
+        builder.show();
+    }
+    
     @Override
     protected void onActivityResult(int requestCode, int resultCode, Intent data) {
         super.onActivityResult(requestCode, resultCode, data);
         
         if (requestCode == REQUEST_CODE_EDIT_TRANSACTION && resultCode == RESULT_OK) {
-            // Transaction was updated successfully, refresh the data
-            loadData();
+            // Transaction was updated successfully; the observers from loadData() pick up the change,
+            // only the monthly summary needs an explicit refresh
+            balanceRepository.refreshMonthlyData();
         }
     }
     
     @Override
     protected void onResume() {
         super.onResume();
-        // Refresh data when returning to this activity
-        loadData();
-        // Also refresh monthly data
+        // Observers registered in onCreate stay attached; re-observing here would stack duplicates.
+        // Refresh monthly data in case the month rolled over while away
         balanceRepository.refreshMonthlyData();
     }
     
@@ -417,7 +507,7 @@ public class MainActivity extends AppCompatActivity {
                 .setTitle("Delete Transaction")
                 .setMessage("Are you sure you want to delete this transaction?\n\n" +
                         "📝 " + expense.getTitle() + "\n" +
-                        "💰 " + CurrencyFormatter.formatCurrency(expense.getAmount()) + "\n" +
+                        "💰 " + CurrencyFormatter.formatMinor(expense.getAmountMinor()) + "\n" +
                         "📁 " + expense.getCategory())
                 .setPositiveButton("Delete", (dialog, which) -> {
                     deleteTransaction(expense);
@@ -435,9 +525,7 @@ public class MainActivity extends AppCompatActivity {
      */
     private void deleteTransaction(Expense expense) {
         // Use ViewModel's soft delete with undo capability
+        // (the monthly summary refreshes when the income/expense totals emit after the write)
         expenseViewModel.softDeleteTransaction(expense);
-        
-        // Refresh monthly data after deletion
-        balanceRepository.refreshMonthlyData();
     }
 }
\ No newline at end of file
@@ -1,9 +1,13 @@
 package com.vishnu.expensetracker.activities;
 
+import android.content.ClipData;
+import android.content.ClipboardManager;
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.SharedPreferences;
+import android.net.Uri;
 import android.os.Bundle;
+import android.os.CancellationSignal;
 import android.widget.LinearLayout;
 import android.widget.Switch;
 import android.widget.TextView;
@@ -12,13 +16,40 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 import com.vishnu.expensetracker.R;
+import com.vishnu.expensetracker.backup.AutoBackup;
 import com.vishnu.expensetracker.database.ExpenseDatabase;
+import com.vishnu.expensetracker.database.QueryMetrics;
+import com.vishnu.expensetracker.database.RetentionEngine;
+import com.vishnu.expensetracker.database.TransactionWriter;
+import com.vishnu.expensetracker.export.CsvExporter;
+import com.vishnu.expensetracker.importer.CsvStatementParser;
+import com.vishnu.expensetracker.importer.ImportPipeline;
+import com.vishnu.expensetracker.importer.ImportReport;
+import com.vishnu.expensetracker.importer.OfxStatementParser;
+import com.vishnu.expensetracker.importer.StatementParser;
+import com.vishnu.expensetracker.utils.AppExecutors;
 import com.vishnu.expensetracker.utils.ThemeManager;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import com.vishnu.expensetracker.utils.ThreadGuard;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.DateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
 
 public class SettingsActivity extends AppCompatActivity {
     
+    private static final int REQUEST_CODE_EXPORT_CSV = 200;
+    private static final int REQUEST_CODE_EXPORT_CSV_GZIP = 201;
+    private static final int REQUEST_CODE_IMPORT_STATEMENT = 202;
+    private static final int SNIFF_LENGTH = 1024;
+    private static final int METRICS_SHOWN = 15;
+    private static final int METRICS_SQL_LENGTH = 120;
+    
     private Switch switchTheme, switchNotifications, switchAutoBackup;
     private LinearLayout llThemeSelection, llDataManagement, llExportData, 
                         llImportData, llClearData, llAbout, llPrivacyPolicy;
@@ -27,7 +58,7 @@ public class SettingsActivity extends AppCompatActivity {
     
     private ThemeManager themeManager;
     private ExpenseDatabase database;
-    private ExecutorService executor;
+    private AppExecutors.TaskScope tasks;
     private SharedPreferences preferences;
     
     @Override
@@ -64,7 +95,7 @@ public class SettingsActivity extends AppCompatActivity {
         tvAppVersion = findViewById(R.id.tv_app_version);
         
         database = ExpenseDatabase.getInstance(this);
-        executor = Executors.newSingleThreadExecutor();
+        tasks = AppExecutors.getInstance().scope(this);
         preferences = getSharedPreferences("app_preferences", MODE_PRIVATE);
     }
     
@@ -115,15 +146,26 @@ public class SettingsActivity extends AppCompatActivity {
             preferences.edit().putBoolean("auto_backup_enabled", isChecked).apply();
             Toast.makeText(this, isChecked ? "Auto backup enabled" : "Auto backup disabled", 
                          Toast.LENGTH_SHORT).show();
+            if (isChecked) {
+                AutoBackup.runIfDue(this, database);
+            }
         });
         
         // Data management options
+        llDataManagement.setOnClickListener(v -> showDataManagementDialog());
         llExportData.setOnClickListener(v -> exportData());
         llImportData.setOnClickListener(v -> importData());
         llClearData.setOnClickListener(v -> showClearDataDialog());
         
         // About and privacy
         llAbout.setOnClickListener(v -> showAboutDialog());
+        // Hidden debug screen; release builds record no query metrics
+        if (ThreadGuard.isDebuggable(this)) {
+            llAbout.setOnLongClickListener(v -> {
+                showQueryMetricsDialog();
+                return true;
+            });
+        }
         llPrivacyPolicy.setOnClickListener(v -> showPrivacyPolicyDialog());
         
         // Back button
@@ -214,13 +256,215 @@ public class SettingsActivity extends AppCompatActivity {
     }
     
     private void exportData() {
-        Toast.makeText(this, "Export feature coming soon!", Toast.LENGTH_SHORT).show();
-        // TODO: Implement data export functionality
+        String[] formats = {"CSV", "Compressed CSV (.csv.gz)"};
+        new AlertDialog.Builder(this)
+                .setTitle("Export Transactions")
+                .setItems(formats, (dialog, which) -> {
+                    boolean gzip = which == 1;
+                    Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
+                    intent.addCategory(Intent.CATEGORY_OPENABLE);
+                    intent.setType(gzip ? "application/gzip" : "text/csv");
+                    intent.putExtra(Intent.EXTRA_TITLE, gzip ? "expenses.csv.gz" : "expenses.csv");
+                    startActivityForResult(intent, gzip ? REQUEST_CODE_EXPORT_CSV_GZIP : REQUEST_CODE_EXPORT_CSV);
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+    
+    @Override
+    protected void onActivityResult(int requestCode, int resultCode, Intent data) {
+        super.onActivityResult(requestCode, resultCode, data);
+        
+        if ((requestCode == REQUEST_CODE_EXPORT_CSV || requestCode == REQUEST_CODE_EXPORT_CSV_GZIP)
+                && resultCode == RESULT_OK && data != null && data.getData() != null) {
+            runExport(data.getData(), requestCode == REQUEST_CODE_EXPORT_CSV_GZIP);
+        } else if (requestCode == REQUEST_CODE_IMPORT_STATEMENT && resultCode == RESULT_OK
+                && data != null && data.getData() != null) {
+            runImport(data.getData());
+        }
+    }
+    
+    private void runExport(Uri uri, boolean gzip) {
+        CancellationSignal signal = new CancellationSignal();
+        AlertDialog progressDialog = new AlertDialog.Builder(this)
+                .setTitle("Exporting")
+                .setMessage("Preparing export...")
+                .setCancelable(false)
+                .setNegativeButton("Cancel", (dialog, which) -> signal.cancel())
+                .show();
+        
+        tasks.read(() -> {
+            String message;
+            try (OutputStream out = getContentResolver().openOutputStream(uri)) {
+                if (out == null) {
+                    throw new java.io.IOException("Cannot open " + uri);
+                }
+                CsvExporter.Result result = new CsvExporter(database).export(out, gzip, null,
+                        (written, total, checkpoint) -> {
+                            // Stop between chunks once the screen is gone
+                            if (tasks.isCancelled()) {
+                                signal.cancel();
+                            }
+                            tasks.onMain(() -> progressDialog.setMessage(
+                                    "Exported " + written + " of " + total + " transactions"));
+                        },
+                        signal);
+                message = result.isCancelled()
+                        ? "Export cancelled after " + result.getRowsWritten() + " transactions"
+                        : "Exported " + result.getRowsWritten() + " transactions";
+            } catch (Exception e) {
+                android.util.Log.e("SettingsActivity", "Error exporting transactions", e);
+                message = "Export failed";
+            }
+            String finalMessage = message;
+            tasks.onMain(() -> {
+                progressDialog.dismiss();
+                Toast.makeText(this, finalMessage, Toast.LENGTH_SHORT).show();
+            });
+        });
     }
     
     private void importData() {
-        Toast.makeText(this, "Import feature coming soon!", Toast.LENGTH_SHORT).show();
-        // TODO: Implement data import functionality
+        Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.setType("*/*");
+        intent.putExtra(Intent.EXTRA_MIME_TYPES, new String[]{
+                "text/csv", "text/comma-separated-values", "text/plain",
+                "application/x-ofx", "application/vnd.intu.qfx", "application/octet-stream"});
+        startActivityForResult(intent, REQUEST_CODE_IMPORT_STATEMENT);
+    }
+    
+    private void runImport(Uri uri) {
+        CancellationSignal signal = new CancellationSignal();
+        AlertDialog progressDialog = new AlertDialog.Builder(this)
+                .setTitle("Importing")
+                .setMessage("Reading statement...")
+                .setCancelable(false)
+                .setNegativeButton("Cancel", (dialog, which) -> signal.cancel())
+                .show();
+        
+        tasks.write(() -> {
+            String message;
+            try {
+                InputStream in = getContentResolver().openInputStream(uri);
+                if (in == null) {
+                    throw new IOException("Cannot open " + uri);
+                }
+                ImportReport report = new ImportPipeline(database).run(openStatement(in),
+                        (read, imported, rejected) -> tasks.onMain(() -> progressDialog.setMessage(
+                                "Imported " + imported + " transactions, " + rejected + " rejected")),
+                        signal);
+                message = "Imported " + report.getRowsImported() + " transactions"
+                        + (report.getRowsRejected() > 0 ? ", " + report.getRowsRejected() + " rejected" : "")
+                        + (report.getRowsDuplicate() > 0 ? ", " + report.getRowsDuplicate() + " duplicates skipped" : "")
+                        + (report.isCancelled() ? " (cancelled)" : "");
+                android.util.Log.i("SettingsActivity", message + " at "
+                        + Math.round(report.getRowsPerSecond()) + " rows/s");
+                for (ImportReport.Rejection rejection : report.getRejections()) {
+                    android.util.Log.w("SettingsActivity", "Rejected " + rejection);
+                }
+            } catch (Exception e) {
+                android.util.Log.e("SettingsActivity", "Error importing statement", e);
+                message = "Import failed";
+            }
+            String finalMessage = message;
+            tasks.onMain(() -> {
+                progressDialog.dismiss();
+                Toast.makeText(this, finalMessage, Toast.LENGTH_LONG).show();
+            });
+        });
+    }
+    
+    /**
+     * CSV or OFX parser for the statement, chosen from its first characters
+     */
+    private static StatementParser openStatement(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        reader.mark(SNIFF_LENGTH);
+        char[] head = new char[SNIFF_LENGTH];
+        int length = reader.read(head, 0, SNIFF_LENGTH);
+        reader.reset();
+        String start = length > 0 ? new String(head, 0, length).toUpperCase(Locale.ROOT) : "";
+        if (start.contains("OFXHEADER") || start.contains("<OFX>")) {
+            return new OfxStatementParser(reader);
+        }
+        return new CsvStatementParser(reader);
+    }
+    
+    private void showDataManagementDialog() {
+        String retention = "Trash Retention";
+        RetentionEngine.Report report = RetentionEngine.getLastReport(this);
+        if (report != null) {
+            String when = DateFormat.getDateInstance(DateFormat.MEDIUM).format(new Date(report.runAt));
+            retention += "\nLast cleanup " + when + ": " + report.purgedRows + " removed, "
+                    + (report.reclaimedBytes / 1024) + " KB freed";
+        }
+        String[] options = {"Backups", retention};
+        new AlertDialog.Builder(this)
+                .setTitle("Data Management")
+                .setItems(options, (dialog, which) -> {
+                    if (which == 0) {
+                        showBackupDialog();
+                    } else {
+                        showRetentionDialog();
+                    }
+                })
+                .show();
+    }
+    
+    private void showRetentionDialog() {
+        String[] options = {"7 days", "30 days", "90 days", "Keep forever"};
+        int[] days = {7, 30, 90, 0};
+        int current = RetentionEngine.getRetentionDays(this);
+        int checked = 1;
+        for (int i = 0; i < days.length; i++) {
+            if (days[i] == current) {
+                checked = i;
+            }
+        }
+        
+        new AlertDialog.Builder(this)
+                .setTitle("Trash Retention")
+                .setSingleChoiceItems(options, checked, (dialog, which) -> {
+                    RetentionEngine.setRetentionDays(this, days[which]);
+                    dialog.dismiss();
+                    Toast.makeText(this, "Trash retention: " + options[which], Toast.LENGTH_SHORT).show();
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+    
+    private void showBackupDialog() {
+        long latest = AutoBackup.getLatestBackupTime(this);
+        if (latest == 0) {
+            new AlertDialog.Builder(this)
+                    .setTitle("Backups")
+                    .setMessage("No backup yet. Turn on auto backup to back up your transactions daily.")
+                    .setPositiveButton("OK", null)
+                    .show();
+            return;
+        }
+        String when = DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.SHORT).format(new Date(latest));
+        new AlertDialog.Builder(this)
+                .setTitle("Backups")
+                .setMessage("Latest backup: " + when + "\n\nRestoring replaces all current transactions with the backup.")
+                .setPositiveButton("Restore", (dialog, which) -> restoreBackup())
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+    
+    private void restoreBackup() {
+        tasks.write(() -> {
+            String message;
+            try {
+                message = AutoBackup.restoreLatest(this, database) ? "Backup restored" : "No backup to restore";
+            } catch (Exception e) {
+                android.util.Log.e("SettingsActivity", "Error restoring backup", e);
+                message = "Restore failed";
+            }
+            String finalMessage = message;
+            tasks.onMain(() -> Toast.makeText(this, finalMessage, Toast.LENGTH_SHORT).show());
+        });
     }
     
     private void showClearDataDialog() {
@@ -234,9 +478,9 @@ public class SettingsActivity extends AppCompatActivity {
     }
     
     private void clearAllData() {
-        executor.execute(() -> {
-            database.expenseDao().deleteAllExpenses();
-            runOnUiThread(() -> {
+        tasks.write(() -> {
+            new TransactionWriter(database).deleteAll();
+            tasks.onMain(() -> {
                 Toast.makeText(this, "All data cleared successfully", Toast.LENGTH_SHORT).show();
             });
         });
@@ -260,6 +504,42 @@ public class SettingsActivity extends AppCompatActivity {
                 .show();
     }
     
+    private void showQueryMetricsDialog() {
+        List<QueryMetrics.StatementStats> snapshot = QueryMetrics.snapshot();
+        StringBuilder message = new StringBuilder();
+        if (snapshot.isEmpty()) {
+            message.append("No queries recorded yet.");
+        }
+        int shown = Math.min(snapshot.size(), METRICS_SHOWN);
+        for (int i = 0; i < shown; i++) {
+            QueryMetrics.StatementStats stats = snapshot.get(i);
+            String sql = stats.sql.length() > METRICS_SQL_LENGTH
+                    ? stats.sql.substring(0, METRICS_SQL_LENGTH) + "…" : stats.sql;
+            message.append(sql).append('\n')
+                    .append(String.format(Locale.US, "%d runs, p50 %.2f / p90 %.2f / p99 %.2f / max %.2f ms, %d rows",
+                            stats.count, stats.p50Nanos / 1e6, stats.p90Nanos / 1e6, stats.p99Nanos / 1e6,
+                            stats.maxNanos / 1e6, stats.rows));
+            if (stats.mainThreadCount > 0) {
+                message.append(", ").append(stats.mainThreadCount).append(" on main thread");
+            }
+            message.append("\n\n");
+        }
+        
+        new AlertDialog.Builder(this)
+                .setTitle("Query Metrics")
+                .setMessage(message.toString().trim())
+                .setPositiveButton("Copy JSON", (dialog, which) -> {
+                    ClipboardManager clipboard = (ClipboardManager) getSystemService(CLIPBOARD_SERVICE);
+                    if (clipboard != null) {
+                        clipboard.setPrimaryClip(ClipData.newPlainText("Query metrics", QueryMetrics.toJson()));
+                        Toast.makeText(this, "Query metrics copied", Toast.LENGTH_SHORT).show();
+                    }
+                })
+                .setNeutralButton("Reset", (dialog, which) -> QueryMetrics.reset())
+                .setNegativeButton("Close", null)
+                .show();
+    }
+    
     private void showPrivacyPolicyDialog() {
         new AlertDialog.Builder(this)
                 .setTitle("Privacy Policy")
@@ -275,12 +555,4 @@ public class SettingsActivity extends AppCompatActivity {
                 .setIcon(R.drawable.ic_security)
                 .show();
     }
-    
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (executor != null) {
-            executor.shutdown();
-        }
-    }
 }
\ No newline at end of file
@@ -7,18 +7,28 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 import com.vishnu.expensetracker.R;
 import com.vishnu.expensetracker.utils.CategoryManager;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
+/**
+ * Grid of categories for CategorySelectionDialog
+ * Lists are diffed in the background; the selection is tracked by category name so it survives
+ * list updates, and selection changes only recolor the affected cells.
+ */
 public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.CategoryViewHolder> {
     
-    private List<CategoryManager.CategoryData> categories;
+    private static final Object PAYLOAD_SELECTION = new Object();
+    
+    private final AsyncListDiffer<CategoryManager.CategoryData> differ;
     private Context context;
     private OnCategorySelectedListener listener;
-    private int selectedPosition = -1;
+    private String selectedName;
     
     public interface OnCategorySelectedListener {
         void onCategorySelected(CategoryManager.CategoryData category, int position);
@@ -27,24 +37,38 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
     public CategoryAdapter(Context context, OnCategorySelectedListener listener) {
         this.context = context;
         this.listener = listener;
-        this.categories = new ArrayList<>();
+        this.differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+        setHasStableIds(true);
     }
     
     public void updateCategories(List<CategoryManager.CategoryData> categories) {
-        this.categories = categories;
-        notifyDataSetChanged();
+        differ.submitList(categories);
     }
     
     public void setSelectedPosition(int position) {
-        int previousSelection = selectedPosition;
-        selectedPosition = position;
+        List<CategoryManager.CategoryData> categories = differ.getCurrentList();
+        int previousSelection = indexOf(selectedName);
+        selectedName = position >= 0 && position < categories.size() ? categories.get(position).name : null;
         
         if (previousSelection != -1) {
-            notifyItemChanged(previousSelection);
+            notifyItemChanged(previousSelection, PAYLOAD_SELECTION);
+        }
+        if (selectedName != null) {
+            notifyItemChanged(position, PAYLOAD_SELECTION);
+        }
+    }
+    
+    private int indexOf(String name) {
+        if (name == null) {
+            return -1;
         }
-        if (selectedPosition != -1) {
-            notifyItemChanged(selectedPosition);
+        List<CategoryManager.CategoryData> categories = differ.getCurrentList();
+        for (int i = 0; i < categories.size(); i++) {
+            if (name.equals(categories.get(i).name)) {
+                return i;
+            }
         }
+        return -1;
     }
     
     @NonNull
@@ -56,15 +80,63 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
     
     @Override
     public void onBindViewHolder(@NonNull CategoryViewHolder holder, int position) {
-        CategoryManager.CategoryData category = categories.get(position);
-        holder.bind(category, position == selectedPosition);
+        CategoryManager.CategoryData category = differ.getCurrentList().get(position);
+        holder.bind(category, isSelected(category));
+    }
+    
+    @Override
+    public void onBindViewHolder(@NonNull CategoryViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        CategoryManager.CategoryData category = differ.getCurrentList().get(position);
+        holder.bindSelection(category, isSelected(category));
     }
     
     @Override
     public int getItemCount() {
-        return categories.size();
+        return differ.getCurrentList().size();
+    }
+    
+    @Override
+    public long getItemId(int position) {
+        // Names are unique within a category list
+        return differ.getCurrentList().get(position).name.hashCode();
+    }
+    
+    private boolean isSelected(CategoryManager.CategoryData category) {
+        return category.name.equals(selectedName);
     }
     
+    private static final DiffUtil.ItemCallback<CategoryManager.CategoryData> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<CategoryManager.CategoryData>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull CategoryManager.CategoryData oldItem,
+                                               @NonNull CategoryManager.CategoryData newItem) {
+                    return oldItem.name.equals(newItem.name);
+                }
+                
+                @Override
+                public boolean areContentsTheSame(@NonNull CategoryManager.CategoryData oldItem,
+                                                  @NonNull CategoryManager.CategoryData newItem) {
+                    return Objects.equals(oldItem.icon, newItem.icon)
+                            && Objects.equals(oldItem.color, newItem.color)
+                            && Objects.equals(oldItem.subcategories, newItem.subcategories);
+                }
+                
+                @Nullable
+                @Override
+                public Object getChangePayload(@NonNull CategoryManager.CategoryData oldItem,
+                                               @NonNull CategoryManager.CategoryData newItem) {
+                    // Only the subcategory list changed - the cell itself looks the same
+                    if (Objects.equals(oldItem.icon, newItem.icon) && Objects.equals(oldItem.color, newItem.color)) {
+                        return PAYLOAD_SELECTION;
+                    }
+                    return null;
+                }
+            };
+    
     public class CategoryViewHolder extends RecyclerView.ViewHolder {
         private TextView tvCategoryIcon;
         private TextView tvCategoryName;
@@ -80,7 +152,7 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
                 int position = getAdapterPosition();
                 if (position != RecyclerView.NO_POSITION && listener != null) {
                     setSelectedPosition(position);
-                    listener.onCategorySelected(categories.get(position), position);
+                    listener.onCategorySelected(differ.getCurrentList().get(position), position);
                 }
             });
         }
@@ -88,7 +160,10 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
         public void bind(CategoryManager.CategoryData category, boolean isSelected) {
             tvCategoryIcon.setText(category.icon);
             tvCategoryName.setText(category.name);
-            
+            bindSelection(category, isSelected);
+        }
+        
+        public void bindSelection(CategoryManager.CategoryData category, boolean isSelected) {
             // Set background color based on selection and category color
             if (isSelected) {
                 categoryContainer.setBackgroundColor(Color.parseColor(category.color));
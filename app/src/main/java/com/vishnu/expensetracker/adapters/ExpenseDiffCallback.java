@@ -0,0 +1,83 @@
+package com.vishnu.expensetracker.adapters;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import com.vishnu.expensetracker.models.Expense;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Diff rules for transaction rows
+ * Room returns new Expense instances on every emission, so contents are compared field by field.
+ * The change payload is a bitmask of the PAYLOAD_* flags so adapters can rebind only the views
+ * whose data changed (e.g. just the amount).
+ */
+public class ExpenseDiffCallback extends DiffUtil.ItemCallback<Expense> {
+
+    public static final int PAYLOAD_TITLE = 1;
+    public static final int PAYLOAD_AMOUNT = 1 << 1; // amount or type (sign and color)
+    public static final int PAYLOAD_CATEGORY = 1 << 2;
+    public static final int PAYLOAD_DATE = 1 << 3;
+    public static final int PAYLOAD_PAYMENT_METHOD = 1 << 4;
+
+    @Override
+    public boolean areItemsTheSame(@NonNull Expense oldItem, @NonNull Expense newItem) {
+        return oldItem.getId() == newItem.getId();
+    }
+
+    @Override
+    public boolean areContentsTheSame(@NonNull Expense oldItem, @NonNull Expense newItem) {
+        return changedFields(oldItem, newItem) == 0
+                && oldItem.isEssential() == newItem.isEssential()
+                && Objects.equals(oldItem.getSubcategory(), newItem.getSubcategory());
+    }
+
+    @Nullable
+    @Override
+    public Object getChangePayload(@NonNull Expense oldItem, @NonNull Expense newItem) {
+        // An empty mask (e.g. only the subcategory changed) rebinds nothing
+        return changedFields(oldItem, newItem);
+    }
+
+    /**
+     * Bitmask of the displayed fields that differ between two versions of a row
+     */
+    static int changedFields(Expense oldItem, Expense newItem) {
+        int changed = 0;
+        if (!Objects.equals(oldItem.getTitle(), newItem.getTitle())) {
+            changed |= PAYLOAD_TITLE;
+        }
+        if (oldItem.getAmount() != newItem.getAmount() || !Objects.equals(oldItem.getType(), newItem.getType())) {
+            changed |= PAYLOAD_AMOUNT;
+        }
+        if (!Objects.equals(oldItem.getCategory(), newItem.getCategory())) {
+            changed |= PAYLOAD_CATEGORY;
+        }
+        if (!Objects.equals(oldItem.getDate(), newItem.getDate())) {
+            changed |= PAYLOAD_DATE;
+        }
+        if (!Objects.equals(oldItem.getPaymentMethod(), newItem.getPaymentMethod())) {
+            changed |= PAYLOAD_PAYMENT_METHOD;
+        }
+        return changed;
+    }
+
+    /**
+     * Merge the payloads RecyclerView collected for one row into a single mask
+     * @return The combined PAYLOAD_* flags, or -1 if a full rebind is required
+     */
+    static int mergePayloads(List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            return -1;
+        }
+        int mask = 0;
+        for (Object payload : payloads) {
+            if (!(payload instanceof Integer)) {
+                return -1;
+            }
+            mask |= (Integer) payload;
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,252 @@
+package com.vishnu.expensetracker.adapters;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.tracing.Trace;
+import com.google.android.material.button.MaterialButton;
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
+import com.vishnu.expensetracker.R;
+import com.vishnu.expensetracker.models.Expense;
+import com.vishnu.expensetracker.utils.CurrencyFormatter;
+import java.util.List;
+
+/**
+ * Adapter for the main transaction list, backed by Paging 3
+ * Only the pages around the visible window are held in memory; rows that are not loaded yet
+ * are bound as empty placeholders so the scrollbar reflects the full list size.
+ */
+public class ExpensePagingAdapter extends PagingDataAdapter<Expense, ExpensePagingAdapter.ExpenseViewHolder> {
+
+    private final Context context;
+    private OnExpenseClickListener listener;
+    private boolean showDeleteConfirmation = true;
+    
+    public interface OnExpenseClickListener {
+        void onExpenseClick(Expense expense);
+        void onExpenseLongClick(Expense expense);
+        void onEditClick(Expense expense);
+        void onDeleteClick(Expense expense);
+    }
+
+    public ExpensePagingAdapter(Context context) {
+        super(new ExpenseDiffCallback());
+        this.context = context;
+    }
+
+    public void setOnExpenseClickListener(OnExpenseClickListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Enable or disable the delete confirmation dialog
+     * @param show true to show confirmation, false to delete immediately
+     */
+    public void setShowDeleteConfirmation(boolean show) {
+        this.showDeleteConfirmation = show;
+    }
+
+    @NonNull
+    @Override
+    public ExpenseViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(context).inflate(R.layout.item_expense, parent, false);
+        return new ExpenseViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ExpenseViewHolder holder, int position) {
+        Trace.beginSection("ExpensePagingAdapter.bind");
+        try {
+            Expense expense = getItem(position);
+            if (expense != null) {
+                holder.bind(expense);
+            } else {
+                holder.bindPlaceholder();
+            }
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ExpenseViewHolder holder, int position, @NonNull List<Object> payloads) {
+        int changed = ExpenseDiffCallback.mergePayloads(payloads);
+        Expense expense = changed < 0 ? null : getItem(position);
+        if (expense == null) {
+            onBindViewHolder(holder, position);
+        } else {
+            Trace.beginSection("ExpensePagingAdapter.bindChanges");
+            try {
+                holder.bindChanges(expense, changed);
+            } finally {
+                Trace.endSection();
+            }
+        }
+    }
+
+    /**
+     * Get the loaded expense at a position without triggering a page load
+     * @return The expense, or null if the position is still a placeholder
+     */
+    @Nullable
+    public Expense getExpenseAt(int position) {
+        if (position < 0 || position >= getItemCount()) {
+            return null;
+        }
+        return peek(position);
+    }
+
+    class ExpenseViewHolder extends RecyclerView.ViewHolder {
+        TextView tvTitle, tvCategory, tvAmount, tvDate, tvPaymentMethod;
+        MaterialButton btnEdit, btnDelete;
+        View colorIndicator;
+
+        public ExpenseViewHolder(@NonNull View itemView) {
+            super(itemView);
+            tvTitle = itemView.findViewById(R.id.tv_expense_title);
+            tvCategory = itemView.findViewById(R.id.tv_expense_category);
+            tvAmount = itemView.findViewById(R.id.tv_expense_amount);
+            tvDate = itemView.findViewById(R.id.tv_expense_date);
+            tvPaymentMethod = itemView.findViewById(R.id.tv_payment_method);
+            btnEdit = itemView.findViewById(R.id.btn_edit_transaction);
+            btnDelete = itemView.findViewById(R.id.btn_delete_transaction);
+            colorIndicator = itemView.findViewById(R.id.color_indicator);
+
+            itemView.setOnClickListener(v -> {
+                Expense expense = currentExpense();
+                if (listener != null && expense != null) {
+                    listener.onExpenseClick(expense);
+                }
+            });
+
+            itemView.setOnLongClickListener(v -> {
+                Expense expense = currentExpense();
+                if (listener != null && expense != null) {
+                    // Show delete confirmation on long click
+                    showDeleteConfirmationDialog(expense);
+                    return true;
+                }
+                return false;
+            });
+
+            btnEdit.setOnClickListener(v -> {
+                Expense expense = currentExpense();
+                if (listener != null && expense != null) {
+                    listener.onEditClick(expense);
+                }
+            });
+
+            btnDelete.setOnClickListener(v -> {
+                Expense expense = currentExpense();
+                if (listener != null && expense != null) {
+                    if (showDeleteConfirmation) {
+                        showDeleteConfirmationDialog(expense);
+                    } else {
+                        listener.onDeleteClick(expense);
+                    }
+                }
+            });
+        }
+
+        private Expense currentExpense() {
+            int position = getBindingAdapterPosition();
+            return position == RecyclerView.NO_POSITION ? null : getExpenseAt(position);
+        }
+
+        /**
+         * Show a confirmation dialog before deleting a transaction
+         */
+        private void showDeleteConfirmationDialog(Expense expense) {
+            new MaterialAlertDialogBuilder(context)
+                    .setTitle("Delete Transaction")
+                    .setMessage("Are you sure you want to delete this transaction?\n\n" +
+                            "📝 " + expense.getTitle() + "\n" +
+                            "💰 " + CurrencyFormatter.formatMinor(expense.getAmountMinor()) + "\n" +
+                            "📁 " + expense.getCategory())
+                    .setIcon(android.R.drawable.ic_dialog_alert)
+                    .setPositiveButton("Delete", (dialog, which) -> {
+                        if (listener != null) {
+                            listener.onDeleteClick(expense);
+                        }
+                    })
+                    .setNegativeButton("Cancel", (dialog, which) -> {
+                        dialog.dismiss();
+                    })
+                    .show();
+        }
+
+        public void bind(Expense expense) {
+            btnEdit.setEnabled(true);
+            btnDelete.setEnabled(true);
+
+            tvTitle.setText(expense.getTitle());
+            bindCategory(expense);
+            tvDate.setText(CurrencyFormatter.formatDate(expense.getDate()));
+            bindPaymentMethod(expense);
+            bindAmount(expense);
+        }
+
+        /**
+         * Rebind only the views named by an ExpenseDiffCallback payload mask
+         */
+        public void bindChanges(Expense expense, int changed) {
+            if ((changed & ExpenseDiffCallback.PAYLOAD_TITLE) != 0) {
+                tvTitle.setText(expense.getTitle());
+            }
+            if ((changed & ExpenseDiffCallback.PAYLOAD_AMOUNT) != 0) {
+                bindAmount(expense);
+            }
+            if ((changed & ExpenseDiffCallback.PAYLOAD_CATEGORY) != 0) {
+                bindCategory(expense);
+            }
+            if ((changed & ExpenseDiffCallback.PAYLOAD_DATE) != 0) {
+                tvDate.setText(CurrencyFormatter.formatDate(expense.getDate()));
+            }
+            if ((changed & ExpenseDiffCallback.PAYLOAD_PAYMENT_METHOD) != 0) {
+                bindPaymentMethod(expense);
+            }
+        }
+
+        private void bindCategory(Expense expense) {
+            tvCategory.setText(CurrencyFormatter.getCategoryIcon(expense.getCategory()) + " " + expense.getCategory());
+            // Set category color indicator
+            colorIndicator.setBackgroundColor(CurrencyFormatter.getCategoryColor(expense.getCategory()));
+        }
+
+        private void bindPaymentMethod(Expense expense) {
+            tvPaymentMethod.setText(expense.getPaymentMethod() != null ? expense.getPaymentMethod().toUpperCase() : "");
+        }
+
+        private void bindAmount(Expense expense) {
+            // Set amount with appropriate color
+            String amountText = CurrencyFormatter.formatMinor(expense.getAmountMinor());
+            if ("income".equals(expense.getType())) {
+                tvAmount.setText("+ " + amountText);
+                tvAmount.setTextColor(context.getResources().getColor(android.R.color.holo_green_dark));
+            } else {
+                tvAmount.setText("- " + amountText);
+                tvAmount.setTextColor(context.getResources().getColor(android.R.color.holo_red_dark));
+            }
+        }
+
+        /**
+         * Bind an empty row for a position whose page has not loaded yet
+         */
+        public void bindPlaceholder() {
+            tvTitle.setText("");
+            tvCategory.setText("");
+            tvDate.setText("");
+            tvPaymentMethod.setText("");
+            tvAmount.setText("");
+            colorIndicator.setBackgroundColor(android.graphics.Color.TRANSPARENT);
+            btnEdit.setEnabled(false);
+            btnDelete.setEnabled(false);
+        }
+    }
+}
@@ -7,17 +7,24 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 import com.vishnu.expensetracker.R;
-import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * List of subcategories for CategorySelectionDialog
+ * Lists are diffed in the background and selection changes only recolor the affected rows.
+ */
 public class SubcategoryAdapter extends RecyclerView.Adapter<SubcategoryAdapter.SubcategoryViewHolder> {
     
-    private List<String> subcategories;
+    private static final Object PAYLOAD_SELECTION = new Object();
+    
+    private final AsyncListDiffer<String> differ;
     private Context context;
     private OnSubcategorySelectedListener listener;
-    private int selectedPosition = -1;
+    private String selectedSubcategory;
     
     public interface OnSubcategorySelectedListener {
         void onSubcategorySelected(String subcategory, int position);
@@ -26,32 +33,35 @@ public class SubcategoryAdapter extends RecyclerView.Adapter<SubcategoryAdapter.
     public SubcategoryAdapter(Context context, OnSubcategorySelectedListener listener) {
         this.context = context;
         this.listener = listener;
-        this.subcategories = new ArrayList<>();
+        this.differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+        setHasStableIds(true);
     }
     
     public void updateSubcategories(List<String> subcategories) {
-        this.subcategories = subcategories;
-        this.selectedPosition = -1; // Reset selection
-        notifyDataSetChanged();
+        // Reset selection; rows that survive the diff are not rebound, so clear the old highlight here
+        int previousSelection = selectedSubcategory != null ? differ.getCurrentList().indexOf(selectedSubcategory) : -1;
+        selectedSubcategory = null;
+        if (previousSelection != -1) {
+            notifyItemChanged(previousSelection, PAYLOAD_SELECTION);
+        }
+        differ.submitList(subcategories);
     }
     
     public void setSelectedPosition(int position) {
-        int previousSelection = selectedPosition;
-        selectedPosition = position;
+        List<String> subcategories = differ.getCurrentList();
+        int previousSelection = selectedSubcategory != null ? subcategories.indexOf(selectedSubcategory) : -1;
+        selectedSubcategory = position >= 0 && position < subcategories.size() ? subcategories.get(position) : null;
         
         if (previousSelection != -1) {
-            notifyItemChanged(previousSelection);
+            notifyItemChanged(previousSelection, PAYLOAD_SELECTION);
         }
-        if (selectedPosition != -1) {
-            notifyItemChanged(selectedPosition);
+        if (selectedSubcategory != null) {
+            notifyItemChanged(position, PAYLOAD_SELECTION);
         }
     }
     
     public String getSelectedSubcategory() {
-        if (selectedPosition != -1 && selectedPosition < subcategories.size()) {
-            return subcategories.get(selectedPosition);
-        }
-        return null;
+        return selectedSubcategory;
     }
     
     @NonNull
@@ -63,15 +73,43 @@ public class SubcategoryAdapter extends RecyclerView.Adapter<SubcategoryAdapter.
     
     @Override
     public void onBindViewHolder(@NonNull SubcategoryViewHolder holder, int position) {
-        String subcategory = subcategories.get(position);
-        holder.bind(subcategory, position == selectedPosition);
+        String subcategory = differ.getCurrentList().get(position);
+        holder.bind(subcategory, subcategory.equals(selectedSubcategory));
+    }
+    
+    @Override
+    public void onBindViewHolder(@NonNull SubcategoryViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        String subcategory = differ.getCurrentList().get(position);
+        holder.bindSelection(subcategory.equals(selectedSubcategory));
     }
     
     @Override
     public int getItemCount() {
-        return subcategories.size();
+        return differ.getCurrentList().size();
+    }
+    
+    @Override
+    public long getItemId(int position) {
+        // Subcategory names are unique within a category
+        return differ.getCurrentList().get(position).hashCode();
     }
     
+    private static final DiffUtil.ItemCallback<String> DIFF_CALLBACK = new DiffUtil.ItemCallback<String>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull String oldItem, @NonNull String newItem) {
+            return oldItem.equals(newItem);
+        }
+        
+        @Override
+        public boolean areContentsTheSame(@NonNull String oldItem, @NonNull String newItem) {
+            return true;
+        }
+    };
+    
     public class SubcategoryViewHolder extends RecyclerView.ViewHolder {
         private TextView tvSubcategoryName;
         private View subcategoryContainer;
@@ -85,14 +123,17 @@ public class SubcategoryAdapter extends RecyclerView.Adapter<SubcategoryAdapter.
                 int position = getAdapterPosition();
                 if (position != RecyclerView.NO_POSITION && listener != null) {
                     setSelectedPosition(position);
-                    listener.onSubcategorySelected(subcategories.get(position), position);
+                    listener.onSubcategorySelected(differ.getCurrentList().get(position), position);
                 }
             });
         }
         
         public void bind(String subcategory, boolean isSelected) {
             tvSubcategoryName.setText(subcategory);
-            
+            bindSelection(isSelected);
+        }
+        
+        public void bindSelection(boolean isSelected) {
             // Set background and text color based on selection
             if (isSelected) {
                 subcategoryContainer.setBackgroundColor(Color.parseColor("#E3F2FD"));
@@ -0,0 +1,170 @@
+package com.vishnu.expensetracker.backup;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import com.vishnu.expensetracker.database.ExpenseDatabase;
+import com.vishnu.expensetracker.utils.AppExecutors;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Daily automatic backups into app-private storage, driven by the auto_backup_enabled setting
+ * The first backup of a chain is full; later ones are incremental from the previous snapshot.
+ * After MAX_INCREMENTALS a new full backup starts a new chain and the old chain is deleted, so
+ * restoring never needs more than a handful of files.
+ */
+public class AutoBackup {
+
+    private static final String TAG = "AutoBackup";
+    private static final String PREFERENCES = "app_preferences";
+    private static final String KEY_ENABLED = "auto_backup_enabled";
+    private static final String KEY_LAST_SNAPSHOT = "backup_last_snapshot";
+    private static final String KEY_INCREMENTALS = "backup_incrementals";
+
+    private static final String DIRECTORY = "backups";
+    private static final String FULL_PREFIX = "full-";
+    private static final String INCREMENTAL_PREFIX = "incr-";
+    private static final String EXTENSION = ".etbk";
+
+    private static final long INTERVAL_MS = 24 * 60 * 60 * 1000L;
+    private static final int MAX_INCREMENTALS = 7;
+
+    private AutoBackup() {}
+
+    /**
+     * Take a backup on the write thread if auto backup is on and the last one is a day old
+     */
+    public static void runIfDue(Context context, ExpenseDatabase database) {
+        Context appContext = context.getApplicationContext();
+        SharedPreferences preferences = appContext.getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+        if (!preferences.getBoolean(KEY_ENABLED, false)
+                || System.currentTimeMillis() - preferences.getLong(KEY_LAST_SNAPSHOT, 0) < INTERVAL_MS) {
+            return;
+        }
+        AppExecutors.getInstance().diskWrite().execute(() -> {
+            try {
+                backUp(appContext, database, preferences);
+            } catch (IOException e) {
+                android.util.Log.e(TAG, "Automatic backup failed", e);
+            }
+        });
+    }
+
+    private static void backUp(Context context, ExpenseDatabase database, SharedPreferences preferences)
+            throws IOException {
+        File directory = new File(context.getFilesDir(), DIRECTORY);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        long lastSnapshot = preferences.getLong(KEY_LAST_SNAPSHOT, 0);
+        int incrementals = preferences.getInt(KEY_INCREMENTALS, 0);
+        boolean full = lastSnapshot == 0 || incrementals >= MAX_INCREMENTALS || listChain(directory).isEmpty();
+
+        BackupEngine engine = new BackupEngine(database);
+        File target = new File(directory, (full ? FULL_PREFIX : INCREMENTAL_PREFIX)
+                + System.currentTimeMillis() + EXTENSION);
+        File partial = new File(directory, target.getName() + ".tmp");
+        BackupEngine.Summary summary;
+        try (OutputStream out = new FileOutputStream(partial)) {
+            summary = full ? engine.backupFull(out) : engine.backupIncremental(out, lastSnapshot);
+        } catch (IOException | RuntimeException e) {
+            // Never leave a half-written file behind
+            partial.delete();
+            throw e;
+        }
+        if (!partial.renameTo(target)) {
+            partial.delete();
+            throw new IOException("Cannot finish " + target);
+        }
+        if (full) {
+            // The new full backup supersedes every earlier file
+            for (File file : listChain(directory)) {
+                if (!file.equals(target)) {
+                    file.delete();
+                }
+            }
+        }
+        preferences.edit()
+                .putLong(KEY_LAST_SNAPSHOT, summary.getSnapshotTime())
+                .putInt(KEY_INCREMENTALS, full ? 0 : incrementals + 1)
+                .apply();
+
+        android.util.Log.i(TAG, (full ? "Full" : "Incremental") + " backup: " + summary.getRowCount() + " rows, "
+                + summary.getBytes() + " bytes in " + summary.getElapsedMillis() + " ms");
+    }
+
+    /**
+     * Restore the latest chain: the full backup, then each incremental in order (blocking; write thread)
+     * Every file is verified, and each incremental checked to start no later than the snapshot before it,
+     * before anything is restored, so a damaged or missing file leaves the database untouched.
+     * Each file is applied atomically; a write failing part-way leaves the chain applied up to the
+     * last whole file, i.e. the database as of that earlier snapshot.
+     * @return false if there is no backup to restore
+     * @throws IOException If a file cannot be read, is damaged, or the chain has a gap
+     */
+    public static boolean restoreLatest(Context context, ExpenseDatabase database) throws IOException {
+        List<File> chain = listChain(new File(context.getApplicationContext().getFilesDir(), DIRECTORY));
+        if (chain.isEmpty() || !chain.get(0).getName().startsWith(FULL_PREFIX)) {
+            return false;
+        }
+        BackupEngine engine = new BackupEngine(database);
+        long previousSnapshot = 0;
+        for (File file : chain) {
+            BackupEngine.Summary summary;
+            try (InputStream in = new FileInputStream(file)) {
+                summary = engine.verify(in);
+            }
+            // An overlap is harmless (rows are upserted); a gap would lose changes
+            if (summary.isIncremental() && summary.getSince() > previousSnapshot) {
+                throw new IOException(file.getName() + " does not continue from the backup before it");
+            }
+            previousSnapshot = summary.getSnapshotTime();
+        }
+        for (File file : chain) {
+            engine.restore(() -> new FileInputStream(file));
+        }
+        return true;
+    }
+
+    /**
+     * Time of the newest backup file, or 0 if there is none
+     */
+    public static long getLatestBackupTime(Context context) {
+        List<File> chain = listChain(new File(context.getApplicationContext().getFilesDir(), DIRECTORY));
+        return chain.isEmpty() ? 0 : timeOf(chain.get(chain.size() - 1));
+    }
+
+    // Completed backup files from the newest full backup onwards, oldest first
+    private static List<File> listChain(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(EXTENSION)
+                && (name.startsWith(FULL_PREFIX) || name.startsWith(INCREMENTAL_PREFIX)));
+        List<File> chain = new ArrayList<>();
+        if (files == null) {
+            return chain;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(timeOf(a), timeOf(b)));
+        for (File file : files) {
+            if (file.getName().startsWith(FULL_PREFIX)) {
+                chain.clear();
+            }
+            chain.add(file);
+        }
+        return chain;
+    }
+
+    private static long timeOf(File file) {
+        String name = file.getName();
+        try {
+            return Long.parseLong(name.substring(name.indexOf('-') + 1, name.length() - EXTENSION.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
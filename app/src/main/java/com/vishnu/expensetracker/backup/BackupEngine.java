@@ -0,0 +1,393 @@
+package com.vishnu.expensetracker.backup;
+
+import android.database.Cursor;
+import android.os.SystemClock;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import com.vishnu.expensetracker.database.ExpenseDatabase;
+import com.vishnu.expensetracker.database.TransactionWriter;
+import com.vishnu.expensetracker.models.Expense;
+import com.vishnu.expensetracker.utils.ThreadGuard;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Writes and restores transaction backups in the compact BackupFormat
+ * A full backup holds every transaction (including the trash); an incremental one holds the rows
+ * written since an earlier snapshot plus the list of ids still present, so restoring a full
+ * backup followed by its incrementals, in order, reproduces the database. Rows are streamed in id
+ * order in fixed-size chunks in both directions; a restore is applied through
+ * TransactionWriter.BulkWrite in one transaction, after the whole file has been verified.
+ * Only transactions are backed up: categories are the CategoryManager defaults, the rollup and
+ * full-text tables are rebuilt from the transactions by their triggers, and the lookup keys are
+ * resolved again by BulkWrite.
+ * Blocking; run on AppExecutors.diskWrite() so no write interleaves with a snapshot.
+ */
+public class BackupEngine {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int ID_CHUNK_SIZE = 10000;
+
+    private static final String ROW_COLUMNS = "SELECT id, date, amount_minor, created_at, updated_at, deleted_at, " +
+            "is_deleted, is_essential, title, category, subcategory, description, type, payment_method FROM expenses ";
+    private static final String FULL_CHUNK = ROW_COLUMNS + "WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String INCREMENTAL_CHUNK = ROW_COLUMNS + "WHERE id > ? AND updated_at >= ? ORDER BY id LIMIT ?";
+    private static final String ID_CHUNK = "SELECT id FROM expenses WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String COUNT_IDS = "SELECT COUNT(*) FROM expenses";
+
+    /**
+     * Opens the backup file; restore() reads it twice (verify, then apply)
+     */
+    public interface Source {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * What a backup file contains, and what writing or restoring it cost
+     */
+    public static final class Summary {
+        private final boolean incremental;
+        private final long snapshotTime;
+        private final long since;
+        private final long rowCount;
+        private final long bytes;
+        private final long elapsedMillis;
+
+        Summary(boolean incremental, long snapshotTime, long since, long rowCount, long bytes, long elapsedMillis) {
+            this.incremental = incremental;
+            this.snapshotTime = snapshotTime;
+            this.since = since;
+            this.rowCount = rowCount;
+            this.bytes = bytes;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public boolean isIncremental() { return incremental; }
+        /** Time the snapshot was taken; pass it as since to the next incremental backup */
+        public long getSnapshotTime() { return snapshotTime; }
+        public long getSince() { return since; }
+        public long getRowCount() { return rowCount; }
+        /** Bytes written (0 for restores) */
+        public long getBytes() { return bytes; }
+        public long getElapsedMillis() { return elapsedMillis; }
+    }
+
+    private final ExpenseDatabase database;
+
+    public BackupEngine(ExpenseDatabase database) {
+        this.database = database;
+    }
+
+    // ========== BACKUP ==========
+
+    /**
+     * Write every transaction to out (left open)
+     */
+    public Summary backupFull(OutputStream out) throws IOException {
+        return backup(out, false, 0);
+    }
+
+    /**
+     * Write the transactions written at or after since (a previous getSnapshotTime()) to out (left open)
+     */
+    public Summary backupIncremental(OutputStream out, long since) throws IOException {
+        return backup(out, true, since);
+    }
+
+    private Summary backup(OutputStream stream, boolean incremental, long since) throws IOException {
+        ThreadGuard.assertNotMainThread("BackupEngine.backup");
+        long start = SystemClock.elapsedRealtime();
+        long snapshotTime = System.currentTimeMillis();
+        BackupOutput out = new BackupOutput(stream);
+        out.writeBytes(BackupFormat.MAGIC);
+        out.writeVarint(BackupFormat.VERSION);
+        out.writeByte(incremental ? BackupFormat.KIND_INCREMENTAL : BackupFormat.KIND_FULL);
+        out.writeVarint(snapshotTime);
+        out.writeVarint(since);
+
+        long rows = 0;
+        RowState state = new RowState();
+        while (true) {
+            Object[] args = incremental
+                    ? new Object[]{state.id, since, CHUNK_SIZE}
+                    : new Object[]{state.id, CHUNK_SIZE};
+            int chunkRows = 0;
+            try (Cursor cursor = database.query(new SimpleSQLiteQuery(
+                    incremental ? INCREMENTAL_CHUNK : FULL_CHUNK, args))) {
+                while (cursor.moveToNext()) {
+                    writeRow(out, cursor, state);
+                    chunkRows++;
+                }
+            }
+            rows += chunkRows;
+            if (chunkRows < CHUNK_SIZE) {
+                break;
+            }
+        }
+        out.writeVarint(BackupFormat.TAG_END);
+
+        if (incremental) {
+            writeLiveIds(out);
+        }
+        out.finish();
+        return new Summary(incremental, snapshotTime, since, rows, out.getBytesWritten(),
+                SystemClock.elapsedRealtime() - start);
+    }
+
+    /**
+     * Delta bases carried from one row to the next
+     */
+    private static final class RowState {
+        long id;
+        long date;
+        long amount;
+    }
+
+    private static void writeRow(BackupOutput out, Cursor cursor, RowState state) throws IOException {
+        long id = cursor.getLong(0);
+        int flags = (cursor.getInt(6) != 0 ? BackupFormat.FLAG_DELETED : 0)
+                | (cursor.getInt(7) != 0 ? BackupFormat.FLAG_ESSENTIAL : 0)
+                | (!cursor.isNull(1) ? BackupFormat.FLAG_DATE : 0)
+                | (!cursor.isNull(3) ? BackupFormat.FLAG_CREATED_AT : 0)
+                | (!cursor.isNull(4) ? BackupFormat.FLAG_UPDATED_AT : 0)
+                | (!cursor.isNull(5) ? BackupFormat.FLAG_DELETED_AT : 0);
+        out.writeVarint(BackupFormat.TAG_ROW);
+        out.writeSigned(id - state.id);
+        out.writeVarint(flags);
+
+        long base = state.date;
+        if ((flags & BackupFormat.FLAG_DATE) != 0) {
+            long date = cursor.getLong(1);
+            out.writeSigned(date - state.date);
+            state.date = date;
+            base = date;
+        }
+        long amount = cursor.getLong(2);
+        out.writeSigned(amount - state.amount);
+        state.amount = amount;
+        // Each timestamp is stored relative to the one before it, usually a few bytes apart
+        for (int column = 3; column <= 5; column++) {
+            if (!cursor.isNull(column)) {
+                long value = cursor.getLong(column);
+                out.writeSigned(value - base);
+                base = value;
+            }
+        }
+        for (int column = 8; column <= 13; column++) {
+            out.writeString(cursor.getString(column));
+        }
+        state.id = id;
+    }
+
+    private void writeLiveIds(BackupOutput out) throws IOException {
+        try (Cursor cursor = database.query(COUNT_IDS, null)) {
+            out.writeVarint(cursor.moveToFirst() ? cursor.getLong(0) : 0);
+        }
+        long previous = 0;
+        while (true) {
+            int chunkIds = 0;
+            try (Cursor cursor = database.query(new SimpleSQLiteQuery(ID_CHUNK, new Object[]{previous, ID_CHUNK_SIZE}))) {
+                while (cursor.moveToNext()) {
+                    long id = cursor.getLong(0);
+                    out.writeVarint(id - previous);
+                    previous = id;
+                    chunkIds++;
+                }
+            }
+            if (chunkIds < ID_CHUNK_SIZE) {
+                break;
+            }
+        }
+    }
+
+    // ========== RESTORE ==========
+
+    /**
+     * Check a backup end to end (format, structure and checksum) without touching the database
+     */
+    public Summary verify(InputStream stream) throws IOException {
+        return read(stream, null);
+    }
+
+    /**
+     * Verify the backup, then apply it: a full backup replaces every transaction, an incremental
+     * one updates the rows it carries and removes rows deleted since its base snapshot
+     * The file is applied in a single transaction (the batches nest inside it), so if reading it
+     * again or any write fails, the database is left exactly as it was before the call.
+     */
+    public Summary restore(Source source) throws IOException {
+        try (InputStream in = source.open()) {
+            verify(in);
+        }
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        try (InputStream in = source.open();
+             TransactionWriter.BulkWrite writer = new TransactionWriter(database).beginBulkWrite()) {
+            // Ends before the writer closes, so listeners are told about the outcome, not a pending state
+            db.beginTransaction();
+            try {
+                Summary summary = read(in, writer);
+                db.setTransactionSuccessful();
+                return summary;
+            } finally {
+                db.endTransaction();
+            }
+        }
+    }
+
+    // Decode the file; rows are applied through writer unless it is null (verify only)
+    private Summary read(InputStream stream, TransactionWriter.BulkWrite writer) throws IOException {
+        long start = SystemClock.elapsedRealtime();
+        BackupInput in = new BackupInput(stream);
+        byte[] magic = new byte[BackupFormat.MAGIC.length];
+        in.readFully(magic, magic.length);
+        if (!Arrays.equals(magic, BackupFormat.MAGIC)) {
+            throw new IOException("Not a backup file");
+        }
+        long version = in.readVarint();
+        if (version != BackupFormat.VERSION) {
+            throw new IOException("Unsupported backup version " + version);
+        }
+        int kind = in.readByte();
+        if (kind != BackupFormat.KIND_FULL && kind != BackupFormat.KIND_INCREMENTAL) {
+            throw new IOException("Unknown backup kind " + kind);
+        }
+        boolean incremental = kind == BackupFormat.KIND_INCREMENTAL;
+        long snapshotTime = in.readVarint();
+        long since = in.readVarint();
+
+        if (writer != null && !incremental) {
+            writer.deleteAll();
+        }
+        long rows = 0;
+        RowState state = new RowState();
+        List<Expense> batch = new ArrayList<>(CHUNK_SIZE);
+        long tag;
+        while ((tag = in.readVarint()) == BackupFormat.TAG_ROW) {
+            Expense expense = readRow(in, state);
+            rows++;
+            if (writer != null) {
+                batch.add(expense);
+                if (batch.size() == CHUNK_SIZE) {
+                    writer.upsertBatch(batch);
+                    batch = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+        }
+        if (tag != BackupFormat.TAG_END) {
+            throw new IOException("Malformed backup row");
+        }
+        if (writer != null && !batch.isEmpty()) {
+            writer.upsertBatch(batch);
+        }
+
+        if (incremental) {
+            readLiveIds(in, writer);
+        }
+        in.verifyChecksum();
+        return new Summary(incremental, snapshotTime, since, rows, 0, SystemClock.elapsedRealtime() - start);
+    }
+
+    private static Expense readRow(BackupInput in, RowState state) throws IOException {
+        Expense expense = new Expense();
+        state.id += in.readSigned();
+        expense.setId((int) state.id);
+        long flags = in.readVarint();
+
+        long base = state.date;
+        if ((flags & BackupFormat.FLAG_DATE) != 0) {
+            state.date += in.readSigned();
+            expense.setDate(new Date(state.date));
+            base = state.date;
+        } else {
+            expense.setDate(null);
+        }
+        state.amount += in.readSigned();
+        expense.setAmountMinor(state.amount);
+        Date createdAt = null;
+        if ((flags & BackupFormat.FLAG_CREATED_AT) != 0) {
+            base += in.readSigned();
+            createdAt = new Date(base);
+        }
+        expense.setCreatedAt(createdAt);
+        if ((flags & BackupFormat.FLAG_UPDATED_AT) != 0) {
+            base += in.readSigned();
+            expense.setUpdatedAt(new Date(base));
+        }
+        if ((flags & BackupFormat.FLAG_DELETED_AT) != 0) {
+            base += in.readSigned();
+            expense.setDeletedAt(new Date(base));
+        }
+        expense.setDeleted((flags & BackupFormat.FLAG_DELETED) != 0);
+        expense.setEssential((flags & BackupFormat.FLAG_ESSENTIAL) != 0);
+
+        expense.setTitle(in.readString());
+        expense.setCategory(in.readString());
+        expense.setSubcategory(in.readString());
+        expense.setDescription(in.readString());
+        expense.setType(in.readString());
+        expense.setPaymentMethod(in.readString());
+        return expense;
+    }
+
+    /**
+     * Read the live id list; when applying, delete every row the list does not contain
+     * Both sides are in ascending id order, so this is a merge with constant memory.
+     */
+    private void readLiveIds(BackupInput in, TransactionWriter.BulkWrite writer) throws IOException {
+        long remaining = in.readVarint();
+        long liveId = -1;
+        long previous = 0;
+        if (remaining > 0) {
+            previous += in.readVarint();
+            liveId = previous;
+            remaining--;
+        }
+        if (writer == null) {
+            while (remaining-- > 0) {
+                in.readVarint();
+            }
+            return;
+        }
+
+        long lastDatabaseId = 0;
+        while (true) {
+            List<Integer> deleted = new ArrayList<>();
+            int chunkIds = 0;
+            try (Cursor cursor = database.query(new SimpleSQLiteQuery(ID_CHUNK,
+                    new Object[]{lastDatabaseId, ID_CHUNK_SIZE}))) {
+                while (cursor.moveToNext()) {
+                    long id = cursor.getLong(0);
+                    lastDatabaseId = id;
+                    chunkIds++;
+                    while (liveId >= 0 && liveId < id) {
+                        if (remaining > 0) {
+                            previous += in.readVarint();
+                            liveId = previous;
+                            remaining--;
+                        } else {
+                            liveId = -1;
+                        }
+                    }
+                    if (liveId != id) {
+                        deleted.add((int) id);
+                    }
+                }
+            }
+            if (!deleted.isEmpty()) {
+                writer.deleteBatch(deleted);
+            }
+            if (chunkIds < ID_CHUNK_SIZE) {
+                break;
+            }
+        }
+        // Ids past the last database row
+        while (remaining-- > 0) {
+            in.readVarint();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.vishnu.expensetracker.backup;
+
+/**
+ * Layout of a backup file (version 1); all integers are varints, signed ones zigzag-encoded
+ *
+ * header:   "ETBK", format version, kind ('F' full / 'I' incremental), snapshot time,
+ *           since (incremental: rows written at or after this time; full: 0)
+ * rows:     ROW tag, then per transaction, in id order:
+ *           id (delta from previous id), flags, date (delta from previous date),
+ *           amount in paise (delta from previous amount), created_at (delta from date),
+ *           updated_at (delta from created_at), deleted_at (delta from updated_at),
+ *           title, category, subcategory, description, type, payment method (strings)
+ *           Timestamps are only present when their flag is set.
+ *           END tag after the last row.
+ * live ids: incremental only - count, then the id of every row in the database (deltas);
+ *           rows missing from this list were deleted and are removed on restore
+ * trailer:  CRC32 of everything above (4 bytes, big-endian)
+ *
+ * Strings are dictionary-encoded inline: the first occurrence is written as a literal and
+ * added to the dictionary, later occurrences refer to it by index. The dictionary is capped so
+ * memory stays bounded on both sides; literals past the cap are not added.
+ */
+final class BackupFormat {
+
+    static final byte[] MAGIC = {'E', 'T', 'B', 'K'};
+    static final int VERSION = 1;
+
+    static final int KIND_FULL = 'F';
+    static final int KIND_INCREMENTAL = 'I';
+
+    static final int TAG_END = 0;
+    static final int TAG_ROW = 1;
+
+    static final int FLAG_DELETED = 1;
+    static final int FLAG_ESSENTIAL = 1 << 1;
+    static final int FLAG_DATE = 1 << 2;
+    static final int FLAG_CREATED_AT = 1 << 3;
+    static final int FLAG_UPDATED_AT = 1 << 4;
+    static final int FLAG_DELETED_AT = 1 << 5;
+
+    // String codes: null, literal added to the dictionary, literal past the cap, then references
+    static final int STRING_NULL = 0;
+    static final int STRING_LITERAL = 1;
+    static final int STRING_LITERAL_UNINDEXED = 2;
+    static final int STRING_REFERENCE_BASE = 3;
+    static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+    private BackupFormat() {}
+}
@@ -0,0 +1,112 @@
+package com.vishnu.expensetracker.backup;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Decoder matching BackupOutput; checksums everything it reads
+ */
+class BackupInput {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Longest string a backup can hold; guards against allocating for a corrupt length
+    private static final int MAX_STRING_BYTES = 1 << 20;
+
+    private final InputStream in;
+    private final CRC32 crc = new CRC32();
+    private final List<String> dictionary = new ArrayList<>();
+    private byte[] stringBuffer = new byte[256];
+
+    BackupInput(InputStream in) {
+        this.in = new BufferedInputStream(in, BUFFER_SIZE);
+    }
+
+    int readByte() throws IOException {
+        int value = in.read();
+        if (value < 0) {
+            throw new EOFException("Backup is truncated");
+        }
+        crc.update(value);
+        return value;
+    }
+
+    void readFully(byte[] bytes, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            int count = in.read(bytes, offset, length - offset);
+            if (count < 0) {
+                throw new EOFException("Backup is truncated");
+            }
+            offset += count;
+        }
+        crc.update(bytes, 0, length);
+    }
+
+    long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in backup");
+    }
+
+    long readSigned() throws IOException {
+        long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    String readString() throws IOException {
+        long code = readVarint();
+        if (code == BackupFormat.STRING_NULL) {
+            return null;
+        }
+        if (code >= BackupFormat.STRING_REFERENCE_BASE) {
+            long index = code - BackupFormat.STRING_REFERENCE_BASE;
+            if (index >= dictionary.size()) {
+                throw new IOException("Bad string reference in backup");
+            }
+            return dictionary.get((int) index);
+        }
+        long length = readVarint();
+        if (length > MAX_STRING_BYTES) {
+            throw new IOException("String too long in backup");
+        }
+        if (stringBuffer.length < length) {
+            stringBuffer = new byte[(int) length];
+        }
+        readFully(stringBuffer, (int) length);
+        String value = new String(stringBuffer, 0, (int) length, StandardCharsets.UTF_8);
+        if (code == BackupFormat.STRING_LITERAL && dictionary.size() < BackupFormat.MAX_DICTIONARY_SIZE) {
+            dictionary.add(value);
+        }
+        return value;
+    }
+
+    /**
+     * Read the trailer and compare it with the checksum of everything read so far
+     */
+    void verifyChecksum() throws IOException {
+        long expected = crc.getValue();
+        long stored = 0;
+        for (int i = 0; i < 4; i++) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Backup is truncated");
+            }
+            stored = (stored << 8) | b;
+        }
+        if (stored != expected) {
+            throw new IOException("Backup checksum mismatch");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.vishnu.expensetracker.backup;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Varint / dictionary encoder for BackupFormat, checksumming everything it writes
+ */
+class BackupOutput {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OutputStream out;
+    private final CRC32 crc = new CRC32();
+    private final byte[] scratch = new byte[10];
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private long bytesWritten;
+
+    BackupOutput(OutputStream out) {
+        this.out = new BufferedOutputStream(out, BUFFER_SIZE);
+    }
+
+    void writeBytes(byte[] bytes) throws IOException {
+        writeBytes(bytes, bytes.length);
+    }
+
+    private void writeBytes(byte[] bytes, int length) throws IOException {
+        out.write(bytes, 0, length);
+        crc.update(bytes, 0, length);
+        bytesWritten += length;
+    }
+
+    void writeByte(int value) throws IOException {
+        scratch[0] = (byte) value;
+        writeBytes(scratch, 1);
+    }
+
+    /**
+     * Unsigned LEB128
+     */
+    void writeVarint(long value) throws IOException {
+        int length = 0;
+        while ((value & ~0x7FL) != 0) {
+            scratch[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        scratch[length++] = (byte) value;
+        writeBytes(scratch, length);
+    }
+
+    /**
+     * Signed value, zigzag-encoded so small negatives stay short
+     */
+    void writeSigned(long value) throws IOException {
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarint(BackupFormat.STRING_NULL);
+            return;
+        }
+        Integer index = dictionary.get(value);
+        if (index != null) {
+            writeVarint(BackupFormat.STRING_REFERENCE_BASE + index);
+            return;
+        }
+        if (dictionary.size() < BackupFormat.MAX_DICTIONARY_SIZE) {
+            dictionary.put(value, dictionary.size());
+            writeVarint(BackupFormat.STRING_LITERAL);
+        } else {
+            writeVarint(BackupFormat.STRING_LITERAL_UNINDEXED);
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        writeBytes(bytes);
+    }
+
+    /**
+     * Append the checksum (not itself checksummed) and flush; the stream is left open
+     */
+    void finish() throws IOException {
+        long value = crc.getValue();
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift) & 0xFF);
+        }
+        bytesWritten += 4;
+        out.flush();
+    }
+
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+}
@@ -27,6 +27,9 @@ public interface CategoryDao {
     @Query("SELECT * FROM categories WHERE type = :type ORDER BY name ASC")
     LiveData<List<Category>> getCategoriesByType(String type);
     
+    @Query("SELECT COUNT(*) FROM categories")
+    int getCategoryCount();
+    
     @Query("DELETE FROM categories")
     void deleteAllCategories();
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.vishnu.expensetracker.database;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import com.vishnu.expensetracker.utils.AppExecutors;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+
+/**
+ * SQLite settings applied by ExpenseDatabase when it is opened
+ * Journal mode and executors go to the Room builder; the pragmas run in an open callback.
+ * Pragmas other than journal mode are per connection. synchronous only matters to the primary
+ * (writer) connection. The memory pragmas (cache_size, mmap_size, temp_store) are what the
+ * analytics reads feel, and those run on WAL reader connections, so they are registered with
+ * execPerConnectionSQL (API 30+) and reach every reader too. Older releases cannot configure
+ * reader connections: there only the writer gets them and reads keep the framework defaults.
+ */
+public final class DatabaseTuning {
+
+    public enum Profile {
+        /** WAL, synchronous=NORMAL, 8 MB page cache, 32 MB mmap, in-memory temp tables */
+        BALANCED,
+        /** WAL, synchronous=NORMAL, 2 MB page cache, no mmap, temp tables on disk */
+        LOW_MEMORY,
+        /** WAL, synchronous=FULL (fsync on every commit) with the BALANCED memory settings */
+        DURABLE
+    }
+
+    private final Profile profile;
+    private final boolean writeAheadLogging;
+    private final String synchronous;
+    private final int cacheSizeKb;
+    private final long mmapSizeBytes;
+    private final String tempStore;
+    private final Executor queryExecutor;
+    private final Executor transactionExecutor;
+
+    public DatabaseTuning(Profile profile, boolean writeAheadLogging, String synchronous, int cacheSizeKb,
+                          long mmapSizeBytes, String tempStore, Executor queryExecutor, Executor transactionExecutor) {
+        this.profile = profile;
+        this.writeAheadLogging = writeAheadLogging;
+        this.synchronous = synchronous;
+        this.cacheSizeKb = cacheSizeKb;
+        this.mmapSizeBytes = mmapSizeBytes;
+        this.tempStore = tempStore;
+        this.queryExecutor = queryExecutor;
+        this.transactionExecutor = transactionExecutor;
+    }
+
+    /**
+     * Settings for a profile, using the shared AppExecutors read pool for queries and the
+     * serialized write executor for transactions
+     */
+    public static DatabaseTuning forProfile(Profile profile) {
+        AppExecutors executors = AppExecutors.getInstance();
+        switch (profile) {
+            case LOW_MEMORY:
+                return new DatabaseTuning(profile, true, "NORMAL", 2 * 1024, 0, "DEFAULT",
+                        executors.diskRead(), executors.diskWrite());
+            case DURABLE:
+                return new DatabaseTuning(profile, true, "FULL", 8 * 1024, 32L * 1024 * 1024, "MEMORY",
+                        executors.diskRead(), executors.diskWrite());
+            case BALANCED:
+            default:
+                return new DatabaseTuning(Profile.BALANCED, true, "NORMAL", 8 * 1024, 32L * 1024 * 1024, "MEMORY",
+                        executors.diskRead(), executors.diskWrite());
+        }
+    }
+
+    /**
+     * BALANCED, or LOW_MEMORY on devices that report themselves as low-RAM
+     */
+    public static DatabaseTuning forDevice(Context context) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        boolean lowRam = activityManager != null && activityManager.isLowRamDevice();
+        return forProfile(lowRam ? Profile.LOW_MEMORY : Profile.BALANCED);
+    }
+
+    /**
+     * Apply journal mode, executors and the pragmas (run by an open callback) to a Room builder
+     */
+    <T extends RoomDatabase> RoomDatabase.Builder<T> applyTo(RoomDatabase.Builder<T> builder) {
+        builder.addCallback(new RoomDatabase.Callback() {
+            @Override
+            public void onOpen(@NonNull SupportSQLiteDatabase db) {
+                applyPragmas(db);
+            }
+        });
+        builder.setJournalMode(writeAheadLogging
+                ? RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING
+                : RoomDatabase.JournalMode.TRUNCATE);
+        if (queryExecutor != null) {
+            builder.setQueryExecutor(queryExecutor);
+        }
+        if (transactionExecutor != null) {
+            builder.setTransactionExecutor(transactionExecutor);
+        }
+        return builder;
+    }
+
+    /**
+     * Run the connection pragmas (from the open callback added by applyTo)
+     * Some pragmas return a row, so they go through query() rather than execSQL()
+     */
+    void applyPragmas(SupportSQLiteDatabase db) {
+        pragma(db, "synchronous = " + synchronous);
+        // Negative cache_size is in KiB rather than pages
+        readPragma(db, "cache_size = -" + cacheSizeKb);
+        readPragma(db, "mmap_size = " + mmapSizeBytes);
+        readPragma(db, "temp_store = " + tempStore);
+    }
+
+    // On every current and future connection where the platform allows it, else on this one
+    private static void readPragma(SupportSQLiteDatabase db, String pragma) {
+        if (db.isExecPerConnectionSQLSupported()) {
+            try {
+                db.execPerConnectionSQL("PRAGMA " + pragma, null);
+                return;
+            } catch (Exception e) {
+                // Some releases reject per-connection pragmas that return a row (mmap_size)
+                android.util.Log.w("DatabaseTuning", "PRAGMA " + pragma + " not applied per connection", e);
+            }
+        }
+        pragma(db, pragma);
+    }
+
+    private static void pragma(SupportSQLiteDatabase db, String pragma) {
+        try {
+            db.query("PRAGMA " + pragma).close();
+        } catch (Exception e) {
+            // A pragma the platform SQLite rejects should not keep the database from opening
+            android.util.Log.w("DatabaseTuning", "PRAGMA " + pragma + " failed", e);
+        }
+    }
+
+    public Profile getProfile() { return profile; }
+    public boolean isWriteAheadLogging() { return writeAheadLogging; }
+    public String getSynchronous() { return synchronous; }
+    public int getCacheSizeKb() { return cacheSizeKb; }
+    public long getMmapSizeBytes() { return mmapSizeBytes; }
+    public String getTempStore() { return tempStore; }
+    public Executor getQueryExecutor() { return queryExecutor; }
+    public Executor getTransactionExecutor() { return transactionExecutor; }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%s (wal=%b, synchronous=%s, cache=%dKB, mmap=%dB, temp_store=%s)",
+                profile, writeAheadLogging, synchronous, cacheSizeKb, mmapSizeBytes, tempStore);
+    }
+}
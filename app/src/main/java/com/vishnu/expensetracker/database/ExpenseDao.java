@@ -1,18 +1,31 @@
 package com.vishnu.expensetracker.database;
 
 import androidx.lifecycle.LiveData;
+import androidx.paging.PagingSource;
+import androidx.room.ColumnInfo;
 import androidx.room.Dao;
 import androidx.room.Delete;
+import androidx.room.Embedded;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.RawQuery;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.sqlite.db.SupportSQLiteQuery;
 import com.vishnu.expensetracker.models.Expense;
+import com.vishnu.expensetracker.utils.MonthlyUtils;
 import java.util.Date;
 import java.util.List;
 
 @Dao
 public interface ExpenseDao {
     
+    // Ids per IN (...) statement; stays well under SQLite's 999 bind variable limit on older devices
+    int BULK_CHUNK_SIZE = 500;
+    
+    // Known categories group on the integer key; names without a categories row fall back to grouping by text
+    String CATEGORY_GROUP = "GROUP BY e.category_id, CASE WHEN e.category_id IS NULL THEN e.category END ";
+    
     @Insert
     long insert(Expense expense);
     
@@ -22,19 +35,90 @@ public interface ExpenseDao {
     @Delete
     void delete(Expense expense);
     
+    // ========== BATCH OPERATIONS ==========
+    
+    /**
+     * Insert many transactions in one transaction, reusing a single prepared statement
+     * @return Row ids in the same order as the input
+     */
+    @Insert
+    List<Long> insertAll(List<Expense> expenses);
+    
+    /**
+     * Soft delete many transactions in one transaction
+     * @return Number of rows that were deleted (already deleted rows are skipped)
+     */
+    @Transaction
+    default int softDeleteByIds(List<Integer> ids, Date deletedAt) {
+        int changed = 0;
+        for (int start = 0; start < ids.size(); start += BULK_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(start, Math.min(ids.size(), start + BULK_CHUNK_SIZE));
+            changed += softDeleteChunk(chunk, deletedAt);
+        }
+        return changed;
+    }
+    
+    /**
+     * Restore many soft-deleted transactions in one transaction
+     * @return Number of rows that were restored
+     */
+    @Transaction
+    default int restoreByIds(List<Integer> ids) {
+        Date now = new Date();
+        int changed = 0;
+        for (int start = 0; start < ids.size(); start += BULK_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(start, Math.min(ids.size(), start + BULK_CHUNK_SIZE));
+            changed += restoreChunk(chunk, now);
+        }
+        return changed;
+    }
+    
+    /**
+     * Move many transactions to another category in one transaction
+     * @return Number of rows that changed
+     */
+    @Transaction
+    default int bulkUpdateCategory(List<Integer> ids, String category, String subcategory) {
+        Date now = new Date();
+        int changed = 0;
+        for (int start = 0; start < ids.size(); start += BULK_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(start, Math.min(ids.size(), start + BULK_CHUNK_SIZE));
+            changed += updateCategoryChunk(chunk, category, subcategory, now);
+        }
+        return changed;
+    }
+    
+    // Single-statement halves of the batch operations above; call those instead so large id lists are chunked
+    
+    @Query("UPDATE expenses SET is_deleted = 1, deleted_at = :deletedAt, updated_at = :deletedAt " +
+           "WHERE id IN (:ids) AND is_deleted = 0")
+    int softDeleteChunk(List<Integer> ids, Date deletedAt);
+    
+    @Query("UPDATE expenses SET is_deleted = 0, deleted_at = NULL, updated_at = :updatedAt " +
+           "WHERE id IN (:ids) AND is_deleted = 1")
+    int restoreChunk(List<Integer> ids, Date updatedAt);
+    
+    // The lookup keys depend on each row's type, so they are resolved per row in the same UPDATE (see LookupKeys)
+    @Query("UPDATE expenses SET category = :category, subcategory = :subcategory, updated_at = :updatedAt, " +
+           "category_id = (SELECT MIN(c.id) FROM categories c WHERE c.name = :category AND c.type = expenses.type), " +
+           "subcategory_id = (SELECT MIN(s.id) FROM subcategories s JOIN categories c ON c.id = s.category_id " +
+           "WHERE s.name = :subcategory AND c.name = :category AND c.type = expenses.type) " +
+           "WHERE id IN (:ids) AND (category IS NOT :category OR subcategory IS NOT :subcategory)")
+    int updateCategoryChunk(List<Integer> ids, String category, String subcategory, Date updatedAt);
+    
     // ========== SOFT DELETE OPERATIONS ==========
     
     /**
      * Soft delete a transaction by marking it as deleted
      */
-    @Query("UPDATE expenses SET is_deleted = 1, deleted_at = :deletedAt WHERE id = :id")
+    @Query("UPDATE expenses SET is_deleted = 1, deleted_at = :deletedAt, updated_at = :deletedAt WHERE id = :id")
     void softDelete(int id, Date deletedAt);
     
     /**
      * Restore a soft-deleted transaction
      */
-    @Query("UPDATE expenses SET is_deleted = 0, deleted_at = NULL WHERE id = :id")
-    void restoreTransaction(int id);
+    @Query("UPDATE expenses SET is_deleted = 0, deleted_at = NULL, updated_at = :updatedAt WHERE id = :id")
+    void restoreTransaction(int id, Date updatedAt);
     
     /**
      * Permanently delete all soft-deleted transactions (cleanup)
@@ -42,14 +126,81 @@ public interface ExpenseDao {
     @Query("DELETE FROM expenses WHERE is_deleted = 1")
     void permanentlyDeleteAllSoftDeleted();
     
+    /**
+     * Permanently delete up to limit trash rows deleted before the cutoff, oldest first
+     * (served by the partial trash index)
+     * @return Number of rows deleted
+     */
+    @Query("DELETE FROM expenses WHERE id IN (SELECT id FROM expenses WHERE is_deleted = 1 " +
+           "AND deleted_at < :cutoff ORDER BY deleted_at LIMIT :limit)")
+    int purgeDeletedBefore(Date cutoff, int limit);
+    
     // ========== BASIC QUERIES (Exclude soft-deleted) ==========
     
     @Query("SELECT * FROM expenses WHERE is_deleted = 0 ORDER BY date DESC")
     LiveData<List<Expense>> getAllExpenses();
     
+    /**
+     * Paged list of live transactions, newest first
+     * (date, id) gives a stable total order so pages never overlap or skip rows with equal dates
+     */
+    @Query("SELECT * FROM expenses WHERE is_deleted = 0 ORDER BY date DESC, id DESC")
+    PagingSource<Integer, Expense> getExpensesPaged();
+    
+    // ========== FULL-TEXT SEARCH ==========
+    // :match is an FTS4 expression from SearchQuery.toMatchExpression()
+    
+    /**
+     * Search results for the list, newest first, narrowed by type (null = any) and an inclusive date range
+     */
+    @Query("SELECT e.* FROM expenses_fts JOIN expenses e ON e.id = expenses_fts.rowid " +
+           "WHERE expenses_fts MATCH :match AND e.is_deleted = 0 " +
+           "AND (:type IS NULL OR e.type = :type) AND e.date >= :startDate AND e.date <= :endDate " +
+           "ORDER BY e.date DESC, e.id DESC")
+    PagingSource<Integer, Expense> searchPaged(String match, String type, long startDate, long endDate);
+    
+    /**
+     * Up to :limit hits with their matchinfo for ranking by SearchQuery.rank()
+     */
+    @Query("SELECT e.*, matchinfo(expenses_fts, 'pcx') AS match_info " +
+           "FROM expenses_fts JOIN expenses e ON e.id = expenses_fts.rowid " +
+           "WHERE expenses_fts MATCH :match AND e.is_deleted = 0 LIMIT :limit")
+    List<SearchHit> searchWithMatchInfo(String match, int limit);
+    
+    // ========== FILTERS ==========
+    // Queries compiled from a TransactionFilter by FilterCompiler
+    
+    @RawQuery(observedEntities = Expense.class)
+    PagingSource<Integer, Expense> getFilteredPaged(SupportSQLiteQuery query);
+    
+    @RawQuery(observedEntities = Expense.class)
+    LiveData<List<FilterTotal>> getFilteredTotals(SupportSQLiteQuery query);
+    
     @Query("SELECT * FROM expenses WHERE id = :id LIMIT 1")
     Expense getExpenseById(int id);
     
+    @Query("SELECT COALESCE(MAX(id), 0) FROM expenses")
+    int getMaxId();
+    
+    // ========== DUPLICATE DETECTION ==========
+    
+    /**
+     * Live transactions with this fingerprint among rows up to maxId (rows added later, e.g. by
+     * the import doing the check, are not counted)
+     */
+    @Query("SELECT COUNT(*) FROM expenses WHERE fingerprint = :fingerprint AND is_deleted = 0 AND id <= :maxId")
+    int countLiveByFingerprint(long fingerprint, int maxId);
+    
+    @Query("SELECT * FROM expenses WHERE fingerprint = :fingerprint AND is_deleted = 0 ORDER BY date DESC LIMIT :limit")
+    List<Expense> getLiveByFingerprint(long fingerprint, int limit);
+    
+    /**
+     * Live transactions of a type with exactly this amount in a date range (candidates for fuzzy matching)
+     */
+    @Query("SELECT * FROM expenses WHERE is_deleted = 0 AND type = :type AND date >= :startDate AND date <= :endDate " +
+           "AND amount_minor = :amountMinor ORDER BY date DESC LIMIT :limit")
+    List<Expense> getLiveByAmountAndDateRange(String type, long amountMinor, long startDate, long endDate, int limit);
+    
     @Query("SELECT * FROM expenses WHERE type = :type AND is_deleted = 0 ORDER BY date DESC")
     LiveData<List<Expense>> getExpensesByType(String type);
     
@@ -67,6 +218,12 @@ public interface ExpenseDao {
     @Query("SELECT SUM(amount) FROM expenses WHERE type = 'income' AND is_deleted = 0")
     LiveData<Double> getTotalIncome();
     
+    /**
+     * All-time total for a type in paise, straight from the raw rows (index-only scan; used for drift checks)
+     */
+    @Query("SELECT COALESCE(SUM(amount_minor), 0) FROM expenses WHERE is_deleted = 0 AND type = :type")
+    long getTotalMinorByTypeSync(String type);
+    
     @Query("SELECT (SELECT COALESCE(SUM(amount), 0) FROM expenses WHERE type = 'income' AND is_deleted = 0) - (SELECT COALESCE(SUM(amount), 0) FROM expenses WHERE type = 'expense' AND is_deleted = 0) as balance")
     LiveData<Double> getCurrentBalance();
     
@@ -87,28 +244,41 @@ public interface ExpenseDao {
     /**
      * Get sum of expenses for a specific time range (using timestamps in milliseconds)
      * This is the core method for monthly totals
+     * Reads the daily rollup, so bounds must fall on local day boundaries (as month ranges do)
      */
-    @Query("SELECT COALESCE(SUM(amount), 0) FROM expenses WHERE type = 'expense' AND is_deleted = 0 AND date >= :startOfMonth AND date <= :endOfMonth")
+    @Query("SELECT COALESCE(SUM(amount_sum), 0) FROM daily_totals WHERE type = 'expense' AND day_start >= :startOfMonth AND day_start <= :endOfMonth")
     LiveData<Double> getMonthlyExpenseTotal(long startOfMonth, long endOfMonth);
     
     /**
      * Get sum of income for a specific time range (using timestamps in milliseconds)
      */
-    @Query("SELECT COALESCE(SUM(amount), 0) FROM expenses WHERE type = 'income' AND is_deleted = 0 AND date >= :startOfMonth AND date <= :endOfMonth")
+    @Query("SELECT COALESCE(SUM(amount_sum), 0) FROM daily_totals WHERE type = 'income' AND day_start >= :startOfMonth AND day_start <= :endOfMonth")
     LiveData<Double> getMonthlyIncomeTotal(long startOfMonth, long endOfMonth);
     
     /**
      * Synchronous version for calculations - Get monthly expense total
      */
-    @Query("SELECT COALESCE(SUM(amount), 0) FROM expenses WHERE type = 'expense' AND is_deleted = 0 AND date >= :startOfMonth AND date <= :endOfMonth")
+    @Query("SELECT COALESCE(SUM(amount_sum), 0) FROM daily_totals WHERE type = 'expense' AND day_start >= :startOfMonth AND day_start <= :endOfMonth")
     double getMonthlyExpenseTotalSync(long startOfMonth, long endOfMonth);
     
     /**
      * Synchronous version for calculations - Get monthly income total
      */
-    @Query("SELECT COALESCE(SUM(amount), 0) FROM expenses WHERE type = 'income' AND is_deleted = 0 AND date >= :startOfMonth AND date <= :endOfMonth")
+    @Query("SELECT COALESCE(SUM(amount_sum), 0) FROM daily_totals WHERE type = 'income' AND day_start >= :startOfMonth AND day_start <= :endOfMonth")
     double getMonthlyIncomeTotalSync(long startOfMonth, long endOfMonth);
     
+    /**
+     * Exact monthly expense total in paise
+     */
+    @Query("SELECT COALESCE(SUM(amount_minor_sum), 0) FROM daily_totals WHERE type = 'expense' AND day_start >= :startOfMonth AND day_start <= :endOfMonth")
+    long getMonthlyExpenseTotalMinorSync(long startOfMonth, long endOfMonth);
+    
+    /**
+     * Exact monthly income total in paise
+     */
+    @Query("SELECT COALESCE(SUM(amount_minor_sum), 0) FROM daily_totals WHERE type = 'income' AND day_start >= :startOfMonth AND day_start <= :endOfMonth")
+    long getMonthlyIncomeTotalMinorSync(long startOfMonth, long endOfMonth);
+    
     /**
      * Get all transactions for a specific month (using timestamp range)
      */
@@ -121,28 +291,78 @@ public interface ExpenseDao {
     @Query("SELECT SUM(amount) FROM expenses WHERE type = 'income' AND is_deleted = 0 AND date BETWEEN :startDate AND :endDate")
     LiveData<Double> getTotalIncomeByDateRange(Date startDate, Date endDate);
     
-    @Query("SELECT category, SUM(amount) as total FROM expenses WHERE type = 'expense' AND is_deleted = 0 GROUP BY category ORDER BY total DESC")
+    @Query("SELECT COALESCE(c.name, e.category) AS category, SUM(e.amount) AS total FROM expenses e " +
+           "LEFT JOIN categories c ON c.id = e.category_id " +
+           "WHERE e.type = 'expense' AND e.is_deleted = 0 " + CATEGORY_GROUP + "ORDER BY total DESC")
     LiveData<List<CategoryExpenseSum>> getExpensesByCategory();
     
-    // Month-wise expense tracking queries (string-based for backwards compatibility)
-    @Query("SELECT * FROM expenses WHERE is_deleted = 0 AND strftime('%Y-%m', date/1000, 'unixepoch') = :monthYear ORDER BY date DESC")
-    LiveData<List<Expense>> getExpensesByMonth(String monthYear);
+    // ========== MONTH-WISE QUERIES (timestamp ranges) ==========
+    // Month bounds come from MonthlyUtils.DateRange as a half-open [start, endExclusive) range in local time,
+    // so the date predicate can use the partial live (type, date, ...) index instead of formatting every row
+    
+    @Query("SELECT * FROM expenses WHERE is_deleted = 0 AND date >= :start AND date < :endExclusive ORDER BY date DESC")
+    LiveData<List<Expense>> getExpensesInRange(long start, long endExclusive);
     
-    @Query("SELECT SUM(amount) FROM expenses WHERE type = 'expense' AND is_deleted = 0 AND strftime('%Y-%m', date/1000, 'unixepoch') = :monthYear")
-    LiveData<Double> getTotalExpensesByMonth(String monthYear);
+    @Query("SELECT SUM(amount) FROM expenses WHERE type = 'expense' AND is_deleted = 0 AND date >= :start AND date < :endExclusive")
+    LiveData<Double> getTotalExpensesInRange(long start, long endExclusive);
     
-    @Query("SELECT SUM(amount) FROM expenses WHERE type = 'income' AND is_deleted = 0 AND strftime('%Y-%m', date/1000, 'unixepoch') = :monthYear")
-    LiveData<Double> getTotalIncomeByMonth(String monthYear);
+    @Query("SELECT SUM(amount) FROM expenses WHERE type = 'income' AND is_deleted = 0 AND date >= :start AND date < :endExclusive")
+    LiveData<Double> getTotalIncomeInRange(long start, long endExclusive);
     
-    @Query("SELECT category, SUM(amount) as total FROM expenses WHERE type = 'expense' AND is_deleted = 0 AND strftime('%Y-%m', date/1000, 'unixepoch') = :monthYear GROUP BY category ORDER BY total DESC")
-    LiveData<List<CategoryExpenseSum>> getExpensesByCategoryForMonth(String monthYear);
+    @Query("SELECT COALESCE(c.name, e.category) AS category, SUM(e.amount) AS total FROM expenses e " +
+           "LEFT JOIN categories c ON c.id = e.category_id " +
+           "WHERE e.type = 'expense' AND e.is_deleted = 0 AND e.date >= :start AND e.date < :endExclusive " +
+           CATEGORY_GROUP + "ORDER BY total DESC")
+    LiveData<List<CategoryExpenseSum>> getExpensesByCategoryInRange(long start, long endExclusive);
     
-    @Query("SELECT subcategory, SUM(amount) as total FROM expenses WHERE type = 'expense' AND is_deleted = 0 AND category = :category AND strftime('%Y-%m', date/1000, 'unixepoch') = :monthYear GROUP BY subcategory ORDER BY total DESC")
-    LiveData<List<SubcategoryExpenseSum>> getExpensesBySubcategoryForMonth(String category, String monthYear);
+    @Query("SELECT COALESCE(s.name, e.subcategory) AS subcategory, SUM(e.amount) AS total FROM expenses e " +
+           "LEFT JOIN subcategories s ON s.id = e.subcategory_id " +
+           "WHERE e.type = 'expense' AND e.is_deleted = 0 AND e.category = :category " +
+           "AND e.date >= :start AND e.date < :endExclusive " +
+           "GROUP BY e.subcategory_id, CASE WHEN e.subcategory_id IS NULL THEN e.subcategory END ORDER BY total DESC")
+    LiveData<List<SubcategoryExpenseSum>> getExpensesBySubcategoryInRange(String category, long start, long endExclusive);
     
-    @Query("SELECT strftime('%Y-%m', date/1000, 'unixepoch') as month, SUM(amount) as total FROM expenses WHERE type = 'expense' AND is_deleted = 0 GROUP BY strftime('%Y-%m', date/1000, 'unixepoch') ORDER BY month DESC")
+    /**
+     * Per-month expense totals within a range, bucketed by local-time month
+     * The range predicate is index-friendly; only the matching rows are formatted for grouping
+     */
+    @Query("SELECT strftime('%Y-%m', date/1000, 'unixepoch', 'localtime') as month, SUM(amount) as total FROM expenses " +
+           "WHERE type = 'expense' AND is_deleted = 0 AND date >= :start AND date < :endExclusive " +
+           "GROUP BY month ORDER BY month DESC")
+    LiveData<List<MonthlyExpenseSum>> getMonthlyExpenseTotalsInRange(long start, long endExclusive);
+    
+    @Query("SELECT strftime('%Y-%m', month_start/1000, 'unixepoch', 'localtime') as month, SUM(amount_sum) as total " +
+           "FROM monthly_totals WHERE type = 'expense' " +
+           "GROUP BY month_start ORDER BY month_start DESC")
     LiveData<List<MonthlyExpenseSum>> getMonthlyExpenseTotals();
     
+    // Month-wise expense tracking (string-based for backwards compatibility, "yyyy-MM" in local time)
+    
+    default LiveData<List<Expense>> getExpensesByMonth(String monthYear) {
+        MonthlyUtils.DateRange range = MonthlyUtils.parseMonthYear(monthYear);
+        return getExpensesInRange(range.getStartTimestamp(), range.getEndExclusiveTimestamp());
+    }
+    
+    default LiveData<Double> getTotalExpensesByMonth(String monthYear) {
+        MonthlyUtils.DateRange range = MonthlyUtils.parseMonthYear(monthYear);
+        return getTotalExpensesInRange(range.getStartTimestamp(), range.getEndExclusiveTimestamp());
+    }
+    
+    default LiveData<Double> getTotalIncomeByMonth(String monthYear) {
+        MonthlyUtils.DateRange range = MonthlyUtils.parseMonthYear(monthYear);
+        return getTotalIncomeInRange(range.getStartTimestamp(), range.getEndExclusiveTimestamp());
+    }
+    
+    default LiveData<List<CategoryExpenseSum>> getExpensesByCategoryForMonth(String monthYear) {
+        MonthlyUtils.DateRange range = MonthlyUtils.parseMonthYear(monthYear);
+        return getExpensesByCategoryInRange(range.getStartTimestamp(), range.getEndExclusiveTimestamp());
+    }
+    
+    default LiveData<List<SubcategoryExpenseSum>> getExpensesBySubcategoryForMonth(String category, String monthYear) {
+        MonthlyUtils.DateRange range = MonthlyUtils.parseMonthYear(monthYear);
+        return getExpensesBySubcategoryInRange(category, range.getStartTimestamp(), range.getEndExclusiveTimestamp());
+    }
+    
     // ========== DELETED TRANSACTIONS (for recovery) ==========
     
     @Query("SELECT * FROM expenses WHERE is_deleted = 1 ORDER BY deleted_at DESC")
@@ -152,29 +372,31 @@ public interface ExpenseDao {
     void deleteAllExpenses();
     
     // ========== ANALYTICS QUERIES ==========
+    // These read the trigger-maintained daily_totals rollup (O(days) rows instead of O(transactions)).
+    // Ranges are compared against local day starts, so bounds must fall on day boundaries.
     
     /**
      * Get daily expense totals for a date range (for Line Chart - spending trend)
      * Returns day number and total amount for each day
      */
-    @Query("SELECT strftime('%d', date/1000, 'unixepoch') as day, " +
-           "strftime('%Y-%m-%d', date/1000, 'unixepoch') as dateStr, " +
-           "COALESCE(SUM(amount), 0) as total " +
-           "FROM expenses " +
-           "WHERE type = 'expense' AND is_deleted = 0 AND date >= :startDate AND date <= :endDate " +
-           "GROUP BY strftime('%Y-%m-%d', date/1000, 'unixepoch') " +
-           "ORDER BY dateStr ASC")
+    @Query("SELECT strftime('%d', day_start/1000, 'unixepoch', 'localtime') as day, " +
+           "strftime('%Y-%m-%d', day_start/1000, 'unixepoch', 'localtime') as dateStr, " +
+           "COALESCE(SUM(amount_sum), 0) as total " +
+           "FROM daily_totals " +
+           "WHERE type = 'expense' AND day_start >= :startDate AND day_start <= :endDate " +
+           "GROUP BY day_start " +
+           "ORDER BY day_start ASC")
     List<DailyExpenseSum> getDailyExpenseTotals(long startDate, long endDate);
     
     /**
      * Get weekly expense totals for the last 4 weeks (for Bar Chart comparison)
      */
-    @Query("SELECT strftime('%W', date/1000, 'unixepoch') as weekNumber, " +
-           "strftime('%Y-%W', date/1000, 'unixepoch') as yearWeek, " +
-           "COALESCE(SUM(amount), 0) as total " +
-           "FROM expenses " +
-           "WHERE type = 'expense' AND is_deleted = 0 AND date >= :startDate AND date <= :endDate " +
-           "GROUP BY strftime('%Y-%W', date/1000, 'unixepoch') " +
+    @Query("SELECT strftime('%W', day_start/1000, 'unixepoch', 'localtime') as weekNumber, " +
+           "strftime('%Y-%W', day_start/1000, 'unixepoch', 'localtime') as yearWeek, " +
+           "COALESCE(SUM(amount_sum), 0) as total " +
+           "FROM daily_totals " +
+           "WHERE type = 'expense' AND day_start >= :startDate AND day_start <= :endDate " +
+           "GROUP BY yearWeek " +
            "ORDER BY yearWeek ASC")
     List<WeeklyExpenseSum> getWeeklyExpenseTotals(long startDate, long endDate);
     
@@ -183,35 +405,42 @@ public interface ExpenseDao {
      * Needs = is_essential = 1, Wants = is_essential = 0
      */
     @Query("SELECT is_essential as isEssential, " +
-           "COALESCE(SUM(amount), 0) as total " +
-           "FROM expenses " +
-           "WHERE type = 'expense' AND is_deleted = 0 AND date >= :startDate AND date <= :endDate " +
+           "COALESCE(SUM(amount_sum), 0) as total " +
+           "FROM daily_totals " +
+           "WHERE type = 'expense' AND day_start >= :startDate AND day_start <= :endDate " +
            "GROUP BY is_essential")
     List<NeedsWantsSum> getNeedsVsWantsTotals(long startDate, long endDate);
     
     /**
      * Get total amount for a date range (synchronous, for analytics calculations)
      */
-    @Query("SELECT COALESCE(SUM(amount), 0) FROM expenses " +
-           "WHERE type = :type AND is_deleted = 0 AND date >= :startDate AND date <= :endDate")
+    @Query("SELECT COALESCE(SUM(amount_sum), 0) FROM daily_totals " +
+           "WHERE type = :type AND day_start >= :startDate AND day_start <= :endDate")
     double getTotalByTypeAndDateRange(String type, long startDate, long endDate);
     
+    /**
+     * Exact total in paise for a date range
+     */
+    @Query("SELECT COALESCE(SUM(amount_minor_sum), 0) FROM daily_totals " +
+           "WHERE type = :type AND day_start >= :startDate AND day_start <= :endDate")
+    long getTotalMinorByTypeAndDateRange(String type, long startDate, long endDate);
+    
     /**
      * Get average daily expense for a date range
      */
     @Query("SELECT AVG(daily_total) FROM (" +
-           "SELECT COALESCE(SUM(amount), 0) as daily_total " +
-           "FROM expenses " +
-           "WHERE type = 'expense' AND is_deleted = 0 AND date >= :startDate AND date <= :endDate " +
-           "GROUP BY strftime('%Y-%m-%d', date/1000, 'unixepoch'))")
+           "SELECT SUM(amount_sum) as daily_total " +
+           "FROM daily_totals " +
+           "WHERE type = 'expense' AND day_start >= :startDate AND day_start <= :endDate " +
+           "GROUP BY day_start)")
     double getAverageDailyExpense(long startDate, long endDate);
     
     /**
      * Get top spending categories for a date range with limit
      */
-    @Query("SELECT category, COALESCE(SUM(amount), 0) as total " +
-           "FROM expenses " +
-           "WHERE type = 'expense' AND is_deleted = 0 AND date >= :startDate AND date <= :endDate " +
+    @Query("SELECT category, COALESCE(SUM(amount_sum), 0) as total " +
+           "FROM daily_totals " +
+           "WHERE type = 'expense' AND day_start >= :startDate AND day_start <= :endDate " +
            "GROUP BY category " +
            "ORDER BY total DESC " +
            "LIMIT :limit")
@@ -219,6 +448,7 @@ public interface ExpenseDao {
     
     /**
      * Get highest single expense in a date range
+     * Needs the actual row, so this one still reads expenses (via the partial live type/date index)
      */
     @Query("SELECT * FROM expenses " +
            "WHERE type = 'expense' AND is_deleted = 0 AND date >= :startDate AND date <= :endDate " +
@@ -228,20 +458,20 @@ public interface ExpenseDao {
     /**
      * Get transaction count by type for a date range
      */
-    @Query("SELECT COUNT(*) FROM expenses " +
-           "WHERE type = :type AND is_deleted = 0 AND date >= :startDate AND date <= :endDate")
+    @Query("SELECT COALESCE(SUM(row_count), 0) FROM daily_totals " +
+           "WHERE type = :type AND day_start >= :startDate AND day_start <= :endDate")
     int getTransactionCount(String type, long startDate, long endDate);
     
     /**
      * Get daily income totals for a date range (for Line Chart - income trend)
      */
-    @Query("SELECT strftime('%d', date/1000, 'unixepoch') as day, " +
-           "strftime('%Y-%m-%d', date/1000, 'unixepoch') as dateStr, " +
-           "COALESCE(SUM(amount), 0) as total " +
-           "FROM expenses " +
-           "WHERE type = 'income' AND is_deleted = 0 AND date >= :startDate AND date <= :endDate " +
-           "GROUP BY strftime('%Y-%m-%d', date/1000, 'unixepoch') " +
-           "ORDER BY dateStr ASC")
+    @Query("SELECT strftime('%d', day_start/1000, 'unixepoch', 'localtime') as day, " +
+           "strftime('%Y-%m-%d', day_start/1000, 'unixepoch', 'localtime') as dateStr, " +
+           "COALESCE(SUM(amount_sum), 0) as total " +
+           "FROM daily_totals " +
+           "WHERE type = 'income' AND day_start >= :startDate AND day_start <= :endDate " +
+           "GROUP BY day_start " +
+           "ORDER BY day_start ASC")
     List<DailyExpenseSum> getDailyIncomeTotals(long startDate, long endDate);
     
     // ========== HELPER CLASSES ==========
@@ -251,6 +481,19 @@ public interface ExpenseDao {
         public double total;
     }
     
+    public class FilterTotal {
+        public String type;
+        public long totalMinor; // Paise
+        public int count;
+    }
+    
+    public class SearchHit {
+        @Embedded
+        public Expense expense;
+        @ColumnInfo(name = "match_info")
+        public byte[] matchInfo;
+    }
+    
     public class SubcategoryExpenseSum {
         public String subcategory;
         public double total;
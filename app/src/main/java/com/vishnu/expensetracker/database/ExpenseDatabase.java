@@ -7,24 +7,38 @@ import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
 import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import android.database.Cursor;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
 import com.vishnu.expensetracker.models.Expense;
+import com.vishnu.expensetracker.models.ExpenseFts;
 import com.vishnu.expensetracker.models.Category;
+import com.vishnu.expensetracker.models.DailyTotal;
+import com.vishnu.expensetracker.models.MonthlyTotal;
+import com.vishnu.expensetracker.models.PaymentMethod;
 import com.vishnu.expensetracker.models.Subcategory;
 import com.vishnu.expensetracker.utils.DateConverter;
+import com.vishnu.expensetracker.utils.Fingerprint;
+import com.vishnu.expensetracker.utils.ThreadGuard;
+import java.util.Date;
 
 @Database(
-    entities = {Expense.class, Category.class, Subcategory.class},
-    version = 4,
+    entities = {Expense.class, ExpenseFts.class, Category.class, Subcategory.class, PaymentMethod.class, DailyTotal.class, MonthlyTotal.class},
+    version = 14,
     exportSchema = false
 )
 @TypeConverters({DateConverter.class})
 public abstract class ExpenseDatabase extends RoomDatabase {
     
     private static ExpenseDatabase instance;
+    private static volatile DatabaseTuning tuning;
     
     public abstract ExpenseDao expenseDao();
     public abstract CategoryDao categoryDao();
     public abstract SubcategoryDao subcategoryDao();
+    public abstract RollupDao rollupDao();
     
     /**
      * Migration from version 2 to 3:
@@ -52,17 +66,284 @@ public abstract class ExpenseDatabase extends RoomDatabase {
         }
     };
     
+    /**
+     * Migration from version 4 to 5:
+     * Adds covering indices for the date-range aggregates (totals, daily/weekly sums,
+     * top categories) so they no longer scan the whole expenses table
+     */
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Totals / daily / weekly sums: equality on is_deleted + type, range on date, amount read from the index
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_expenses_is_deleted_type_date_amount " +
+                    "ON expenses (is_deleted, type, date, amount)");
+            // Category breakdowns: group by category within a type
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_expenses_is_deleted_type_category_date " +
+                    "ON expenses (is_deleted, type, category, date)");
+        }
+    };
+    
+    /**
+     * Migration from version 5 to 6:
+     * Adds trigger-maintained daily/monthly rollup tables so analytics read O(days) rows
+     */
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS daily_totals (day_start INTEGER NOT NULL, type TEXT NOT NULL, " +
+                    "category TEXT NOT NULL, is_essential INTEGER NOT NULL, amount_sum REAL NOT NULL, " +
+                    "row_count INTEGER NOT NULL, PRIMARY KEY(day_start, type, category, is_essential))");
+            database.execSQL("CREATE TABLE IF NOT EXISTS monthly_totals (month_start INTEGER NOT NULL, type TEXT NOT NULL, " +
+                    "category TEXT NOT NULL, is_essential INTEGER NOT NULL, amount_sum REAL NOT NULL, " +
+                    "row_count INTEGER NOT NULL, PRIMARY KEY(month_start, type, category, is_essential))");
+            RollupSchema.createTriggers(database);
+            // Seed the rollups from existing transactions
+            RollupSchema.rebuild(database);
+        }
+    };
+    
+    /**
+     * Migration from version 6 to 7:
+     * Adds the (is_deleted, date) index used by the paged transaction list
+     */
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // rowid is the implicit last index column, so this also serves ORDER BY date, id
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_expenses_is_deleted_date ON expenses (is_deleted, date)");
+        }
+    };
+    
+    /**
+     * Migration from version 7 to 8:
+     * Adds exact minor-unit (paise) amounts to expenses and both rollups, backfilled from amount
+     */
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE expenses ADD COLUMN amount_minor INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE daily_totals ADD COLUMN amount_minor_sum INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE monthly_totals ADD COLUMN amount_minor_sum INTEGER NOT NULL DEFAULT 0");
+            // The backfill must not go through the row triggers; the rollups are rebuilt once afterwards
+            RollupSchema.dropTriggers(database);
+            database.execSQL("UPDATE expenses SET amount_minor = CAST(ROUND(amount * 100) AS INTEGER)");
+            RollupSchema.createTriggers(database);
+            RollupSchema.rebuild(database);
+            // The covering index for the range aggregates now also carries amount_minor
+            database.execSQL("DROP INDEX IF EXISTS index_expenses_is_deleted_type_date_amount");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_expenses_is_deleted_type_date_amount_amount_minor " +
+                    "ON expenses (is_deleted, type, date, amount, amount_minor)");
+        }
+    };
+    
+    /**
+     * Migration from version 8 to 9:
+     * Adds the payment_methods lookup table and integer category / subcategory / payment method
+     * keys on expenses, backfilled from the strings (kept up to date by TransactionWriter, see LookupKeys)
+     */
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS payment_methods (id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "code TEXT NOT NULL)");
+            database.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS index_payment_methods_code ON payment_methods (code)");
+            database.execSQL("ALTER TABLE expenses ADD COLUMN category_id INTEGER " +
+                    "REFERENCES categories(id) ON UPDATE NO ACTION ON DELETE SET NULL");
+            database.execSQL("ALTER TABLE expenses ADD COLUMN subcategory_id INTEGER " +
+                    "REFERENCES subcategories(id) ON UPDATE NO ACTION ON DELETE SET NULL");
+            database.execSQL("ALTER TABLE expenses ADD COLUMN payment_method_id INTEGER " +
+                    "REFERENCES payment_methods(id) ON UPDATE NO ACTION ON DELETE SET NULL");
+            LookupSchema.backfill(database);
+            // Category breakdowns now group by the integer key
+            database.execSQL("DROP INDEX IF EXISTS index_expenses_is_deleted_type_category_date");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_expenses_is_deleted_type_category_id_date " +
+                    "ON expenses (is_deleted, type, category_id, date)");
+        }
+    };
+    
+    /**
+     * Migration from version 9 to 10:
+     * Adds the expenses_fts full-text index with the same table, options and content-sync
+     * triggers Room creates for ExpenseFts on a fresh install, then builds it from existing rows
+     */
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `expenses_fts` USING FTS4(`title` TEXT, " +
+                    "`description` TEXT, `category` TEXT, `subcategory` TEXT, tokenize=unicode61, " +
+                    "content=`expenses`, prefix=`2,3`)");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_expenses_fts_BEFORE_UPDATE " +
+                    "BEFORE UPDATE ON `expenses` BEGIN DELETE FROM `expenses_fts` WHERE `docid`=OLD.`rowid`; END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_expenses_fts_BEFORE_DELETE " +
+                    "BEFORE DELETE ON `expenses` BEGIN DELETE FROM `expenses_fts` WHERE `docid`=OLD.`rowid`; END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_expenses_fts_AFTER_UPDATE " +
+                    "AFTER UPDATE ON `expenses` BEGIN INSERT INTO `expenses_fts`(`docid`, `title`, `description`, " +
+                    "`category`, `subcategory`) VALUES (NEW.`rowid`, NEW.`title`, NEW.`description`, " +
+                    "NEW.`category`, NEW.`subcategory`); END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_expenses_fts_AFTER_INSERT " +
+                    "AFTER INSERT ON `expenses` BEGIN INSERT INTO `expenses_fts`(`docid`, `title`, `description`, " +
+                    "`category`, `subcategory`) VALUES (NEW.`rowid`, NEW.`title`, NEW.`description`, " +
+                    "NEW.`category`, NEW.`subcategory`); END");
+            database.execSQL("INSERT INTO expenses_fts(expenses_fts) VALUES ('rebuild')");
+        }
+    };
+    
+    /**
+     * Migration from version 10 to 11:
+     * Adds the duplicate-detection fingerprint to expenses; the hash is computed in Java, so
+     * existing rows are backfilled through a cursor and one reused UPDATE statement
+     */
+    static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE expenses ADD COLUMN fingerprint INTEGER NOT NULL DEFAULT 0");
+            SupportSQLiteStatement update = database.compileStatement("UPDATE expenses SET fingerprint = ? WHERE id = ?");
+            try (Cursor cursor = database.query("SELECT id, title, amount_minor, date, payment_method FROM expenses")) {
+                while (cursor.moveToNext()) {
+                    Date date = cursor.isNull(3) ? null : new Date(cursor.getLong(3));
+                    update.bindLong(1, Fingerprint.of(cursor.getString(1), cursor.getLong(2), date, cursor.getString(4)));
+                    update.bindLong(2, cursor.getLong(0));
+                    update.executeUpdateDelete();
+                }
+            }
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_expenses_fingerprint ON expenses (fingerprint)");
+        }
+    };
+    
+    /**
+     * Migration from version 11 to 12:
+     * Adds updated_at (last write time, for incremental backups), backfilled from the latest
+     * timestamp each row already carries
+     */
+    static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE expenses ADD COLUMN updated_at INTEGER");
+            database.execSQL("UPDATE expenses SET updated_at = COALESCE(deleted_at, created_at, date)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_expenses_updated_at ON expenses (updated_at)");
+        }
+    };
+    
+    /**
+     * Migration from version 12 to 13:
+     * Replaces the full (is_deleted, type, date, amount, amount_minor) and (is_deleted, date)
+     * indices with partial ones over live rows only (see PartialIndexes), which leave the trash out
+     * and drop the is_deleted column from every entry. They are created when the database opens.
+     */
+    static final Migration MIGRATION_12_13 = new PartialIndexMigration(12, 13) {
+        @Override
+        void migrateSchema(SupportSQLiteDatabase database) {
+            database.execSQL("DROP INDEX IF EXISTS index_expenses_is_deleted_type_date_amount_amount_minor");
+            database.execSQL("DROP INDEX IF EXISTS index_expenses_is_deleted_date");
+        }
+    };
+    
+    /**
+     * Migration from version 13 to 14:
+     * The lookup keys are now resolved by TransactionWriter and bound in the INSERT / UPDATE, so the
+     * triggers that set them with a second UPDATE per row (re-firing the FTS and rollup triggers)
+     * are dropped. Adds indices on the three key columns so ON DELETE SET NULL from categories,
+     * subcategories and payment_methods finds the child rows without a table scan.
+     */
+    static final Migration MIGRATION_13_14 = new PartialIndexMigration(13, 14) {
+        @Override
+        void migrateSchema(SupportSQLiteDatabase database) {
+            LookupSchema.dropTriggers(database);
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_expenses_category_id ON expenses (category_id)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_expenses_subcategory_id ON expenses (subcategory_id)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_expenses_payment_method_id ON expenses (payment_method_id)");
+        }
+    };
+    
+    /**
+     * Installs the SQL objects Room does not generate from the entities (rollup triggers, partial
+     * indexes). Migrations added from here on must extend PartialIndexMigration.
+     */
+    private static final RoomDatabase.Callback SCHEMA_CALLBACK = new RoomDatabase.Callback() {
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+            RollupSchema.createTriggers(db);
+            PartialIndexes.create(db);
+        }
+        
+        @Override
+        public void onOpen(@NonNull SupportSQLiteDatabase db) {
+            // Dropped by any migration (see PartialIndexes), so recreated on every open
+            PartialIndexes.create(db);
+        }
+    };
+    
+    /**
+     * Override the SQLite settings; must be called before the first getInstance()
+     * (e.g. from a benchmark), otherwise the profile for the device is used
+     */
+    public static synchronized void configure(DatabaseTuning databaseTuning) {
+        if (instance != null) {
+            throw new IllegalStateException("ExpenseDatabase is already open");
+        }
+        tuning = databaseTuning;
+    }
+    
+    /**
+     * The settings the open database was built with
+     */
+    public static synchronized DatabaseTuning getTuning() {
+        return tuning;
+    }
+    
     public static synchronized ExpenseDatabase getInstance(Context context) {
         if (instance == null) {
-            instance = Room.databaseBuilder(
-                context.getApplicationContext(),
-                ExpenseDatabase.class,
-                "expense_database"
-            )
-            .addMigrations(MIGRATION_2_3, MIGRATION_3_4)
-            .fallbackToDestructiveMigration()
-            .build();
+            if (tuning == null) {
+                tuning = DatabaseTuning.forDevice(context);
+            }
+            RoomDatabase.Builder<ExpenseDatabase> appBuilder = tuning.applyTo(builder(context, "expense_database"));
+            if (ThreadGuard.isDebuggable(context)) {
+                // Per-statement latency for the query metrics screen (see QueryMetrics), debug builds only
+                appBuilder.openHelperFactory(new MeteredOpenHelperFactory(new FrameworkSQLiteOpenHelperFactory()));
+            }
+            instance = appBuilder.build();
         }
         return instance;
     }
-}
\ No newline at end of file
+    
+    /**
+     * Open a separate database file with the same schema, callbacks and tuning as the app's
+     * (instrumented tests and the benchmarks under androidTest). Its statements are not recorded
+     * in QueryMetrics. The caller closes it and deletes the file.
+     */
+    @VisibleForTesting
+    public static synchronized ExpenseDatabase openSeparate(Context context, String name) {
+        if (tuning == null) {
+            tuning = DatabaseTuning.forDevice(context);
+        }
+        return openSeparate(context, name, tuning);
+    }
+    
+    /**
+     * Open a separate database file with other settings (e.g. to compare tuning profiles)
+     */
+    @VisibleForTesting
+    public static ExpenseDatabase openSeparate(Context context, String name, DatabaseTuning databaseTuning) {
+        return databaseTuning.applyTo(builder(context, name)).build();
+    }
+    
+    private static final Migration[] MIGRATIONS = {MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6,
+            MIGRATION_6_7, MIGRATION_7_8, MIGRATION_8_9, MIGRATION_9_10, MIGRATION_10_11, MIGRATION_11_12,
+            MIGRATION_12_13, MIGRATION_13_14};
+    
+    private static RoomDatabase.Builder<ExpenseDatabase> builder(Context context, String name) {
+        for (Migration migration : MIGRATIONS) {
+            // A migration that kept the partial indexes would fail Room's schema validation
+            if (migration.startVersion >= PartialIndexMigration.FIRST_VERSION
+                    && !(migration instanceof PartialIndexMigration)) {
+                throw new IllegalStateException("Migration from " + migration.startVersion
+                        + " must extend PartialIndexMigration");
+            }
+        }
+        return Room.databaseBuilder(context.getApplicationContext(), ExpenseDatabase.class, name)
+                .addMigrations(MIGRATIONS)
+                .addCallback(SCHEMA_CALLBACK)
+                // Only the version 1 schema has no migration; a gap or downgrade fails instead of wiping the ledger
+                .fallbackToDestructiveMigrationFrom(1);
+    }
+}
@@ -0,0 +1,142 @@
+package com.vishnu.expensetracker.database;
+
+import android.util.LruCache;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import com.vishnu.expensetracker.models.TransactionFilter;
+import com.vishnu.expensetracker.utils.SearchQuery;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles a TransactionFilter into one parameterized query for ExpenseDao's @RawQuery methods
+ * Values are always bound, never inlined, so filters of the same shape (which criteria are set
+ * and how many categories / payment methods) produce identical SQL. That SQL is cached here
+ * per shape, and identical SQL also lets SQLite reuse the prepared statement from the
+ * connection's statement cache instead of parsing and planning it again.
+ * Predicates lead with the literal is_deleted = 0, type and date so the partial live (type, date, ...)
+ * and (date) indices serve the scan; text goes through the expenses_fts index.
+ */
+public class FilterCompiler {
+
+    private static final int SQL_CACHE_SIZE = 32;
+
+    private static final String PAGED_SELECT = "SELECT e.* ";
+    private static final String PAGED_ORDER = " ORDER BY e.date DESC, e.id DESC";
+    private static final String TOTALS_SELECT =
+            "SELECT e.type AS type, COALESCE(SUM(e.amount_minor), 0) AS totalMinor, COUNT(*) AS count ";
+    private static final String TOTALS_GROUP = " GROUP BY e.type";
+
+    private final LruCache<String, String> sqlCache = new LruCache<>(SQL_CACHE_SIZE);
+
+    /**
+     * Matching transactions, newest first (for ExpenseDao.getFilteredPaged)
+     */
+    public SupportSQLiteQuery compilePaged(TransactionFilter filter) {
+        return compile(filter, "p", PAGED_SELECT, PAGED_ORDER);
+    }
+
+    /**
+     * Total and count per type of the matching transactions (for ExpenseDao.getFilteredTotals)
+     */
+    public SupportSQLiteQuery compileTotals(TransactionFilter filter) {
+        return compile(filter, "t", TOTALS_SELECT, TOTALS_GROUP);
+    }
+
+    private SupportSQLiteQuery compile(TransactionFilter filter, String kind, String select, String suffix) {
+        String match = SearchQuery.toMatchExpression(filter.getText());
+        String shape = kind + shapeOf(filter, match);
+        String sql = sqlCache.get(shape);
+        if (sql == null) {
+            sql = select + fromAndWhere(filter, match) + suffix;
+            sqlCache.put(shape, sql);
+        }
+        return new SimpleSQLiteQuery(sql, bindArgs(filter, match));
+    }
+
+    // Everything the SQL text depends on; the values themselves are bound
+    private static String shapeOf(TransactionFilter filter, String match) {
+        return (filter.getType() != null ? "T" : "-")
+                + (filter.getStartDate() != null ? "S" : "-")
+                + (filter.getEndDate() != null ? "E" : "-")
+                + (filter.getEssential() != null ? "N" : "-")
+                + (filter.getMinAmountMinor() != null ? "L" : "-")
+                + (filter.getMaxAmountMinor() != null ? "H" : "-")
+                + (match != null ? "X" : "-")
+                + "c" + filter.getCategories().size()
+                + "m" + filter.getPaymentMethods().size();
+    }
+
+    // Clause order must match bindArgs()
+    private static String fromAndWhere(TransactionFilter filter, String match) {
+        StringBuilder sql = new StringBuilder();
+        if (match != null) {
+            sql.append("FROM expenses_fts JOIN expenses e ON e.id = expenses_fts.rowid WHERE e.is_deleted = 0");
+        } else {
+            sql.append("FROM expenses e WHERE e.is_deleted = 0");
+        }
+        if (filter.getType() != null) {
+            sql.append(" AND e.type = ?");
+        }
+        if (filter.getStartDate() != null) {
+            sql.append(" AND e.date >= ?");
+        }
+        if (filter.getEndDate() != null) {
+            sql.append(" AND e.date <= ?");
+        }
+        if (filter.getEssential() != null) {
+            sql.append(" AND e.is_essential = ?");
+        }
+        if (filter.getMinAmountMinor() != null) {
+            sql.append(" AND e.amount_minor >= ?");
+        }
+        if (filter.getMaxAmountMinor() != null) {
+            sql.append(" AND e.amount_minor <= ?");
+        }
+        appendIn(sql, "e.category", filter.getCategories().size());
+        appendIn(sql, "e.payment_method", filter.getPaymentMethods().size());
+        if (match != null) {
+            sql.append(" AND expenses_fts MATCH ?");
+        }
+        return sql.toString();
+    }
+
+    private static void appendIn(StringBuilder sql, String column, int count) {
+        if (count == 0) {
+            return;
+        }
+        sql.append(" AND ").append(column).append(" IN (?");
+        for (int i = 1; i < count; i++) {
+            sql.append(", ?");
+        }
+        sql.append(')');
+    }
+
+    private static Object[] bindArgs(TransactionFilter filter, String match) {
+        List<Object> args = new ArrayList<>();
+        if (filter.getType() != null) {
+            args.add(filter.getType());
+        }
+        if (filter.getStartDate() != null) {
+            args.add(filter.getStartDate());
+        }
+        if (filter.getEndDate() != null) {
+            args.add(filter.getEndDate());
+        }
+        if (filter.getEssential() != null) {
+            args.add(filter.getEssential() ? 1 : 0);
+        }
+        if (filter.getMinAmountMinor() != null) {
+            args.add(filter.getMinAmountMinor());
+        }
+        if (filter.getMaxAmountMinor() != null) {
+            args.add(filter.getMaxAmountMinor());
+        }
+        args.addAll(filter.getCategories());
+        args.addAll(filter.getPaymentMethods());
+        if (match != null) {
+            args.add(match);
+        }
+        return args.toArray();
+    }
+}
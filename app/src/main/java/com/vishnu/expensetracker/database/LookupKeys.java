@@ -0,0 +1,136 @@
+package com.vishnu.expensetracker.database;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import com.vishnu.expensetracker.models.Expense;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resolves the integer lookup keys of a transaction (category_id, subcategory_id,
+ * payment_method_id) from its strings before it is written, so the keys go in with the INSERT or
+ * UPDATE itself instead of a second UPDATE (which would fire the FTS and rollup triggers again).
+ * Lookups are cached for the life of the instance, i.e. one TransactionWriter call or one
+ * BulkWrite. Payment method codes not seen before are added to payment_methods.
+ * Categories are matched by name and type, as LookupSchema.backfill does; an unknown name leaves
+ * the key NULL. Use on the write thread, inside the write's transaction, and close it.
+ */
+final class LookupKeys implements Closeable {
+
+    // MIN() returns a row even when nothing matches, so an unknown value reads as 0 (NULL)
+    private static final String CATEGORY_SQL =
+            "SELECT MIN(id) FROM categories WHERE name = ? AND type = ?";
+    private static final String SUBCATEGORY_SQL =
+            "SELECT MIN(s.id) FROM subcategories s JOIN categories c ON c.id = s.category_id " +
+            "WHERE s.name = ? AND c.name = ? AND c.type = ?";
+    private static final String ADD_PAYMENT_METHOD_SQL = "INSERT OR IGNORE INTO payment_methods (code) VALUES (?)";
+    private static final String PAYMENT_METHOD_SQL = "SELECT MIN(id) FROM payment_methods WHERE code = ?";
+
+    private final SupportSQLiteDatabase db;
+    // Compiled on first use
+    private SupportSQLiteStatement category;
+    private SupportSQLiteStatement subcategory;
+    private SupportSQLiteStatement addPaymentMethod;
+    private SupportSQLiteStatement paymentMethod;
+
+    private final Map<String, Long> categoryIds = new HashMap<>();
+    private final Map<String, Long> subcategoryIds = new HashMap<>();
+    private final Map<String, Long> paymentMethodIds = new HashMap<>();
+
+    LookupKeys(ExpenseDatabase database) {
+        this.db = database.getOpenHelper().getWritableDatabase();
+    }
+
+    /**
+     * Set the expense's key fields from its category, subcategory, type and payment method
+     */
+    void resolve(Expense expense) {
+        expense.setCategoryId(toKey(categoryId(expense.getCategory(), expense.getType())));
+        expense.setSubcategoryId(toKey(subcategoryId(expense.getSubcategory(), expense.getCategory(), expense.getType())));
+        expense.setPaymentMethodId(toKey(paymentMethodId(expense.getPaymentMethod())));
+    }
+
+    private long categoryId(String name, String type) {
+        if (name == null || type == null) {
+            return 0;
+        }
+        String key = type + '\u0000' + name;
+        Long id = categoryIds.get(key);
+        if (id == null) {
+            if (category == null) {
+                category = db.compileStatement(CATEGORY_SQL);
+            }
+            category.bindString(1, name);
+            category.bindString(2, type);
+            id = category.simpleQueryForLong();
+            categoryIds.put(key, id);
+        }
+        return id;
+    }
+
+    private long subcategoryId(String name, String categoryName, String type) {
+        if (name == null || categoryName == null || type == null) {
+            return 0;
+        }
+        String key = type + '\u0000' + categoryName + '\u0000' + name;
+        Long id = subcategoryIds.get(key);
+        if (id == null) {
+            if (subcategory == null) {
+                subcategory = db.compileStatement(SUBCATEGORY_SQL);
+            }
+            subcategory.bindString(1, name);
+            subcategory.bindString(2, categoryName);
+            subcategory.bindString(3, type);
+            id = subcategory.simpleQueryForLong();
+            subcategoryIds.put(key, id);
+        }
+        return id;
+    }
+
+    private long paymentMethodId(String code) {
+        if (code == null) {
+            return 0;
+        }
+        Long id = paymentMethodIds.get(code);
+        if (id == null) {
+            if (paymentMethod == null) {
+                addPaymentMethod = db.compileStatement(ADD_PAYMENT_METHOD_SQL);
+                paymentMethod = db.compileStatement(PAYMENT_METHOD_SQL);
+            }
+            addPaymentMethod.bindString(1, code);
+            addPaymentMethod.executeInsert();
+            paymentMethod.bindString(1, code);
+            id = paymentMethod.simpleQueryForLong();
+            paymentMethodIds.put(code, id);
+        }
+        return id;
+    }
+
+    /**
+     * Forget every cached key (after a rollback, which may have removed payment methods added here)
+     */
+    void clear() {
+        categoryIds.clear();
+        subcategoryIds.clear();
+        paymentMethodIds.clear();
+    }
+
+    private static Integer toKey(long id) {
+        return id > 0 ? (int) id : null;
+    }
+
+    @Override
+    public void close() {
+        for (SupportSQLiteStatement statement : new SupportSQLiteStatement[]{category, subcategory, addPaymentMethod, paymentMethod}) {
+            if (statement != null) {
+                try {
+                    statement.close();
+                } catch (IOException ignored) {
+                    // Finalizing a statement does not fail
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.vishnu.expensetracker.database;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * SQL for the integer lookup keys on expenses (category_id, subcategory_id, payment_method_id)
+ * Since version 14 the keys are resolved by TransactionWriter before each write (see LookupKeys)
+ * and bound in the INSERT / UPDATE; this class only fills them in for existing rows and removes
+ * the triggers that used to resolve them with a second UPDATE per row.
+ * Categories are matched by name and type; an unknown name leaves the key NULL.
+ * The category / subcategory / payment_method strings are kept next to the keys (the FTS index,
+ * the rollups, search and export read them), so the keys make rows wider, not narrower.
+ */
+public final class LookupSchema {
+
+    // Resolve the keys of the expenses row aliased as "expenses"
+    private static final String CATEGORY_ID =
+            "(SELECT MIN(c.id) FROM categories c WHERE c.name = expenses.category AND c.type = expenses.type)";
+    private static final String SUBCATEGORY_ID =
+            "(SELECT MIN(s.id) FROM subcategories s JOIN categories c ON c.id = s.category_id " +
+            "WHERE s.name = expenses.subcategory AND c.name = expenses.category AND c.type = expenses.type)";
+    private static final String PAYMENT_METHOD_ID =
+            "(SELECT p.id FROM payment_methods p WHERE p.code = expenses.payment_method)";
+
+    private static final String RESOLVE_KEYS =
+            "SET category_id = " + CATEGORY_ID + ", subcategory_id = " + SUBCATEGORY_ID +
+            ", payment_method_id = " + PAYMENT_METHOD_ID;
+
+    private LookupSchema() {}
+
+    /**
+     * Drop the key triggers versions 9 to 13 created
+     */
+    public static void dropTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("DROP TRIGGER IF EXISTS expenses_lookup_insert");
+        db.execSQL("DROP TRIGGER IF EXISTS expenses_lookup_update");
+    }
+
+    /**
+     * Fill payment_methods and the keys of every existing row (used by the schema migration)
+     */
+    public static void backfill(SupportSQLiteDatabase db) {
+        db.execSQL("INSERT OR IGNORE INTO payment_methods (code) " +
+                "SELECT DISTINCT payment_method FROM expenses WHERE payment_method IS NOT NULL");
+        db.execSQL("UPDATE expenses " + RESOLVE_KEYS);
+    }
+}
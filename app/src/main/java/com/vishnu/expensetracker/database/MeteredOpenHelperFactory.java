@@ -0,0 +1,430 @@
+package com.vishnu.expensetracker.database;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteTransactionListener;
+import android.os.CancellationSignal;
+import android.util.Pair;
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Open helper factory that times every statement Room runs and records it in QueryMetrics
+ * Queries are timed up to their first window fill: getCount() is called before the cursor
+ * is returned, which steps through the whole result (as Room's first moveToNext() would have
+ * anyway) and gives the row count. Compiled statements are timed per execution, and the
+ * outermost endTransaction() is recorded as END TRANSACTION since that is where a write
+ * transaction syncs. Room's open callbacks (schema, pragmas) get the unwrapped database and
+ * are not recorded.
+ */
+final class MeteredOpenHelperFactory implements SupportSQLiteOpenHelper.Factory {
+
+    private static final String END_TRANSACTION = "END TRANSACTION";
+
+    private final SupportSQLiteOpenHelper.Factory delegate;
+
+    MeteredOpenHelperFactory(SupportSQLiteOpenHelper.Factory delegate) {
+        this.delegate = delegate;
+    }
+
+    @NonNull
+    @Override
+    public SupportSQLiteOpenHelper create(@NonNull SupportSQLiteOpenHelper.Configuration configuration) {
+        return new MeteredOpenHelper(delegate.create(configuration));
+    }
+
+    private static Cursor timed(String sql, long start, Cursor cursor) {
+        try {
+            int rows = cursor.getCount();
+            QueryMetrics.record(sql, System.nanoTime() - start, rows);
+            return cursor;
+        } catch (RuntimeException e) {
+            // Cancelled or failed while stepping; the caller never sees this cursor
+            cursor.close();
+            throw e;
+        }
+    }
+
+    // ========== OPEN HELPER ==========
+
+    private static final class MeteredOpenHelper implements SupportSQLiteOpenHelper {
+        private final SupportSQLiteOpenHelper delegate;
+        private volatile MeteredDatabase writable;
+        private volatile MeteredDatabase readable;
+
+        MeteredOpenHelper(SupportSQLiteOpenHelper delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getDatabaseName() {
+            return delegate.getDatabaseName();
+        }
+
+        @Override
+        public void setWriteAheadLoggingEnabled(boolean enabled) {
+            delegate.setWriteAheadLoggingEnabled(enabled);
+        }
+
+        @Override
+        public SupportSQLiteDatabase getWritableDatabase() {
+            SupportSQLiteDatabase db = delegate.getWritableDatabase();
+            MeteredDatabase wrapper = writable;
+            if (wrapper == null || wrapper.delegate != db) {
+                wrapper = new MeteredDatabase(db);
+                writable = wrapper;
+            }
+            return wrapper;
+        }
+
+        @Override
+        public SupportSQLiteDatabase getReadableDatabase() {
+            SupportSQLiteDatabase db = delegate.getReadableDatabase();
+            MeteredDatabase wrapper = readable;
+            if (wrapper == null || wrapper.delegate != db) {
+                wrapper = new MeteredDatabase(db);
+                readable = wrapper;
+            }
+            return wrapper;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    // ========== DATABASE ==========
+
+    private static final class MeteredDatabase implements SupportSQLiteDatabase {
+        final SupportSQLiteDatabase delegate;
+
+        MeteredDatabase(SupportSQLiteDatabase delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public SupportSQLiteStatement compileStatement(String sql) {
+            return new MeteredStatement(sql, delegate.compileStatement(sql));
+        }
+
+        @Override
+        public Cursor query(String query) {
+            long start = System.nanoTime();
+            return timed(query, start, delegate.query(query));
+        }
+
+        @Override
+        public Cursor query(String query, Object[] bindArgs) {
+            long start = System.nanoTime();
+            return timed(query, start, delegate.query(query, bindArgs));
+        }
+
+        @Override
+        public Cursor query(SupportSQLiteQuery query) {
+            long start = System.nanoTime();
+            return timed(query.getSql(), start, delegate.query(query));
+        }
+
+        @Override
+        public Cursor query(SupportSQLiteQuery query, CancellationSignal cancellationSignal) {
+            long start = System.nanoTime();
+            return timed(query.getSql(), start, delegate.query(query, cancellationSignal));
+        }
+
+        @Override
+        public void execSQL(String sql) throws SQLException {
+            long start = System.nanoTime();
+            delegate.execSQL(sql);
+            QueryMetrics.record(sql, System.nanoTime() - start, 0);
+        }
+
+        @Override
+        public void execSQL(String sql, Object[] bindArgs) throws SQLException {
+            long start = System.nanoTime();
+            delegate.execSQL(sql, bindArgs);
+            QueryMetrics.record(sql, System.nanoTime() - start, 0);
+        }
+
+        @Override
+        public long insert(String table, int conflictAlgorithm, ContentValues values) throws SQLException {
+            long start = System.nanoTime();
+            long rowId = delegate.insert(table, conflictAlgorithm, values);
+            QueryMetrics.record("INSERT INTO " + table, System.nanoTime() - start, rowId == -1 ? 0 : 1);
+            return rowId;
+        }
+
+        @Override
+        public int delete(String table, String whereClause, Object[] whereArgs) {
+            long start = System.nanoTime();
+            int rows = delegate.delete(table, whereClause, whereArgs);
+            QueryMetrics.record("DELETE FROM " + table + (whereClause == null ? "" : " WHERE " + whereClause),
+                    System.nanoTime() - start, rows);
+            return rows;
+        }
+
+        @Override
+        public int update(String table, int conflictAlgorithm, ContentValues values, String whereClause,
+                          Object[] whereArgs) {
+            long start = System.nanoTime();
+            int rows = delegate.update(table, conflictAlgorithm, values, whereClause, whereArgs);
+            QueryMetrics.record("UPDATE " + table + (whereClause == null ? "" : " WHERE " + whereClause),
+                    System.nanoTime() - start, rows);
+            return rows;
+        }
+
+        // ---- Transactions ----
+
+        @Override
+        public void beginTransaction() {
+            delegate.beginTransaction();
+        }
+
+        @Override
+        public void beginTransactionNonExclusive() {
+            delegate.beginTransactionNonExclusive();
+        }
+
+        @Override
+        public void beginTransactionWithListener(SQLiteTransactionListener transactionListener) {
+            delegate.beginTransactionWithListener(transactionListener);
+        }
+
+        @Override
+        public void beginTransactionWithListenerNonExclusive(SQLiteTransactionListener transactionListener) {
+            delegate.beginTransactionWithListenerNonExclusive(transactionListener);
+        }
+
+        @Override
+        public void setTransactionSuccessful() {
+            delegate.setTransactionSuccessful();
+        }
+
+        @Override
+        public void endTransaction() {
+            long start = System.nanoTime();
+            delegate.endTransaction();
+            // Nested ends only unwind; the outermost one commits or rolls back
+            if (!delegate.inTransaction()) {
+                QueryMetrics.record(END_TRANSACTION, System.nanoTime() - start, 0);
+            }
+        }
+
+        @Override
+        public boolean inTransaction() {
+            return delegate.inTransaction();
+        }
+
+        @Override
+        public boolean isDbLockedByCurrentThread() {
+            return delegate.isDbLockedByCurrentThread();
+        }
+
+        @Override
+        public boolean yieldIfContendedSafely() {
+            return delegate.yieldIfContendedSafely();
+        }
+
+        @Override
+        public boolean yieldIfContendedSafely(long sleepAfterYieldDelay) {
+            return delegate.yieldIfContendedSafely(sleepAfterYieldDelay);
+        }
+
+        // ---- Everything else is passed through ----
+
+        @Override
+        public int getVersion() {
+            return delegate.getVersion();
+        }
+
+        @Override
+        public void setVersion(int version) {
+            delegate.setVersion(version);
+        }
+
+        @Override
+        public long getMaximumSize() {
+            return delegate.getMaximumSize();
+        }
+
+        @Override
+        public long setMaximumSize(long numBytes) {
+            return delegate.setMaximumSize(numBytes);
+        }
+
+        @Override
+        public long getPageSize() {
+            return delegate.getPageSize();
+        }
+
+        @Override
+        public void setPageSize(long numBytes) {
+            delegate.setPageSize(numBytes);
+        }
+
+        @Override
+        public boolean isReadOnly() {
+            return delegate.isReadOnly();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public boolean needUpgrade(int newVersion) {
+            return delegate.needUpgrade(newVersion);
+        }
+
+        @Override
+        public String getPath() {
+            return delegate.getPath();
+        }
+
+        @Override
+        public void setLocale(Locale locale) {
+            delegate.setLocale(locale);
+        }
+
+        @Override
+        public void setMaxSqlCacheSize(int cacheSize) {
+            delegate.setMaxSqlCacheSize(cacheSize);
+        }
+
+        @Override
+        public void setForeignKeyConstraintsEnabled(boolean enable) {
+            delegate.setForeignKeyConstraintsEnabled(enable);
+        }
+
+        @Override
+        public boolean enableWriteAheadLogging() {
+            return delegate.enableWriteAheadLogging();
+        }
+
+        @Override
+        public void disableWriteAheadLogging() {
+            delegate.disableWriteAheadLogging();
+        }
+
+        @Override
+        public boolean isWriteAheadLoggingEnabled() {
+            return delegate.isWriteAheadLoggingEnabled();
+        }
+
+        @Override
+        public List<Pair<String, String>> getAttachedDbs() {
+            return delegate.getAttachedDbs();
+        }
+
+        @Override
+        public boolean isDatabaseIntegrityOk() {
+            return delegate.isDatabaseIntegrityOk();
+        }
+
+        public void execPerConnectionSQL(String sql, Object[] bindArgs) {
+            delegate.execPerConnectionSQL(sql, bindArgs);
+        }
+
+        public boolean isExecPerConnectionSQLSupported() {
+            return delegate.isExecPerConnectionSQLSupported();
+        }
+
+        @Override
+        public void close() throws java.io.IOException {
+            delegate.close();
+        }
+    }
+
+    // ========== STATEMENT ==========
+
+    private static final class MeteredStatement implements SupportSQLiteStatement {
+        private final String sql;
+        private final SupportSQLiteStatement delegate;
+
+        MeteredStatement(String sql, SupportSQLiteStatement delegate) {
+            this.sql = sql;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute() {
+            long start = System.nanoTime();
+            delegate.execute();
+            QueryMetrics.record(sql, System.nanoTime() - start, 0);
+        }
+
+        @Override
+        public int executeUpdateDelete() {
+            long start = System.nanoTime();
+            int rows = delegate.executeUpdateDelete();
+            QueryMetrics.record(sql, System.nanoTime() - start, rows);
+            return rows;
+        }
+
+        @Override
+        public long executeInsert() {
+            long start = System.nanoTime();
+            long rowId = delegate.executeInsert();
+            QueryMetrics.record(sql, System.nanoTime() - start, rowId == -1 ? 0 : 1);
+            return rowId;
+        }
+
+        @Override
+        public long simpleQueryForLong() {
+            long start = System.nanoTime();
+            long value = delegate.simpleQueryForLong();
+            QueryMetrics.record(sql, System.nanoTime() - start, 1);
+            return value;
+        }
+
+        @Override
+        public String simpleQueryForString() {
+            long start = System.nanoTime();
+            String value = delegate.simpleQueryForString();
+            QueryMetrics.record(sql, System.nanoTime() - start, 1);
+            return value;
+        }
+
+        @Override
+        public void bindNull(int index) {
+            delegate.bindNull(index);
+        }
+
+        @Override
+        public void bindLong(int index, long value) {
+            delegate.bindLong(index, value);
+        }
+
+        @Override
+        public void bindDouble(int index, double value) {
+            delegate.bindDouble(index, value);
+        }
+
+        @Override
+        public void bindString(int index, String value) {
+            delegate.bindString(index, value);
+        }
+
+        @Override
+        public void bindBlob(int index, byte[] value) {
+            delegate.bindBlob(index, value);
+        }
+
+        @Override
+        public void clearBindings() {
+            delegate.clearBindings();
+        }
+
+        @Override
+        public void close() throws java.io.IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.vishnu.expensetracker.database;
+
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Base of every migration from version FIRST_VERSION on: drops the partial indexes (see
+ * PartialIndexes) before the schema change, so the schema Room validates afterwards is its own.
+ * ExpenseDatabase refuses to build with a later migration that does not extend it.
+ */
+abstract class PartialIndexMigration extends Migration {
+
+    // The version the partial indexes first exist in
+    static final int FIRST_VERSION = 12;
+
+    PartialIndexMigration(int startVersion, int endVersion) {
+        super(startVersion, endVersion);
+    }
+
+    @Override
+    public final void migrate(SupportSQLiteDatabase database) {
+        PartialIndexes.drop(database);
+        migrateSchema(database);
+    }
+
+    /**
+     * The schema change itself, run after the partial indexes are dropped
+     */
+    abstract void migrateSchema(SupportSQLiteDatabase database);
+}
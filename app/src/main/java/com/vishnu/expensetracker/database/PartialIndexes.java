@@ -0,0 +1,43 @@
+package com.vishnu.expensetracker.database;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Partial indexes on expenses, which Room's @Index cannot declare
+ * Room validates the full index list of every entity table after migrating, so these are not
+ * part of the validated schema: they are created when the database is created or opened, and
+ * every migration drops them first (see PartialIndexMigration). Every CREATE here uses IF NOT EXISTS.
+ */
+public final class PartialIndexes {
+
+    // The trash, newest deletion first (getDeletedTransactions) and oldest first (retention purge)
+    static final String TRASH = "index_expenses_trash_deleted_at";
+    // Range aggregates by type; carries the amounts so the sums never touch the table. The trailing
+    // is_deleted (always 0, stored in the record header alone) lets SQLite treat it as covering.
+    static final String LIVE_TYPE_DATE = "index_expenses_live_type_date";
+    // Transactions of one category, newest first
+    static final String LIVE_CATEGORY_DATE = "index_expenses_live_category_date";
+    // The paged transaction list, date filters and the keyset export
+    static final String LIVE_DATE = "index_expenses_live_date";
+
+    private PartialIndexes() {}
+
+    public static void create(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + TRASH + " ON expenses (deleted_at) WHERE is_deleted = 1");
+        // Only used by queries whose WHERE has the literal term is_deleted = 0
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + LIVE_TYPE_DATE +
+                " ON expenses (type, date, amount, amount_minor, is_deleted) WHERE is_deleted = 0");
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + LIVE_CATEGORY_DATE + " ON expenses (category, date) WHERE is_deleted = 0");
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + LIVE_DATE + " ON expenses (date) WHERE is_deleted = 0");
+    }
+
+    /**
+     * Remove the indexes before a migration, so the schema Room validates afterwards is its own
+     */
+    public static void drop(SupportSQLiteDatabase db) {
+        db.execSQL("DROP INDEX IF EXISTS " + TRASH);
+        db.execSQL("DROP INDEX IF EXISTS " + LIVE_TYPE_DATE);
+        db.execSQL("DROP INDEX IF EXISTS " + LIVE_CATEGORY_DATE);
+        db.execSQL("DROP INDEX IF EXISTS " + LIVE_DATE);
+    }
+}
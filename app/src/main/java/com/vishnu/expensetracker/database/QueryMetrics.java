@@ -0,0 +1,226 @@
+package com.vishnu.expensetracker.database;
+
+import android.os.Looper;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-statement latency of every query and statement run through ExpenseDatabase
+ * Filled in by MeteredOpenHelperFactory, which is installed in debug builds only. Each distinct SQL string gets a log-linear histogram
+ * (16 sub-buckets per power of two, so about 6% precision from 1 ns up to about 18 minutes)
+ * plus row and main-thread counts. Recording is lock-free: a map lookup and a few atomic adds.
+ * Read it through snapshot() (the debug screen in settings) or toJson().
+ */
+public final class QueryMetrics {
+
+    private static final String TAG = "QueryMetrics";
+    // IN (...) lists expand to one SQL string per arity, so the number of keys is capped
+    private static final int MAX_STATEMENTS = 256;
+    static final String OVERFLOW_SQL = "(other statements)";
+
+    private static final ConcurrentHashMap<String, Histogram> statements = new ConcurrentHashMap<>();
+
+    private QueryMetrics() {}
+
+    /**
+     * Recorded figures for one SQL string
+     */
+    public static final class StatementStats {
+        public final String sql;
+        public final long count;
+        public final long totalNanos;
+        public final long maxNanos;
+        public final long rows;
+        public final long mainThreadCount;
+        public final String lastThread;
+        public final long p50Nanos;
+        public final long p90Nanos;
+        public final long p99Nanos;
+
+        StatementStats(String sql, Histogram histogram) {
+            long[] buckets = histogram.copyBuckets();
+            long total = 0;
+            for (long bucket : buckets) {
+                total += bucket;
+            }
+            this.sql = sql;
+            this.count = total;
+            this.totalNanos = histogram.totalNanos.sum();
+            this.maxNanos = histogram.maxNanos.get();
+            this.rows = histogram.rows.sum();
+            this.mainThreadCount = histogram.mainThread.sum();
+            this.lastThread = histogram.lastThread;
+            this.p50Nanos = Histogram.valueAtPercentile(buckets, total, 50, maxNanos);
+            this.p90Nanos = Histogram.valueAtPercentile(buckets, total, 90, maxNanos);
+            this.p99Nanos = Histogram.valueAtPercentile(buckets, total, 99, maxNanos);
+        }
+
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+    }
+
+    // ========== RECORDING ==========
+
+    /**
+     * Record one execution of sql that took elapsedNanos and returned or changed rows rows
+     */
+    static void record(String sql, long elapsedNanos, long rows) {
+        Histogram histogram = statements.get(sql);
+        if (histogram == null) {
+            histogram = register(sql);
+        }
+        histogram.record(elapsedNanos, rows);
+    }
+
+    private static Histogram register(String sql) {
+        if (statements.size() >= MAX_STATEMENTS) {
+            sql = OVERFLOW_SQL;
+        }
+        Histogram created = new Histogram(sql);
+        Histogram existing = statements.putIfAbsent(sql, created);
+        return existing != null ? existing : created;
+    }
+
+    // ========== READING ==========
+
+    /**
+     * All statements, the most total time first
+     */
+    public static List<StatementStats> snapshot() {
+        List<StatementStats> result = new ArrayList<>(statements.size());
+        for (Map.Entry<String, Histogram> entry : statements.entrySet()) {
+            result.add(new StatementStats(entry.getKey(), entry.getValue()));
+        }
+        Collections.sort(result, (a, b) -> Long.compare(b.totalNanos, a.totalNanos));
+        return result;
+    }
+
+    public static void reset() {
+        statements.clear();
+    }
+
+    /**
+     * The snapshot as JSON, times in microseconds
+     */
+    public static String toJson() {
+        try {
+            JSONArray array = new JSONArray();
+            for (StatementStats stats : snapshot()) {
+                JSONObject item = new JSONObject();
+                item.put("sql", stats.sql);
+                item.put("count", stats.count);
+                item.put("rows", stats.rows);
+                item.put("main_thread", stats.mainThreadCount);
+                item.put("last_thread", stats.lastThread);
+                item.put("total_us", stats.totalNanos / 1000);
+                item.put("mean_us", stats.getMeanNanos() / 1000);
+                item.put("p50_us", stats.p50Nanos / 1000);
+                item.put("p90_us", stats.p90Nanos / 1000);
+                item.put("p99_us", stats.p99Nanos / 1000);
+                item.put("max_us", stats.maxNanos / 1000);
+                array.put(item);
+            }
+            JSONObject root = new JSONObject();
+            root.put("generated_at", System.currentTimeMillis());
+            root.put("statements", array);
+            return root.toString(2);
+        } catch (JSONException e) {
+            android.util.Log.e(TAG, "Error writing query metrics", e);
+            return "{}";
+        }
+    }
+
+    // ========== HISTOGRAM ==========
+
+    static final class Histogram {
+        private static final int SUB_BUCKET_BITS = 4;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int MAX_EXPONENT = 40;
+        private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+        private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+        private final String sql;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder mainThread = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private volatile String lastThread;
+        private volatile boolean mainThreadLogged;
+
+        Histogram(String sql) {
+            this.sql = sql;
+        }
+
+        void record(long nanos, long rowCount) {
+            long value = Math.max(0, Math.min(nanos, MAX_VALUE));
+            buckets.incrementAndGet(indexOf(value));
+            totalNanos.add(value);
+            rows.add(rowCount);
+            long max;
+            while (value > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, value)) {
+                // Retry until this value or a larger one is the max
+            }
+            lastThread = Thread.currentThread().getName();
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                mainThread.increment();
+                if (!mainThreadLogged) {
+                    mainThreadLogged = true;
+                    android.util.Log.w(TAG, "Query on the main thread: " + sql, new Throwable("main-thread query"));
+                }
+            }
+        }
+
+        long[] copyBuckets() {
+            long[] copy = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                copy[i] = buckets.get(i);
+            }
+            return copy;
+        }
+
+        // Values below 16 get their own bucket; above, the top 5 bits pick the bucket within the octave
+        static int indexOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+            return shift * SUB_BUCKETS + (int) (value >>> shift);
+        }
+
+        // Largest value that falls into the bucket
+        static long highestValueIn(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int shift = index / SUB_BUCKETS - 1;
+            long top = index - (long) shift * SUB_BUCKETS;
+            return ((top + 1) << shift) - 1;
+        }
+
+        static long valueAtPercentile(long[] buckets, long total, double percentile, long max) {
+            if (total == 0) {
+                return 0;
+            }
+            long target = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= target) {
+                    return Math.min(highestValueIn(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
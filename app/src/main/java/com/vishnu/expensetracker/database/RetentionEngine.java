@@ -0,0 +1,218 @@
+package com.vishnu.expensetracker.database;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.os.SystemClock;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import com.vishnu.expensetracker.utils.AppExecutors;
+import java.util.Date;
+
+/**
+ * Purges old trash and returns the freed pages to the file system while the app is in the background.
+ * Transactions soft-deleted longer ago than the retention period (trash_retention_days, 0 keeps
+ * them forever) are deleted in small batches. Each batch and each incremental_vacuum step is its
+ * own task on the write executor, so user writes queued meanwhile run between them instead of
+ * waiting for the whole pass. Databases created before incremental auto-vacuum was enabled are
+ * converted once with a full VACUUM. Rows purged, bytes reclaimed and time spent are recorded.
+ */
+public class RetentionEngine {
+
+    private static final String TAG = "RetentionEngine";
+    private static final String PREFERENCES = "app_preferences";
+    private static final String KEY_RETENTION_DAYS = "trash_retention_days";
+    private static final String KEY_LAST_RUN = "retention_last_run";
+    private static final String KEY_LAST_PURGED = "retention_last_purged";
+    private static final String KEY_LAST_RECLAIMED = "retention_last_reclaimed_bytes";
+    private static final String KEY_LAST_ELAPSED = "retention_last_elapsed_ms";
+
+    public static final int DEFAULT_RETENTION_DAYS = 30;
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final long RUN_INTERVAL_MS = DAY_MS;
+    private static final int PURGE_BATCH_SIZE = 200;
+    private static final int VACUUM_STEP_PAGES = 256;
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    private static boolean running;
+
+    /**
+     * Outcome of the last completed run
+     */
+    public static final class Report {
+        public final long runAt;
+        public final long purgedRows;
+        public final long reclaimedBytes;
+        public final long elapsedMillis;
+
+        Report(long runAt, long purgedRows, long reclaimedBytes, long elapsedMillis) {
+            this.runAt = runAt;
+            this.purgedRows = purgedRows;
+            this.reclaimedBytes = reclaimedBytes;
+            this.elapsedMillis = elapsedMillis;
+        }
+    }
+
+    private final SharedPreferences preferences;
+    private final ExpenseDatabase database;
+    private final TransactionWriter writer;
+    private SupportSQLiteDatabase db;
+    private final Date cutoff;
+    private final AppExecutors executors = AppExecutors.getInstance();
+
+    private long purged;
+    private long bytesBefore;
+    private long elapsedMillis;
+
+    private RetentionEngine(SharedPreferences preferences, ExpenseDatabase database, Date cutoff) {
+        this.preferences = preferences;
+        this.database = database;
+        this.writer = new TransactionWriter(database);
+        this.cutoff = cutoff;
+    }
+
+    // ========== SETTINGS ==========
+
+    public static int getRetentionDays(Context context) {
+        return preferencesOf(context).getInt(KEY_RETENTION_DAYS, DEFAULT_RETENTION_DAYS);
+    }
+
+    /**
+     * @param days Age after which trash is purged; 0 keeps it until emptied by hand
+     */
+    public static void setRetentionDays(Context context, int days) {
+        preferencesOf(context).edit().putInt(KEY_RETENTION_DAYS, Math.max(0, days)).apply();
+    }
+
+    /**
+     * The last completed run, or null if there has been none
+     */
+    public static Report getLastReport(Context context) {
+        SharedPreferences preferences = preferencesOf(context);
+        long runAt = preferences.getLong(KEY_LAST_RUN, 0);
+        if (runAt == 0) {
+            return null;
+        }
+        return new Report(runAt, preferences.getLong(KEY_LAST_PURGED, 0),
+                preferences.getLong(KEY_LAST_RECLAIMED, 0), preferences.getLong(KEY_LAST_ELAPSED, 0));
+    }
+
+    private static SharedPreferences preferencesOf(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+    }
+
+    // ========== RUN ==========
+
+    /**
+     * Start a pass on the write executor if retention is on and the last pass is a day old
+     * (call when the app goes to the background)
+     */
+    public static synchronized void runIfDue(Context context, ExpenseDatabase database) {
+        SharedPreferences preferences = preferencesOf(context);
+        int days = preferences.getInt(KEY_RETENTION_DAYS, DEFAULT_RETENTION_DAYS);
+        long now = System.currentTimeMillis();
+        if (running || days == 0 || now - preferences.getLong(KEY_LAST_RUN, 0) < RUN_INTERVAL_MS) {
+            return;
+        }
+        running = true;
+        RetentionEngine engine = new RetentionEngine(preferences, database, new Date(now - days * DAY_MS));
+        engine.executors.diskWrite().execute(engine::start);
+    }
+
+    private void start() {
+        try {
+            // Resolved here rather than in runIfDue, which is called on the main thread
+            db = database.getOpenHelper().getWritableDatabase();
+            bytesBefore = databaseBytes();
+            purgeStep();
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    private void purgeStep() {
+        try {
+            long stepStart = SystemClock.elapsedRealtime();
+            int count = writer.purgeTrash(cutoff, PURGE_BATCH_SIZE);
+            purged += count;
+            elapsedMillis += SystemClock.elapsedRealtime() - stepStart;
+            // Re-queue rather than loop, so writes queued meanwhile go first
+            executors.diskWrite().execute(count == PURGE_BATCH_SIZE ? this::purgeStep : this::vacuumStep);
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    private void vacuumStep() {
+        try {
+            long stepStart = SystemClock.elapsedRealtime();
+            boolean more = false;
+            if (pragmaLong("freelist_count") > 0) {
+                if (pragmaLong("auto_vacuum") != AUTO_VACUUM_INCREMENTAL) {
+                    // One-time conversion; the full VACUUM also reclaims everything free right now
+                    db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+                    db.execSQL("VACUUM");
+                } else {
+                    drain(db.query("PRAGMA incremental_vacuum(" + VACUUM_STEP_PAGES + ")"));
+                    more = pragmaLong("freelist_count") > 0;
+                }
+            }
+            elapsedMillis += SystemClock.elapsedRealtime() - stepStart;
+            if (more) {
+                executors.diskWrite().execute(this::vacuumStep);
+            } else {
+                finish();
+            }
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    private void finish() {
+        long stepStart = SystemClock.elapsedRealtime();
+        // Fold the WAL back in so the file sizes reflect the purge
+        drain(db.query("PRAGMA wal_checkpoint(TRUNCATE)"));
+        long reclaimed = Math.max(0, bytesBefore - databaseBytes());
+        elapsedMillis += SystemClock.elapsedRealtime() - stepStart;
+
+        preferences.edit()
+                .putLong(KEY_LAST_RUN, System.currentTimeMillis())
+                .putLong(KEY_LAST_PURGED, purged)
+                .putLong(KEY_LAST_RECLAIMED, reclaimed)
+                .putLong(KEY_LAST_ELAPSED, elapsedMillis)
+                .apply();
+        android.util.Log.i(TAG, "Purged " + purged + " deleted transactions, reclaimed " + reclaimed
+                + " bytes in " + elapsedMillis + " ms");
+        synchronized (RetentionEngine.class) {
+            running = false;
+        }
+    }
+
+    private void fail(Exception e) {
+        android.util.Log.e(TAG, "Retention pass failed", e);
+        synchronized (RetentionEngine.class) {
+            running = false;
+        }
+    }
+
+    // Allocated size of the main database file in bytes
+    private long databaseBytes() {
+        return pragmaLong("page_count") * pragmaLong("page_size");
+    }
+
+    private long pragmaLong(String pragma) {
+        try (Cursor cursor = db.query("PRAGMA " + pragma)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    // Step a pragma that does its work as it is read
+    private static void drain(Cursor cursor) {
+        try {
+            while (cursor.moveToNext()) {
+                // Nothing to read
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.vishnu.expensetracker.database;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+import java.util.List;
+
+/**
+ * Reads and consistency checks for the trigger-maintained rollup tables
+ */
+@Dao
+public interface RollupDao {
+    
+    /**
+     * All daily rollup buckets in a range, oldest first
+     * One cursor over this is enough to build every analytics metric for a month (see AnalyticsRepository)
+     */
+    @Query("SELECT day_start AS dayStart, type, category, is_essential AS isEssential, " +
+           "amount_sum AS total, row_count AS count " +
+           "FROM daily_totals WHERE day_start >= :startDate AND day_start <= :endDate " +
+           "ORDER BY day_start ASC")
+    List<DailyRollupRow> getDailyRollupRows(long startDate, long endDate);
+    
+    /**
+     * Totals for every month, type and category (essential and non-essential merged)
+     * Used to seed LedgerAggregator without scanning the expenses table
+     */
+    @Query("SELECT month_start AS monthStart, type, category, SUM(amount_minor_sum) AS totalMinor " +
+           "FROM monthly_totals GROUP BY month_start, type, category")
+    List<MonthlyRollupRow> getMonthlyRollupRows();
+    
+    // ========== CONSISTENCY CHECKS ==========
+    // Each check compares the rollups with the raw aggregates and returns the number of mismatching buckets
+    
+    /**
+     * Buckets whose daily rollup is missing or differs from the raw rows,
+     * plus leftover rollup rows that no longer have any transactions
+     */
+    @Query("SELECT (SELECT COUNT(*) FROM (" + RollupSchema.RAW_DAILY_GROUPS + ") r " +
+           "LEFT JOIN daily_totals d ON d.day_start = r.day_start AND d.type = r.type " +
+           "AND d.category = r.category AND d.is_essential = r.is_essential " +
+           "WHERE d.day_start IS NULL OR d.row_count != r.row_count OR d.amount_minor_sum != r.amount_minor_sum) " +
+           "+ (SELECT COUNT(*) FROM daily_totals WHERE row_count <= 0) " +
+           "+ ((SELECT COALESCE(SUM(row_count), 0) FROM daily_totals) != (SELECT COUNT(*) FROM expenses WHERE is_deleted = 0))")
+    int countDailyMismatches();
+    
+    /**
+     * Same check for the monthly rollup
+     */
+    @Query("SELECT (SELECT COUNT(*) FROM (" + RollupSchema.RAW_MONTHLY_GROUPS + ") r " +
+           "LEFT JOIN monthly_totals m ON m.month_start = r.month_start AND m.type = r.type " +
+           "AND m.category = r.category AND m.is_essential = r.is_essential " +
+           "WHERE m.month_start IS NULL OR m.row_count != r.row_count OR m.amount_minor_sum != r.amount_minor_sum) " +
+           "+ (SELECT COUNT(*) FROM monthly_totals WHERE row_count <= 0) " +
+           "+ ((SELECT COALESCE(SUM(row_count), 0) FROM monthly_totals) != (SELECT COUNT(*) FROM expenses WHERE is_deleted = 0))")
+    int countMonthlyMismatches();
+    
+    // ========== HELPER CLASSES ==========
+    
+    public class DailyRollupRow {
+        public long dayStart;
+        public String type;
+        public String category;
+        public boolean isEssential;
+        public double total;
+        public int count;
+    }
+    
+    public class MonthlyRollupRow {
+        public long monthStart;
+        public String type;
+        public String category;
+        public long totalMinor; // Paise
+    }
+}
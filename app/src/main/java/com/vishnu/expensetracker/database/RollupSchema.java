@@ -0,0 +1,130 @@
+package com.vishnu.expensetracker.database;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * SQL for the daily_totals / monthly_totals rollup tables
+ * The rollups are kept current by triggers on expenses, so every write path (DAO, raw SQL,
+ * soft delete, restore) updates them in the same transaction as the row itself.
+ * Buckets are local-time day/month starts in epoch milliseconds, matching DateUtils/MonthlyUtils bounds.
+ */
+public final class RollupSchema {
+
+    // Bucket keys for the expenses row aliased as "expenses" (used by rebuild and the consistency checks)
+    static final String DAY_KEY = "CAST(strftime('%s', expenses.date / 1000, 'unixepoch', 'localtime', 'start of day', 'utc') AS INTEGER) * 1000";
+    static final String MONTH_KEY = "CAST(strftime('%s', expenses.date / 1000, 'unixepoch', 'localtime', 'start of month', 'utc') AS INTEGER) * 1000";
+
+    // Raw aggregates the rollups must equal, grouped the same way as the rollup primary keys.
+    // Undated rows have no bucket (the triggers' INSERT OR IGNORE skips them), so they are left out.
+    static final String RAW_DAILY_GROUPS =
+            "SELECT " + DAY_KEY + " AS day_start, COALESCE(expenses.type, '') AS type, " +
+            "COALESCE(expenses.category, '') AS category, expenses.is_essential AS is_essential, " +
+            "SUM(expenses.amount) AS amount_sum, SUM(expenses.amount_minor) AS amount_minor_sum, COUNT(*) AS row_count " +
+            "FROM expenses WHERE expenses.is_deleted = 0 AND expenses.date IS NOT NULL GROUP BY 1, 2, 3, 4";
+    static final String RAW_MONTHLY_GROUPS =
+            "SELECT " + MONTH_KEY + " AS month_start, COALESCE(expenses.type, '') AS type, " +
+            "COALESCE(expenses.category, '') AS category, expenses.is_essential AS is_essential, " +
+            "SUM(expenses.amount) AS amount_sum, SUM(expenses.amount_minor) AS amount_minor_sum, COUNT(*) AS row_count " +
+            "FROM expenses WHERE expenses.is_deleted = 0 AND expenses.date IS NOT NULL GROUP BY 1, 2, 3, 4";
+
+    // Columns whose change moves a row between buckets or changes its amount
+    private static final String ROLLUP_COLUMNS_CHANGED =
+            "(OLD.is_deleted IS NOT NEW.is_deleted OR OLD.date IS NOT NEW.date OR OLD.amount IS NOT NEW.amount " +
+            "OR OLD.amount_minor IS NOT NEW.amount_minor " +
+            "OR OLD.type IS NOT NEW.type OR OLD.category IS NOT NEW.category OR OLD.is_essential IS NOT NEW.is_essential)";
+
+    private RollupSchema() {}
+
+    /**
+     * Create the rollup triggers (tables themselves are created by Room from the entities)
+     */
+    public static void createTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS expenses_rollup_insert AFTER INSERT ON expenses " +
+                "WHEN NEW.is_deleted = 0 BEGIN " + addRow("NEW") + " END");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS expenses_rollup_delete AFTER DELETE ON expenses " +
+                "WHEN OLD.is_deleted = 0 BEGIN " + removeRow("OLD") + " END");
+
+        // Updates (including soft delete / restore) are split into "remove old" and "add new" halves
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS expenses_rollup_update_old AFTER UPDATE ON expenses " +
+                "WHEN OLD.is_deleted = 0 AND " + ROLLUP_COLUMNS_CHANGED + " BEGIN " + removeRow("OLD") + " END");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS expenses_rollup_update_new AFTER UPDATE ON expenses " +
+                "WHEN NEW.is_deleted = 0 AND " + ROLLUP_COLUMNS_CHANGED + " BEGIN " + addRow("NEW") + " END");
+    }
+
+    /**
+     * Drop the rollup triggers (before a migration rewrites columns they read, then recreate them)
+     */
+    public static void dropTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("DROP TRIGGER IF EXISTS expenses_rollup_insert");
+        db.execSQL("DROP TRIGGER IF EXISTS expenses_rollup_delete");
+        db.execSQL("DROP TRIGGER IF EXISTS expenses_rollup_update_old");
+        db.execSQL("DROP TRIGGER IF EXISTS expenses_rollup_update_new");
+    }
+
+    /**
+     * Recompute both rollup tables from the raw expenses rows
+     * Used by the schema migration and when the consistency check finds drift
+     * (e.g. after a time zone change moved local day boundaries)
+     */
+    public static void rebuild(SupportSQLiteDatabase db) {
+        db.execSQL("DELETE FROM daily_totals");
+        db.execSQL("INSERT INTO daily_totals (day_start, type, category, is_essential, amount_sum, amount_minor_sum, row_count) " + RAW_DAILY_GROUPS);
+        db.execSQL("DELETE FROM monthly_totals");
+        db.execSQL("INSERT INTO monthly_totals (month_start, type, category, is_essential, amount_sum, amount_minor_sum, row_count) " + RAW_MONTHLY_GROUPS);
+    }
+
+    /**
+     * Compare the rollups with the raw aggregates and rebuild them if they drifted
+     * Runs two full aggregate scans, so call it from a background thread (e.g. once per app start)
+     * @return true if the rollups were already consistent
+     */
+    public static boolean verifyAndRepair(ExpenseDatabase database) {
+        RollupDao rollupDao = database.rollupDao();
+        int mismatches = rollupDao.countDailyMismatches() + rollupDao.countMonthlyMismatches();
+        if (mismatches == 0) {
+            return true;
+        }
+        android.util.Log.w("RollupSchema", "Rollups out of sync (" + mismatches + " buckets), rebuilding");
+        database.runInTransaction(() -> rebuild(database.getOpenHelper().getWritableDatabase()));
+        return false;
+    }
+
+    private static String addRow(String row) {
+        return upsertAdd("daily_totals", "day_start", bucket(row, "start of day"), row)
+                + upsertAdd("monthly_totals", "month_start", bucket(row, "start of month"), row);
+    }
+
+    private static String removeRow(String row) {
+        return subtract("daily_totals", "day_start", bucket(row, "start of day"), row)
+                + subtract("monthly_totals", "month_start", bucket(row, "start of month"), row);
+    }
+
+    private static String bucket(String row, String startOf) {
+        return "CAST(strftime('%s', " + row + ".date / 1000, 'unixepoch', 'localtime', '" + startOf + "', 'utc') AS INTEGER) * 1000";
+    }
+
+    private static String keyMatch(String keyColumn, String key, String row) {
+        return keyColumn + " = " + key +
+                " AND type = COALESCE(" + row + ".type, '')" +
+                " AND category = COALESCE(" + row + ".category, '')" +
+                " AND is_essential = " + row + ".is_essential";
+    }
+
+    // INSERT OR IGNORE + UPDATE instead of UPSERT: ON CONFLICT DO UPDATE needs SQLite 3.24 (API 30+)
+    private static String upsertAdd(String table, String keyColumn, String key, String row) {
+        return "INSERT OR IGNORE INTO " + table + " (" + keyColumn + ", type, category, is_essential, amount_sum, amount_minor_sum, row_count) " +
+                "VALUES (" + key + ", COALESCE(" + row + ".type, ''), COALESCE(" + row + ".category, ''), " + row + ".is_essential, 0, 0, 0); " +
+                "UPDATE " + table + " SET amount_sum = amount_sum + " + row + ".amount, " +
+                "amount_minor_sum = amount_minor_sum + " + row + ".amount_minor, row_count = row_count + 1 " +
+                "WHERE " + keyMatch(keyColumn, key, row) + "; ";
+    }
+
+    private static String subtract(String table, String keyColumn, String key, String row) {
+        return "UPDATE " + table + " SET amount_sum = amount_sum - " + row + ".amount, " +
+                "amount_minor_sum = amount_minor_sum - " + row + ".amount_minor, row_count = row_count - 1 " +
+                "WHERE " + keyMatch(keyColumn, key, row) + "; " +
+                "DELETE FROM " + table + " WHERE " + keyMatch(keyColumn, key, row) + " AND row_count <= 0; ";
+    }
+}
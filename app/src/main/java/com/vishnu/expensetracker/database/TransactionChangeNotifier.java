@@ -0,0 +1,71 @@
+package com.vishnu.expensetracker.database;
+
+import com.vishnu.expensetracker.models.Expense;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Process-wide hub that tells in-memory caches which transactions a write changed
+ * Events are sent by TransactionWriter on the write thread after the change is committed,
+ * so listeners see them in commit order. Listeners must be thread-safe and quick.
+ */
+public final class TransactionChangeNotifier {
+
+    public interface Listener {
+        /** A live transaction was added */
+        void onInserted(Expense expense);
+
+        /** A live transaction changed; either side may be soft-deleted (e.g. edited while in the trash) */
+        void onUpdated(Expense before, Expense after);
+
+        /** A live transaction was soft-deleted or permanently deleted */
+        void onDeleted(Expense expense);
+
+        /** A soft-deleted transaction is live again */
+        void onRestored(Expense expense);
+
+        /** Many rows changed without per-row detail (bulk update, clear all); rebuild from the database */
+        void onBulkChange();
+    }
+
+    private static final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private TransactionChangeNotifier() {}
+
+    public static void addListener(Listener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public static void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    static void notifyInserted(Expense expense) {
+        for (Listener listener : listeners) {
+            listener.onInserted(expense);
+        }
+    }
+
+    static void notifyUpdated(Expense before, Expense after) {
+        for (Listener listener : listeners) {
+            listener.onUpdated(before, after);
+        }
+    }
+
+    static void notifyDeleted(Expense expense) {
+        for (Listener listener : listeners) {
+            listener.onDeleted(expense);
+        }
+    }
+
+    static void notifyRestored(Expense expense) {
+        for (Listener listener : listeners) {
+            listener.onRestored(expense);
+        }
+    }
+
+    static void notifyBulkChange() {
+        for (Listener listener : listeners) {
+            listener.onBulkChange();
+        }
+    }
+}
@@ -0,0 +1,492 @@
+package com.vishnu.expensetracker.database;
+
+import android.database.Cursor;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import com.vishnu.expensetracker.models.Expense;
+import com.vishnu.expensetracker.utils.Fingerprint;
+import com.vishnu.expensetracker.utils.ThreadGuard;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * All writes to the expenses table go through here
+ * Each method runs the DAO write (reading the previous row in the same transaction where the
+ * change depends on it) and then reports the change to TransactionChangeNotifier.
+ * Inserts and updates refresh the duplicate-detection fingerprint and updated_at first, and
+ * resolve the lookup keys (see LookupKeys) inside the write's transaction so they are bound by
+ * the INSERT / UPDATE itself.
+ * Methods block; call them from AppExecutors.diskWrite() so changes are reported in commit order
+ * (asserted in debug builds, see ThreadGuard).
+ */
+public class TransactionWriter {
+
+    private static final int FINGERPRINT_BATCH_SIZE = 1000;
+
+    private final ExpenseDatabase database;
+    private final ExpenseDao expenseDao;
+
+    public TransactionWriter(ExpenseDatabase database) {
+        this.database = database;
+        this.expenseDao = database.expenseDao();
+    }
+
+    /**
+     * Insert a transaction; its id is set from the new row
+     */
+    public long insert(Expense expense) {
+        checkThread();
+        expense.setFingerprint(Fingerprint.of(expense));
+        expense.setUpdatedAt(new Date());
+        long id = database.runInTransaction(() -> {
+            try (LookupKeys keys = new LookupKeys(database)) {
+                keys.resolve(expense);
+                return expenseDao.insert(expense);
+            }
+        });
+        expense.setId((int) id);
+        if (!expense.isDeleted()) {
+            TransactionChangeNotifier.notifyInserted(expense);
+        }
+        return id;
+    }
+
+    /**
+     * Insert many transactions in one transaction; their ids are set from the new rows
+     */
+    public List<Long> insertAll(List<Expense> expenses) {
+        checkThread();
+        Date now = new Date();
+        for (Expense expense : expenses) {
+            expense.setFingerprint(Fingerprint.of(expense));
+            expense.setUpdatedAt(now);
+        }
+        List<Long> ids = database.runInTransaction(() -> {
+            try (LookupKeys keys = new LookupKeys(database)) {
+                for (Expense expense : expenses) {
+                    keys.resolve(expense);
+                }
+                return expenseDao.insertAll(expenses);
+            }
+        });
+        for (int i = 0; i < expenses.size(); i++) {
+            Expense expense = expenses.get(i);
+            expense.setId(ids.get(i).intValue());
+            if (!expense.isDeleted()) {
+                TransactionChangeNotifier.notifyInserted(expense);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Start a bulk write (statement import, backup restore); see BulkWrite
+     */
+    public BulkWrite beginBulkWrite() {
+        checkThread();
+        return new BulkWrite(database);
+    }
+
+    public void update(Expense expense) {
+        checkThread();
+        expense.setFingerprint(Fingerprint.of(expense));
+        expense.setUpdatedAt(new Date());
+        Expense before = database.runInTransaction(() -> {
+            Expense previous = expenseDao.getExpenseById(expense.getId());
+            try (LookupKeys keys = new LookupKeys(database)) {
+                keys.resolve(expense);
+            }
+            expenseDao.update(expense);
+            return previous;
+        });
+        if (before != null) {
+            TransactionChangeNotifier.notifyUpdated(before, expense);
+        }
+    }
+
+    /**
+     * Soft delete a transaction
+     * @return true if a live transaction was deleted
+     */
+    public boolean softDelete(int id, Date deletedAt) {
+        checkThread();
+        Expense before = database.runInTransaction(() -> {
+            Expense previous = expenseDao.getExpenseById(id);
+            if (previous == null || previous.isDeleted()) {
+                return null;
+            }
+            expenseDao.softDelete(id, deletedAt);
+            return previous;
+        });
+        if (before == null) {
+            return false;
+        }
+        TransactionChangeNotifier.notifyDeleted(before);
+        return true;
+    }
+
+    /**
+     * Restore a soft-deleted transaction
+     * @return true if a transaction was restored
+     */
+    public boolean restore(int id) {
+        checkThread();
+        Expense restored = database.runInTransaction(() -> {
+            Expense previous = expenseDao.getExpenseById(id);
+            if (previous == null || !previous.isDeleted()) {
+                return null;
+            }
+            Date now = new Date();
+            expenseDao.restoreTransaction(id, now);
+            previous.setDeleted(false);
+            previous.setDeletedAt(null);
+            previous.setUpdatedAt(now);
+            return previous;
+        });
+        if (restored == null) {
+            return false;
+        }
+        TransactionChangeNotifier.notifyRestored(restored);
+        return true;
+    }
+
+    /**
+     * Permanently delete a transaction
+     */
+    public void delete(Expense expense) {
+        checkThread();
+        Expense before = database.runInTransaction(() -> {
+            Expense previous = expenseDao.getExpenseById(expense.getId());
+            expenseDao.delete(expense);
+            return previous;
+        });
+        if (before != null && !before.isDeleted()) {
+            TransactionChangeNotifier.notifyDeleted(before);
+        }
+    }
+
+    public int softDeleteByIds(List<Integer> ids, Date deletedAt) {
+        checkThread();
+        int changed = expenseDao.softDeleteByIds(ids, deletedAt);
+        if (changed > 0) {
+            TransactionChangeNotifier.notifyBulkChange();
+        }
+        return changed;
+    }
+
+    public int restoreByIds(List<Integer> ids) {
+        checkThread();
+        int changed = expenseDao.restoreByIds(ids);
+        if (changed > 0) {
+            TransactionChangeNotifier.notifyBulkChange();
+        }
+        return changed;
+    }
+
+    public int bulkUpdateCategory(List<Integer> ids, String category, String subcategory) {
+        checkThread();
+        int changed = expenseDao.bulkUpdateCategory(ids, category, subcategory);
+        if (changed > 0) {
+            TransactionChangeNotifier.notifyBulkChange();
+        }
+        return changed;
+    }
+
+    /**
+     * Permanently delete everything in the trash (live transactions are untouched, so nothing to report)
+     */
+    public void emptyTrash() {
+        checkThread();
+        expenseDao.permanentlyDeleteAllSoftDeleted();
+    }
+
+    /**
+     * Permanently delete up to limit trash rows deleted before the cutoff (nothing live changes)
+     * @return Number of rows purged
+     */
+    public int purgeTrash(Date cutoff, int limit) {
+        checkThread();
+        return expenseDao.purgeDeletedBefore(cutoff, limit);
+    }
+
+    public void deleteAll() {
+        checkThread();
+        expenseDao.deleteAllExpenses();
+        TransactionChangeNotifier.notifyBulkChange();
+    }
+
+    /**
+     * Recompute everything stored by local day or month after a time zone change: the rollups
+     * are checked and rebuilt if their buckets moved (see RollupSchema.verifyAndRepair), then
+     * every fingerprint. One bulk change is reported at the end if anything changed, so
+     * listeners (LedgerAggregator reseeds from monthly_totals) only read the corrected rollups.
+     * @return Number of rows whose fingerprint changed
+     */
+    public int refreshLocalTimeKeys() {
+        checkThread();
+        boolean rollupsRebuilt = !RollupSchema.verifyAndRepair(database);
+        int changed = refreshFingerprints();
+        if (rollupsRebuilt || changed > 0) {
+            database.getInvalidationTracker().refreshVersionsAsync();
+            TransactionChangeNotifier.notifyBulkChange();
+        }
+        return changed;
+    }
+
+    /**
+     * Recompute every row's fingerprint in the current time zone (Fingerprint buckets by local
+     * day), one transaction per batch; rows whose fingerprint is already right are not written
+     */
+    private int refreshFingerprints() {
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        SupportSQLiteStatement update = db.compileStatement(
+                "UPDATE expenses SET fingerprint = ? WHERE id = ? AND fingerprint != ?");
+        int changed = 0;
+        try {
+            long lastId = Long.MIN_VALUE;
+            int rows;
+            do {
+                rows = 0;
+                db.beginTransaction();
+                try (Cursor cursor = db.query("SELECT id, title, amount_minor, date, payment_method FROM expenses " +
+                        "WHERE id > ? ORDER BY id LIMIT " + FINGERPRINT_BATCH_SIZE, new Object[]{lastId})) {
+                    while (cursor.moveToNext()) {
+                        lastId = cursor.getLong(0);
+                        Date date = cursor.isNull(3) ? null : new Date(cursor.getLong(3));
+                        long fingerprint = Fingerprint.of(cursor.getString(1), cursor.getLong(2), date, cursor.getString(4));
+                        update.bindLong(1, fingerprint);
+                        update.bindLong(2, lastId);
+                        update.bindLong(3, fingerprint);
+                        changed += update.executeUpdateDelete();
+                        rows++;
+                    }
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                }
+            } while (rows == FINGERPRINT_BATCH_SIZE);
+        } finally {
+            try {
+                update.close();
+            } catch (IOException ignored) {
+                // Finalizing a statement does not fail
+            }
+        }
+        return changed;
+    }
+
+    private static void checkThread() {
+        ThreadGuard.assertWriteThread("TransactionWriter");
+    }
+
+    /**
+     * Writes batches of transactions through reused prepared statements, one transaction per batch
+     * Batches commit on the underlying SupportSQLiteDatabase, so Room's invalidation tracker and the
+     * change listeners are not woken per batch; close() refreshes both once for the whole run.
+     * Use on the write thread only, and always close it.
+     */
+    public static class BulkWrite implements Closeable {
+
+        private static final String COLUMNS = "title, amount, amount_minor, category, subcategory, description, " +
+                "date, type, payment_method, created_at, is_deleted, deleted_at, is_essential, fingerprint, updated_at, " +
+                "category_id, subcategory_id, payment_method_id";
+        private static final String INSERT_SQL = "INSERT INTO expenses (" + COLUMNS + ") " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        private static final String INSERT_WITH_ID_SQL = "INSERT INTO expenses (" + COLUMNS + ", id) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        private static final String UPDATE_SQL = "UPDATE expenses SET title = ?, amount = ?, amount_minor = ?, " +
+                "category = ?, subcategory = ?, description = ?, date = ?, type = ?, payment_method = ?, " +
+                "created_at = ?, is_deleted = ?, deleted_at = ?, is_essential = ?, fingerprint = ?, updated_at = ?, " +
+                "category_id = ?, subcategory_id = ?, payment_method_id = ? WHERE id = ?";
+        private static final String DELETE_SQL = "DELETE FROM expenses WHERE id = ?";
+        // Bound parameter index of the id in INSERT_WITH_ID_SQL and UPDATE_SQL
+        private static final int ID_INDEX = 19;
+
+        private final ExpenseDatabase database;
+        private final SupportSQLiteDatabase db;
+        // Cached for the whole bulk write; the lookup tables do not change during an import or restore
+        private final LookupKeys keys;
+        // Compiled on first use
+        private SupportSQLiteStatement insert;
+        private SupportSQLiteStatement insertWithId;
+        private SupportSQLiteStatement update;
+        private SupportSQLiteStatement delete;
+        private long changed;
+
+        BulkWrite(ExpenseDatabase database) {
+            this.database = database;
+            this.db = database.getOpenHelper().getWritableDatabase();
+            this.keys = new LookupKeys(database);
+        }
+
+        /**
+         * Insert transactions as new rows in one transaction; their ids are set from the new rows
+         */
+        public void insertBatch(List<Expense> batch) {
+            checkThread();
+            if (insert == null) {
+                insert = db.compileStatement(INSERT_SQL);
+            }
+            Date now = new Date();
+            db.beginTransaction();
+            try {
+                for (Expense expense : batch) {
+                    prepare(expense, now);
+                    bind(insert, expense);
+                    expense.setId((int) insert.executeInsert());
+                }
+                db.setTransactionSuccessful();
+            } catch (RuntimeException e) {
+                keys.clear();
+                throw e;
+            } finally {
+                db.endTransaction();
+            }
+            changed += batch.size();
+        }
+
+        /**
+         * Write transactions under their own ids in one transaction, replacing rows with the same id
+         * (UPDATE, then INSERT if there was none, so the row triggers see an update, not a delete)
+         */
+        public void upsertBatch(List<Expense> batch) {
+            checkThread();
+            if (update == null) {
+                update = db.compileStatement(UPDATE_SQL);
+                insertWithId = db.compileStatement(INSERT_WITH_ID_SQL);
+            }
+            Date now = new Date();
+            db.beginTransaction();
+            try {
+                for (Expense expense : batch) {
+                    prepare(expense, now);
+                    bind(update, expense);
+                    update.bindLong(ID_INDEX, expense.getId());
+                    if (update.executeUpdateDelete() == 0) {
+                        bind(insertWithId, expense);
+                        insertWithId.bindLong(ID_INDEX, expense.getId());
+                        insertWithId.executeInsert();
+                    }
+                }
+                db.setTransactionSuccessful();
+            } catch (RuntimeException e) {
+                keys.clear();
+                throw e;
+            } finally {
+                db.endTransaction();
+            }
+            changed += batch.size();
+        }
+
+        /**
+         * Permanently delete rows by id in one transaction
+         */
+        public void deleteBatch(List<Integer> ids) {
+            checkThread();
+            if (delete == null) {
+                delete = db.compileStatement(DELETE_SQL);
+            }
+            db.beginTransaction();
+            try {
+                for (int id : ids) {
+                    delete.bindLong(1, id);
+                    delete.executeUpdateDelete();
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            changed += ids.size();
+        }
+
+        /**
+         * Permanently delete every transaction
+         */
+        public void deleteAll() {
+            checkThread();
+            db.execSQL("DELETE FROM expenses");
+            changed++;
+        }
+
+        /**
+         * Rows written or deleted so far
+         */
+        public long getChangedCount() {
+            return changed;
+        }
+
+        private void prepare(Expense expense, Date now) {
+            if (expense.getFingerprint() == 0) {
+                expense.setFingerprint(Fingerprint.of(expense));
+            }
+            if (expense.getUpdatedAt() == null) {
+                expense.setUpdatedAt(now);
+            }
+            keys.resolve(expense);
+        }
+
+        private static void bind(SupportSQLiteStatement statement, Expense expense) {
+            bindText(statement, 1, expense.getTitle());
+            statement.bindDouble(2, expense.getAmount());
+            statement.bindLong(3, expense.getAmountMinor());
+            bindText(statement, 4, expense.getCategory());
+            bindText(statement, 5, expense.getSubcategory());
+            bindText(statement, 6, expense.getDescription());
+            bindDate(statement, 7, expense.getDate());
+            bindText(statement, 8, expense.getType());
+            bindText(statement, 9, expense.getPaymentMethod());
+            bindDate(statement, 10, expense.getCreatedAt());
+            statement.bindLong(11, expense.isDeleted() ? 1 : 0);
+            bindDate(statement, 12, expense.getDeletedAt());
+            statement.bindLong(13, expense.isEssential() ? 1 : 0);
+            statement.bindLong(14, expense.getFingerprint());
+            bindDate(statement, 15, expense.getUpdatedAt());
+            bindKey(statement, 16, expense.getCategoryId());
+            bindKey(statement, 17, expense.getSubcategoryId());
+            bindKey(statement, 18, expense.getPaymentMethodId());
+        }
+
+        private static void bindText(SupportSQLiteStatement statement, int index, String value) {
+            if (value != null) {
+                statement.bindString(index, value);
+            } else {
+                statement.bindNull(index);
+            }
+        }
+
+        private static void bindKey(SupportSQLiteStatement statement, int index, Integer value) {
+            if (value != null) {
+                statement.bindLong(index, value);
+            } else {
+                statement.bindNull(index);
+            }
+        }
+
+        private static void bindDate(SupportSQLiteStatement statement, int index, Date value) {
+            if (value != null) {
+                statement.bindLong(index, value.getTime());
+            } else {
+                statement.bindNull(index);
+            }
+        }
+
+        /**
+         * Release the statements and report everything written as one bulk change
+         */
+        @Override
+        public void close() throws IOException {
+            keys.close();
+            for (SupportSQLiteStatement statement : new SupportSQLiteStatement[]{insert, insertWithId, update, delete}) {
+                if (statement != null) {
+                    statement.close();
+                }
+            }
+            if (changed > 0) {
+                database.getInvalidationTracker().refreshVersionsAsync();
+                TransactionChangeNotifier.notifyBulkChange();
+            }
+        }
+    }
+}
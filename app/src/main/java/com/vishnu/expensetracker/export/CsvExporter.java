@@ -0,0 +1,281 @@
+package com.vishnu.expensetracker.export;
+
+import android.database.Cursor;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import com.vishnu.expensetracker.database.ExpenseDatabase;
+import com.vishnu.expensetracker.utils.Money;
+import com.vishnu.expensetracker.utils.ThreadGuard;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Calendar;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the live transactions to CSV in (date, id) order with constant memory
+ * Rows are read in fixed-size chunks, each a fresh cursor that seeks past the last exported
+ * (date, id) on the partial live date index, so no chunk re-reads earlier rows and no
+ * List<Expense> is ever built. Each value is formatted into a reused chunk buffer, which is
+ * handed to the writer only once the chunk's cursor is exhausted, so a cancellation mid-chunk
+ * writes none of that chunk.
+ * The (date, id) of the last written row is the checkpoint: an interrupted export can be
+ * resumed from it by appending to the same file without repeating any row.
+ * Blocking - call from a background thread.
+ */
+public class CsvExporter {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    static final String HEADER = "id,date,type,title,amount,category,subcategory,payment_method,essential,description";
+
+    private static final String COLUMNS =
+            "SELECT id, date, type, title, amount_minor, category, subcategory, payment_method, is_essential, description " +
+            "FROM expenses WHERE is_deleted = 0 ";
+    // Rows without a date sort before every dated row; they are written first on a fresh export
+    private static final String UNDATED_CHUNK = COLUMNS + "AND date IS NULL AND id > ? ORDER BY id LIMIT ?";
+    private static final String DATED_CHUNK = COLUMNS + "AND date >= ? AND (date > ? OR id > ?) ORDER BY date, id LIMIT ?";
+    private static final String COUNT_FROM =
+            "SELECT COUNT(*) FROM expenses WHERE is_deleted = 0 AND date >= ? AND (date > ? OR id > ?)";
+    private static final String COUNT_UNDATED = "SELECT COUNT(*) FROM expenses WHERE is_deleted = 0 AND date IS NULL";
+
+    /**
+     * Position of the last row written
+     */
+    public static final class Checkpoint {
+        private final long date;
+        private final int id;
+
+        public Checkpoint(long date, int id) {
+            this.date = date;
+            this.id = id;
+        }
+
+        public long getDate() { return date; }
+        public int getId() { return id; }
+    }
+
+    public interface ProgressListener {
+        /**
+         * Called after each chunk on the exporting thread
+         * @param rowsWritten Rows written by this run
+         * @param totalRows Rows this run will write in total
+         * @param checkpoint Resume point covering everything written so far
+         */
+        void onProgress(long rowsWritten, long totalRows, Checkpoint checkpoint);
+    }
+
+    public static final class Result {
+        private final long rowsWritten;
+        private final Checkpoint checkpoint;
+        private final boolean cancelled;
+
+        Result(long rowsWritten, Checkpoint checkpoint, boolean cancelled) {
+            this.rowsWritten = rowsWritten;
+            this.checkpoint = checkpoint;
+            this.cancelled = cancelled;
+        }
+
+        public long getRowsWritten() { return rowsWritten; }
+        /** Last row written (null if none); pass to export() to continue */
+        public Checkpoint getCheckpoint() { return checkpoint; }
+        public boolean isCancelled() { return cancelled; }
+    }
+
+    private final ExpenseDatabase database;
+    private final int chunkSize;
+
+    // Reused for every row
+    private final Calendar calendar = Calendar.getInstance();
+    private final StringBuilder line = new StringBuilder(256);
+    // Rows of the chunk being read; written out only when the whole chunk has been read
+    private final StringBuilder chunk = new StringBuilder(BUFFER_SIZE);
+
+    public CsvExporter(ExpenseDatabase database) {
+        this(database, DEFAULT_CHUNK_SIZE);
+    }
+
+    public CsvExporter(ExpenseDatabase database, int chunkSize) {
+        this.database = database;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Write the transactions to out (closed when done)
+     * @param gzip Compress the output
+     * @param resumeFrom Continue after this row, without a header (append to the earlier output); null to start over
+     * @param listener Progress callback, may be null
+     * @param signal Cancels the export between chunks or during a query, may be null
+     */
+    public Result export(OutputStream out, boolean gzip, Checkpoint resumeFrom,
+                         ProgressListener listener, CancellationSignal signal) throws IOException {
+        ThreadGuard.assertNotMainThread("CsvExporter.export");
+        long rowsWritten = 0;
+        Checkpoint checkpoint = resumeFrom;
+        long fromDate = resumeFrom != null ? resumeFrom.getDate() : Long.MIN_VALUE;
+        int fromId = resumeFrom != null ? resumeFrom.getId() : Integer.MIN_VALUE;
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            try {
+                long totalRows = count(COUNT_FROM, new Object[]{fromDate, fromDate, fromId}, signal);
+
+                if (resumeFrom == null) {
+                    writer.write(HEADER);
+                    writer.write('\n');
+                    totalRows += count(COUNT_UNDATED, new Object[0], signal);
+                    int lastId = Integer.MIN_VALUE;
+                    while (true) {
+                        ChunkEnd end = writeChunk(writer, UNDATED_CHUNK, new Object[]{lastId, chunkSize}, signal);
+                        rowsWritten += end.rows;
+                        if (end.rows < chunkSize) {
+                            break;
+                        }
+                        lastId = end.id;
+                        report(listener, rowsWritten, totalRows, null);
+                    }
+                }
+
+                while (true) {
+                    ChunkEnd end = writeChunk(writer, DATED_CHUNK,
+                            new Object[]{fromDate, fromDate, fromId, chunkSize}, signal);
+                    rowsWritten += end.rows;
+                    if (end.rows > 0) {
+                        fromDate = end.date;
+                        fromId = end.id;
+                        checkpoint = new Checkpoint(fromDate, fromId);
+                    }
+                    report(listener, rowsWritten, totalRows, checkpoint);
+                    if (end.rows < chunkSize) {
+                        break;
+                    }
+                }
+            } catch (OperationCanceledException e) {
+                // Only whole chunks reached the writer, so the output ends exactly at the checkpoint;
+                // the writer flushes it on close
+                return new Result(rowsWritten, checkpoint, true);
+            }
+        }
+        return new Result(rowsWritten, checkpoint, false);
+    }
+
+    private static void report(ProgressListener listener, long rowsWritten, long totalRows, Checkpoint checkpoint) {
+        if (listener != null) {
+            listener.onProgress(rowsWritten, totalRows, checkpoint);
+        }
+    }
+
+    private long count(String sql, Object[] args, CancellationSignal signal) {
+        try (Cursor cursor = database.query(new SimpleSQLiteQuery(sql, args), signal)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    /**
+     * Last row of a chunk; a chunk shorter than chunkSize is the last one
+     */
+    private static final class ChunkEnd {
+        int rows;
+        long date;
+        int id;
+    }
+
+    private ChunkEnd writeChunk(Writer writer, String sql, Object[] args, CancellationSignal signal) throws IOException {
+        if (signal != null) {
+            signal.throwIfCanceled();
+        }
+        ChunkEnd end = new ChunkEnd();
+        chunk.setLength(0);
+        try (Cursor cursor = database.query(new SimpleSQLiteQuery(sql, args), signal)) {
+            while (cursor.moveToNext()) {
+                end.id = cursor.getInt(0);
+                end.date = cursor.isNull(1) ? 0 : cursor.getLong(1);
+                line.setLength(0);
+                line.append(end.id).append(',');
+                if (!cursor.isNull(1)) {
+                    appendDate(end.date);
+                }
+                line.append(',');
+                appendText(cursor.getString(2));
+                line.append(',');
+                appendText(cursor.getString(3));
+                line.append(',');
+                appendAmount(cursor.getLong(4));
+                line.append(',');
+                appendText(cursor.getString(5));
+                line.append(',');
+                appendText(cursor.getString(6));
+                line.append(',');
+                appendText(cursor.getString(7));
+                line.append(',').append(cursor.getInt(8) != 0 ? "need" : "want").append(',');
+                appendText(cursor.getString(9));
+                line.append('\n');
+                chunk.append(line);
+                end.rows++;
+            }
+        }
+        writer.append(chunk);
+        return end;
+    }
+
+    // Local time as yyyy-MM-dd HH:mm:ss, without a SimpleDateFormat
+    private void appendDate(long millis) {
+        calendar.setTimeInMillis(millis);
+        line.append(calendar.get(Calendar.YEAR)).append('-');
+        appendTwoDigits(calendar.get(Calendar.MONTH) + 1);
+        line.append('-');
+        appendTwoDigits(calendar.get(Calendar.DAY_OF_MONTH));
+        line.append(' ');
+        appendTwoDigits(calendar.get(Calendar.HOUR_OF_DAY));
+        line.append(':');
+        appendTwoDigits(calendar.get(Calendar.MINUTE));
+        line.append(':');
+        appendTwoDigits(calendar.get(Calendar.SECOND));
+    }
+
+    private void appendTwoDigits(int value) {
+        if (value < 10) {
+            line.append('0');
+        }
+        line.append(value);
+    }
+
+    // Paise as a plain decimal (1234.50), the form spreadsheets and importers parse
+    private void appendAmount(long minor) {
+        if (minor < 0) {
+            line.append('-');
+        }
+        line.append(Math.abs(minor / Money.MINOR_PER_UNIT)).append('.');
+        appendTwoDigits((int) Math.abs(minor % Money.MINOR_PER_UNIT));
+    }
+
+    // RFC 4180: quote fields containing a separator, quote or line break; double embedded quotes
+    private void appendText(String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,204 @@
+package com.vishnu.expensetracker.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * RFC 4180 CSV statement parser
+ * The first row is the header; columns are matched by name (case-insensitive) against the
+ * aliases below, so both CsvExporter output and common bank layouts (narration, withdrawal /
+ * deposit columns) are understood. Unknown columns are ignored. Quoted fields may contain
+ * separators, doubled quotes and line breaks.
+ */
+public class CsvStatementParser implements StatementParser {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int DATE = 0;
+    private static final int AMOUNT = 1;
+    private static final int DEBIT = 2;
+    private static final int CREDIT = 3;
+    private static final int TYPE = 4;
+    private static final int TITLE = 5;
+    private static final int DESCRIPTION = 6;
+    private static final int CATEGORY = 7;
+    private static final int SUBCATEGORY = 8;
+    private static final int PAYMENT_METHOD = 9;
+    private static final int ESSENTIAL = 10;
+
+    private static final String[][] ALIASES = {
+            {"date", "transaction date", "txn date", "value date", "posting date", "posted"},
+            {"amount", "amt", "transaction amount"},
+            {"debit", "withdrawal", "withdrawal amt", "withdrawal amount", "dr"},
+            {"credit", "deposit", "deposit amt", "deposit amount", "cr"},
+            {"type", "transaction type"},
+            {"title", "payee", "name", "narration", "particulars", "details"},
+            {"description", "memo", "remarks", "notes"},
+            {"category"},
+            {"subcategory", "sub category"},
+            {"payment_method", "payment method", "mode"},
+            {"essential", "need"}
+    };
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder(64);
+    private int[] columnFor; // Field index -> column constant, or -1
+    private int line;
+    private int nextLine = 1;
+
+    public CsvStatementParser(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public StatementRecord next() throws IOException {
+        if (columnFor == null && !readHeader()) {
+            return null;
+        }
+        while (readRow()) {
+            if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                continue; // Blank line
+            }
+            StatementRecord record = new StatementRecord();
+            record.line = line;
+            for (int i = 0; i < fields.size() && i < columnFor.length; i++) {
+                if (columnFor[i] >= 0) {
+                    set(record, columnFor[i], fields.get(i));
+                }
+            }
+            return record;
+        }
+        return null;
+    }
+
+    private boolean readHeader() throws IOException {
+        if (!readRow()) {
+            return false;
+        }
+        columnFor = new int[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            String name = fields.get(i).trim().toLowerCase(Locale.ROOT);
+            if (i == 0 && !name.isEmpty() && name.charAt(0) == '\uFEFF') {
+                name = name.substring(1); // Byte order mark
+            }
+            columnFor[i] = columnOf(name);
+        }
+        return true;
+    }
+
+    private static int columnOf(String name) {
+        for (int column = 0; column < ALIASES.length; column++) {
+            for (String alias : ALIASES[column]) {
+                if (alias.equals(name)) {
+                    return column;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static void set(StatementRecord record, int column, String value) {
+        switch (column) {
+            case DATE: record.date = value; break;
+            case AMOUNT: record.amount = value; break;
+            case DEBIT: record.debit = value; break;
+            case CREDIT: record.credit = value; break;
+            case TYPE: record.type = value; break;
+            case TITLE: record.title = value; break;
+            case DESCRIPTION: record.description = value; break;
+            case CATEGORY: record.category = value; break;
+            case SUBCATEGORY: record.subcategory = value; break;
+            case PAYMENT_METHOD: record.paymentMethod = value; break;
+            case ESSENTIAL: record.essential = value; break;
+        }
+    }
+
+    /**
+     * Read the next row into fields
+     * @return false at end of input
+     */
+    private boolean readRow() throws IOException {
+        fields.clear();
+        field.setLength(0);
+        line = nextLine;
+        boolean quoted = false;
+        boolean any = false;
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                if (!any) {
+                    return false;
+                }
+                fields.add(field.toString());
+                return true;
+            }
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        nextLine++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                nextLine++;
+                fields.add(field.toString());
+                return true;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int count = reader.read(buffer, 0, buffer.length);
+        if (count <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = count;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
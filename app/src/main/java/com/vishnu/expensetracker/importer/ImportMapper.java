@@ -0,0 +1,294 @@
+package com.vishnu.expensetracker.importer;
+
+import com.vishnu.expensetracker.models.Expense;
+import com.vishnu.expensetracker.utils.CategoryManager;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Validates statement records and maps them to transactions
+ * Dates and amounts are parsed by hand (no SimpleDateFormat / BigDecimal per row). Amounts go
+ * straight to paise. The type comes from the type column, else debit / credit columns, else the
+ * sign of the amount. Categories the file names are kept when CategoryManager knows them;
+ * otherwise CategoryManager suggests one from the title and description.
+ * Not thread-safe; use one mapper per import.
+ */
+public class ImportMapper {
+
+    private static final String DEFAULT_PAYMENT_METHOD = "bank transfer";
+    private static final int MAX_TITLE_LENGTH = 200;
+
+    private final Calendar calendar = Calendar.getInstance();
+    private final long[] dateFields = new long[6];
+    private final int[] dateFieldDigits = new int[6];
+    private final Date importedAt = new Date();
+    private String rejectReason;
+
+    /**
+     * The transaction for a record, or null if it is invalid (see getRejectReason())
+     */
+    public Expense map(StatementRecord record) {
+        rejectReason = null;
+
+        Date date = parseDate(record.date);
+        if (date == null) {
+            return reject(record.date == null || record.date.trim().isEmpty()
+                    ? "Missing date" : "Invalid date: " + record.date);
+        }
+
+        long minor;
+        String type = normalizeType(record.type);
+        if (!isBlank(record.amount)) {
+            minor = parseMinor(record.amount);
+        } else if (!isBlank(record.debit) && parseMinor(record.debit) != 0) {
+            minor = -Math.abs(parseMinor(record.debit));
+            type = type != null ? type : "expense";
+        } else if (!isBlank(record.credit)) {
+            minor = Math.abs(parseMinor(record.credit));
+            type = type != null ? type : "income";
+        } else {
+            return reject("Missing amount");
+        }
+        if (minor == Long.MIN_VALUE) {
+            return reject("Invalid amount");
+        }
+        if (minor == 0) {
+            return reject("Zero amount");
+        }
+        if (type == null) {
+            type = minor < 0 ? "expense" : "income";
+        }
+
+        String title = !isBlank(record.title) ? record.title.trim()
+                : !isBlank(record.description) ? record.description.trim() : null;
+        if (title == null) {
+            return reject("Missing title");
+        }
+        if (title.length() > MAX_TITLE_LENGTH) {
+            title = title.substring(0, MAX_TITLE_LENGTH);
+        }
+
+        Expense expense = new Expense();
+        expense.setTitle(title);
+        expense.setAmountMinor(Math.abs(minor));
+        expense.setDate(date);
+        expense.setType(type);
+        expense.setCreatedAt(importedAt);
+        expense.setDescription(!isBlank(record.description) ? record.description.trim() : "");
+        expense.setPaymentMethod(!isBlank(record.paymentMethod)
+                ? record.paymentMethod.trim().toLowerCase(Locale.ROOT) : DEFAULT_PAYMENT_METHOD);
+        expense.setEssential(parseEssential(record.essential, "expense".equals(type)));
+
+        String category = record.category != null ? record.category.trim() : null;
+        if (category != null && CategoryManager.getCategoryData(category, type) != null) {
+            expense.setCategory(category);
+            expense.setSubcategory(record.subcategory != null ? record.subcategory.trim() : "");
+        } else {
+            String text = (title + " " + expense.getDescription()).toLowerCase(Locale.ROOT);
+            String[] suggestion = CategoryManager.suggestCategory(text, type);
+            expense.setCategory(suggestion[0]);
+            expense.setSubcategory(suggestion[1]);
+        }
+        return expense;
+    }
+
+    /**
+     * Why the last map() call returned null
+     */
+    public String getRejectReason() {
+        return rejectReason;
+    }
+
+    private Expense reject(String reason) {
+        rejectReason = reason;
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static String normalizeType(String value) {
+        if (isBlank(value)) {
+            return null;
+        }
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "expense":
+            case "debit":
+            case "dr":
+                return "expense";
+            case "income":
+            case "credit":
+            case "cr":
+                return "income";
+            default:
+                return null;
+        }
+    }
+
+    private static boolean parseEssential(String value, boolean defaultValue) {
+        if (isBlank(value)) {
+            return defaultValue;
+        }
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "need":
+            case "true":
+            case "yes":
+            case "1":
+                return true;
+            case "want":
+            case "false":
+            case "no":
+            case "0":
+                return false;
+            default:
+                return defaultValue;
+        }
+    }
+
+    /**
+     * Decimal text to signed paise; accepts grouping commas, currency symbols, a leading sign and
+     * accounting parentheses. Digits past the second decimal round half away from zero.
+     * @return Long.MIN_VALUE if the text is not an amount
+     */
+    static long parseMinor(String text) {
+        long units = 0;
+        int fractionDigits = 0;
+        int roundingDigit = 0;
+        boolean negative = false;
+        boolean fraction = false;
+        boolean digits = false;
+        int unitDigits = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+                if (!fraction) {
+                    if (++unitDigits > 15) {
+                        return Long.MIN_VALUE;
+                    }
+                    units = units * 10 + (c - '0');
+                } else if (fractionDigits < 2) {
+                    units = units * 10 + (c - '0');
+                    fractionDigits++;
+                } else if (fractionDigits == 2) {
+                    roundingDigit = c - '0';
+                    fractionDigits++;
+                }
+            } else if (c == '.') {
+                if (fraction) {
+                    return Long.MIN_VALUE;
+                }
+                fraction = true;
+            } else if (c == '-' || c == '(') {
+                if (digits) {
+                    return Long.MIN_VALUE;
+                }
+                negative = true;
+            } else if (c != ',' && c != '+' && c != ')' && c != ' ' && c != '₹' && c != '$') {
+                return Long.MIN_VALUE;
+            }
+        }
+        if (!digits) {
+            return Long.MIN_VALUE;
+        }
+        for (int i = Math.min(fractionDigits, 2); i < 2; i++) {
+            units *= 10;
+        }
+        if (roundingDigit >= 5) {
+            units++;
+        }
+        return negative ? -units : units;
+    }
+
+    /**
+     * Local date from yyyy-MM-dd[ HH:mm[:ss]], dd-MM-yyyy (either with / or -) or OFX
+     * yyyyMMdd[HHmm[ss]][.SSS][[tz]]; the OFX time zone suffix is ignored
+     * @return null if the text is not a valid date
+     */
+    Date parseDate(String text) {
+        if (text == null) {
+            return null;
+        }
+        int groups = 0;
+        long value = 0;
+        int digits = 0;
+        for (int i = 0; i <= text.length() && groups < dateFields.length; i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (c >= '0' && c <= '9') {
+                if (++digits > 14) {
+                    return null;
+                }
+                value = value * 10 + (c - '0');
+                continue;
+            }
+            if (digits > 0) {
+                dateFields[groups] = value;
+                dateFieldDigits[groups] = digits;
+                groups++;
+                value = 0;
+                digits = 0;
+            }
+            if (c == '[' || (c == '.' && groups == 1 && dateFieldDigits[0] >= 8)) {
+                break; // OFX time zone or fractional seconds
+            }
+        }
+        if (groups == 0) {
+            return null;
+        }
+
+        long year;
+        long month;
+        long day;
+        long hour = 0;
+        long minute = 0;
+        long second = 0;
+        if (dateFieldDigits[0] >= 8) {
+            long compact = dateFields[0];
+            switch (dateFieldDigits[0]) {
+                case 14:
+                    second = compact % 100;
+                    compact /= 100;
+                    // fall through
+                case 12:
+                    minute = compact % 100;
+                    hour = compact / 100 % 100;
+                    compact /= 10000;
+                    // fall through
+                case 8:
+                    break;
+                default:
+                    return null;
+            }
+            year = compact / 10000;
+            month = compact / 100 % 100;
+            day = compact % 100;
+        } else if (groups >= 3 && dateFieldDigits[0] == 4) {
+            year = dateFields[0];
+            month = dateFields[1];
+            day = dateFields[2];
+        } else if (groups >= 3 && dateFieldDigits[2] == 4) {
+            day = dateFields[0];
+            month = dateFields[1];
+            year = dateFields[2];
+        } else {
+            return null;
+        }
+        if (groups >= 4 && dateFieldDigits[0] < 8) {
+            hour = dateFields[3];
+            minute = groups >= 5 ? dateFields[4] : 0;
+            second = groups >= 6 ? dateFields[5] : 0;
+        }
+        if (month < 1 || month > 12 || day < 1 || hour > 23 || minute > 59 || second > 59) {
+            return null;
+        }
+        calendar.clear();
+        calendar.set((int) year, (int) month - 1, 1, (int) hour, (int) minute, (int) second);
+        if (day > calendar.getActualMaximum(Calendar.DAY_OF_MONTH)) {
+            return null;
+        }
+        calendar.set(Calendar.DAY_OF_MONTH, (int) day);
+        return calendar.getTime();
+    }
+}
@@ -0,0 +1,220 @@
+package com.vishnu.expensetracker.importer;
+
+import android.os.CancellationSignal;
+import android.os.SystemClock;
+import com.vishnu.expensetracker.database.ExpenseDatabase;
+import com.vishnu.expensetracker.database.TransactionWriter;
+import com.vishnu.expensetracker.models.Expense;
+import com.vishnu.expensetracker.repository.DuplicateDetector;
+import com.vishnu.expensetracker.utils.AppExecutors;
+import com.vishnu.expensetracker.utils.Fingerprint;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk statement import: parse -> validate / map -> batched write
+ * Parsing and mapping run on a read-pool thread and hand full batches to the calling (write)
+ * thread through a small bounded queue, so parsing overlaps with SQLite work while memory stays
+ * capped at a few batches. Each batch commits in its own transaction through
+ * TransactionWriter.BulkWrite. Observers and in-memory caches are refreshed once, after the
+ * last batch.
+ * Rows whose fingerprint matches a transaction that existed before the import are skipped as
+ * duplicates; DuplicateDetector's Bloom filter clears nearly all rows without a query. Repeats
+ * within the statement itself are kept (two identical purchases on one day are common).
+ * Run on AppExecutors.diskWrite() (blocking).
+ */
+public class ImportPipeline {
+
+    public static final int DEFAULT_BATCH_SIZE = 2000;
+    private static final int QUEUE_CAPACITY = 4;
+    private static final int MAX_REPORTED_REJECTIONS = 100;
+    private static final long POLL_MILLIS = 100;
+
+    // End of input marker
+    private static final List<Expense> END = Collections.emptyList();
+
+    public interface ProgressListener {
+        /**
+         * Called after each committed batch on the write thread
+         */
+        void onProgress(long rowsRead, long rowsImported, long rowsRejected);
+    }
+
+    private final ExpenseDatabase database;
+    private final int batchSize;
+
+    public ImportPipeline(ExpenseDatabase database) {
+        this(database, DEFAULT_BATCH_SIZE);
+    }
+
+    public ImportPipeline(ExpenseDatabase database, int batchSize) {
+        this.database = database;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Import every record of the statement (the parser is closed when done)
+     * @param listener Progress callback, may be null
+     * @param signal Stops the import between batches, may be null
+     * @throws IOException If the statement cannot be read; batches committed before the error are kept
+     * (any other failure while parsing or mapping is rethrown as it was, with the same guarantee)
+     */
+    public ImportReport run(StatementParser parser, ProgressListener listener, CancellationSignal signal)
+            throws IOException {
+        long start = SystemClock.elapsedRealtime();
+        BlockingQueue<List<Expense>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        // Only rows that existed before the import count as duplicates
+        int maxExistingId = database.expenseDao().getMaxId();
+        Producer producer = new Producer(parser, queue, signal, maxExistingId);
+
+        boolean cancelled = false;
+        long imported = 0;
+        try (TransactionWriter.BulkWrite writer = new TransactionWriter(database).beginBulkWrite()) {
+            AppExecutors.getInstance().diskRead().execute(producer);
+            while (true) {
+                List<Expense> batch = queue.take();
+                if (batch == END) {
+                    break;
+                }
+                if (signal != null && signal.isCanceled()) {
+                    cancelled = true;
+                    break;
+                }
+                writer.insertBatch(batch);
+                imported += batch.size();
+                if (listener != null) {
+                    listener.onProgress(producer.rowsRead.get(), imported, producer.rowsRejected.get());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled = true;
+        } finally {
+            producer.stopped = true;
+        }
+
+        // Rethrown on this thread; the producer stopped at the failing record
+        Exception failure = producer.failure;
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure != null) {
+            throw new IOException("Import failed", failure);
+        }
+        cancelled |= producer.cancelled;
+        List<ImportReport.Rejection> rejections;
+        synchronized (producer.rejections) {
+            rejections = new ArrayList<>(producer.rejections);
+        }
+        return new ImportReport(producer.rowsRead.get(), imported, producer.rowsRejected.get(),
+                producer.rowsDuplicate.get(), rejections, SystemClock.elapsedRealtime() - start, cancelled);
+    }
+
+    /**
+     * Parses and maps records into batches on a background thread
+     */
+    private class Producer implements Runnable {
+        private final StatementParser parser;
+        private final BlockingQueue<List<Expense>> queue;
+        private final CancellationSignal signal;
+        private final int maxExistingId;
+        private final ImportMapper mapper = new ImportMapper();
+        private final DuplicateDetector duplicates = DuplicateDetector.getInstance(database);
+
+        final AtomicLong rowsRead = new AtomicLong();
+        final AtomicLong rowsRejected = new AtomicLong();
+        final AtomicLong rowsDuplicate = new AtomicLong();
+        // Guarded by itself; the writer may stop before the producer does
+        final List<ImportReport.Rejection> rejections = new ArrayList<>();
+        volatile Exception failure;
+        volatile boolean cancelled;
+        volatile boolean stopped; // The writer has given up; stop producing
+
+        Producer(StatementParser parser, BlockingQueue<List<Expense>> queue, CancellationSignal signal,
+                 int maxExistingId) {
+            this.parser = parser;
+            this.queue = queue;
+            this.signal = signal;
+            this.maxExistingId = maxExistingId;
+        }
+
+        @Override
+        public void run() {
+            try {
+                List<Expense> batch = new ArrayList<>(batchSize);
+                StatementRecord record;
+                while ((record = parser.next()) != null) {
+                    rowsRead.incrementAndGet();
+                    Expense expense = mapper.map(record);
+                    if (expense == null) {
+                        rowsRejected.incrementAndGet();
+                        synchronized (rejections) {
+                            if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+                                rejections.add(new ImportReport.Rejection(record.line, mapper.getRejectReason()));
+                            }
+                        }
+                        continue;
+                    }
+                    expense.setFingerprint(Fingerprint.of(expense));
+                    if (duplicates.exists(expense.getFingerprint(), maxExistingId)) {
+                        rowsDuplicate.incrementAndGet();
+                        continue;
+                    }
+                    batch.add(expense);
+                    if (batch.size() == batchSize) {
+                        if (!put(batch)) {
+                            return;
+                        }
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+                if (!batch.isEmpty() && !put(batch)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                cancelled = true;
+            } catch (Exception e) {
+                // A malformed record the parser or mapper did not expect, not only a read error
+                failure = e;
+            } finally {
+                try {
+                    parser.close();
+                } catch (IOException e) {
+                    android.util.Log.w("ImportPipeline", "Error closing statement", e);
+                }
+                finish();
+            }
+        }
+
+        // Queue a batch, waiting for space; false if the import was cancelled meanwhile
+        private boolean put(List<Expense> batch) throws InterruptedException {
+            while (!queue.offer(batch, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (stopped || (signal != null && signal.isCanceled())) {
+                    cancelled = true;
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void finish() {
+            // The writer may already have stopped taking; never block on a full queue then
+            try {
+                while (!stopped && !queue.offer(END, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    // Writer is still busy with earlier batches
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.vishnu.expensetracker.importer;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of one statement import
+ */
+public class ImportReport {
+
+    /**
+     * A record that was not imported
+     */
+    public static class Rejection {
+        public final int line;
+        public final String reason;
+
+        public Rejection(int line, String reason) {
+            this.line = line;
+            this.reason = reason;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + line + ": " + reason;
+        }
+    }
+
+    private final long rowsRead;
+    private final long rowsImported;
+    private final long rowsRejected;
+    private final long rowsDuplicate;
+    private final List<Rejection> rejections;
+    private final long elapsedMillis;
+    private final boolean cancelled;
+
+    ImportReport(long rowsRead, long rowsImported, long rowsRejected, long rowsDuplicate,
+                 List<Rejection> rejections, long elapsedMillis, boolean cancelled) {
+        this.rowsRead = rowsRead;
+        this.rowsImported = rowsImported;
+        this.rowsRejected = rowsRejected;
+        this.rowsDuplicate = rowsDuplicate;
+        this.rejections = Collections.unmodifiableList(rejections);
+        this.elapsedMillis = elapsedMillis;
+        this.cancelled = cancelled;
+    }
+
+    public long getRowsRead() { return rowsRead; }
+    public long getRowsImported() { return rowsImported; }
+    public long getRowsRejected() { return rowsRejected; }
+    /** Valid rows skipped because the transaction was already recorded */
+    public long getRowsDuplicate() { return rowsDuplicate; }
+    /** The first rejected records (capped; getRowsRejected() has the full count) */
+    public List<Rejection> getRejections() { return rejections; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    /** True if the import stopped early; batches committed before that are kept */
+    public boolean isCancelled() { return cancelled; }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis > 0 ? rowsImported * 1000.0 / elapsedMillis : rowsImported;
+    }
+}
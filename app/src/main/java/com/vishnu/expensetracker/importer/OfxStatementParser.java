@@ -0,0 +1,130 @@
+package com.vishnu.expensetracker.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Locale;
+
+/**
+ * OFX / QFX bank statement parser (SGML 1.x and XML 2.x)
+ * Streams the file tag by tag and emits one record per STMTTRN aggregate. Leaf values end at
+ * the next tag, so SGML's unclosed leaf elements and XML's closed ones read the same.
+ */
+public class OfxStatementParser implements StatementParser {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private final StringBuilder tag = new StringBuilder(16);
+    private final StringBuilder text = new StringBuilder(64);
+    private int transactions;
+
+    public OfxStatementParser(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public StatementRecord next() throws IOException {
+        StatementRecord record = null;
+        String leaf = null; // Open leaf element whose text is being read
+        int c;
+        while ((c = read()) >= 0) {
+            if (c != '<') {
+                if (leaf != null) {
+                    text.append((char) c);
+                }
+                continue;
+            }
+            if (leaf != null && record != null) {
+                set(record, leaf, unescape(text.toString().trim()));
+            }
+            leaf = null;
+            text.setLength(0);
+            readTag();
+            String name = tag.toString();
+            if ("STMTTRN".equals(name)) {
+                record = new StatementRecord();
+                record.line = ++transactions;
+            } else if ("/STMTTRN".equals(name)) {
+                if (record != null) {
+                    return record;
+                }
+            } else if (record != null && !name.startsWith("/")) {
+                leaf = name;
+            }
+        }
+        return null;
+    }
+
+    // Reads up to and including '>' into tag, uppercased
+    private void readTag() throws IOException {
+        tag.setLength(0);
+        int c;
+        while ((c = read()) >= 0 && c != '>') {
+            if (!Character.isWhitespace(c)) {
+                tag.append(Character.toUpperCase((char) c));
+            }
+        }
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('&') < 0) {
+            return value;
+        }
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&nbsp;", " ").replace("&amp;", "&");
+    }
+
+    private static void set(StatementRecord record, String element, String value) {
+        switch (element) {
+            case "DTPOSTED":
+                record.date = value;
+                break;
+            case "TRNAMT":
+                record.amount = value;
+                break;
+            case "NAME":
+            case "PAYEE":
+                record.title = value;
+                break;
+            case "MEMO":
+                record.description = value;
+                break;
+            case "TRNTYPE":
+                record.paymentMethod = paymentMethodFor(value.toUpperCase(Locale.ROOT));
+                break;
+        }
+    }
+
+    // OFX transaction types to the app's payment methods
+    private static String paymentMethodFor(String transactionType) {
+        switch (transactionType) {
+            case "ATM":
+            case "CASH":
+                return "cash";
+            case "POS":
+                return "card";
+            default:
+                return "bank transfer";
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            int count = reader.read(buffer, 0, buffer.length);
+            if (count <= 0) {
+                return -1;
+            }
+            position = 0;
+            limit = count;
+        }
+        return buffer[position++];
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,15 @@
+package com.vishnu.expensetracker.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Streaming reader of statement records; holds one record at a time, never the whole file
+ */
+public interface StatementParser extends Closeable {
+
+    /**
+     * Next record, or null at the end of the statement
+     */
+    StatementRecord next() throws IOException;
+}
@@ -0,0 +1,21 @@
+package com.vishnu.expensetracker.importer;
+
+/**
+ * One transaction as read from a statement, before validation
+ * Fields are the raw text from the file; anything the format does not carry is null.
+ * ImportMapper turns a record into an Expense or rejects it.
+ */
+public class StatementRecord {
+    public int line; // Line (CSV) or transaction number (OFX), for rejection reports
+    public String date;
+    public String amount; // Signed, or unsigned with type / debit / credit saying which way
+    public String debit;
+    public String credit;
+    public String type;
+    public String title;
+    public String description;
+    public String category;
+    public String subcategory;
+    public String paymentMethod;
+    public String essential;
+}
@@ -0,0 +1,66 @@
+package com.vishnu.expensetracker.models;
+
+import com.vishnu.expensetracker.database.ExpenseDao;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable set of analytics metrics for one month
+ * Built in a single read transaction by AnalyticsRepository and rendered by AnalyticsActivity
+ */
+public final class AnalyticsSnapshot {
+
+    private final int year;
+    private final int month; // 0-based, January = 0
+
+    private final double totalIncome;
+    private final double totalExpenses;
+    private final double averageDailyExpense;
+    private final double lastMonthExpenses;
+    private final int transactionCount;
+    private final Expense highestExpense;
+
+    private final List<ExpenseDao.DailyExpenseSum> dailyExpenses;
+    private final List<ExpenseDao.WeeklyExpenseSum> weeklyExpenses;
+    private final List<ExpenseDao.NeedsWantsSum> needsWants;
+    private final List<ExpenseDao.CategoryExpenseSum> topCategories;
+
+    public AnalyticsSnapshot(int year, int month, double totalIncome, double totalExpenses,
+                             double averageDailyExpense, double lastMonthExpenses, int transactionCount,
+                             Expense highestExpense,
+                             List<ExpenseDao.DailyExpenseSum> dailyExpenses,
+                             List<ExpenseDao.WeeklyExpenseSum> weeklyExpenses,
+                             List<ExpenseDao.NeedsWantsSum> needsWants,
+                             List<ExpenseDao.CategoryExpenseSum> topCategories) {
+        this.year = year;
+        this.month = month;
+        this.totalIncome = totalIncome;
+        this.totalExpenses = totalExpenses;
+        this.averageDailyExpense = averageDailyExpense;
+        this.lastMonthExpenses = lastMonthExpenses;
+        this.transactionCount = transactionCount;
+        this.highestExpense = highestExpense;
+        this.dailyExpenses = Collections.unmodifiableList(dailyExpenses);
+        this.weeklyExpenses = Collections.unmodifiableList(weeklyExpenses);
+        this.needsWants = Collections.unmodifiableList(needsWants);
+        this.topCategories = Collections.unmodifiableList(topCategories);
+    }
+
+    // ========== GETTERS ==========
+
+    public int getYear() { return year; }
+    public int getMonth() { return month; }
+
+    public double getTotalIncome() { return totalIncome; }
+    public double getTotalExpenses() { return totalExpenses; }
+    public double getBalance() { return totalIncome - totalExpenses; }
+    public double getAverageDailyExpense() { return averageDailyExpense; }
+    public double getLastMonthExpenses() { return lastMonthExpenses; }
+    public int getTransactionCount() { return transactionCount; }
+    public Expense getHighestExpense() { return highestExpense; }
+
+    public List<ExpenseDao.DailyExpenseSum> getDailyExpenses() { return dailyExpenses; }
+    public List<ExpenseDao.WeeklyExpenseSum> getWeeklyExpenses() { return weeklyExpenses; }
+    public List<ExpenseDao.NeedsWantsSum> getNeedsWants() { return needsWants; }
+    public List<ExpenseDao.CategoryExpenseSum> getTopCategories() { return topCategories; }
+}
@@ -3,10 +3,46 @@ package com.vishnu.expensetracker.models;
 import androidx.room.Entity;
 import androidx.room.PrimaryKey;
 import androidx.room.ColumnInfo;
+import androidx.room.ForeignKey;
 import androidx.room.Ignore;
+import androidx.room.Index;
+import com.vishnu.expensetracker.utils.Money;
 import java.util.Date;
 
-@Entity(tableName = "expenses")
+/**
+ * Transaction entity.
+ * The (is_deleted, type, category_id, date) index covers the category breakdowns. The range
+ * aggregates and the paged transaction list only read live rows, so their indices are partial
+ * (WHERE is_deleted = 0) and live in PartialIndexes, since @Index cannot declare them.
+ * Keep these in sync with the ExpenseDatabase migrations.
+ * amount_minor holds the exact amount in paise; amount is the same value in rupees and is
+ * kept in step by the setters.
+ * category_id, subcategory_id and payment_method_id are integer keys for the matching strings,
+ * resolved by TransactionWriter before each write (see LookupKeys); group-bys use them instead of
+ * the text. Each has its own index for the ON DELETE SET NULL lookups. The strings stay (FTS,
+ * rollups, search and export read them), so rows carry both.
+ * fingerprint is a hash of the normalized title, amount, day and payment method, set by
+ * TransactionWriter (see Fingerprint); equal fingerprints flag likely duplicates.
+ * updated_at is the time of the last write to the row (set by TransactionWriter and the DAO
+ * updates); incremental backups select on it.
+ */
+@Entity(tableName = "expenses",
+        indices = {
+                @Index(value = {"is_deleted", "type", "category_id", "date"}),
+                @Index(value = {"fingerprint"}),
+                @Index(value = {"updated_at"}),
+                @Index(value = {"category_id"}),
+                @Index(value = {"subcategory_id"}),
+                @Index(value = {"payment_method_id"})
+        },
+        foreignKeys = {
+                @ForeignKey(entity = Category.class, parentColumns = "id",
+                        childColumns = "category_id", onDelete = ForeignKey.SET_NULL),
+                @ForeignKey(entity = Subcategory.class, parentColumns = "id",
+                        childColumns = "subcategory_id", onDelete = ForeignKey.SET_NULL),
+                @ForeignKey(entity = PaymentMethod.class, parentColumns = "id",
+                        childColumns = "payment_method_id", onDelete = ForeignKey.SET_NULL)
+        })
 public class Expense {
     
     @PrimaryKey(autoGenerate = true)
@@ -18,6 +54,9 @@ public class Expense {
     @ColumnInfo(name = "amount")
     private double amount;
     
+    @ColumnInfo(name = "amount_minor", defaultValue = "0")
+    private long amountMinor; // Exact amount in paise
+    
     @ColumnInfo(name = "category")
     private String category;
     
@@ -39,6 +78,9 @@ public class Expense {
     @ColumnInfo(name = "created_at")
     private Date createdAt;
     
+    @ColumnInfo(name = "updated_at")
+    private Date updatedAt;
+    
     @ColumnInfo(name = "is_deleted", defaultValue = "0")
     private boolean isDeleted;
     
@@ -47,6 +89,18 @@ public class Expense {
     
     @ColumnInfo(name = "is_essential", defaultValue = "1")
     private boolean isEssential; // true = Need (essential), false = Want (non-essential)
+    
+    @ColumnInfo(name = "category_id")
+    private Integer categoryId;
+    
+    @ColumnInfo(name = "subcategory_id")
+    private Integer subcategoryId;
+    
+    @ColumnInfo(name = "payment_method_id")
+    private Integer paymentMethodId;
+    
+    @ColumnInfo(name = "fingerprint", defaultValue = "0")
+    private long fingerprint; // 0 until written
 
     // Constructors
     public Expense() {
@@ -59,6 +113,7 @@ public class Expense {
     public Expense(String title, double amount, String category, String description, Date date, String type, String paymentMethod) {
         this.title = title;
         this.amount = amount;
+        this.amountMinor = Money.toMinor(amount);
         this.category = category;
         this.subcategory = ""; // Default empty subcategory
         this.description = description;
@@ -72,6 +127,7 @@ public class Expense {
     public Expense(String title, double amount, String category, String subcategory, String description, Date date, String type, String paymentMethod) {
         this.title = title;
         this.amount = amount;
+        this.amountMinor = Money.toMinor(amount);
         this.category = category;
         this.subcategory = subcategory;
         this.description = description;
@@ -89,7 +145,16 @@ public class Expense {
     public void setTitle(String title) { this.title = title; }
 
     public double getAmount() { return amount; }
-    public void setAmount(double amount) { this.amount = amount; }
+    public void setAmount(double amount) {
+        this.amount = amount;
+        this.amountMinor = Money.toMinor(amount);
+    }
+    
+    public long getAmountMinor() { return amountMinor; }
+    public void setAmountMinor(long amountMinor) {
+        this.amountMinor = amountMinor;
+        this.amount = Money.toMajor(amountMinor);
+    }
 
     public String getCategory() { return category; }
     public void setCategory(String category) { this.category = category; }
@@ -112,6 +177,9 @@ public class Expense {
     public Date getCreatedAt() { return createdAt; }
     public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
     
+    public Date getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Date updatedAt) { this.updatedAt = updatedAt; }
+    
     public boolean isDeleted() { return isDeleted; }
     public void setDeleted(boolean deleted) { this.isDeleted = deleted; }
     
@@ -121,6 +189,18 @@ public class Expense {
     public boolean isEssential() { return isEssential; }
     public void setEssential(boolean essential) { this.isEssential = essential; }
     
+    public Integer getCategoryId() { return categoryId; }
+    public void setCategoryId(Integer categoryId) { this.categoryId = categoryId; }
+    
+    public Integer getSubcategoryId() { return subcategoryId; }
+    public void setSubcategoryId(Integer subcategoryId) { this.subcategoryId = subcategoryId; }
+    
+    public Integer getPaymentMethodId() { return paymentMethodId; }
+    public void setPaymentMethodId(Integer paymentMethodId) { this.paymentMethodId = paymentMethodId; }
+    
+    public long getFingerprint() { return fingerprint; }
+    public void setFingerprint(long fingerprint) { this.fingerprint = fingerprint; }
+    
     /**
      * Soft delete this expense (marks as deleted without removing from DB)
      */
@@ -0,0 +1,50 @@
+package com.vishnu.expensetracker.models;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+/**
+ * FTS4 index over the searchable text of expenses
+ * External content table: the text lives only in expenses, and Room's content-sync triggers
+ * keep the index current on every insert, update and delete. Prefix indexes for 2 and 3
+ * characters make "gro*"-style queries as cheap as whole-word ones.
+ */
+@Fts4(contentEntity = Expense.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61, prefix = {2, 3})
+@Entity(tableName = "expenses_fts")
+public class ExpenseFts {
+    
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private int rowId; // Same as expenses.id
+    
+    @ColumnInfo(name = "title")
+    private String title;
+    
+    @ColumnInfo(name = "description")
+    private String description;
+    
+    @ColumnInfo(name = "category")
+    private String category;
+    
+    @ColumnInfo(name = "subcategory")
+    private String subcategory;
+
+    // Getters and Setters
+    public int getRowId() { return rowId; }
+    public void setRowId(int rowId) { this.rowId = rowId; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public String getSubcategory() { return subcategory; }
+    public void setSubcategory(String subcategory) { this.subcategory = subcategory; }
+}
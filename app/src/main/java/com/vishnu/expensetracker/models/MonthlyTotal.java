@@ -0,0 +1,61 @@
+package com.vishnu.expensetracker.models;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+
+/**
+ * Materialized per-month rollup of non-deleted transactions
+ * Maintained by SQLite triggers on the expenses table (see RollupSchema), never written by app code
+ */
+@Entity(tableName = "monthly_totals",
+        primaryKeys = {"month_start", "type", "category", "is_essential"})
+public class MonthlyTotal {
+    
+    @ColumnInfo(name = "month_start")
+    private long monthStart; // Local midnight of the first day of the month, in epoch milliseconds
+    
+    @NonNull
+    @ColumnInfo(name = "type")
+    private String type = "";
+    
+    @NonNull
+    @ColumnInfo(name = "category")
+    private String category = "";
+    
+    @ColumnInfo(name = "is_essential")
+    private boolean isEssential;
+    
+    @ColumnInfo(name = "amount_sum")
+    private double amountSum;
+    
+    @ColumnInfo(name = "amount_minor_sum", defaultValue = "0")
+    private long amountMinorSum; // Exact sum in paise
+    
+    @ColumnInfo(name = "row_count")
+    private int rowCount;
+
+    // Getters and Setters
+    public long getMonthStart() { return monthStart; }
+    public void setMonthStart(long monthStart) { this.monthStart = monthStart; }
+
+    @NonNull
+    public String getType() { return type; }
+    public void setType(@NonNull String type) { this.type = type; }
+
+    @NonNull
+    public String getCategory() { return category; }
+    public void setCategory(@NonNull String category) { this.category = category; }
+
+    public boolean isEssential() { return isEssential; }
+    public void setEssential(boolean essential) { this.isEssential = essential; }
+
+    public double getAmountSum() { return amountSum; }
+    public void setAmountSum(double amountSum) { this.amountSum = amountSum; }
+
+    public long getAmountMinorSum() { return amountMinorSum; }
+    public void setAmountMinorSum(long amountMinorSum) { this.amountMinorSum = amountMinorSum; }
+
+    public int getRowCount() { return rowCount; }
+    public void setRowCount(int rowCount) { this.rowCount = rowCount; }
+}
@@ -0,0 +1,31 @@
+package com.vishnu.expensetracker.models;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Lookup row for a payment method code ("cash", "card", "upi", ...)
+ * Rows are added by TransactionWriter the first time a code is used (see LookupKeys)
+ */
+@Entity(tableName = "payment_methods",
+        indices = {@Index(value = {"code"}, unique = true)})
+public class PaymentMethod {
+    
+    @PrimaryKey(autoGenerate = true)
+    private int id;
+    
+    @NonNull
+    @ColumnInfo(name = "code")
+    private String code = "";
+
+    // Getters and Setters
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    @NonNull
+    public String getCode() { return code; }
+    public void setCode(@NonNull String code) { this.code = code; }
+}
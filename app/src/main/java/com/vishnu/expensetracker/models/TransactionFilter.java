@@ -0,0 +1,109 @@
+package com.vishnu.expensetracker.models;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Criteria for the transaction list; every criterion left null or empty matches everything
+ * Compiled to SQL by FilterCompiler. Dates are inclusive epoch millis, amounts are paise.
+ */
+public class TransactionFilter {
+
+    private Long startDate;
+    private Long endDate;
+    private String type; // "income" or "expense"
+    private Set<String> categories = new LinkedHashSet<>();
+    private Set<String> paymentMethods = new LinkedHashSet<>();
+    private Long minAmountMinor;
+    private Long maxAmountMinor;
+    private Boolean essential;
+    private String text; // Free text, searched with the full-text index
+
+    public TransactionFilter() {}
+
+    /**
+     * Copy constructor, for changing one criterion of an active filter
+     */
+    public TransactionFilter(TransactionFilter other) {
+        this.startDate = other.startDate;
+        this.endDate = other.endDate;
+        this.type = other.type;
+        this.categories = new LinkedHashSet<>(other.categories);
+        this.paymentMethods = new LinkedHashSet<>(other.paymentMethods);
+        this.minAmountMinor = other.minAmountMinor;
+        this.maxAmountMinor = other.maxAmountMinor;
+        this.essential = other.essential;
+        this.text = other.text;
+    }
+
+    // Getters and Setters
+    public Long getStartDate() { return startDate; }
+    public void setStartDate(Long startDate) { this.startDate = startDate; }
+
+    public Long getEndDate() { return endDate; }
+    public void setEndDate(Long endDate) { this.endDate = endDate; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public Set<String> getCategories() { return Collections.unmodifiableSet(categories); }
+    public void setCategories(Set<String> categories) {
+        this.categories = categories != null ? new LinkedHashSet<>(categories) : new LinkedHashSet<>();
+    }
+
+    public Set<String> getPaymentMethods() { return Collections.unmodifiableSet(paymentMethods); }
+    public void setPaymentMethods(Set<String> paymentMethods) {
+        this.paymentMethods = paymentMethods != null ? new LinkedHashSet<>(paymentMethods) : new LinkedHashSet<>();
+    }
+
+    public Long getMinAmountMinor() { return minAmountMinor; }
+    public void setMinAmountMinor(Long minAmountMinor) { this.minAmountMinor = minAmountMinor; }
+
+    public Long getMaxAmountMinor() { return maxAmountMinor; }
+    public void setMaxAmountMinor(Long maxAmountMinor) { this.maxAmountMinor = maxAmountMinor; }
+
+    public Boolean getEssential() { return essential; }
+    public void setEssential(Boolean essential) { this.essential = essential; }
+
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+
+    /**
+     * True if no criterion is set (the filter matches every live transaction)
+     */
+    public boolean isEmpty() {
+        return startDate == null && endDate == null && type == null && categories.isEmpty()
+                && paymentMethods.isEmpty() && minAmountMinor == null && maxAmountMinor == null
+                && essential == null && (text == null || text.trim().isEmpty());
+    }
+
+    /**
+     * True if free text is the only criterion (served by a precompiled search query)
+     */
+    public boolean hasOnlyText() {
+        TransactionFilter textOnly = new TransactionFilter();
+        textOnly.setText(text);
+        return !isEmpty() && equals(textOnly);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TransactionFilter)) return false;
+        TransactionFilter that = (TransactionFilter) o;
+        return Objects.equals(startDate, that.startDate) && Objects.equals(endDate, that.endDate)
+                && Objects.equals(type, that.type) && categories.equals(that.categories)
+                && paymentMethods.equals(that.paymentMethods)
+                && Objects.equals(minAmountMinor, that.minAmountMinor)
+                && Objects.equals(maxAmountMinor, that.maxAmountMinor)
+                && Objects.equals(essential, that.essential) && Objects.equals(text, that.text);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(startDate, endDate, type, categories, paymentMethods,
+                minAmountMinor, maxAmountMinor, essential, text);
+    }
+}
@@ -0,0 +1,224 @@
+package com.vishnu.expensetracker.repository;
+
+import com.vishnu.expensetracker.database.ExpenseDao;
+import com.vishnu.expensetracker.database.ExpenseDatabase;
+import com.vishnu.expensetracker.database.RollupDao;
+import com.vishnu.expensetracker.models.AnalyticsSnapshot;
+import com.vishnu.expensetracker.models.Expense;
+import com.vishnu.expensetracker.utils.DateUtils;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Builds AnalyticsSnapshot objects for the Analytics screen
+ * All metrics for a month (totals, daily/weekly trends, needs vs wants, top categories,
+ * count and last month comparison) come from one pass over the daily rollup rows,
+ * read together with the highest expense inside a single transaction.
+ * When a loaded TransactionColumnStore is supplied, the same per-day rows come from its arrays instead.
+ */
+public class AnalyticsRepository {
+
+    private static final int TOP_CATEGORY_LIMIT = 5;
+
+    private final ExpenseDatabase database;
+    private final ExpenseDao expenseDao;
+    private final RollupDao rollupDao;
+    private final TransactionColumnStore columnStore;
+
+    public AnalyticsRepository(ExpenseDatabase database) {
+        this(database, null);
+    }
+
+    /**
+     * @param columnStore In-memory columns to read from once loaded; null to always use the rollups
+     */
+    public AnalyticsRepository(ExpenseDatabase database, TransactionColumnStore columnStore) {
+        this.database = database;
+        this.expenseDao = database.expenseDao();
+        this.rollupDao = database.rollupDao();
+        this.columnStore = columnStore;
+    }
+
+    /**
+     * Load the analytics snapshot for a month (blocking - call from a background thread)
+     * @param year The year
+     * @param month The month (0-based, January = 0)
+     */
+    public AnalyticsSnapshot loadSnapshot(int year, int month) {
+        long startOfMonth = DateUtils.getStartOfMonth(year, month);
+        long endOfMonth = DateUtils.getEndOfMonth(year, month);
+
+        Calendar lastMonthCal = Calendar.getInstance();
+        lastMonthCal.set(Calendar.DAY_OF_MONTH, 1);
+        lastMonthCal.set(Calendar.YEAR, year);
+        lastMonthCal.set(Calendar.MONTH, month);
+        lastMonthCal.add(Calendar.MONTH, -1);
+        long startOfLastMonth = DateUtils.getStartOfMonth(lastMonthCal.get(Calendar.YEAR), lastMonthCal.get(Calendar.MONTH));
+        long endOfLastMonth = DateUtils.getEndOfMonth(lastMonthCal.get(Calendar.YEAR), lastMonthCal.get(Calendar.MONTH));
+
+        // Weekly chart covers the last four weeks up to the end of the viewed month
+        long fourWeeksAgo = DateUtils.getStartOfFourWeeksAgo();
+
+        long scanStart = Math.min(startOfLastMonth, fourWeeksAgo);
+        long scanEnd = endOfMonth;
+
+        MonthRead read;
+        if (columnStore != null && columnStore.isLoaded()) {
+            int highestId = columnStore.getHighestExpenseId(startOfMonth, endOfMonth);
+            read = new MonthRead(
+                    columnStore.getDailyRows(scanStart, scanEnd),
+                    highestId >= 0 ? expenseDao.getExpenseById(highestId) : null);
+        } else {
+            // One read transaction so every metric sees the same state of the ledger
+            read = database.runInTransaction(() -> new MonthRead(
+                    rollupDao.getDailyRollupRows(scanStart, scanEnd),
+                    expenseDao.getHighestExpense(startOfMonth, endOfMonth)));
+        }
+
+        double totalIncome = 0;
+        double totalExpenses = 0;
+        double lastMonthExpenses = 0;
+        double needsTotal = 0;
+        double wantsTotal = 0;
+        boolean hasNeeds = false;
+        boolean hasWants = false;
+        int transactionCount = 0;
+        Map<Long, Double> dailyTotals = new TreeMap<>();
+        Map<String, Double> weeklyTotals = new TreeMap<>();
+        Map<String, Double> categoryTotals = new HashMap<>();
+        Calendar weekCal = Calendar.getInstance();
+
+        for (RollupDao.DailyRollupRow row : read.rows) {
+            boolean isExpense = "expense".equals(row.type);
+            boolean inMonth = row.dayStart >= startOfMonth && row.dayStart <= endOfMonth;
+
+            if (inMonth) {
+                if (isExpense) {
+                    totalExpenses += row.total;
+                    transactionCount += row.count;
+                    dailyTotals.merge(row.dayStart, row.total, Double::sum);
+                    categoryTotals.merge(row.category, row.total, Double::sum);
+                    if (row.isEssential) {
+                        needsTotal += row.total;
+                        hasNeeds = true;
+                    } else {
+                        wantsTotal += row.total;
+                        hasWants = true;
+                    }
+                } else if ("income".equals(row.type)) {
+                    totalIncome += row.total;
+                }
+            }
+
+            if (isExpense && row.dayStart >= startOfLastMonth && row.dayStart <= endOfLastMonth) {
+                lastMonthExpenses += row.total;
+            }
+
+            if (isExpense && row.dayStart >= fourWeeksAgo) {
+                weeklyTotals.merge(yearWeek(weekCal, row.dayStart), row.total, Double::sum);
+            }
+        }
+
+        double averageDaily = dailyTotals.isEmpty() || totalExpenses <= 0 ? 0 : totalExpenses / dailyTotals.size();
+
+        return new AnalyticsSnapshot(
+                year,
+                month,
+                totalIncome,
+                totalExpenses,
+                averageDaily,
+                lastMonthExpenses,
+                transactionCount,
+                read.highestExpense,
+                toDailySums(dailyTotals),
+                toWeeklySums(weeklyTotals),
+                toNeedsWants(hasNeeds, needsTotal, hasWants, wantsTotal),
+                toTopCategories(categoryTotals)
+        );
+    }
+
+    private static class MonthRead {
+        final List<RollupDao.DailyRollupRow> rows;
+        final Expense highestExpense;
+
+        MonthRead(List<RollupDao.DailyRollupRow> rows, Expense highestExpense) {
+            this.rows = rows;
+            this.highestExpense = highestExpense;
+        }
+    }
+
+    private static List<ExpenseDao.DailyExpenseSum> toDailySums(Map<Long, Double> dailyTotals) {
+        List<ExpenseDao.DailyExpenseSum> result = new ArrayList<>(dailyTotals.size());
+        Calendar calendar = Calendar.getInstance();
+        for (Map.Entry<Long, Double> entry : dailyTotals.entrySet()) {
+            calendar.setTimeInMillis(entry.getKey());
+            ExpenseDao.DailyExpenseSum sum = new ExpenseDao.DailyExpenseSum();
+            sum.day = String.format(Locale.US, "%02d", calendar.get(Calendar.DAY_OF_MONTH));
+            sum.dateStr = String.format(Locale.US, "%04d-%02d-%s",
+                    calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1, sum.day);
+            sum.total = entry.getValue();
+            result.add(sum);
+        }
+        return result;
+    }
+
+    private static List<ExpenseDao.WeeklyExpenseSum> toWeeklySums(Map<String, Double> weeklyTotals) {
+        List<ExpenseDao.WeeklyExpenseSum> result = new ArrayList<>(weeklyTotals.size());
+        for (Map.Entry<String, Double> entry : weeklyTotals.entrySet()) {
+            ExpenseDao.WeeklyExpenseSum sum = new ExpenseDao.WeeklyExpenseSum();
+            sum.yearWeek = entry.getKey();
+            sum.weekNumber = entry.getKey().substring(5);
+            sum.total = entry.getValue();
+            result.add(sum);
+        }
+        return result;
+    }
+
+    private static List<ExpenseDao.NeedsWantsSum> toNeedsWants(boolean hasNeeds, double needsTotal,
+                                                                boolean hasWants, double wantsTotal) {
+        List<ExpenseDao.NeedsWantsSum> result = new ArrayList<>(2);
+        if (hasWants) {
+            ExpenseDao.NeedsWantsSum wants = new ExpenseDao.NeedsWantsSum();
+            wants.isEssential = false;
+            wants.total = wantsTotal;
+            result.add(wants);
+        }
+        if (hasNeeds) {
+            ExpenseDao.NeedsWantsSum needs = new ExpenseDao.NeedsWantsSum();
+            needs.isEssential = true;
+            needs.total = needsTotal;
+            result.add(needs);
+        }
+        return result;
+    }
+
+    private static List<ExpenseDao.CategoryExpenseSum> toTopCategories(Map<String, Double> categoryTotals) {
+        List<ExpenseDao.CategoryExpenseSum> result = new ArrayList<>(categoryTotals.size());
+        for (Map.Entry<String, Double> entry : categoryTotals.entrySet()) {
+            ExpenseDao.CategoryExpenseSum sum = new ExpenseDao.CategoryExpenseSum();
+            sum.category = entry.getKey();
+            sum.total = entry.getValue();
+            result.add(sum);
+        }
+        Collections.sort(result, (a, b) -> Double.compare(b.total, a.total));
+        return result.size() > TOP_CATEGORY_LIMIT ? new ArrayList<>(result.subList(0, TOP_CATEGORY_LIMIT)) : result;
+    }
+
+    /**
+     * Same bucket as SQLite's strftime('%Y-%W'): week of year starting on Monday,
+     * with days before the first Monday in week 00
+     */
+    private static String yearWeek(Calendar calendar, long dayStart) {
+        calendar.setTimeInMillis(dayStart);
+        int dayOfYear = calendar.get(Calendar.DAY_OF_YEAR) - 1;
+        int weekday = (calendar.get(Calendar.DAY_OF_WEEK) + 5) % 7; // Monday = 0 ... Sunday = 6
+        int week = (dayOfYear + 7 - weekday) / 7;
+        return String.format(Locale.US, "%04d-%02d", calendar.get(Calendar.YEAR), week);
+    }
+}
@@ -3,22 +3,33 @@ package com.vishnu.expensetracker.repository;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.tracing.Trace;
 import com.vishnu.expensetracker.database.ExpenseDao;
+import com.vishnu.expensetracker.database.ExpenseDatabase;
 import com.vishnu.expensetracker.models.BalanceSummary;
 import com.vishnu.expensetracker.models.MonthlySummary;
+import com.vishnu.expensetracker.utils.AppExecutors;
+import com.vishnu.expensetracker.utils.Money;
 import com.vishnu.expensetracker.utils.MonthlyUtils;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import com.vishnu.expensetracker.utils.RefreshScheduler;
+import java.util.concurrent.Executor;
 
 /**
  * Repository for managing balance and monthly summary data
  * Acts as a single source of truth for financial calculations
+ * Figures come from the in-memory LedgerAggregator; SQLite is only queried until it is seeded.
  */
 public class BalanceRepository {
+    // Lets a burst of ledger changes share one refresh
+    private static final long REFRESH_DEBOUNCE_MS = 50;
+    
     private final ExpenseDao expenseDao;
+    private final LedgerAggregator ledger;
     private final MediatorLiveData<BalanceSummary> balanceSummaryLiveData;
     private final MutableLiveData<MonthlySummary> monthlySummaryLiveData;
-    private final ExecutorService executor;
+    private final Executor executor;
+    private final RefreshScheduler monthlyRefresh;
     
     // Monthly tracking LiveData
     private final MutableLiveData<Double> currentMonthExpenses;
@@ -26,37 +37,35 @@ public class BalanceRepository {
     private final MutableLiveData<Double> previousMonthExpenses;
     private final MutableLiveData<String> monthComparisonMessage;
     
-    public BalanceRepository(ExpenseDao expenseDao) {
-        this.expenseDao = expenseDao;
+    // Overall totals derived from the ledger
+    private final LiveData<Double> totalIncome;
+    private final LiveData<Double> totalExpenses;
+    private final LiveData<Double> currentBalance;
+    
+    public BalanceRepository(ExpenseDatabase database) {
+        this.expenseDao = database.expenseDao();
+        this.ledger = LedgerAggregator.getInstance(database);
         this.balanceSummaryLiveData = new MediatorLiveData<>();
         this.monthlySummaryLiveData = new MutableLiveData<>();
-        this.executor = Executors.newSingleThreadExecutor();
+        this.executor = AppExecutors.getInstance().diskRead();
+        this.monthlyRefresh = new RefreshScheduler(executor, this::loadMonthlyData, REFRESH_DEBOUNCE_MS);
         
         this.currentMonthExpenses = new MutableLiveData<>(0.0);
         this.currentMonthIncome = new MutableLiveData<>(0.0);
         this.previousMonthExpenses = new MutableLiveData<>(0.0);
         this.monthComparisonMessage = new MutableLiveData<>("");
         
+        this.totalIncome = Transformations.map(ledger.getBalanceSummary(), BalanceSummary::getTotalIncome);
+        this.totalExpenses = Transformations.map(ledger.getBalanceSummary(), BalanceSummary::getTotalExpenses);
+        this.currentBalance = Transformations.map(ledger.getBalanceSummary(), BalanceSummary::getCurrentBalance);
+        
         setupBalanceCalculation();
     }
     
     private void setupBalanceCalculation() {
-        LiveData<Double> incomeLiveData = expenseDao.getTotalIncome();
-        LiveData<Double> expensesLiveData = expenseDao.getTotalExpenses();
-        
-        balanceSummaryLiveData.addSource(incomeLiveData, income -> {
-            Double currentIncome = income != null ? income : 0.0;
-            Double currentExpenses = expensesLiveData.getValue() != null ? expensesLiveData.getValue() : 0.0;
-            balanceSummaryLiveData.setValue(new BalanceSummary(currentIncome, currentExpenses));
-            // Also refresh monthly data when income changes
-            refreshMonthlyData();
-        });
-        
-        balanceSummaryLiveData.addSource(expensesLiveData, expenses -> {
-            Double currentExpenses = expenses != null ? expenses : 0.0;
-            Double currentIncome = incomeLiveData.getValue() != null ? incomeLiveData.getValue() : 0.0;
-            balanceSummaryLiveData.setValue(new BalanceSummary(currentIncome, currentExpenses));
-            // Also refresh monthly data when expenses change
+        // The ledger emits once after seeding and after every change
+        balanceSummaryLiveData.addSource(ledger.getBalanceSummary(), summary -> {
+            balanceSummaryLiveData.setValue(summary);
             refreshMonthlyData();
         });
     }
@@ -66,15 +75,15 @@ public class BalanceRepository {
     }
     
     public LiveData<Double> getTotalIncome() {
-        return expenseDao.getTotalIncome();
+        return totalIncome;
     }
     
     public LiveData<Double> getTotalExpenses() {
-        return expenseDao.getTotalExpenses();
+        return totalExpenses;
     }
     
     public LiveData<Double> getCurrentBalance() {
-        return expenseDao.getCurrentBalance();
+        return currentBalance;
     }
     
     // ========== MONTHLY TRACKING ==========
@@ -101,54 +110,54 @@ public class BalanceRepository {
     
     /**
      * Refresh all monthly tracking data
+     * Requests made in quick succession are merged into one load
      */
     public void refreshMonthlyData() {
-        executor.execute(() -> {
-            try {
-                // Get current and previous month ranges
-                MonthlyUtils.DateRange currentRange = MonthlyUtils.getCurrentMonthRange();
-                MonthlyUtils.DateRange previousRange = MonthlyUtils.getPreviousMonthRange();
-                
-                // Calculate current month totals
-                double currentExpense = expenseDao.getMonthlyExpenseTotalSync(
-                        currentRange.getStartTimestamp(),
-                        currentRange.getEndTimestamp()
-                );
-                
-                double currentIncome = expenseDao.getMonthlyIncomeTotalSync(
-                        currentRange.getStartTimestamp(),
-                        currentRange.getEndTimestamp()
-                );
-                
-                // Calculate previous month expense for comparison
-                double prevExpense = expenseDao.getMonthlyExpenseTotalSync(
-                        previousRange.getStartTimestamp(),
-                        previousRange.getEndTimestamp()
-                );
-                
-                // Update individual LiveData
-                currentMonthExpenses.postValue(currentExpense);
-                currentMonthIncome.postValue(currentIncome);
-                previousMonthExpenses.postValue(prevExpense);
-                
-                // Generate comparison message
-                String comparisonMsg = MonthlyUtils.getSpendingComparisonMessage(currentExpense, prevExpense);
-                monthComparisonMessage.postValue(comparisonMsg);
-                
-                // Create and post MonthlySummary
-                MonthlySummary summary = new MonthlySummary(
-                        currentIncome,
-                        currentExpense,
-                        prevExpense,
-                        0.0, // Default budget
-                        currentRange.getDisplayName()
-                );
-                monthlySummaryLiveData.postValue(summary);
-                
-            } catch (Exception e) {
-                android.util.Log.e("BalanceRepository", "Error refreshing monthly data", e);
-            }
-        });
+        monthlyRefresh.request();
+    }
+    
+    /**
+     * Get the scheduler behind refreshMonthlyData (for suspending refreshes or reading its counters)
+     */
+    public RefreshScheduler getMonthlyRefreshScheduler() {
+        return monthlyRefresh;
+    }
+    
+    private void loadMonthlyData() {
+        Trace.beginSection("BalanceRepository.refreshMonthlyData");
+        try {
+            // Get current and previous month ranges
+            MonthlyUtils.DateRange currentRange = MonthlyUtils.getCurrentMonthRange();
+            MonthlyUtils.DateRange previousRange = MonthlyUtils.getPreviousMonthRange();
+            
+            double currentExpense = getMonthExpenses(currentRange);
+            double currentIncome = getMonthIncome(currentRange);
+            double prevExpense = getMonthExpenses(previousRange);
+            
+            // Update individual LiveData
+            currentMonthExpenses.postValue(currentExpense);
+            currentMonthIncome.postValue(currentIncome);
+            previousMonthExpenses.postValue(prevExpense);
+            
+            // Generate comparison message
+            String comparisonMsg = MonthlyUtils.getSpendingComparisonMessage(currentExpense, prevExpense);
+            monthComparisonMessage.postValue(comparisonMsg);
+            
+            // Create and post MonthlySummary
+            MonthlySummary summary = new MonthlySummary(
+                    currentIncome,
+                    currentExpense,
+                    prevExpense,
+                    0.0, // Default budget
+                    currentRange.getDisplayName()
+            );
+            monthlySummaryLiveData.postValue(summary);
+            
+        } catch (Exception e) {
+            android.util.Log.e("BalanceRepository", "Error refreshing monthly data", e);
+        } finally {
+            Trace.endSection();
+        }
     }
     
     /**
@@ -160,20 +169,9 @@ public class BalanceRepository {
                 MonthlyUtils.DateRange currentRange = MonthlyUtils.getCurrentMonthRange();
                 MonthlyUtils.DateRange previousRange = MonthlyUtils.getPreviousMonthRange();
                 
-                double currentExpense = expenseDao.getMonthlyExpenseTotalSync(
-                        currentRange.getStartTimestamp(),
-                        currentRange.getEndTimestamp()
-                );
-                
-                double currentIncome = expenseDao.getMonthlyIncomeTotalSync(
-                        currentRange.getStartTimestamp(),
-                        currentRange.getEndTimestamp()
-                );
-                
-                double prevExpense = expenseDao.getMonthlyExpenseTotalSync(
-                        previousRange.getStartTimestamp(),
-                        previousRange.getEndTimestamp()
-                );
+                double currentExpense = getMonthExpenses(currentRange);
+                double currentIncome = getMonthIncome(currentRange);
+                double prevExpense = getMonthExpenses(previousRange);
                 
                 MonthlySummary summary = new MonthlySummary(
                         currentIncome,
@@ -194,6 +192,20 @@ public class BalanceRepository {
         });
     }
     
+    private double getMonthExpenses(MonthlyUtils.DateRange range) {
+        if (ledger.isSeeded()) {
+            return ledger.getMonthExpenses(range.getStartTimestamp());
+        }
+        return Money.toMajor(expenseDao.getMonthlyExpenseTotalMinorSync(range.getStartTimestamp(), range.getEndTimestamp()));
+    }
+    
+    private double getMonthIncome(MonthlyUtils.DateRange range) {
+        if (ledger.isSeeded()) {
+            return ledger.getMonthIncome(range.getStartTimestamp());
+        }
+        return Money.toMajor(expenseDao.getMonthlyIncomeTotalMinorSync(range.getStartTimestamp(), range.getEndTimestamp()));
+    }
+    
     /**
      * Get LiveData for monthly income using timestamp range
      */
@@ -0,0 +1,198 @@
+package com.vishnu.expensetracker.repository;
+
+import android.database.Cursor;
+import com.vishnu.expensetracker.database.ExpenseDao;
+import com.vishnu.expensetracker.database.ExpenseDatabase;
+import com.vishnu.expensetracker.database.TransactionChangeNotifier;
+import com.vishnu.expensetracker.models.Expense;
+import com.vishnu.expensetracker.utils.AppExecutors;
+import com.vishnu.expensetracker.utils.BloomFilter;
+import com.vishnu.expensetracker.utils.Fingerprint;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Finds transactions that duplicate existing ones
+ * Exact duplicates share a fingerprint (see Fingerprint). A Bloom filter of every live
+ * fingerprint is loaded at startup and kept current from TransactionChangeNotifier, so bulk
+ * imports can rule out almost every new row without a query; only filter hits are confirmed
+ * against the fingerprint index. Fuzzy matches (same type and amount within a day either side,
+ * similar title) are offered for review on manual entry, never skipped automatically.
+ * Fingerprints bucket by local day, so they are only comparable when computed in the same time
+ * zone: ExpenseTrackerApplication recomputes the stored ones whenever the zone differs from the
+ * one they were computed in, and the filter is rebuilt from the result.
+ */
+public class DuplicateDetector implements TransactionChangeNotifier.Listener {
+
+    private static final String TAG = "DuplicateDetector";
+    private static final String LOAD_QUERY = "SELECT fingerprint FROM expenses WHERE is_deleted = 0";
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int MIN_CAPACITY = 10000;
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final int MAX_MATCHES = 5;
+    private static final double MIN_TITLE_SIMILARITY = 0.5;
+
+    private static DuplicateDetector instance;
+
+    private final ExpenseDatabase database;
+    private final ExpenseDao expenseDao;
+
+    // Guarded by this; null until loaded
+    private BloomFilter filter;
+    private int capacity;
+    private boolean reloadPending;
+
+    private DuplicateDetector(ExpenseDatabase database) {
+        this.database = database;
+        this.expenseDao = database.expenseDao();
+    }
+
+    public static synchronized DuplicateDetector getInstance(ExpenseDatabase database) {
+        if (instance == null) {
+            instance = new DuplicateDetector(database);
+            TransactionChangeNotifier.addListener(instance);
+            AppExecutors.getInstance().diskWrite().execute(instance::load);
+        }
+        return instance;
+    }
+
+    // ========== CHECKS ==========
+
+    /**
+     * False if no live transaction has this fingerprint; true if one may (or the filter is not loaded yet)
+     */
+    public synchronized boolean mightExist(long fingerprint) {
+        return filter == null || filter.mightContain(fingerprint);
+    }
+
+    /**
+     * True if a live transaction up to maxId has this fingerprint (blocking; filter first, then the index)
+     */
+    public boolean exists(long fingerprint, int maxId) {
+        return mightExist(fingerprint) && expenseDao.countLiveByFingerprint(fingerprint, maxId) > 0;
+    }
+
+    /**
+     * Live transactions that look like the candidate, exact fingerprint matches first (blocking)
+     */
+    public List<Expense> findPossibleDuplicates(Expense candidate) {
+        List<Expense> matches = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        long fingerprint = Fingerprint.of(candidate);
+        if (mightExist(fingerprint)) {
+            for (Expense match : expenseDao.getLiveByFingerprint(fingerprint, MAX_MATCHES)) {
+                if (match.getId() != candidate.getId() && seen.add(match.getId())) {
+                    matches.add(match);
+                }
+            }
+        }
+        if (candidate.getDate() == null || matches.size() >= MAX_MATCHES) {
+            return matches;
+        }
+        long date = candidate.getDate().getTime();
+        Set<String> words = words(candidate.getTitle());
+        for (Expense match : expenseDao.getLiveByAmountAndDateRange(candidate.getType(),
+                candidate.getAmountMinor(), date - DAY_MS, date + DAY_MS, MAX_MATCHES * 4)) {
+            if (matches.size() >= MAX_MATCHES) {
+                break;
+            }
+            if (match.getId() != candidate.getId() && !seen.contains(match.getId())
+                    && similarity(words, words(match.getTitle())) >= MIN_TITLE_SIMILARITY) {
+                seen.add(match.getId());
+                matches.add(match);
+            }
+        }
+        return matches;
+    }
+
+    private static Set<String> words(String title) {
+        Set<String> words = new HashSet<>();
+        if (title != null) {
+            for (String word : title.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if (!word.isEmpty()) {
+                    words.add(word);
+                }
+            }
+        }
+        return words;
+    }
+
+    // Jaccard similarity of the title words
+    private static double similarity(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        int common = 0;
+        for (String word : a) {
+            if (b.contains(word)) {
+                common++;
+            }
+        }
+        return (double) common / (a.size() + b.size() - common);
+    }
+
+    // ========== CHANGES ==========
+
+    @Override
+    public void onInserted(Expense expense) {
+        add(expense);
+    }
+
+    @Override
+    public void onUpdated(Expense before, Expense after) {
+        if (!after.isDeleted()) {
+            add(after);
+        }
+    }
+
+    @Override
+    public void onDeleted(Expense expense) {
+        // Bloom filters cannot remove keys; the stale key only costs an occasional index lookup
+    }
+
+    @Override
+    public void onRestored(Expense expense) {
+        add(expense);
+    }
+
+    @Override
+    public void onBulkChange() {
+        // Called on the write thread after the bulk write committed
+        load();
+    }
+
+    private synchronized void add(Expense expense) {
+        if (filter == null) {
+            return; // Not loaded yet; the load reads this row
+        }
+        if (filter.size() >= capacity && !reloadPending) {
+            // Over capacity the false positive rate climbs; resize on the write thread
+            reloadPending = true;
+            AppExecutors.getInstance().diskWrite().execute(this::load);
+        }
+        filter.put(expense.getFingerprint() != 0 ? expense.getFingerprint() : Fingerprint.of(expense));
+    }
+
+    /**
+     * Rebuild the filter from every live fingerprint (blocking; runs on the write thread)
+     */
+    private void load() {
+        try (Cursor cursor = database.query(LOAD_QUERY, null)) {
+            int size = Math.max(MIN_CAPACITY, cursor.getCount() * 2);
+            BloomFilter loaded = new BloomFilter(size, FALSE_POSITIVE_RATE);
+            while (cursor.moveToNext()) {
+                loaded.put(cursor.getLong(0));
+            }
+            synchronized (this) {
+                filter = loaded;
+                capacity = size;
+                reloadPending = false;
+            }
+        } catch (Exception e) {
+            android.util.Log.e(TAG, "Error loading duplicate filter", e);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.vishnu.expensetracker.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import com.vishnu.expensetracker.database.ExpenseDao;
+import com.vishnu.expensetracker.database.ExpenseDatabase;
+import com.vishnu.expensetracker.database.RollupDao;
+import com.vishnu.expensetracker.database.TransactionChangeNotifier;
+import com.vishnu.expensetracker.models.BalanceSummary;
+import com.vishnu.expensetracker.models.Expense;
+import com.vishnu.expensetracker.utils.AppExecutors;
+import com.vishnu.expensetracker.utils.Money;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory income/expense totals, overall and per month and category
+ * Seeded once from the monthly rollup, then kept current by applying each change reported by
+ * TransactionChangeNotifier, so balance and monthly figures are O(1) reads with no SQLite query.
+ * Accumulators are exact long paise; the double getters convert on the way out.
+ * Seeding and drift checks run on the write thread, so no write can interleave with them.
+ * Drift checks only run while the balance LiveData has active observers.
+ */
+public class LedgerAggregator implements TransactionChangeNotifier.Listener {
+
+    private static final String TAG = "LedgerAggregator";
+    private static final long DRIFT_CHECK_INTERVAL_MS = 15 * 60 * 1000L;
+
+    private static LedgerAggregator instance;
+
+    private final ExpenseDao expenseDao;
+    private final RollupDao rollupDao;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable driftCheck = new Runnable() {
+        @Override
+        public void run() {
+            AppExecutors.getInstance().diskWrite().execute(LedgerAggregator.this::checkDrift);
+            handler.postDelayed(this, DRIFT_CHECK_INTERVAL_MS);
+        }
+    };
+    // Active and inactive are called on the main thread, like the handler
+    private final MutableLiveData<BalanceSummary> balanceSummary = new MutableLiveData<BalanceSummary>() {
+        @Override
+        protected void onActive() {
+            handler.removeCallbacks(driftCheck);
+            handler.postDelayed(driftCheck, DRIFT_CHECK_INTERVAL_MS);
+        }
+
+        @Override
+        protected void onInactive() {
+            handler.removeCallbacks(driftCheck);
+        }
+    };
+
+    // Guarded by this
+    private boolean seeded;
+    private long totalIncome;
+    private long totalExpenses;
+    private final Map<Long, MonthTotals> months = new HashMap<>();
+    private long driftRepairs;
+
+    /**
+     * Accumulators for one local-time month
+     */
+    private static class MonthTotals {
+        long income;
+        long expenses;
+        final Map<String, long[]> expensesByCategory = new HashMap<>();
+    }
+
+    private LedgerAggregator(ExpenseDatabase database) {
+        this.expenseDao = database.expenseDao();
+        this.rollupDao = database.rollupDao();
+    }
+
+    public static synchronized LedgerAggregator getInstance(ExpenseDatabase database) {
+        if (instance == null) {
+            instance = new LedgerAggregator(database);
+            TransactionChangeNotifier.addListener(instance);
+            AppExecutors.getInstance().diskWrite().execute(instance::seed);
+        }
+        return instance;
+    }
+
+    // ========== READS ==========
+
+    /**
+     * Overall balance; emits after seeding and after every change
+     */
+    public LiveData<BalanceSummary> getBalanceSummary() {
+        return balanceSummary;
+    }
+
+    public synchronized boolean isSeeded() {
+        return seeded;
+    }
+
+    public synchronized long getTotalIncomeMinor() {
+        return totalIncome;
+    }
+
+    public synchronized long getTotalExpensesMinor() {
+        return totalExpenses;
+    }
+
+    public double getTotalIncome() {
+        return Money.toMajor(getTotalIncomeMinor());
+    }
+
+    public double getTotalExpenses() {
+        return Money.toMajor(getTotalExpensesMinor());
+    }
+
+    /**
+     * @param monthStart Local start of the month in epoch millis (as MonthlyUtils.DateRange.getStartTimestamp())
+     */
+    public synchronized long getMonthIncomeMinor(long monthStart) {
+        MonthTotals totals = months.get(monthStart);
+        return totals != null ? totals.income : 0;
+    }
+
+    public synchronized long getMonthExpensesMinor(long monthStart) {
+        MonthTotals totals = months.get(monthStart);
+        return totals != null ? totals.expenses : 0;
+    }
+
+    public double getMonthIncome(long monthStart) {
+        return Money.toMajor(getMonthIncomeMinor(monthStart));
+    }
+
+    public double getMonthExpenses(long monthStart) {
+        return Money.toMajor(getMonthExpensesMinor(monthStart));
+    }
+
+    /**
+     * Expense totals by category for a month (a copy)
+     */
+    public synchronized Map<String, Double> getMonthExpensesByCategory(long monthStart) {
+        Map<String, Double> result = new HashMap<>();
+        MonthTotals totals = months.get(monthStart);
+        if (totals != null) {
+            for (Map.Entry<String, long[]> entry : totals.expensesByCategory.entrySet()) {
+                result.put(entry.getKey(), Money.toMajor(entry.getValue()[0]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Number of times the periodic check found the in-memory totals out of sync
+     */
+    public synchronized long getDriftRepairCount() {
+        return driftRepairs;
+    }
+
+    // ========== CHANGES ==========
+
+    @Override
+    public void onInserted(Expense expense) {
+        apply(expense, 1);
+    }
+
+    @Override
+    public void onUpdated(Expense before, Expense after) {
+        synchronized (this) {
+            if (!seeded) {
+                return;
+            }
+            if (!before.isDeleted()) {
+                add(before, -1);
+            }
+            if (!after.isDeleted()) {
+                add(after, 1);
+            }
+        }
+        publish();
+    }
+
+    @Override
+    public void onDeleted(Expense expense) {
+        apply(expense, -1);
+    }
+
+    @Override
+    public void onRestored(Expense expense) {
+        apply(expense, 1);
+    }
+
+    @Override
+    public void onBulkChange() {
+        // Called on the write thread after the bulk write committed
+        seed();
+    }
+
+    private void apply(Expense expense, int sign) {
+        synchronized (this) {
+            // Changes before the first seed are already part of the state the seed reads
+            if (!seeded) {
+                return;
+            }
+            add(expense, sign);
+        }
+        publish();
+    }
+
+    // Caller holds the lock
+    private void add(Expense expense, int sign) {
+        long amount = sign * expense.getAmountMinor();
+        MonthTotals month = monthContaining(expense.getDate() != null ? expense.getDate().getTime() : 0);
+        if ("income".equals(expense.getType())) {
+            totalIncome += amount;
+            month.income += amount;
+        } else if ("expense".equals(expense.getType())) {
+            totalExpenses += amount;
+            month.expenses += amount;
+            String category = expense.getCategory() != null ? expense.getCategory() : "";
+            long[] categoryTotal = month.expensesByCategory.get(category);
+            if (categoryTotal == null) {
+                categoryTotal = new long[1];
+                month.expensesByCategory.put(category, categoryTotal);
+            }
+            categoryTotal[0] += amount;
+        }
+    }
+
+    // Caller holds the lock
+    private MonthTotals monthContaining(long timestamp) {
+        // A new Calendar each time, so months follow the current default time zone like MonthlyUtils
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(timestamp);
+        calendar.set(Calendar.DAY_OF_MONTH, 1);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return monthFor(calendar.getTimeInMillis());
+    }
+
+    // Caller holds the lock
+    private MonthTotals monthFor(long monthStart) {
+        MonthTotals totals = months.get(monthStart);
+        if (totals == null) {
+            totals = new MonthTotals();
+            months.put(monthStart, totals);
+        }
+        return totals;
+    }
+
+    private void publish() {
+        BalanceSummary summary;
+        synchronized (this) {
+            summary = new BalanceSummary(Money.toMajor(totalIncome), Money.toMajor(totalExpenses));
+        }
+        balanceSummary.postValue(summary);
+    }
+
+    // ========== SEEDING AND DRIFT CHECKS ==========
+
+    /**
+     * Rebuild all accumulators from the monthly rollup (blocking; runs on the write thread)
+     */
+    private void seed() {
+        try {
+            load(rollupDao.getMonthlyRollupRows());
+            publish();
+        } catch (Exception e) {
+            android.util.Log.e(TAG, "Error seeding ledger", e);
+        }
+    }
+
+    private synchronized void load(List<RollupDao.MonthlyRollupRow> rows) {
+        totalIncome = 0;
+        totalExpenses = 0;
+        months.clear();
+        for (RollupDao.MonthlyRollupRow row : rows) {
+            MonthTotals month = monthFor(row.monthStart);
+            if ("income".equals(row.type)) {
+                totalIncome += row.totalMinor;
+                month.income += row.totalMinor;
+            } else if ("expense".equals(row.type)) {
+                totalExpenses += row.totalMinor;
+                month.expenses += row.totalMinor;
+                long[] categoryTotal = month.expensesByCategory.get(row.category);
+                if (categoryTotal == null) {
+                    categoryTotal = new long[1];
+                    month.expensesByCategory.put(row.category, categoryTotal);
+                }
+                categoryTotal[0] += row.totalMinor;
+            }
+        }
+        seeded = true;
+    }
+
+    /**
+     * Compare the accumulators with SQL totals and reseed if they drifted (runs on the write thread)
+     * Overall totals are checked against the raw rows, per-month totals against the rollup.
+     */
+    private void checkDrift() {
+        try {
+            long sqlIncome = expenseDao.getTotalMinorByTypeSync("income");
+            long sqlExpenses = expenseDao.getTotalMinorByTypeSync("expense");
+            List<RollupDao.MonthlyRollupRow> rows = rollupDao.getMonthlyRollupRows();
+
+            boolean drifted;
+            synchronized (this) {
+                if (!seeded) {
+                    return;
+                }
+                // Sums are exact, so any difference is drift
+                drifted = totalIncome != sqlIncome || totalExpenses != sqlExpenses || monthsDiffer(rows);
+                if (drifted) {
+                    driftRepairs++;
+                }
+            }
+            if (drifted) {
+                android.util.Log.w(TAG, "Ledger totals drifted from the database, reseeding");
+                load(rows);
+                publish();
+            }
+        } catch (Exception e) {
+            android.util.Log.e(TAG, "Ledger drift check failed", e);
+        }
+    }
+
+    // Caller holds the lock
+    private boolean monthsDiffer(List<RollupDao.MonthlyRollupRow> rows) {
+        Map<Long, long[]> expected = new HashMap<>();
+        for (RollupDao.MonthlyRollupRow row : rows) {
+            long[] totals = expected.get(row.monthStart);
+            if (totals == null) {
+                totals = new long[2];
+                expected.put(row.monthStart, totals);
+            }
+            if ("income".equals(row.type)) {
+                totals[0] += row.totalMinor;
+            } else if ("expense".equals(row.type)) {
+                totals[1] += row.totalMinor;
+            }
+        }
+        for (Map.Entry<Long, MonthTotals> entry : months.entrySet()) {
+            long[] totals = expected.remove(entry.getKey());
+            long income = totals != null ? totals[0] : 0;
+            long expenses = totals != null ? totals[1] : 0;
+            if (entry.getValue().income != income || entry.getValue().expenses != expenses) {
+                return true;
+            }
+        }
+        // Months the database has but memory does not
+        for (long[] totals : expected.values()) {
+            if (totals[0] != 0 || totals[1] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
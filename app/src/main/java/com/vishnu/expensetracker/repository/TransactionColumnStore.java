@@ -0,0 +1,585 @@
+package com.vishnu.expensetracker.repository;
+
+import android.database.Cursor;
+import androidx.annotation.VisibleForTesting;
+import com.vishnu.expensetracker.database.ExpenseDao;
+import com.vishnu.expensetracker.database.ExpenseDatabase;
+import com.vishnu.expensetracker.database.RollupDao;
+import com.vishnu.expensetracker.database.TransactionChangeNotifier;
+import com.vishnu.expensetracker.models.Expense;
+import com.vishnu.expensetracker.utils.AppExecutors;
+import com.vishnu.expensetracker.utils.Money;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented in-memory copy of the live transactions for analytics
+ * Each field is a primitive array indexed by row and rows are sorted by (date, id), so a date
+ * range is two binary searches and every aggregate is one loop over that slice. Category and
+ * subcategory are dictionary-encoded ints; type, essential flag and payment method are bitsets.
+ * Optional: built on first use by getInstance(), then kept current from TransactionChangeNotifier.
+ * The shared store is a listener for the rest of the process once AnalyticsActivity creates it;
+ * bulk changes rebuild it on a read thread and swap the copy in, so writes never wait on a reload.
+ */
+public class TransactionColumnStore implements TransactionChangeNotifier.Listener {
+
+    private static final String TAG = "TransactionColumnStore";
+    private static final String LOAD_QUERY =
+            "SELECT id, date, amount_minor, type, category, subcategory, is_essential, payment_method " +
+            "FROM expenses WHERE is_deleted = 0 ORDER BY date ASC, id ASC";
+
+    private static TransactionColumnStore instance;
+
+    private final ExpenseDatabase database;
+
+    // Guarded by this; replaced wholesale by a (re)load so readers never see a half-built copy
+    private Columns columns;
+    // Guarded by this; bumped by every change so a rebuild can tell whether it missed one
+    private int generation;
+    private boolean reloadPending;
+
+    private TransactionColumnStore(ExpenseDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * The shared store; the first call starts loading it on a read thread
+     */
+    public static synchronized TransactionColumnStore getInstance(ExpenseDatabase database) {
+        if (instance == null) {
+            instance = new TransactionColumnStore(database);
+            TransactionChangeNotifier.addListener(instance);
+            instance.requestReload();
+        }
+        return instance;
+    }
+
+    /**
+     * A store loaded now on the calling thread that does not follow later changes (benchmarks)
+     */
+    @VisibleForTesting
+    public static TransactionColumnStore loadDetached(ExpenseDatabase database) {
+        TransactionColumnStore store = new TransactionColumnStore(database);
+        store.columns = store.load();
+        return store;
+    }
+
+    // ========== QUERIES ==========
+    // Ranges are inclusive on both ends, like the DAO month ranges
+
+    public synchronized boolean isLoaded() {
+        return columns != null;
+    }
+
+    public synchronized int size() {
+        return columns != null ? columns.size : 0;
+    }
+
+    /**
+     * Exact total in paise of one type ("income" / "expense") in a date range
+     */
+    public synchronized long sumMinor(String type, long startDate, long endDate) {
+        if (columns == null) {
+            return 0;
+        }
+        RowBits typeRows = columns.typeRows(type);
+        int from = columns.lowerBound(startDate);
+        int to = columns.upperBound(endDate);
+        long[] amounts = columns.amounts;
+        long sum = 0;
+        for (int row = from; row < to; row++) {
+            if (typeRows.get(row)) {
+                sum += amounts[row];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Number of transactions of one type in a date range
+     */
+    public synchronized int count(String type, long startDate, long endDate) {
+        if (columns == null) {
+            return 0;
+        }
+        return columns.typeRows(type).count(columns.lowerBound(startDate), columns.upperBound(endDate));
+    }
+
+    /**
+     * Largest expense categories in a date range, highest first
+     */
+    public synchronized List<ExpenseDao.CategoryExpenseSum> getTopCategories(long startDate, long endDate, int limit) {
+        List<ExpenseDao.CategoryExpenseSum> result = new ArrayList<>();
+        if (columns == null) {
+            return result;
+        }
+        long[] totals = new long[columns.categories.size()];
+        int from = columns.lowerBound(startDate);
+        int to = columns.upperBound(endDate);
+        for (int row = from; row < to; row++) {
+            if (columns.expenseRows.get(row)) {
+                totals[columns.categoryCodes[row]] += columns.amounts[row];
+            }
+        }
+        for (int code = 0; code < totals.length; code++) {
+            if (totals[code] != 0) {
+                ExpenseDao.CategoryExpenseSum sum = new ExpenseDao.CategoryExpenseSum();
+                sum.category = columns.categories.decode(code);
+                sum.total = Money.toMajor(totals[code]);
+                result.add(sum);
+            }
+        }
+        Collections.sort(result, (a, b) -> Double.compare(b.total, a.total));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * Expense totals per payment method in a date range
+     */
+    public synchronized Map<String, Double> getExpenseTotalsByPaymentMethod(long startDate, long endDate) {
+        Map<String, Double> result = new HashMap<>();
+        if (columns == null) {
+            return result;
+        }
+        int from = columns.lowerBound(startDate);
+        int to = columns.upperBound(endDate);
+        for (int code = 0; code < columns.paymentMethodRows.size(); code++) {
+            RowBits methodRows = columns.paymentMethodRows.get(code);
+            long sum = 0;
+            for (int row = from; row < to; row++) {
+                if (methodRows.get(row) && columns.expenseRows.get(row)) {
+                    sum += columns.amounts[row];
+                }
+            }
+            if (sum != 0) {
+                result.put(columns.paymentMethods.decode(code), Money.toMajor(sum));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Id of the largest expense in a date range, or -1 if there is none
+     */
+    public synchronized int getHighestExpenseId(long startDate, long endDate) {
+        if (columns == null) {
+            return -1;
+        }
+        int best = -1;
+        int from = columns.lowerBound(startDate);
+        int to = columns.upperBound(endDate);
+        for (int row = from; row < to; row++) {
+            if (columns.expenseRows.get(row) && (best < 0 || columns.amounts[row] > columns.amounts[best])) {
+                best = row;
+            }
+        }
+        return best < 0 ? -1 : columns.ids[best];
+    }
+
+    /**
+     * The same buckets as the daily_totals rollup (local day, type, category, essential flag),
+     * so AnalyticsRepository can build a snapshot from either source
+     */
+    public synchronized List<RollupDao.DailyRollupRow> getDailyRows(long startDate, long endDate) {
+        List<RollupDao.DailyRollupRow> result = new ArrayList<>();
+        if (columns == null) {
+            return result;
+        }
+        // Bucket = (category * 3 + type) * 2 + essential, with type 0 other, 1 income, 2 expense
+        int bucketCount = columns.categories.size() * 6;
+        long[] sums = new long[bucketCount];
+        int[] counts = new int[bucketCount];
+        int[] touched = new int[bucketCount];
+        int touchedCount = 0;
+
+        Calendar calendar = Calendar.getInstance();
+        long dayStart = 0;
+        long nextDayStart = Long.MIN_VALUE;
+        int from = columns.lowerBound(startDate);
+        int to = columns.upperBound(endDate);
+        for (int row = from; row < to; row++) {
+            long date = columns.dates[row];
+            if (date >= nextDayStart) {
+                // Rows are sorted, so a day's buckets are complete once a later day starts
+                touchedCount = flushDay(dayStart, sums, counts, touched, touchedCount, result);
+                calendar.setTimeInMillis(date);
+                calendar.set(Calendar.HOUR_OF_DAY, 0);
+                calendar.set(Calendar.MINUTE, 0);
+                calendar.set(Calendar.SECOND, 0);
+                calendar.set(Calendar.MILLISECOND, 0);
+                dayStart = calendar.getTimeInMillis();
+                calendar.add(Calendar.DAY_OF_MONTH, 1);
+                nextDayStart = calendar.getTimeInMillis();
+            }
+            int type = columns.incomeRows.get(row) ? 1 : columns.expenseRows.get(row) ? 2 : 0;
+            int bucket = (columns.categoryCodes[row] * 3 + type) * 2 + (columns.essentialRows.get(row) ? 1 : 0);
+            if (counts[bucket] == 0) {
+                touched[touchedCount++] = bucket;
+            }
+            sums[bucket] += columns.amounts[row];
+            counts[bucket]++;
+        }
+        flushDay(dayStart, sums, counts, touched, touchedCount, result);
+        return result;
+    }
+
+    // Caller holds the lock
+    private int flushDay(long dayStart, long[] sums, int[] counts, int[] touched, int touchedCount,
+                         List<RollupDao.DailyRollupRow> result) {
+        for (int i = 0; i < touchedCount; i++) {
+            int bucket = touched[i];
+            int type = (bucket / 2) % 3;
+            RollupDao.DailyRollupRow row = new RollupDao.DailyRollupRow();
+            row.dayStart = dayStart;
+            row.type = type == 1 ? "income" : type == 2 ? "expense" : "";
+            row.category = columns.categories.decode(bucket / 6);
+            row.isEssential = bucket % 2 == 1;
+            row.total = Money.toMajor(sums[bucket]);
+            row.count = counts[bucket];
+            result.add(row);
+            sums[bucket] = 0;
+            counts[bucket] = 0;
+        }
+        return 0;
+    }
+
+    // ========== CHANGES ==========
+
+    @Override
+    public synchronized void onInserted(Expense expense) {
+        generation++;
+        if (columns != null) {
+            columns.insert(expense);
+        }
+    }
+
+    @Override
+    public synchronized void onUpdated(Expense before, Expense after) {
+        generation++;
+        if (columns == null) {
+            return;
+        }
+        if (!before.isDeleted()) {
+            columns.remove(before);
+        }
+        if (!after.isDeleted()) {
+            columns.insert(after);
+        }
+    }
+
+    @Override
+    public synchronized void onDeleted(Expense expense) {
+        generation++;
+        if (columns != null) {
+            columns.remove(expense);
+        }
+    }
+
+    @Override
+    public synchronized void onRestored(Expense expense) {
+        generation++;
+        if (columns != null) {
+            columns.insert(expense);
+        }
+    }
+
+    @Override
+    public synchronized void onBulkChange() {
+        // Called on the write thread after the bulk write committed; the rebuild runs elsewhere
+        generation++;
+        requestReload();
+    }
+
+    /**
+     * Queue one rebuild on a read thread; requests made while one is pending share it
+     */
+    private synchronized void requestReload() {
+        if (!reloadPending) {
+            reloadPending = true;
+            AppExecutors.getInstance().diskRead().execute(this::reload);
+        }
+    }
+
+    /**
+     * Load and swap in a fresh copy, loading again if a change was notified while the cursor ran,
+     * since that change may be missing from the copy. Meanwhile queries see the previous copy,
+     * still updated row by row.
+     */
+    private void reload() {
+        while (true) {
+            int started;
+            synchronized (this) {
+                started = generation;
+            }
+            Columns loaded = load();
+            synchronized (this) {
+                if (loaded == null || generation == started) {
+                    if (loaded != null) {
+                        columns = loaded;
+                    }
+                    reloadPending = false;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Build a fresh copy from the expenses table with one cursor (blocking), or null if it failed
+     */
+    private Columns load() {
+        Columns loaded = new Columns();
+        try (Cursor cursor = database.query(LOAD_QUERY, null)) {
+            while (cursor.moveToNext()) {
+                loaded.append(cursor.getInt(0),
+                        cursor.isNull(1) ? 0 : cursor.getLong(1),
+                        cursor.getLong(2),
+                        cursor.getString(3),
+                        cursor.getString(4),
+                        cursor.getString(5),
+                        cursor.getInt(6) != 0,
+                        cursor.getString(7));
+            }
+        } catch (Exception e) {
+            android.util.Log.e(TAG, "Error loading column store", e);
+            return null;
+        }
+        return loaded;
+    }
+
+    // ========== STORAGE ==========
+
+    /**
+     * The arrays themselves; rows [0, size) are valid and sorted by (date, id)
+     */
+    private static final class Columns {
+        int size;
+        int[] ids = new int[1024];
+        long[] dates = new long[1024];
+        long[] amounts = new long[1024]; // Paise
+        int[] categoryCodes = new int[1024];
+        int[] subcategoryCodes = new int[1024];
+        final RowBits incomeRows = new RowBits();
+        final RowBits expenseRows = new RowBits();
+        final RowBits essentialRows = new RowBits();
+        final List<RowBits> paymentMethodRows = new ArrayList<>(); // Indexed by payment method code
+        final Dictionary categories = new Dictionary();
+        final Dictionary subcategories = new Dictionary();
+        final Dictionary paymentMethods = new Dictionary();
+
+        private final RowBits noRows = new RowBits();
+
+        RowBits typeRows(String type) {
+            if ("income".equals(type)) {
+                return incomeRows;
+            }
+            return "expense".equals(type) ? expenseRows : noRows;
+        }
+
+        /** First row with date >= the given date */
+        int lowerBound(long date) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (dates[mid] < date) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /** First row with date > the given date */
+        int upperBound(long date) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (dates[mid] <= date) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /** First row ordered at or after (date, id) */
+        int position(long date, int id) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (dates[mid] < date || (dates[mid] == date && ids[mid] < id)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        void append(int id, long date, long amountMinor, String type, String category, String subcategory,
+                    boolean essential, String paymentMethod) {
+            insertAt(size, id, date, amountMinor, type, category, subcategory, essential, paymentMethod);
+        }
+
+        void insert(Expense expense) {
+            long date = dateOf(expense);
+            insertAt(position(date, expense.getId()), expense.getId(), date, expense.getAmountMinor(),
+                    expense.getType(), expense.getCategory(), expense.getSubcategory(),
+                    expense.isEssential(), expense.getPaymentMethod());
+        }
+
+        void remove(Expense expense) {
+            int row = position(dateOf(expense), expense.getId());
+            if (row >= size || ids[row] != expense.getId()) {
+                android.util.Log.w(TAG, "Transaction " + expense.getId() + " not in column store");
+                return;
+            }
+            int tail = size - row - 1;
+            System.arraycopy(ids, row + 1, ids, row, tail);
+            System.arraycopy(dates, row + 1, dates, row, tail);
+            System.arraycopy(amounts, row + 1, amounts, row, tail);
+            System.arraycopy(categoryCodes, row + 1, categoryCodes, row, tail);
+            System.arraycopy(subcategoryCodes, row + 1, subcategoryCodes, row, tail);
+            incomeRows.remove(row, size);
+            expenseRows.remove(row, size);
+            essentialRows.remove(row, size);
+            for (RowBits bits : paymentMethodRows) {
+                bits.remove(row, size);
+            }
+            size--;
+        }
+
+        private void insertAt(int row, int id, long date, long amountMinor, String type, String category,
+                              String subcategory, boolean essential, String paymentMethod) {
+            if (size == ids.length) {
+                int capacity = size + (size >> 1);
+                ids = Arrays.copyOf(ids, capacity);
+                dates = Arrays.copyOf(dates, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+                categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+                subcategoryCodes = Arrays.copyOf(subcategoryCodes, capacity);
+            }
+            // Back-dated rows shift the tail; the common case (newest date) appends
+            int tail = size - row;
+            if (tail > 0) {
+                System.arraycopy(ids, row, ids, row + 1, tail);
+                System.arraycopy(dates, row, dates, row + 1, tail);
+                System.arraycopy(amounts, row, amounts, row + 1, tail);
+                System.arraycopy(categoryCodes, row, categoryCodes, row + 1, tail);
+                System.arraycopy(subcategoryCodes, row, subcategoryCodes, row + 1, tail);
+            }
+            ids[row] = id;
+            dates[row] = date;
+            amounts[row] = amountMinor;
+            categoryCodes[row] = categories.encode(category);
+            subcategoryCodes[row] = subcategories.encode(subcategory);
+
+            incomeRows.insert(row, "income".equals(type), size);
+            expenseRows.insert(row, "expense".equals(type), size);
+            essentialRows.insert(row, essential, size);
+            int paymentCode = paymentMethods.encode(paymentMethod);
+            while (paymentMethodRows.size() <= paymentCode) {
+                paymentMethodRows.add(new RowBits());
+            }
+            for (int code = 0; code < paymentMethodRows.size(); code++) {
+                paymentMethodRows.get(code).insert(row, code == paymentCode, size);
+            }
+            size++;
+        }
+
+        private static long dateOf(Expense expense) {
+            return expense.getDate() != null ? expense.getDate().getTime() : 0;
+        }
+    }
+
+    /**
+     * Growable bitset over rows that can open or close a gap at a row, like the arrays it sits beside
+     */
+    static final class RowBits {
+        private long[] words = new long[16];
+
+        boolean get(int row) {
+            int word = row >>> 6;
+            return word < words.length && (words[word] & (1L << row)) != 0;
+        }
+
+        /** Set bits in [from, to) */
+        int count(int from, int to) {
+            int count = 0;
+            for (int row = from; row < to; row++) {
+                if (get(row)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /** Shift rows [row, size) up by one and store value at row */
+        void insert(int row, boolean value, int size) {
+            int lastWord = size >>> 6;
+            if (lastWord >= words.length) {
+                words = Arrays.copyOf(words, Math.max(lastWord + 1, words.length * 2));
+            }
+            int rowWord = row >>> 6;
+            for (int word = lastWord; word > rowWord; word--) {
+                words[word] = (words[word] << 1) | (words[word - 1] >>> 63);
+            }
+            long low = (1L << row) - 1;
+            long bits = words[rowWord];
+            words[rowWord] = (bits & low) | ((bits & ~low) << 1);
+            if (value) {
+                words[rowWord] |= 1L << row;
+            }
+        }
+
+        /** Drop row and shift rows (row, size) down by one */
+        void remove(int row, int size) {
+            int rowWord = row >>> 6;
+            long low = (1L << row) - 1;
+            long bits = words[rowWord];
+            words[rowWord] = (bits & low) | ((bits >>> 1) & ~low);
+            int lastWord = (size - 1) >>> 6;
+            for (int word = rowWord; word < lastWord; word++) {
+                words[word] |= (words[word + 1] & 1L) << 63;
+                words[word + 1] >>>= 1;
+            }
+        }
+    }
+
+    /**
+     * String <-> int code mapping; null is stored as ""
+     */
+    static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            String key = value != null ? value : "";
+            Integer code = codes.get(key);
+            if (code == null) {
+                code = values.size();
+                codes.put(key, code);
+                values.add(key);
+            }
+            return code;
+        }
+
+        String decode(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.vishnu.expensetracker.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * App-wide executors for database work
+ * - diskWrite: one thread, so every write in the app is applied in submission order
+ * - diskRead: small fixed pool for queries; SQLite in WAL mode lets readers run alongside the writer
+ * - mainThread: posts results back to the UI thread
+ * The threads live for the whole process, so components never create or shut down their own.
+ * Use scope() to tie background work to an Activity/ViewModel so it is dropped once that owner is gone.
+ */
+public class AppExecutors {
+
+    // Android's WAL connection pool holds 4 connections; leave the primary one to the writer
+    private static final int READ_THREADS = 3;
+    private static final long READ_KEEP_ALIVE_SECONDS = 30;
+
+    private static final String WRITE_POOL = "db-write";
+    // Name of the pool that owns the current thread, null outside AppExecutors
+    private static final ThreadLocal<String> currentPool = new ThreadLocal<>();
+
+    private static AppExecutors instance;
+
+    private final InstrumentedExecutor diskWrite;
+    private final InstrumentedExecutor diskRead;
+    private final Executor mainThread;
+
+    private AppExecutors() {
+        diskWrite = new InstrumentedExecutor(WRITE_POOL, 1);
+        diskRead = new InstrumentedExecutor("db-read", READ_THREADS);
+        // Idle read threads are released; the write thread stays for the life of the process
+        diskRead.setKeepAliveTime(READ_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        diskRead.allowCoreThreadTimeOut(true);
+
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        mainThread = mainHandler::post;
+    }
+
+    public static synchronized AppExecutors getInstance() {
+        if (instance == null) {
+            instance = new AppExecutors();
+        }
+        return instance;
+    }
+
+    /**
+     * Serialized executor for inserts, updates, deletes and other multi-statement writes
+     */
+    public Executor diskWrite() {
+        return diskWrite;
+    }
+
+    /**
+     * Bounded pool for read-only queries
+     */
+    public Executor diskRead() {
+        return diskRead;
+    }
+
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    /**
+     * Whether the calling thread is the diskWrite() thread
+     */
+    public static boolean isWriteThread() {
+        return WRITE_POOL.equals(currentPool.get());
+    }
+
+    /**
+     * Create a scope that is cancelled automatically when the owner is destroyed
+     * Must be called on the main thread (registers a lifecycle observer)
+     */
+    public TaskScope scope(LifecycleOwner owner) {
+        TaskScope scope = new TaskScope(this);
+        if (owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+            scope.cancel();
+        } else {
+            owner.getLifecycle().addObserver(scope);
+        }
+        return scope;
+    }
+
+    /**
+     * Create a scope the caller cancels itself (e.g. from ViewModel.onCleared)
+     */
+    public TaskScope newScope() {
+        return new TaskScope(this);
+    }
+
+    public ExecutorStats getWriteStats() {
+        return diskWrite.snapshot();
+    }
+
+    public ExecutorStats getReadStats() {
+        return diskRead.snapshot();
+    }
+
+    /**
+     * Background work owned by one component
+     * Queued reads are dropped when the scope is cancelled; writes always run to completion so no
+     * user change is lost, but their main-thread callbacks posted through onMain() are skipped.
+     */
+    public static class TaskScope implements DefaultLifecycleObserver {
+
+        private final AppExecutors executors;
+        private final Set<Future<?>> pendingReads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        private volatile boolean cancelled;
+
+        TaskScope(AppExecutors executors) {
+            this.executors = executors;
+        }
+
+        /**
+         * Run a query on the read pool unless the scope is cancelled before it starts
+         */
+        public void read(Runnable task) {
+            if (cancelled) {
+                return;
+            }
+            FutureTask<Void> future = new FutureTask<Void>(task, null) {
+                @Override
+                protected void done() {
+                    pendingReads.remove(this);
+                }
+            };
+            pendingReads.add(future);
+            executors.diskRead.execute(future);
+            // Cancelled while submitting - make sure the task does not outlive the scope
+            if (cancelled) {
+                future.cancel(false);
+            }
+        }
+
+        /**
+         * Run a write on the serialized write executor
+         */
+        public void write(Runnable task) {
+            executors.diskWrite.execute(task);
+        }
+
+        /**
+         * Post a result to the main thread; dropped if the scope has been cancelled by then
+         */
+        public void onMain(Runnable task) {
+            executors.mainThread.execute(() -> {
+                if (!cancelled) {
+                    task.run();
+                }
+            });
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            for (Future<?> future : pendingReads) {
+                // No interrupt: a running SQLite query is left to finish, only queued work is dropped
+                future.cancel(false);
+            }
+            pendingReads.clear();
+        }
+
+        @Override
+        public void onDestroy(@NonNull LifecycleOwner owner) {
+            owner.getLifecycle().removeObserver(this);
+            cancel();
+        }
+    }
+
+    /**
+     * Point-in-time metrics for one executor
+     */
+    public static class ExecutorStats {
+        public final String name;
+        public final int queueDepth;
+        public final int activeThreads;
+        public final long completedTasks;
+        public final double averageWaitMs;
+        public final double averageRunMs;
+        public final double maxWaitMs;
+
+        ExecutorStats(String name, int queueDepth, int activeThreads, long completedTasks,
+                      double averageWaitMs, double averageRunMs, double maxWaitMs) {
+            this.name = name;
+            this.queueDepth = queueDepth;
+            this.activeThreads = activeThreads;
+            this.completedTasks = completedTasks;
+            this.averageWaitMs = averageWaitMs;
+            this.averageRunMs = averageRunMs;
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s: queued=%d active=%d done=%d wait avg=%.1fms max=%.1fms run avg=%.1fms",
+                    name, queueDepth, activeThreads, completedTasks, averageWaitMs, maxWaitMs, averageRunMs);
+        }
+    }
+
+    /**
+     * Fixed-size pool that records how long tasks wait in the queue and how long they run
+     */
+    private static class InstrumentedExecutor extends ThreadPoolExecutor {
+
+        private final String name;
+        private final LongAdder timedTasks = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final LongAdder totalRunNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        InstrumentedExecutor(String name, int threads) {
+            super(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                    new NamedThreadFactory(name));
+            this.name = name;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            long enqueuedAt = System.nanoTime();
+            super.execute(() -> {
+                long startedAt = System.nanoTime();
+                recordWait(startedAt - enqueuedAt);
+                try {
+                    command.run();
+                } finally {
+                    totalRunNanos.add(System.nanoTime() - startedAt);
+                    timedTasks.increment();
+                }
+            });
+        }
+
+        private void recordWait(long waitNanos) {
+            totalWaitNanos.add(waitNanos);
+            long max;
+            do {
+                max = maxWaitNanos.get();
+            } while (waitNanos > max && !maxWaitNanos.compareAndSet(max, waitNanos));
+        }
+
+        ExecutorStats snapshot() {
+            long count = timedTasks.sum();
+            double avgWait = count == 0 ? 0 : totalWaitNanos.sum() / (double) count / 1_000_000d;
+            double avgRun = count == 0 ? 0 : totalRunNanos.sum() / (double) count / 1_000_000d;
+            return new ExecutorStats(name, getQueue().size(), getActiveCount(), count,
+                    avgWait, avgRun, maxWaitNanos.get() / 1_000_000d);
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            return new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                currentPool.set(prefix);
+                runnable.run();
+            }, prefix + "-" + count.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.vishnu.expensetracker.utils;
+
+/**
+ * Fixed-size Bloom filter over 64-bit keys that are already well-mixed hashes (e.g. Fingerprint)
+ * mightContain() never misses a key that was put; it returns a false positive for about the
+ * configured fraction of other keys. Keys cannot be removed. Not thread-safe.
+ */
+public class BloomFilter {
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    private int size;
+
+    /**
+     * @param expectedItems Number of keys the filter is sized for
+     * @param falsePositiveRate Target false positive rate at that size (e.g. 0.01)
+     */
+    public BloomFilter(int expectedItems, double falsePositiveRate) {
+        int items = Math.max(1, expectedItems);
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-items * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.bits = new long[(int) Math.max(1, (m + 63) / 64)];
+        this.bitCount = bits.length * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / items * ln2));
+    }
+
+    public void put(long key) {
+        int h1 = (int) key;
+        int h2 = (int) (key >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long index = ((h1 + i * h2) & 0xffffffffL) % bitCount;
+            bits[(int) (index >>> 6)] |= 1L << index;
+        }
+        size++;
+    }
+
+    public boolean mightContain(long key) {
+        int h1 = (int) key;
+        int h2 = (int) (key >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long index = ((h1 + i * h2) & 0xffffffffL) % bitCount;
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of keys put (including repeats)
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -5,6 +5,7 @@ import com.vishnu.expensetracker.models.Subcategory;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 public class CategoryManager {
@@ -134,6 +135,24 @@ public class CategoryManager {
         ));
     }};
     
+    // Catch-all categories for text that names no subcategory
+    private static final String FALLBACK_EXPENSE_CATEGORY = "Personal / Others";
+    private static final String FALLBACK_INCOME_CATEGORY = "Others";
+    
+    // {lowercase subcategory, category, subcategory} per type, for matching free text
+    private static final String[][] EXPENSE_KEYWORDS = keywords(EXPENSE_CATEGORIES);
+    private static final String[][] INCOME_KEYWORDS = keywords(INCOME_CATEGORIES);
+    
+    private static String[][] keywords(Map<String, CategoryData> categories) {
+        List<String[]> keywords = new ArrayList<>();
+        for (CategoryData data : categories.values()) {
+            for (String subcat : data.subcategories) {
+                keywords.add(new String[]{subcat.toLowerCase(Locale.ROOT), data.name, subcat});
+            }
+        }
+        return keywords.toArray(new String[0][]);
+    }
+    
     public static List<CategoryData> getExpenseCategories() {
         return new ArrayList<>(EXPENSE_CATEGORIES.values());
     }
@@ -193,6 +212,24 @@ public class CategoryManager {
         return subcategories;
     }
     
+    /**
+     * Category for free text such as a bank statement narration
+     * @param text Text to match, already lowercased (Locale.ROOT)
+     * @return {category, subcategory} of the first subcategory named in the text, or the
+     *         catch-all category for the type with an empty subcategory
+     */
+    public static String[] suggestCategory(String text, String type) {
+        boolean expense = "expense".equals(type);
+        if (text != null) {
+            for (String[] keyword : expense ? EXPENSE_KEYWORDS : INCOME_KEYWORDS) {
+                if (text.contains(keyword[0])) {
+                    return new String[]{keyword[1], keyword[2]};
+                }
+            }
+        }
+        return new String[]{expense ? FALLBACK_EXPENSE_CATEGORY : FALLBACK_INCOME_CATEGORY, ""};
+    }
+    
     public static List<String> getSubcategoriesForCategory(String categoryName, String type) {
         CategoryData data = getCategoryData(categoryName, type);
         return data != null ? data.subcategories : new ArrayList<>();
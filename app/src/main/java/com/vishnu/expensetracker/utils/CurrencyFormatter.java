@@ -1,18 +1,49 @@
 package com.vishnu.expensetracker.utils;
 
-import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 
 public class CurrencyFormatter {
     
-    private static final DecimalFormat currencyFormat = new DecimalFormat("#,##0.00");
     private static final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
     private static final SimpleDateFormat timeFormat = new SimpleDateFormat("hh:mm a", Locale.getDefault());
     
     public static String formatCurrency(double amount) {
-        return "₹" + currencyFormat.format(amount);
+        return formatMinor(Money.toMinor(amount));
+    }
+    
+    /**
+     * Format an amount in paise as ₹#,##0.00
+     * Plain digit arithmetic into one StringBuilder: no DecimalFormat, no intermediate double,
+     * and safe to call from any thread.
+     */
+    public static String formatMinor(long minor) {
+        StringBuilder sb = new StringBuilder(24);
+        sb.append('₹');
+        if (minor < 0) {
+            sb.append('-');
+        }
+        // Split before taking the magnitude so Long.MIN_VALUE does not overflow
+        long units = Math.abs(minor / Money.MINOR_PER_UNIT);
+        int fraction = (int) Math.abs(minor % Money.MINOR_PER_UNIT);
+        
+        String digits = Long.toString(units);
+        int firstGroup = digits.length() % 3;
+        if (firstGroup == 0) {
+            firstGroup = 3;
+        }
+        sb.append(digits, 0, firstGroup);
+        for (int i = firstGroup; i < digits.length(); i += 3) {
+            sb.append(',').append(digits, i, i + 3);
+        }
+        
+        sb.append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        sb.append(fraction);
+        return sb.toString();
     }
     
     public static String formatDate(Date date) {
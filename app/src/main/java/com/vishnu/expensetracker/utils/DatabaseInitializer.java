@@ -5,44 +5,42 @@ import com.vishnu.expensetracker.database.ExpenseDatabase;
 import com.vishnu.expensetracker.models.Category;
 import com.vishnu.expensetracker.models.Subcategory;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class DatabaseInitializer {
     
+    /**
+     * Seed the predefined categories and subcategories on the write thread if there are none yet
+     */
     public static void initializeDatabase(Context context) {
         ExpenseDatabase database = ExpenseDatabase.getInstance(context);
-        ExecutorService executor = Executors.newSingleThreadExecutor();
-        
-        executor.execute(() -> {
-            // Check if categories already exist
+        AppExecutors.getInstance().diskWrite().execute(() -> {
             try {
-                List<Category> existingCategories = database.categoryDao().getAllCategories().getValue();
-                if (existingCategories == null || existingCategories.isEmpty()) {
-                    // Initialize with predefined categories
-                    List<Category> categories = CategoryManager.getAllCategories();
-                    for (Category category : categories) {
-                        database.categoryDao().insert(category);
-                    }
-                    
-                    // Initialize with predefined subcategories
-                    List<Subcategory> subcategories = CategoryManager.getAllSubcategories();
-                    for (Subcategory subcategory : subcategories) {
-                        database.subcategoryDao().insert(subcategory);
-                    }
-                }
+                seedCategories(database);
             } catch (Exception e) {
-                // First time initialization - categories don't exist yet
-                List<Category> categories = CategoryManager.getAllCategories();
-                for (Category category : categories) {
-                    database.categoryDao().insert(category);
-                }
-                
-                List<Subcategory> subcategories = CategoryManager.getAllSubcategories();
-                for (Subcategory subcategory : subcategories) {
-                    database.subcategoryDao().insert(subcategory);
-                }
+                android.util.Log.e("DatabaseInitializer", "Error seeding categories", e);
             }
         });
     }
-}
\ No newline at end of file
+    
+    /**
+     * Insert the predefined categories and subcategories in one transaction unless there are some already
+     * Blocking; also used to prepare the databases of the instrumented tests and benchmarks
+     */
+    public static void seedCategories(ExpenseDatabase database) {
+        // Count synchronously; a LiveData query has no value until it is observed
+        database.runInTransaction(() -> {
+            if (database.categoryDao().getCategoryCount() > 0) {
+                return;
+            }
+            List<Category> categories = CategoryManager.getAllCategories();
+            for (Category category : categories) {
+                database.categoryDao().insert(category);
+            }
+            
+            List<Subcategory> subcategories = CategoryManager.getAllSubcategories();
+            for (Subcategory subcategory : subcategories) {
+                database.subcategoryDao().insert(subcategory);
+            }
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package com.vishnu.expensetracker.utils;
+
+import com.vishnu.expensetracker.models.Expense;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Duplicate-detection key for a transaction
+ * A 64-bit FNV-1a hash of the title (lowercased, letters and digits only), the amount in paise,
+ * the local day and the payment method. Two entries of the same purchase typed slightly
+ * differently ("Big Bazaar" / "big-bazaar") or imported twice get the same fingerprint.
+ * Never 0, which marks a row that has not been fingerprinted.
+ * The day is the local day in the default time zone (a purchase typed at 10:00 and the same
+ * purchase imported from a statement at midnight share it), so a fingerprint depends on the zone
+ * it was computed in; ExpenseTrackerApplication recomputes the stored ones (with the rollups) when
+ * the zone changes.
+ */
+public final class Fingerprint {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+
+    private Fingerprint() {}
+
+    public static long of(Expense expense) {
+        return of(expense.getTitle(), expense.getAmountMinor(), expense.getDate(), expense.getPaymentMethod());
+    }
+
+    public static long of(String title, long amountMinor, Date date, String paymentMethod) {
+        long hash = FNV_OFFSET;
+        if (title != null) {
+            for (int i = 0; i < title.length(); i++) {
+                char c = title.charAt(i);
+                if (Character.isLetterOrDigit(c)) {
+                    hash = mix(hash, Character.toLowerCase(c));
+                }
+            }
+        }
+        hash = mix(hash, 0);
+        hash = mixLong(hash, amountMinor);
+        hash = mixLong(hash, date != null ? dayOf(date.getTime()) : Long.MIN_VALUE);
+        if (paymentMethod != null) {
+            for (int i = 0; i < paymentMethod.length(); i++) {
+                hash = mix(hash, Character.toLowerCase(paymentMethod.charAt(i)));
+            }
+        }
+        return hash != 0 ? hash : 1;
+    }
+
+    /**
+     * Local day number of a timestamp (days since the epoch in the default time zone)
+     */
+    public static long dayOf(long timestamp) {
+        long local = timestamp + TimeZone.getDefault().getOffset(timestamp);
+        return Math.floorDiv(local, DAY_MS);
+    }
+
+    private static long mix(long hash, int value) {
+        hash = (hash ^ (value & 0xff)) * FNV_PRIME;
+        return (hash ^ ((value >>> 8) & 0xff)) * FNV_PRIME;
+    }
+
+    private static long mixLong(long hash, long value) {
+        for (int shift = 0; shift < 64; shift += 8) {
+            hash = (hash ^ ((value >>> shift) & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+}
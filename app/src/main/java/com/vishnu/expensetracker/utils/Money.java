@@ -0,0 +1,28 @@
+package com.vishnu.expensetracker.utils;
+
+/**
+ * Conversions between rupee amounts and exact minor units (paise)
+ * Amounts are stored and summed as long paise (expenses.amount_minor, rollup amount_minor_sum),
+ * so totals never pick up floating-point rounding; doubles are only for entry and display.
+ */
+public final class Money {
+
+    public static final int MINOR_PER_UNIT = 100;
+
+    private Money() {}
+
+    /**
+     * Rupees to paise, rounding half away from zero (the same as SQLite ROUND in the migration)
+     */
+    public static long toMinor(double amount) {
+        double scaled = amount * MINOR_PER_UNIT;
+        return scaled < 0 ? -Math.round(-scaled) : Math.round(scaled);
+    }
+
+    /**
+     * Paise to rupees, for APIs and charts that still take a double
+     */
+    public static double toMajor(long minor) {
+        return (double) minor / MINOR_PER_UNIT;
+    }
+}
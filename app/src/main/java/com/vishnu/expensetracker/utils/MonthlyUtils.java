@@ -16,22 +16,26 @@ public class MonthlyUtils {
     
     /**
      * Represents a date range with start and end timestamps
+     * Bounds are local-time month boundaries, so [start, endExclusive) matches the month a user sees
      */
     public static class DateRange {
         private final long startTimestamp;
         private final long endTimestamp;
+        private final long endExclusiveTimestamp; // First millisecond of the next month
         private final String monthYear; // Format: "2025-12"
         private final String displayName; // Format: "December 2025"
         
         public DateRange(long startTimestamp, long endTimestamp, String monthYear, String displayName) {
             this.startTimestamp = startTimestamp;
             this.endTimestamp = endTimestamp;
+            this.endExclusiveTimestamp = endTimestamp + 1;
             this.monthYear = monthYear;
             this.displayName = displayName;
         }
         
         public long getStartTimestamp() { return startTimestamp; }
         public long getEndTimestamp() { return endTimestamp; }
+        public long getEndExclusiveTimestamp() { return endExclusiveTimestamp; }
         public String getMonthYear() { return monthYear; }
         public String getDisplayName() { return displayName; }
         
@@ -109,11 +113,35 @@ public class MonthlyUtils {
      */
     public static DateRange getMonthRange(int year, int month) {
         Calendar calendar = Calendar.getInstance();
+        calendar.set(Calendar.DAY_OF_MONTH, 1); // Avoid rolling over when today is the 31st
         calendar.set(Calendar.YEAR, year);
         calendar.set(Calendar.MONTH, month - 1); // Calendar months are 0-indexed
         return getMonthRange(calendar);
     }
     
+    /**
+     * Get the date range for a "yyyy-MM" month-year string
+     * Used to turn the string-based month API into timestamp bounds for index-friendly queries
+     * @param monthYear Month-year string (e.g., "2025-12")
+     * @return DateRange for the specified month
+     * @throws IllegalArgumentException if the string is not in "yyyy-MM" format
+     */
+    public static DateRange parseMonthYear(String monthYear) {
+        if (monthYear == null || monthYear.length() != 7 || monthYear.charAt(4) != '-') {
+            throw new IllegalArgumentException("Expected yyyy-MM but was: " + monthYear);
+        }
+        try {
+            int year = Integer.parseInt(monthYear.substring(0, 4));
+            int month = Integer.parseInt(monthYear.substring(5, 7));
+            if (month < 1 || month > 12) {
+                throw new IllegalArgumentException("Month out of range: " + monthYear);
+            }
+            return getMonthRange(year, month);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected yyyy-MM but was: " + monthYear, e);
+        }
+    }
+    
     /**
      * Get the current month-year string in "yyyy-MM" format
      * @return Current month-year string
@@ -0,0 +1,167 @@
+package com.vishnu.expensetracker.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Merges bursts of refresh requests into a single run of a refresh task
+ * A request made while a run is already scheduled is folded into it. A request made while the
+ * task is running schedules exactly one more run, started only after the current one returns,
+ * so runs never overlap even on a multi-threaded executor: the last write is always reflected,
+ * a newer run can never publish before an older one, and stale intermediate refreshes are
+ * never executed.
+ */
+public class RefreshScheduler {
+
+    /**
+     * Runs a task after a delay (the main looper in the app, a fake clock in tests)
+     */
+    public interface Delay {
+        void schedule(Runnable task, long delayMillis);
+    }
+
+    private final Executor executor;
+    private final Runnable refreshTask;
+    private final long debounceMillis;
+    private final Delay delay;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong runCount = new AtomicLong();
+
+    // Guarded by this
+    private boolean scheduled;
+    private boolean running;
+    private boolean requestedWhileRunning;
+    private boolean suspended;
+    private boolean requestedWhileSuspended;
+
+    /**
+     * Debounce delays are posted to the main looper
+     * @see #RefreshScheduler(Executor, Runnable, long, Delay)
+     */
+    public RefreshScheduler(Executor executor, Runnable refreshTask, long debounceMillis) {
+        this(executor, refreshTask, debounceMillis, new Handler(Looper.getMainLooper())::postDelayed);
+    }
+
+    /**
+     * @param executor Executor the refresh task runs on
+     * @param refreshTask The refresh to run; reads current state, so one run covers any number of requests
+     * @param debounceMillis Delay before a scheduled run starts, so requests that follow each other
+     *                       (e.g. several LiveData emissions for one write) land in the same run
+     * @param delay Where the debounce delay is waited out before the run is handed to the executor
+     */
+    public RefreshScheduler(Executor executor, Runnable refreshTask, long debounceMillis, Delay delay) {
+        this.executor = executor;
+        this.refreshTask = refreshTask;
+        this.debounceMillis = debounceMillis;
+        this.delay = delay;
+    }
+
+    /**
+     * Ask for a refresh; safe to call from any thread
+     */
+    public void request() {
+        requestCount.incrementAndGet();
+        synchronized (this) {
+            if (suspended) {
+                requestedWhileSuspended = true;
+                return;
+            }
+            if (running) {
+                // Started again once the current run returns, so it sees this request's write
+                requestedWhileRunning = true;
+                return;
+            }
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        schedule();
+    }
+
+    private void schedule() {
+        if (debounceMillis > 0) {
+            delay.schedule(() -> executor.execute(this::run), debounceMillis);
+        } else {
+            executor.execute(this::run);
+        }
+    }
+
+    private void run() {
+        synchronized (this) {
+            scheduled = false;
+            running = true;
+        }
+        runCount.incrementAndGet();
+        boolean again;
+        try {
+            refreshTask.run();
+        } finally {
+            synchronized (this) {
+                running = false;
+                again = requestedWhileRunning && !suspended;
+                if (requestedWhileRunning && suspended) {
+                    requestedWhileSuspended = true;
+                }
+                requestedWhileRunning = false;
+                scheduled = again;
+            }
+        }
+        if (again) {
+            schedule();
+        }
+    }
+
+    /**
+     * Hold back refreshes (e.g. during a bulk import); requests are remembered, not run
+     */
+    public synchronized void suspend() {
+        suspended = true;
+    }
+
+    /**
+     * Allow refreshes again, running one if anything was requested while suspended
+     */
+    public void resume() {
+        boolean runNow;
+        synchronized (this) {
+            suspended = false;
+            runNow = requestedWhileSuspended;
+            requestedWhileSuspended = false;
+        }
+        if (runNow) {
+            // Counted again by request(); the original suspended requests were coalesced into this one
+            requestCount.decrementAndGet();
+            request();
+        }
+    }
+
+    /**
+     * Whether a run is scheduled, running or due to start after the current one
+     */
+    public synchronized boolean isPending() {
+        return scheduled || running || requestedWhileRunning;
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getRunCount() {
+        return runCount.get();
+    }
+
+    /**
+     * Number of requests that were merged into another run instead of running on their own
+     */
+    public long getCoalescedCount() {
+        boolean waiting;
+        synchronized (this) {
+            waiting = scheduled || requestedWhileRunning;
+        }
+        return Math.max(0, requestCount.get() - runCount.get() - (waiting ? 1 : 0));
+    }
+}
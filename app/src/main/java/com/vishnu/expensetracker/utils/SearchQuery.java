@@ -0,0 +1,79 @@
+package com.vishnu.expensetracker.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Locale;
+
+/**
+ * Turns what the user typed into an FTS4 MATCH expression and ranks FTS4 hits
+ */
+public final class SearchQuery {
+
+    // Relative weight of a hit in title, description, category, subcategory (expenses_fts column order)
+    private static final double[] COLUMN_WEIGHTS = {4.0, 1.0, 2.0, 2.0};
+
+    private SearchQuery() {}
+
+    /**
+     * Every word becomes a prefix term and all of them must match ("gro mar" -> "gro* mar*")
+     * Anything that is not a letter or digit separates words, and words are lowercased so OR / NOT /
+     * NEAR are never read as operators; user input cannot produce a malformed query.
+     * @return The MATCH expression, or null if the input has no searchable words
+     */
+    public static String toMatchExpression(String input) {
+        if (input == null) {
+            return null;
+        }
+        StringBuilder match = new StringBuilder();
+        int length = input.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(input.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(input.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                if (match.length() > 0) {
+                    match.append(' ');
+                }
+                match.append(input.substring(start, i).toLowerCase(Locale.ROOT)).append('*');
+            }
+        }
+        return match.length() > 0 ? match.toString() : null;
+    }
+
+    /**
+     * Relevance of one hit from matchinfo(expenses_fts, 'pcx')
+     * For each term and column, hits in this row relative to hits across all rows (so rare terms
+     * count for more), weighted by column. Higher is more relevant.
+     */
+    public static double rank(byte[] matchInfo) {
+        if (matchInfo == null || matchInfo.length < 8) {
+            return 0;
+        }
+        // matchinfo is an array of native-endian 32-bit unsigned ints
+        ByteBuffer buffer = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder());
+        int phraseCount = buffer.getInt(0);
+        int columnCount = buffer.getInt(4);
+        double score = 0;
+        for (int phrase = 0; phrase < phraseCount; phrase++) {
+            for (int column = 0; column < columnCount; column++) {
+                // x: 3 ints per (phrase, column): hits in this row, hits in all rows, rows with a hit
+                int offset = 4 * (2 + 3 * (phrase * columnCount + column));
+                if (offset + 8 > matchInfo.length) {
+                    return score;
+                }
+                int rowHits = buffer.getInt(offset);
+                int allHits = buffer.getInt(offset + 4);
+                if (rowHits > 0 && allHits > 0) {
+                    double weight = column < COLUMN_WEIGHTS.length ? COLUMN_WEIGHTS[column] : 1.0;
+                    score += weight * rowHits / allHits;
+                }
+            }
+        }
+        return score;
+    }
+}
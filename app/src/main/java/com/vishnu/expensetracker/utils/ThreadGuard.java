@@ -0,0 +1,73 @@
+package com.vishnu.expensetracker.utils;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.os.Looper;
+import android.os.StrictMode;
+
+/**
+ * Thread checks for debug builds
+ * install() turns on StrictMode (main-thread disk and network access, leaked cursors and
+ * closeables, all logged) and arms the assertions below, which then throw when database work
+ * runs on the wrong thread. Room already rejects DAO calls on the main thread; these cover the
+ * paths that bypass it (TransactionWriter's compiled statements, raw SQL in the exporters) and
+ * the write-thread rule. In release builds nothing is installed and each check is one volatile read.
+ */
+public final class ThreadGuard {
+
+    private static volatile boolean enforcing;
+
+    private ThreadGuard() {}
+
+    /**
+     * Enable StrictMode and the assertions if the app is debuggable (call from Application.onCreate)
+     */
+    public static void install(Context context) {
+        if (!isDebuggable(context)) {
+            return;
+        }
+        StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                .detectDiskReads()
+                .detectDiskWrites()
+                .detectNetwork()
+                .penaltyLog()
+                .build());
+        StrictMode.setVmPolicy(new StrictMode.VmPolicy.Builder()
+                .detectLeakedSqlLiteObjects()
+                .detectLeakedClosableObjects()
+                .detectActivityLeaks()
+                .penaltyLog()
+                .build());
+        enforcing = true;
+    }
+
+    /**
+     * Whether this is a debug build; the same test gates the other debug-only tooling (query metrics)
+     */
+    public static boolean isDebuggable(Context context) {
+        return (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+    }
+
+    public static boolean isEnforcing() {
+        return enforcing;
+    }
+
+    /**
+     * Fail (debug builds only) if called on the main thread
+     */
+    public static void assertNotMainThread(String operation) {
+        if (enforcing && Looper.myLooper() == Looper.getMainLooper()) {
+            throw new IllegalStateException(operation + " must not run on the main thread");
+        }
+    }
+
+    /**
+     * Fail (debug builds only) if called anywhere but AppExecutors.diskWrite()
+     */
+    public static void assertWriteThread(String operation) {
+        if (enforcing && !AppExecutors.isWriteThread()) {
+            throw new IllegalStateException(operation + " must run on the write executor, not on "
+                    + Thread.currentThread().getName());
+        }
+    }
+}
@@ -2,46 +2,74 @@ package com.vishnu.expensetracker.viewmodel;
 
 import android.app.Application;
 import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.lifecycle.ViewModelKt;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 import com.vishnu.expensetracker.database.ExpenseDatabase;
 import com.vishnu.expensetracker.database.ExpenseDao;
+import com.vishnu.expensetracker.database.FilterCompiler;
+import com.vishnu.expensetracker.database.RollupSchema;
+import com.vishnu.expensetracker.database.TransactionWriter;
+import com.vishnu.expensetracker.models.BalanceSummary;
 import com.vishnu.expensetracker.models.Expense;
-import com.vishnu.expensetracker.models.MonthlySummary;
-import com.vishnu.expensetracker.utils.MonthlyUtils;
+import com.vishnu.expensetracker.models.TransactionFilter;
+import com.vishnu.expensetracker.repository.LedgerAggregator;
+import com.vishnu.expensetracker.utils.AppExecutors;
+import com.vishnu.expensetracker.utils.SearchQuery;
+import com.vishnu.expensetracker.utils.ThreadGuard;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * ViewModel for managing expense data and operations
- * Handles deletion with undo capability and monthly tracking
+ * Handles deletion with undo capability
+ * Monthly figures are BalanceRepository's; it refreshes them once per ledger change, so the
+ * write paths here do not request refreshes of their own.
  */
 public class ExpenseViewModel extends AndroidViewModel {
     
+    // Paging window for the transaction list: at most MAX_LOADED_ROWS rows are kept in memory
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_DISTANCE = 50;
+    private static final int INITIAL_LOAD_SIZE = 100;
+    private static final int MAX_LOADED_ROWS = 300;
+    
+    // Hits ranked for "best matches"; more than anyone scrolls through, few enough to rank in memory
+    private static final int RANKED_SEARCH_LIMIT = 200;
+    
     private final ExpenseDao expenseDao;
-    private final ExecutorService executor;
+    private final TransactionWriter writer;
+    private final LedgerAggregator ledger;
+    private final AppExecutors.TaskScope tasks;
     
     // LiveData for all expenses
     private final LiveData<List<Expense>> allExpenses;
     
+    // Paged transactions for the main list, narrowed by the active filter (search text included)
+    private final FilterCompiler filterCompiler = new FilterCompiler();
+    private final MutableLiveData<TransactionFilter> filter;
+    private final LiveData<PagingData<Expense>> pagedExpenses;
+    private final LiveData<List<ExpenseDao.FilterTotal>> filteredTotals;
+    private final MutableLiveData<List<Expense>> bestMatches;
+    
     // LiveData for balance tracking
     private final LiveData<Double> totalIncome;
     private final LiveData<Double> totalExpenses;
     private final LiveData<Double> currentBalance;
     
-    // Monthly tracking LiveData
-    private final MutableLiveData<MonthlySummary> monthlySummary;
-    private final MutableLiveData<Double> currentMonthExpenses;
-    private final MutableLiveData<Double> currentMonthIncome;
-    private final MutableLiveData<Double> previousMonthExpenses;
-    private final MutableLiveData<String> monthComparisonMessage;
-    
     // Undo functionality
     private Expense lastDeletedExpense;
+    private List<Integer> lastDeletedIds;
     private final MutableLiveData<Boolean> showUndoSnackbar;
     private final MutableLiveData<String> deleteMessage;
     
@@ -54,27 +82,52 @@ public class ExpenseViewModel extends AndroidViewModel {
         
         ExpenseDatabase database = ExpenseDatabase.getInstance(application);
         expenseDao = database.expenseDao();
-        executor = Executors.newSingleThreadExecutor();
+        writer = new TransactionWriter(database);
+        ledger = LedgerAggregator.getInstance(database);
+        tasks = AppExecutors.getInstance().newScope();
         
-        // Initialize LiveData from DAO
+        // Initialize LiveData; totals come from the in-memory ledger
         allExpenses = expenseDao.getAllExpenses();
-        totalIncome = expenseDao.getTotalIncome();
-        totalExpenses = expenseDao.getTotalExpenses();
-        currentBalance = expenseDao.getCurrentBalance();
+        totalIncome = Transformations.map(ledger.getBalanceSummary(), BalanceSummary::getTotalIncome);
+        totalExpenses = Transformations.map(ledger.getBalanceSummary(), BalanceSummary::getTotalExpenses);
+        currentBalance = Transformations.map(ledger.getBalanceSummary(), BalanceSummary::getCurrentBalance);
+        
+        // Room invalidates the PagingSource on writes; cachedIn keeps loaded pages across configuration changes
+        filter = new MutableLiveData<>(new TransactionFilter());
+        pagedExpenses = PagingLiveData.cachedIn(Transformations.switchMap(filter, current -> {
+            Pager<Integer, Expense> pager = new Pager<>(
+                    new PagingConfig(PAGE_SIZE, PREFETCH_DISTANCE, true, INITIAL_LOAD_SIZE, MAX_LOADED_ROWS),
+                    () -> {
+                        if (current.isEmpty()) {
+                            return expenseDao.getExpensesPaged();
+                        }
+                        // Plain searches, the most common filter, use the query Room compiled at build time
+                        if (current.hasOnlyText()) {
+                            return expenseDao.searchPaged(SearchQuery.toMatchExpression(current.getText()),
+                                    null, Long.MIN_VALUE, Long.MAX_VALUE);
+                        }
+                        return expenseDao.getFilteredPaged(filterCompiler.compilePaged(current));
+                    });
+            return PagingLiveData.getLiveData(pager);
+        }), ViewModelKt.getViewModelScope(this));
+        filteredTotals = Transformations.switchMap(filter,
+                current -> expenseDao.getFilteredTotals(filterCompiler.compileTotals(current)));
+        bestMatches = new MutableLiveData<>();
         
         // Initialize mutable LiveData
-        monthlySummary = new MutableLiveData<>();
-        currentMonthExpenses = new MutableLiveData<>(0.0);
-        currentMonthIncome = new MutableLiveData<>(0.0);
-        previousMonthExpenses = new MutableLiveData<>(0.0);
-        monthComparisonMessage = new MutableLiveData<>("");
         showUndoSnackbar = new MutableLiveData<>(false);
         deleteMessage = new MutableLiveData<>();
         isLoading = new MutableLiveData<>(false);
         errorMessage = new MutableLiveData<>();
         
-        // Load initial monthly data
-        refreshMonthlyData();
+        // Make sure the analytics rollups match the raw rows
+        tasks.write(() -> {
+            try {
+                RollupSchema.verifyAndRepair(database);
+            } catch (Exception e) {
+                android.util.Log.e("ExpenseViewModel", "Rollup consistency check failed", e);
+            }
+        });
     }
     
     // ========== GETTERS FOR LIVEDATA ==========
@@ -83,6 +136,13 @@ public class ExpenseViewModel extends AndroidViewModel {
         return allExpenses;
     }
     
+    /**
+     * Paged transaction list, newest first, with placeholders for rows not loaded yet
+     */
+    public LiveData<PagingData<Expense>> getPagedExpenses() {
+        return pagedExpenses;
+    }
+    
     public LiveData<Double> getTotalIncome() {
         return totalIncome;
     }
@@ -95,22 +155,6 @@ public class ExpenseViewModel extends AndroidViewModel {
         return currentBalance;
     }
     
-    public LiveData<MonthlySummary> getMonthlySummary() {
-        return monthlySummary;
-    }
-    
-    public LiveData<Double> getCurrentMonthExpenses() {
-        return currentMonthExpenses;
-    }
-    
-    public LiveData<Double> getCurrentMonthIncome() {
-        return currentMonthIncome;
-    }
-    
-    public LiveData<String> getMonthComparisonMessage() {
-        return monthComparisonMessage;
-    }
-    
     public LiveData<Boolean> getShowUndoSnackbar() {
         return showUndoSnackbar;
     }
@@ -133,10 +177,9 @@ public class ExpenseViewModel extends AndroidViewModel {
      * Insert a new expense
      */
     public void insert(Expense expense) {
-        executor.execute(() -> {
+        tasks.write(() -> {
             try {
-                expenseDao.insert(expense);
-                refreshMonthlyData();
+                writer.insert(expense);
             } catch (Exception e) {
                 errorMessage.postValue("Error adding transaction: " + e.getMessage());
             }
@@ -147,16 +190,94 @@ public class ExpenseViewModel extends AndroidViewModel {
      * Update an existing expense
      */
     public void update(Expense expense) {
-        executor.execute(() -> {
+        tasks.write(() -> {
             try {
-                expenseDao.update(expense);
-                refreshMonthlyData();
+                writer.update(expense);
             } catch (Exception e) {
                 errorMessage.postValue("Error updating transaction: " + e.getMessage());
             }
         });
     }
     
+    // ========== BATCH OPERATIONS ==========
+    // Each runs as one database transaction
+    
+    /**
+     * Insert many transactions (e.g. an import)
+     */
+    public void insertAll(List<Expense> expenses) {
+        if (expenses.isEmpty()) {
+            return;
+        }
+        tasks.write(() -> {
+            try {
+                writer.insertAll(expenses);
+            } catch (Exception e) {
+                errorMessage.postValue("Error adding transactions: " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Soft delete many transactions (e.g. a multi-select delete); can be undone with undoDelete()
+     */
+    public void softDeleteTransactions(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        isLoading.setValue(true);
+        
+        // Store for undo
+        lastDeletedExpense = null;
+        lastDeletedIds = ids;
+        
+        tasks.write(() -> {
+            try {
+                int deleted = writer.softDeleteByIds(ids, new Date());
+                
+                isLoading.postValue(false);
+                deleteMessage.postValue(deleted + " transactions deleted");
+                showUndoSnackbar.postValue(true);
+            } catch (Exception e) {
+                isLoading.postValue(false);
+                errorMessage.postValue("Error deleting transactions: " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Restore many soft-deleted transactions
+     */
+    public void restoreTransactions(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        tasks.write(() -> {
+            try {
+                int restored = writer.restoreByIds(ids);
+                deleteMessage.postValue(restored + " transactions restored");
+            } catch (Exception e) {
+                errorMessage.postValue("Error restoring transactions: " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Move many transactions to another category/subcategory
+     */
+    public void bulkUpdateCategory(List<Integer> ids, String category, String subcategory) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        tasks.write(() -> {
+            try {
+                writer.bulkUpdateCategory(ids, category, subcategory);
+            } catch (Exception e) {
+                errorMessage.postValue("Error updating transactions: " + e.getMessage());
+            }
+        });
+    }
+    
     /**
      * Soft delete a transaction (can be undone)
      * This marks the transaction as deleted without permanently removing it
@@ -166,20 +287,17 @@ public class ExpenseViewModel extends AndroidViewModel {
         
         // Store for undo
         lastDeletedExpense = expense;
+        lastDeletedIds = null;
         
-        executor.execute(() -> {
+        tasks.write(() -> {
             try {
                 // Perform soft delete
-                expenseDao.softDelete(expense.getId(), new Date());
+                writer.softDelete(expense.getId(), new Date());
                 
                 // Post updates
                 isLoading.postValue(false);
                 deleteMessage.postValue("Transaction deleted");
                 showUndoSnackbar.postValue(true);
-                
-                // Refresh monthly data after deletion
-                refreshMonthlyData();
-                
             } catch (Exception e) {
                 isLoading.postValue(false);
                 errorMessage.postValue("Error deleting transaction: " + e.getMessage());
@@ -193,12 +311,11 @@ public class ExpenseViewModel extends AndroidViewModel {
     public void permanentlyDelete(Expense expense) {
         isLoading.setValue(true);
         
-        executor.execute(() -> {
+        tasks.write(() -> {
             try {
-                expenseDao.delete(expense);
+                writer.delete(expense);
                 isLoading.postValue(false);
                 deleteMessage.postValue("Transaction permanently deleted");
-                refreshMonthlyData();
             } catch (Exception e) {
                 isLoading.postValue(false);
                 errorMessage.postValue("Error deleting transaction: " + e.getMessage());
@@ -210,20 +327,21 @@ public class ExpenseViewModel extends AndroidViewModel {
      * Undo the last soft delete operation
      */
     public void undoDelete() {
-        if (lastDeletedExpense != null) {
-            executor.execute(() -> {
+        if (lastDeletedIds != null) {
+            List<Integer> ids = lastDeletedIds;
+            lastDeletedIds = null;
+            showUndoSnackbar.setValue(false);
+            restoreTransactions(ids);
+        } else if (lastDeletedExpense != null) {
+            tasks.write(() -> {
                 try {
                     // Restore the soft-deleted transaction
-                    expenseDao.restoreTransaction(lastDeletedExpense.getId());
+                    writer.restore(lastDeletedExpense.getId());
                     
                     // Clear undo state
                     lastDeletedExpense = null;
                     showUndoSnackbar.postValue(false);
                     deleteMessage.postValue("Transaction restored");
-                    
-                    // Refresh data
-                    refreshMonthlyData();
-                    
                 } catch (Exception e) {
                     errorMessage.postValue("Error restoring transaction: " + e.getMessage());
                 }
@@ -241,109 +359,88 @@ public class ExpenseViewModel extends AndroidViewModel {
             // Keep the soft-deleted state - user chose not to undo
             lastDeletedExpense = null;
         }
+        lastDeletedIds = null;
     }
     
-    // ========== MONTHLY TRACKING ==========
+    /**
+     * Narrow the paged list (and getFilteredTotals()) to a filter; an empty filter shows everything
+     */
+    public void setFilter(TransactionFilter newFilter) {
+        TransactionFilter next = newFilter != null ? new TransactionFilter(newFilter) : new TransactionFilter();
+        if (!next.equals(filter.getValue())) {
+            filter.setValue(next);
+        }
+    }
     
     /**
-     * Refresh all monthly tracking data
+     * A copy of the active filter
      */
-    public void refreshMonthlyData() {
-        executor.execute(() -> {
-            try {
-                // Get current month range
-                MonthlyUtils.DateRange currentRange = MonthlyUtils.getCurrentMonthRange();
-                MonthlyUtils.DateRange previousRange = MonthlyUtils.getPreviousMonthRange();
-                
-                // Calculate current month totals
-                double currentExpense = expenseDao.getMonthlyExpenseTotalSync(
-                        currentRange.getStartTimestamp(),
-                        currentRange.getEndTimestamp()
-                );
-                
-                double currentIncome = expenseDao.getMonthlyIncomeTotalSync(
-                        currentRange.getStartTimestamp(),
-                        currentRange.getEndTimestamp()
-                );
-                
-                // Calculate previous month expense for comparison
-                double prevExpense = expenseDao.getMonthlyExpenseTotalSync(
-                        previousRange.getStartTimestamp(),
-                        previousRange.getEndTimestamp()
-                );
-                
-                // Update LiveData
-                currentMonthExpenses.postValue(currentExpense);
-                currentMonthIncome.postValue(currentIncome);
-                previousMonthExpenses.postValue(prevExpense);
-                
-                // Generate comparison message
-                String comparisonMsg = MonthlyUtils.getSpendingComparisonMessage(currentExpense, prevExpense);
-                monthComparisonMessage.postValue(comparisonMsg);
-                
-                // Create and post MonthlySummary
-                MonthlySummary summary = new MonthlySummary(
-                        currentIncome,
-                        currentExpense,
-                        prevExpense,
-                        0.0, // Default budget - can be set by user
-                        currentRange.getDisplayName()
-                );
-                monthlySummary.postValue(summary);
-                
-            } catch (Exception e) {
-                errorMessage.postValue("Error loading monthly data: " + e.getMessage());
-            }
-        });
+    public TransactionFilter getFilter() {
+        TransactionFilter current = filter.getValue();
+        return current != null ? new TransactionFilter(current) : new TransactionFilter();
+    }
+    
+    /**
+     * Total and count per type for the active filter
+     */
+    public LiveData<List<ExpenseDao.FilterTotal>> getFilteredTotals() {
+        return filteredTotals;
+    }
+    
+    /**
+     * Show only transactions matching the text (title, description, category, subcategory;
+     * each word as a prefix), keeping the other criteria of the active filter
+     */
+    public void setSearchText(String text) {
+        TransactionFilter next = getFilter();
+        next.setText(SearchQuery.toMatchExpression(text) != null ? text.trim() : null);
+        setFilter(next);
+    }
+    
+    public boolean isSearchActive() {
+        return getFilter().getText() != null;
     }
     
     /**
-     * Get monthly summary with a custom budget
+     * Most relevant matches for the text, best first (posted to getBestMatches())
      */
-    public void refreshMonthlyDataWithBudget(double budget) {
-        executor.execute(() -> {
+    public void searchBestMatches(String text) {
+        String match = SearchQuery.toMatchExpression(text);
+        if (match == null) {
+            bestMatches.setValue(new ArrayList<>());
+            return;
+        }
+        tasks.read(() -> {
             try {
-                MonthlyUtils.DateRange currentRange = MonthlyUtils.getCurrentMonthRange();
-                MonthlyUtils.DateRange previousRange = MonthlyUtils.getPreviousMonthRange();
-                
-                double currentExpense = expenseDao.getMonthlyExpenseTotalSync(
-                        currentRange.getStartTimestamp(),
-                        currentRange.getEndTimestamp()
-                );
-                
-                double currentIncome = expenseDao.getMonthlyIncomeTotalSync(
-                        currentRange.getStartTimestamp(),
-                        currentRange.getEndTimestamp()
-                );
-                
-                double prevExpense = expenseDao.getMonthlyExpenseTotalSync(
-                        previousRange.getStartTimestamp(),
-                        previousRange.getEndTimestamp()
-                );
-                
-                MonthlySummary summary = new MonthlySummary(
-                        currentIncome,
-                        currentExpense,
-                        prevExpense,
-                        budget,
-                        currentRange.getDisplayName()
-                );
-                
-                monthlySummary.postValue(summary);
-                currentMonthExpenses.postValue(currentExpense);
-                currentMonthIncome.postValue(currentIncome);
-                monthComparisonMessage.postValue(summary.getComparisonMessage());
-                
+                List<ExpenseDao.SearchHit> hits = expenseDao.searchWithMatchInfo(match, RANKED_SEARCH_LIMIT);
+                double[] scores = new double[hits.size()];
+                List<Integer> order = new ArrayList<>(hits.size());
+                for (int i = 0; i < hits.size(); i++) {
+                    scores[i] = SearchQuery.rank(hits.get(i).matchInfo);
+                    order.add(i);
+                }
+                Collections.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+                List<Expense> ranked = new ArrayList<>(hits.size());
+                for (int index : order) {
+                    ranked.add(hits.get(index).expense);
+                }
+                bestMatches.postValue(ranked);
             } catch (Exception e) {
-                errorMessage.postValue("Error loading monthly data: " + e.getMessage());
+                errorMessage.postValue("Search failed: " + e.getMessage());
             }
         });
     }
     
+    public LiveData<List<Expense>> getBestMatches() {
+        return bestMatches;
+    }
+    
     /**
-     * Get expense by ID (synchronous - use in background)
+     * Get expense by ID (synchronous - use in background; asserted in debug builds)
      */
+    @WorkerThread
     public Expense getExpenseById(int id) {
+        ThreadGuard.assertNotMainThread("ExpenseViewModel.getExpenseById");
         return expenseDao.getExpenseById(id);
     }
     
@@ -358,11 +455,10 @@ public class ExpenseViewModel extends AndroidViewModel {
      * Restore a specific deleted transaction
      */
     public void restoreTransaction(Expense expense) {
-        executor.execute(() -> {
+        tasks.write(() -> {
             try {
-                expenseDao.restoreTransaction(expense.getId());
+                writer.restore(expense.getId());
                 deleteMessage.postValue("Transaction restored");
-                refreshMonthlyData();
             } catch (Exception e) {
                 errorMessage.postValue("Error restoring transaction: " + e.getMessage());
             }
@@ -373,9 +469,9 @@ public class ExpenseViewModel extends AndroidViewModel {
      * Permanently delete all soft-deleted transactions
      */
     public void emptyTrash() {
-        executor.execute(() -> {
+        tasks.write(() -> {
             try {
-                expenseDao.permanentlyDeleteAllSoftDeleted();
+                writer.emptyTrash();
                 deleteMessage.postValue("Trash emptied");
             } catch (Exception e) {
                 errorMessage.postValue("Error emptying trash: " + e.getMessage());
@@ -386,6 +482,7 @@ public class ExpenseViewModel extends AndroidViewModel {
     @Override
     protected void onCleared() {
         super.onCleared();
-        executor.shutdown();
+        // Drops queued reads; pending writes still complete on the shared write thread
+        tasks.cancel();
     }
 }
@@ -0,0 +1,97 @@
+package com.vishnu.expensetracker.importer;
+
+import static org.junit.Assert.assertEquals;
+
+import com.vishnu.expensetracker.models.Expense;
+import com.vishnu.expensetracker.utils.Fingerprint;
+import org.junit.Test;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * The import pipeline's producer stage (parse + map) on generated statements: every row of a
+ * valid CSV or OFX statement must map to a transaction. Throughput is measured on a device by
+ * ImportBenchmark (androidTest), not here.
+ */
+public class StatementImportTest {
+
+    private static final int ROWS = 20_000;
+
+    private static final String[] TITLES = {"Coffee", "Groceries", "Fuel", "Rent", "Lunch", "Taxi",
+            "Pharmacy", "Electricity bill", "Movie tickets", "Gym membership", "Salary", "Freelance project"};
+    private static final String[] PAYMENT_METHODS = {"cash", "card", "upi", "bank transfer"};
+
+    @Test
+    public void csvRowsAllMap() throws IOException {
+        assertEquals(ROWS, importAll(new CsvStatementParser(new StringReader(csvStatement(ROWS)))));
+    }
+
+    @Test
+    public void ofxRowsAllMap() throws IOException {
+        assertEquals(ROWS, importAll(new OfxStatementParser(new StringReader(ofxStatement(ROWS)))));
+    }
+
+    // What ImportPipeline's producer does per record, minus the duplicate lookup
+    private static int importAll(StatementParser parser) throws IOException {
+        ImportMapper mapper = new ImportMapper();
+        int mapped = 0;
+        try {
+            StatementRecord record;
+            while ((record = parser.next()) != null) {
+                Expense expense = mapper.map(record);
+                if (expense != null && Fingerprint.of(expense) != 0) {
+                    mapped++;
+                }
+            }
+        } finally {
+            parser.close();
+        }
+        return mapped;
+    }
+
+    // CsvExporter's layout, with quoted titles now and then
+    private static String csvStatement(int rows) {
+        Random random = new Random(rows);
+        StringBuilder csv = new StringBuilder(rows * 100);
+        csv.append("id,date,type,title,amount,category,subcategory,payment_method,essential,description\n");
+        for (int i = 1; i <= rows; i++) {
+            boolean income = random.nextInt(10) == 0;
+            csv.append(i).append(',')
+                    .append(String.format(Locale.ROOT, "2024-%02d-%02d %02d:%02d:00", 1 + random.nextInt(12),
+                            1 + random.nextInt(28), random.nextInt(24), random.nextInt(60))).append(',')
+                    .append(income ? "income" : "expense").append(',');
+            String title = TITLES[random.nextInt(TITLES.length)] + " " + random.nextInt(100);
+            if (random.nextInt(20) == 0) {
+                csv.append('"').append(title).append(", \"\"store\"\"\"");
+            } else {
+                csv.append(title);
+            }
+            csv.append(',').append(random.nextInt(500_000) / 100.0 + 1).append(",,,")
+                    .append(PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)]).append(',')
+                    .append(random.nextBoolean() ? "need" : "want").append(",Statement row ").append(i).append('\n');
+        }
+        return csv.toString();
+    }
+
+    // OFX 1.x SGML with unclosed leaf elements
+    private static String ofxStatement(int rows) {
+        Random random = new Random(rows);
+        StringBuilder ofx = new StringBuilder(rows * 160);
+        ofx.append("OFXHEADER:100\nDATA:OFXSGML\nVERSION:102\n\n<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>\n");
+        for (int i = 1; i <= rows; i++) {
+            boolean income = random.nextInt(10) == 0;
+            ofx.append("<STMTTRN><TRNTYPE>").append(income ? "CREDIT" : "DEBIT")
+                    .append("<DTPOSTED>").append(String.format(Locale.ROOT, "2024%02d%02d%02d%02d00[+5.5:IST]",
+                            1 + random.nextInt(12), 1 + random.nextInt(28), random.nextInt(24), random.nextInt(60)))
+                    .append("<TRNAMT>").append(income ? "" : "-").append(random.nextInt(500_000) / 100.0 + 1)
+                    .append("<FITID>").append(i)
+                    .append("<NAME>").append(TITLES[random.nextInt(TITLES.length)]).append(" &amp; co ").append(random.nextInt(100))
+                    .append("<MEMO>Statement row ").append(i)
+                    .append("</STMTTRN>\n");
+        }
+        ofx.append("</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>\n");
+        return ofx.toString();
+    }
+}
@@ -0,0 +1,169 @@
+package com.vishnu.expensetracker.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write bursts against RefreshScheduler: coalescing, no overlapping runs, last write reflected
+ */
+public class RefreshSchedulerTest {
+
+    private static final long DEBOUNCE_MS = 150;
+
+    // Delayed and executed tasks are queued here and run by the test, one at a time
+    private final Queue<Runnable> delayed = new ArrayDeque<>();
+    private final Queue<Runnable> executed = new ArrayDeque<>();
+    private ExecutorService pool;
+
+    @After
+    public void shutDown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void burstRunsOnceAfterTheDebounce() {
+        AtomicInteger runs = new AtomicInteger();
+        RefreshScheduler scheduler = new RefreshScheduler(executed::add, runs::incrementAndGet, DEBOUNCE_MS,
+                (task, delayMillis) -> {
+                    assertEquals(DEBOUNCE_MS, delayMillis);
+                    delayed.add(task);
+                });
+
+        for (int i = 0; i < 100; i++) {
+            scheduler.request();
+        }
+        assertEquals(1, delayed.size());
+        assertTrue(executed.isEmpty());
+
+        delayed.remove().run();
+        executed.remove().run();
+        assertEquals(1, runs.get());
+        assertEquals(100, scheduler.getRequestCount());
+        assertEquals(1, scheduler.getRunCount());
+        assertEquals(99, scheduler.getCoalescedCount());
+        assertFalse(scheduler.isPending());
+    }
+
+    @Test
+    public void requestsDuringARunStartOneMoreRunAfterIt() {
+        AtomicInteger runs = new AtomicInteger();
+        RefreshScheduler[] scheduler = new RefreshScheduler[1];
+        scheduler[0] = new RefreshScheduler(executed::add, () -> {
+            if (runs.incrementAndGet() == 1) {
+                // Writes landing while the first refresh reads
+                for (int i = 0; i < 10; i++) {
+                    scheduler[0].request();
+                }
+                assertTrue(delayed.isEmpty());
+                assertTrue(executed.isEmpty());
+            }
+        }, DEBOUNCE_MS, (task, delayMillis) -> delayed.add(task));
+
+        scheduler[0].request();
+        delayed.remove().run();
+        executed.remove().run();
+        assertEquals(1, runs.get());
+        assertEquals(1, delayed.size());
+        assertTrue(scheduler[0].isPending());
+
+        delayed.remove().run();
+        executed.remove().run();
+        assertEquals(2, runs.get());
+        assertTrue(delayed.isEmpty());
+        assertFalse(scheduler[0].isPending());
+        assertEquals(11, scheduler[0].getRequestCount());
+        assertEquals(9, scheduler[0].getCoalescedCount());
+    }
+
+    @Test
+    public void suspendedRequestsRunOnceOnResume() {
+        AtomicInteger runs = new AtomicInteger();
+        RefreshScheduler scheduler = new RefreshScheduler(executed::add, runs::incrementAndGet, 0,
+                (task, delayMillis) -> delayed.add(task));
+
+        scheduler.suspend();
+        for (int i = 0; i < 1000; i++) {
+            scheduler.request();
+        }
+        assertTrue(executed.isEmpty());
+        assertFalse(scheduler.isPending());
+
+        scheduler.resume();
+        assertEquals(1, executed.size());
+        executed.remove().run();
+        assertEquals(1, runs.get());
+        assertEquals(1000, scheduler.getRequestCount());
+        assertEquals(999, scheduler.getCoalescedCount());
+    }
+
+    @Test
+    public void resumeWithoutRequestsDoesNotRun() {
+        RefreshScheduler scheduler = new RefreshScheduler(executed::add, () -> { }, 0,
+                (task, delayMillis) -> delayed.add(task));
+        scheduler.suspend();
+        scheduler.resume();
+        assertTrue(executed.isEmpty());
+        assertEquals(0, scheduler.getRequestCount());
+    }
+
+    @Test
+    public void writeBurstOnAPoolNeverOverlapsAndPublishesTheLastWrite() throws Exception {
+        pool = Executors.newFixedThreadPool(3);
+        AtomicLong written = new AtomicLong();
+        AtomicLong published = new AtomicLong(-1);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        RefreshScheduler scheduler = new RefreshScheduler(pool, () -> {
+            int running = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(running, Math::max);
+            long seen = written.get();
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // A run that overlapped a newer one could publish an older value last
+            published.set(seen);
+            inFlight.decrementAndGet();
+        }, 0, (task, delayMillis) -> pool.execute(task));
+
+        int writers = 4;
+        int writesPerWriter = 2000;
+        CountDownLatch done = new CountDownLatch(writers);
+        for (int w = 0; w < writers; w++) {
+            new Thread(() -> {
+                for (int i = 0; i < writesPerWriter; i++) {
+                    written.incrementAndGet();
+                    scheduler.request();
+                }
+                done.countDown();
+            }).start();
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (scheduler.isPending() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertFalse(scheduler.isPending());
+        assertEquals(1, maxInFlight.get());
+        assertEquals(writers * writesPerWriter, published.get());
+        assertEquals(writers * writesPerWriter, scheduler.getRequestCount());
+        assertTrue(scheduler.getRunCount() < scheduler.getRequestCount());
+        assertEquals(scheduler.getRequestCount() - scheduler.getRunCount(), scheduler.getCoalescedCount());
+    }
+}